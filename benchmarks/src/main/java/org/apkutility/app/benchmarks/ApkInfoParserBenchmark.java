@@ -0,0 +1,119 @@
+package org.apkutility.app.benchmarks;
+
+import org.apkutility.app.utils.ApkInfoParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * The Info tab parser on synthetic APKEditor info output: the scanner against the original regular expressions,
+ * on a whole string and, like the Info tab, on chunks as they arrive.
+ * <p>
+ * {@code java -jar target/benchmarks.jar ApkInfoParser -prof gc} also reports allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApkInfoParserBenchmark {
+
+    // Output arrives from the process reader in batches of about this size
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int lines;
+
+    private String output;
+
+    @Setup
+    public void setUp() {
+        output = output(lines);
+    }
+
+    @Benchmark
+    public ApkInfoParser.ApkInfo scanner() {
+        return ApkInfoParser.parse(output);
+    }
+
+    @Benchmark
+    public ApkInfoParser.ApkInfo regex() {
+        return ApkInfoParser.parseWithRegex(output);
+    }
+
+    @Benchmark
+    public ApkInfoParser.ApkInfo scannerChunked() {
+        ApkInfoParser.ApkInfo info = new ApkInfoParser.ApkInfo();
+        ApkInfoParser.StreamParser parser = new ApkInfoParser.StreamParser(info::apply);
+        for (int start = 0; start < output.length(); start += CHUNK_SIZE) {
+            parser.feed(output.subSequence(start, Math.min(output.length(), start + CHUNK_SIZE)));
+        }
+        parser.finish();
+        return info;
+    }
+
+    /**
+     * Info output of the given length: general fields, then permission, locale and configuration lists, dex
+     * blocks and a certificate block, repeated until there are enough lines. Most lines are list items and block
+     * lines, as in the output of a large APK.
+     */
+    static String output(int lines) {
+        StringBuilder out = new StringBuilder(lines * 40);
+        int count = 0;
+        int round = 0;
+        while (count < lines) {
+            String[] section = section(round++);
+            for (int i = 0; i < section.length && count < lines; i++, count++) {
+                out.append(section[i]).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String[] section(int round) {
+        return switch (round % 6) {
+            case 0 -> new String[]{
+                    "package=\"com.example.app" + round + "\"",
+                    "VersionCode=\"" + round + "\"",
+                    "VersionName=\"1.0." + round + "\"",
+                    "MinSdkVersion=\"21\"",
+                    "TargetSdkVersion=\"34\"",
+                    "AppName=\"Example App\"",
+                    "AppClass=\"com.example.app.ExampleApplication\"",
+                    "Debuggable=\"false\""};
+            case 1 -> list("uses-permission", 40, i -> "android.permission.PERMISSION_" + i);
+            case 2 -> list("locales", 60, i -> "l" + i);
+            case 3 -> list("configurations", 20, i -> i % 2 == 0 ? "hdpi" : "xxhdpi-v26");
+            case 4 -> {
+                String[] block = new String[12];
+                block[0] = "Name=\"classes" + (round / 6 + 2) + ".dex\"";
+                for (int i = 1; i < block.length; i++) block[i] = "  Field" + i + "=\"" + (i * 1031) + "\"";
+                yield block;
+            }
+            default -> new String[]{
+                    "Certificates=\"1\"",
+                    "  Subject: CN=Example, OU=Apps, O=Example",
+                    "  Issuer: CN=Example, OU=Apps, O=Example",
+                    "  SHA-256: 5f3e8a9c0b1d2e4f6a7b8c9d0e1f2a3b4c5d6e7f8091a2b3c4d5e6f708192a3b"};
+        };
+    }
+
+    private static String[] list(String name, int size, IntFunction<String> item) {
+        String[] lines = new String[size + 1];
+        lines[0] = name + " [ count " + size + "]";
+        for (int i = 1; i <= size; i++) lines[i] = "  " + i + ") " + item.apply(i);
+        return lines;
+    }
+}
@@ -10,13 +10,16 @@ module org.apkutility.app {
     // requires eu.hansolo.tilesfx; // Removed
     requires java.logging;
     requires java.desktop;
+    requires java.management;
 
     opens org.apkutility.app to javafx.fxml;
     exports org.apkutility.app;
     exports org.apkutility.app.views;
     opens org.apkutility.app.views to javafx.fxml;
+    exports org.apkutility.app.apk;
     exports org.apkutility.app.services;
     opens org.apkutility.app.services to javafx.fxml;
+    exports org.apkutility.app.services.engine;
     exports org.apkutility.app.utils;
     opens org.apkutility.app.utils to javafx.fxml;
     exports org.apkutility.app.views.tabs;
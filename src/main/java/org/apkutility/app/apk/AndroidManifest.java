@@ -0,0 +1,185 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed view of an APK's {@code AndroidManifest.xml}, decoded in-process from the binary XML.
+ * <p>
+ * Only the central directory and the manifest entry are read, so this answers the questions usually sent
+ * to {@code aapt dump badging} (package, versions, SDK levels, permissions, components) in milliseconds and
+ * without aapt installed. Attributes pointing at resources, such as the application label, are kept as
+ * {@code @0x...} ids.
+ */
+public record AndroidManifest(String packageName, long versionCode, String versionName,
+                              Integer minSdk, Integer targetSdk, Integer maxSdk,
+                              Integer compileSdk, String compileSdkCodename,
+                              String applicationLabel, String applicationIcon, String applicationClass,
+                              boolean debuggable, String launchableActivity,
+                              List<String> permissions, List<Feature> features,
+                              List<Component> activities, List<Component> services,
+                              List<Component> receivers, List<Component> providers,
+                              BinaryXml.Element root) {
+
+    public static final String ENTRY_NAME = "AndroidManifest.xml";
+    private static final int MAX_MANIFEST_SIZE = 64 * 1024 * 1024;
+
+    // Framework attribute ids (android.R.attr), used first since obfuscated APKs may strip attribute names
+    private static final int ATTR_LABEL = 0x01010001;
+    private static final int ATTR_ICON = 0x01010002;
+    private static final int ATTR_NAME = 0x01010003;
+    private static final int ATTR_DEBUGGABLE = 0x0101000f;
+    private static final int ATTR_EXPORTED = 0x01010010;
+    private static final int ATTR_MIN_SDK_VERSION = 0x0101020c;
+    private static final int ATTR_VERSION_CODE = 0x0101021b;
+    private static final int ATTR_VERSION_NAME = 0x0101021c;
+    private static final int ATTR_TARGET_SDK_VERSION = 0x01010270;
+    private static final int ATTR_MAX_SDK_VERSION = 0x01010271;
+    private static final int ATTR_REQUIRED = 0x0101028e;
+    private static final int ATTR_GL_ES_VERSION = 0x01010281;
+    private static final int ATTR_COMPILE_SDK_VERSION = 0x01010572;
+    private static final int ATTR_COMPILE_SDK_VERSION_CODENAME = 0x01010573;
+    private static final int ATTR_VERSION_CODE_MAJOR = 0x01010576;
+
+    private static final String ACTION_MAIN = "android.intent.action.MAIN";
+    private static final String CATEGORY_LAUNCHER = "android.intent.category.LAUNCHER";
+
+    /**
+     * @param exported null when the attribute is absent and the platform default applies
+     */
+    public record Component(String name, Boolean exported, List<String> actions, List<String> categories) {
+    }
+
+    /**
+     * A {@code <uses-feature>}; OpenGL ES requirements have no name and are reported as {@code glEsVersion=0x...}.
+     */
+    public record Feature(String name, boolean required) {
+    }
+
+    public static AndroidManifest read(Path apk) throws IOException {
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            return read(channel, ZipCentralDirectory.read(channel));
+        }
+    }
+
+    /** Reads the manifest of an APK whose central directory was already read from {@code channel}. */
+    public static AndroidManifest read(FileChannel channel, ZipCentralDirectory cd) throws IOException {
+        ZipCentralDirectory.Entry entry = ZipEntryReader.find(cd, ENTRY_NAME);
+        if (entry == null) throw new IOException("No " + ENTRY_NAME + " in the APK");
+        return parse(BinaryXml.parse(ZipEntryReader.read(channel, entry, MAX_MANIFEST_SIZE)));
+    }
+
+    public static AndroidManifest parse(BinaryXml.Element root) throws IOException {
+        if (!root.name().equals("manifest")) throw new IOException("Root element is <" + root.name() + ">, not <manifest>");
+
+        BinaryXml.Attribute code = root.attribute(ATTR_VERSION_CODE, "versionCode");
+        BinaryXml.Attribute codeMajor = root.attribute(ATTR_VERSION_CODE_MAJOR, "versionCodeMajor");
+        long versionCode = (code != null && code.intValue() != null ? Integer.toUnsignedLong(code.intValue()) : 0)
+                | (codeMajor != null && codeMajor.intValue() != null ? (long) codeMajor.intValue() << 32 : 0);
+
+        Integer minSdk = null, targetSdk = null, maxSdk = null;
+        for (BinaryXml.Element usesSdk : root.children("uses-sdk")) {
+            minSdk = intValue(usesSdk, ATTR_MIN_SDK_VERSION, "minSdkVersion");
+            targetSdk = intValue(usesSdk, ATTR_TARGET_SDK_VERSION, "targetSdkVersion");
+            maxSdk = intValue(usesSdk, ATTR_MAX_SDK_VERSION, "maxSdkVersion");
+        }
+        // Like the platform, a missing targetSdkVersion defaults to minSdkVersion
+        if (targetSdk == null) targetSdk = minSdk;
+
+        List<String> permissions = new ArrayList<>();
+        for (BinaryXml.Element child : root.children()) {
+            if (child.name().startsWith("uses-permission")) {
+                String name = child.value(ATTR_NAME, "name");
+                if (name != null) permissions.add(name);
+            }
+        }
+
+        List<Feature> features = new ArrayList<>();
+        for (BinaryXml.Element usesFeature : root.children("uses-feature")) {
+            BinaryXml.Attribute required = usesFeature.attribute(ATTR_REQUIRED, "required");
+            String name = usesFeature.value(ATTR_NAME, "name");
+            if (name == null) {
+                BinaryXml.Attribute glEs = usesFeature.attribute(ATTR_GL_ES_VERSION, "glEsVersion");
+                if (glEs == null) continue;
+                name = "glEsVersion=" + BinaryXml.formatValue(BinaryXml.TYPE_INT_HEX, glEs.data(), null);
+            }
+            features.add(new Feature(name, required == null || required.booleanValue()));
+        }
+
+        String packageName = root.value(0, "package");
+        String label = null, icon = null, applicationClass = null, launchable = null;
+        boolean debuggable = false;
+        List<Component> activities = new ArrayList<>();
+        List<Component> services = new ArrayList<>();
+        List<Component> receivers = new ArrayList<>();
+        List<Component> providers = new ArrayList<>();
+        for (BinaryXml.Element application : root.children("application")) {
+            label = application.value(ATTR_LABEL, "label");
+            icon = application.value(ATTR_ICON, "icon");
+            applicationClass = qualify(packageName, application.value(ATTR_NAME, "name"));
+            BinaryXml.Attribute debug = application.attribute(ATTR_DEBUGGABLE, "debuggable");
+            debuggable = debug != null && debug.booleanValue();
+
+            for (BinaryXml.Element child : application.children()) {
+                List<Component> target = switch (child.name()) {
+                    case "activity", "activity-alias" -> activities;
+                    case "service" -> services;
+                    case "receiver" -> receivers;
+                    case "provider" -> providers;
+                    default -> null;
+                };
+                if (target == null) continue;
+                Component component = component(packageName, child);
+                target.add(component);
+                if (launchable == null && target == activities
+                        && component.actions().contains(ACTION_MAIN) && component.categories().contains(CATEGORY_LAUNCHER)) {
+                    launchable = component.name();
+                }
+            }
+        }
+
+        return new AndroidManifest(packageName, versionCode, root.value(ATTR_VERSION_NAME, "versionName"),
+                minSdk, targetSdk, maxSdk,
+                intValue(root, ATTR_COMPILE_SDK_VERSION, "compileSdkVersion"),
+                root.value(ATTR_COMPILE_SDK_VERSION_CODENAME, "compileSdkVersionCodename"),
+                label, icon, applicationClass, debuggable, launchable,
+                List.copyOf(permissions), List.copyOf(features),
+                List.copyOf(activities), List.copyOf(services), List.copyOf(receivers), List.copyOf(providers),
+                root);
+    }
+
+    private static Component component(String packageName, BinaryXml.Element element) {
+        List<String> actions = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        for (BinaryXml.Element filter : element.children("intent-filter")) {
+            for (BinaryXml.Element action : filter.children("action")) {
+                String name = action.value(ATTR_NAME, "name");
+                if (name != null) actions.add(name);
+            }
+            for (BinaryXml.Element category : filter.children("category")) {
+                String name = category.value(ATTR_NAME, "name");
+                if (name != null) categories.add(name);
+            }
+        }
+        BinaryXml.Attribute exported = element.attribute(ATTR_EXPORTED, "exported");
+        return new Component(qualify(packageName, element.value(ATTR_NAME, "name")),
+                exported != null ? exported.booleanValue() : null,
+                List.copyOf(actions), List.copyOf(categories));
+    }
+
+    private static Integer intValue(BinaryXml.Element element, int resourceId, String name) {
+        BinaryXml.Attribute attribute = element.attribute(resourceId, name);
+        return attribute != null ? attribute.intValue() : null;
+    }
+
+    // Class names starting with '.' (or without any package) are relative to the manifest package
+    private static String qualify(String packageName, String className) {
+        if (className == null || packageName == null || className.startsWith("@")) return className;
+        if (className.startsWith(".")) return packageName + className;
+        return className.contains(".") ? className : packageName + "." + className;
+    }
+}
@@ -0,0 +1,263 @@
+package org.apkutility.app.apk;
+
+import org.apkutility.app.apk.signing.ApkSigningBlock;
+import org.apkutility.app.apk.signing.ChunkedDigester;
+import org.apkutility.app.apk.signing.SigningKey;
+import org.apkutility.app.apk.signing.V1SchemeSigner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Aligns and signs an APK in a single pass: every entry is read once from a memory mapping, written once to
+ * the output, and on the way fed to the v1 per-entry digests and the v2/v3 chunked content digest.
+ * The v1 signature files are appended after the entries; the APK Signing Block, central directory and
+ * end of central directory (kept in memory) are written last. The v1 digest is picked from the manifest's
+ * minSdkVersion, so APKs that still run below API 18 get a SHA-1 JAR signature they can verify.
+ */
+public class ApkAlignSigner {
+
+    // 2008-01-01 00:00 in MS-DOS format, like other reproducible APK tools
+    private static final short DOS_TIME = 0;
+    private static final short DOS_DATE = (short) ((28 << 9) | (1 << 5) | 1);
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int COPY_CHUNK = 4 * 1024 * 1024;
+
+    private final SigningKey key;
+    private final ZipAligner aligner;
+    private final boolean v1;
+    private final boolean v2;
+    private final boolean v3;
+
+    public ApkAlignSigner(SigningKey key, ZipAligner aligner, boolean v1, boolean v2, boolean v3) {
+        this.key = key;
+        this.aligner = aligner;
+        this.v1 = v1;
+        this.v2 = v2;
+        this.v3 = v3;
+    }
+
+    public record Result(int entries, long bytesRead, long bytesWritten, long millis) {
+    }
+
+    /**
+     * @param progress receives the number of bytes written so far after every entry
+     */
+    public Result alignAndSign(Path input, Path output, LongConsumer progress) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        Path absoluteOutput = output.toAbsolutePath();
+        Path temp = absoluteOutput.resolveSibling(absoluteOutput.getFileName() + ".signing");
+
+        Result result;
+        try {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (in.size() > Integer.MAX_VALUE) throw new IOException("APK larger than 2 GB");
+                MappedByteBuffer file = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                file.order(ByteOrder.LITTLE_ENDIAN);
+
+                ZipCentralDirectory cd = ZipCentralDirectory.read(file);
+                Sink sink = new Sink(out, v2 || v3 ? new ChunkedDigester() : null);
+                V1SchemeSigner v1Signer = v1 ? new V1SchemeSigner(key, minSdk(in, cd)) : null;
+                ByteArrayOutputStream newCd = new ByteArrayOutputStream((int) cd.getSize());
+                EntryDigester entryDigester = v1Signer != null ? new EntryDigester(v1Signer.digestAlgorithm()) : null;
+                int entries = 0;
+                long bytesRead = 0;
+
+                for (ZipCentralDirectory.Entry entry : cd.getEntriesInFileOrder()) {
+                    // An existing JAR signature is replaced (or removed when v1 is off)
+                    if (V1SchemeSigner.isSignatureFile(entry.name())) continue;
+
+                    long newOffset = out.position();
+                    ZipAligner.LocalHeader header = ZipAligner.LocalHeader.read(file, entry);
+                    ByteBuffer data = file.slice((int) header.dataOffset, (int) header.dataLength);
+
+                    if (v1Signer != null && !entry.name().endsWith("/")) {
+                        v1Signer.addEntry(entry.name(), entryDigester.digest(entry, data.slice(0, (int) entry.compressedSize())));
+                    }
+                    sink.write(aligner.rewriteLocalHeader(header, entry, newOffset));
+                    sink.write(data);
+                    newCd.writeBytes(ZipAligner.relocatedCentralRecord(entry, newOffset));
+
+                    bytesRead += header.headerLength + header.dataLength;
+                    entries++;
+                    if (progress != null) progress.accept(out.position());
+                }
+
+                if (v1Signer != null) {
+                    List<Integer> schemes = new ArrayList<>();
+                    if (v2) schemes.add(2);
+                    if (v3) schemes.add(3);
+                    for (V1SchemeSigner.GeneratedEntry generated : v1Signer.sign(schemes)) {
+                        long newOffset = out.position();
+                        writeStoredEntry(sink, newCd, generated, newOffset);
+                        entries++;
+                    }
+                }
+
+                if (sink.digester != null) {
+                    // Like apksigner, the signing block starts on a page boundary; the zeros are part of the entries section
+                    int remainder = (int) (out.position() % ApkSigningBlock.PAGE_ALIGNMENT);
+                    if (remainder != 0) sink.write(ByteBuffer.allocate(ApkSigningBlock.PAGE_ALIGNMENT - remainder));
+                }
+
+                long entriesEnd = out.position();
+                byte[] centralDirectory = newCd.toByteArray();
+                ByteBuffer eocd = cd.getEocd();
+                eocd.putShort(8, (short) entries);
+                eocd.putShort(10, (short) entries);
+                eocd.putInt(12, centralDirectory.length);
+                eocd.putInt(16, (int) entriesEnd);
+                bytesRead += cd.getSize() + eocd.capacity();
+
+                if (sink.digester != null) {
+                    ChunkedDigester digester = sink.digester;
+                    digester.endSection();
+                    digester.update(centralDirectory);
+                    digester.endSection();
+                    // The digested EOCD points at the start of the signing block, i.e. where the directory was
+                    digester.update(eocd.duplicate().rewind());
+                    byte[] contentDigest = digester.digest();
+
+                    Map<Integer, byte[]> pairs = new LinkedHashMap<>();
+                    if (v2) pairs.put(ApkSigningBlock.V2_BLOCK_ID, ApkSigningBlock.v2Value(key, contentDigest, v3));
+                    if (v3) pairs.put(ApkSigningBlock.V3_BLOCK_ID, ApkSigningBlock.v3Value(key, contentDigest));
+                    byte[] signingBlock = ApkSigningBlock.assemble(pairs);
+                    writeFully(out, ByteBuffer.wrap(signingBlock));
+                    eocd.putInt(16, (int) (entriesEnd + signingBlock.length));
+                }
+
+                writeFully(out, ByteBuffer.wrap(centralDirectory));
+                writeFully(out, eocd.rewind());
+                result = new Result(entries, bytesRead, out.position(), (System.nanoTime() - start) / 1_000_000);
+            }
+            // Both channels are closed by now: Windows cannot replace a file that is still open
+            Files.move(temp, absoluteOutput, StandardCopyOption.REPLACE_EXISTING);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // The v1 digest depends on the oldest platform that has to verify it; without a declared minSdkVersion that is API 1
+    private static int minSdk(FileChannel channel, ZipCentralDirectory cd) throws IOException {
+        Integer minSdk = AndroidManifest.read(channel, cd).minSdk();
+        return minSdk != null ? minSdk : 1;
+    }
+
+    private void writeStoredEntry(Sink sink, ByteArrayOutputStream newCd, V1SchemeSigner.GeneratedEntry generated,
+                                  long offset) throws IOException {
+        byte[] name = generated.name().getBytes(StandardCharsets.UTF_8);
+        byte[] data = generated.data();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        byte[] extra = ZipAligner.alignedExtra(new byte[0], offset + ZipCentralDirectory.LOCAL_HEADER_SIZE + name.length,
+                ZipAligner.DEFAULT_ALIGNMENT);
+
+        ByteBuffer local = ByteBuffer.allocate(ZipCentralDirectory.LOCAL_HEADER_SIZE + name.length + extra.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        local.putInt(ZipCentralDirectory.LOCAL_HEADER_SIGNATURE)
+             .putShort((short) 10).putShort((short) 0).putShort((short) 0)
+             .putShort(DOS_TIME).putShort(DOS_DATE)
+             .putInt((int) crc.getValue()).putInt(data.length).putInt(data.length)
+             .putShort((short) name.length).putShort((short) extra.length)
+             .put(name).put(extra).flip();
+        sink.write(local);
+        sink.write(ByteBuffer.wrap(data));
+
+        ByteBuffer central = ByteBuffer.allocate(46 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        central.putInt(CENTRAL_HEADER_SIGNATURE)
+               .putShort((short) 20).putShort((short) 10).putShort((short) 0).putShort((short) 0)
+               .putShort(DOS_TIME).putShort(DOS_DATE)
+               .putInt((int) crc.getValue()).putInt(data.length).putInt(data.length)
+               .putShort((short) name.length).putShort((short) 0).putShort((short) 0)
+               .putShort((short) 0).putShort((short) 0).putInt(0)
+               .putInt((int) offset)
+               .put(name);
+        newCd.writeBytes(central.array());
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    /**
+     * Output of the entries section: everything written here is also fed to the v2/v3 content digest.
+     */
+    private static final class Sink {
+        private final FileChannel out;
+        private final ChunkedDigester digester;
+
+        Sink(FileChannel out, ChunkedDigester digester) {
+            this.out = out;
+            this.digester = digester;
+        }
+
+        void write(ByteBuffer buffer) throws IOException {
+            // Large entries go out in slices so the digest works on data that is still in the CPU cache
+            while (buffer.hasRemaining()) {
+                int n = Math.min(COPY_CHUNK, buffer.remaining());
+                ByteBuffer slice = buffer.slice(buffer.position(), n);
+                if (digester != null) digester.update(slice.duplicate());
+                writeFully(out, slice);
+                buffer.position(buffer.position() + n);
+            }
+        }
+    }
+
+    /**
+     * Digest of an entry's uncompressed content, inflating deflated entries into a reused buffer.
+     */
+    private static final class EntryDigester {
+        private final MessageDigest digest;
+        private final Inflater inflater = new Inflater(true);
+        private final ByteBuffer inflated = ByteBuffer.allocate(256 * 1024);
+
+        EntryDigester(String algorithm) throws GeneralSecurityException {
+            digest = MessageDigest.getInstance(algorithm);
+        }
+
+        byte[] digest(ZipCentralDirectory.Entry entry, ByteBuffer compressed) throws IOException {
+            if (entry.isStored()) {
+                digest.update(compressed);
+                return digest.digest();
+            }
+            if (entry.method() != 8) throw new IOException("Unsupported compression method " + entry.method() + " for " + entry.name());
+
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                while (!inflater.finished()) {
+                    inflated.clear();
+                    int n = inflater.inflate(inflated);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated deflate data in " + entry.name());
+                    }
+                    digest.update(inflated.flip());
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt deflate data in " + entry.name(), e);
+            }
+            return digest.digest();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.apkutility.app.apk;
+
+import org.apkutility.app.apk.signing.ApkSigningBlock;
+import org.apkutility.app.apk.signing.ChunkedDigester;
+import org.apkutility.app.apk.signing.ParallelChunkDigester;
+import org.apkutility.app.apk.signing.SigningKey;
+import org.apkutility.app.apk.signing.V4SchemeSigner;
+import org.apkutility.app.apk.signing.V1SchemeSigner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Adds v2/v3 signatures to an APK without rewriting its entries, like {@code apksigner sign} with v1 disabled,
+ * and optionally writes the v4 signature next to the output ({@code <output>.idsig}).
+ * <p>
+ * The input is memory-mapped, an existing APK Signing Block is dropped, and the content digest is computed
+ * with the 1 MB chunks spread over a fork/join pool. The output is the entries copied as-is, zero padding
+ * up to the next 4 KB boundary, the new signing block, the central directory and the end of central directory.
+ */
+public class ApkSchemeSigner {
+
+    private final SigningKey key;
+    private final boolean v2;
+    private final boolean v3;
+    private final boolean v4;
+    private final ForkJoinPool pool;
+    private final ParallelChunkDigester digester;
+
+    public ApkSchemeSigner(SigningKey key, boolean v2, boolean v3, boolean v4, ForkJoinPool pool) {
+        this.key = key;
+        this.v2 = v2;
+        this.v3 = v3;
+        this.v4 = v4;
+        this.pool = pool;
+        this.digester = new ParallelChunkDigester(pool);
+    }
+
+    /**
+     * @param v4Millis time spent on the v4 signature (Merkle tree and .idsig), 0 without v4
+     */
+    public record Result(long bytesWritten, long digestMillis, long v4Millis, long millis) {
+    }
+
+    /**
+     * True if the APK carries a JAR (v1) signature. Such APKs must go through a v1-aware signer:
+     * keeping the old signature next to new v2/v3 signatures from another key fails verification.
+     */
+    public static boolean hasJarSignature(Path apk) throws IOException {
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            return ZipCentralDirectory.read(channel).getEntries().stream()
+                    .anyMatch(entry -> V1SchemeSigner.isSignatureFile(entry.name()));
+        }
+    }
+
+    public Result sign(Path input, Path output) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        Path absoluteOutput = output.toAbsolutePath();
+        Path temp = absoluteOutput.resolveSibling(absoluteOutput.getFileName() + ".signing");
+
+        long bytesWritten;
+        long digestMillis;
+        byte[] contentDigest;
+        try {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (in.size() > Integer.MAX_VALUE) throw new IOException("APK larger than 2 GB");
+                MappedByteBuffer file = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                file.order(ByteOrder.LITTLE_ENDIAN);
+
+                ZipCentralDirectory cd = ZipCentralDirectory.read(file);
+                int cdOffset = (int) cd.getOffset();
+                int cdSize = (int) cd.getSize();
+                int entriesEnd = signingBlockStart(file, cdOffset);
+                // Like apksigner, zeros after the entries start the signing block on a page boundary
+                ByteBuffer padding = ByteBuffer.allocate(paddingBefore(entriesEnd));
+                int blockStart = entriesEnd + padding.capacity();
+                // The padding belongs to the entries section, so it is digested together with the last partial chunk
+                int wholeChunks = entriesEnd - entriesEnd % ChunkedDigester.CHUNK_SIZE;
+                ByteBuffer entriesTail = ByteBuffer.allocate(blockStart - wholeChunks)
+                        .put(file.slice(wholeChunks, entriesEnd - wholeChunks))
+                        .put(padding.duplicate())
+                        .flip();
+
+                // The digested EOCD points at the start of the signing block
+                ByteBuffer eocd = cd.getEocd();
+                eocd.putInt(16, blockStart);
+
+                long digestStart = System.nanoTime();
+                contentDigest = digester.digest(
+                        file.slice(0, wholeChunks),
+                        entriesTail,
+                        file.slice(cdOffset, cdSize),
+                        eocd.duplicate().rewind());
+                digestMillis = (System.nanoTime() - digestStart) / 1_000_000;
+
+                Map<Integer, byte[]> pairs = new LinkedHashMap<>();
+                if (v2) pairs.put(ApkSigningBlock.V2_BLOCK_ID, ApkSigningBlock.v2Value(key, contentDigest, v3));
+                if (v3) pairs.put(ApkSigningBlock.V3_BLOCK_ID, ApkSigningBlock.v3Value(key, contentDigest));
+                byte[] signingBlock = ApkSigningBlock.assemble(pairs);
+                eocd.putInt(16, blockStart + signingBlock.length);
+
+                transferFully(in, 0, entriesEnd, out);
+                writeFully(out, padding);
+                writeFully(out, ByteBuffer.wrap(signingBlock));
+                transferFully(in, cdOffset, cdSize, out);
+                writeFully(out, eocd.rewind());
+                bytesWritten = out.position();
+            }
+            // Both channels are closed by now: Windows cannot replace a file that is still open
+            Files.move(temp, absoluteOutput, StandardCopyOption.REPLACE_EXISTING);
+
+            // v4 covers the final file, signing block included, and reuses the v2/v3 content digest
+            long v4Millis = v4
+                    ? V4SchemeSigner.sign(absoluteOutput, idsigPath(absoluteOutput), key, contentDigest, pool).millis()
+                    : 0;
+            return new Result(bytesWritten, digestMillis, v4Millis, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static Path idsigPath(Path apk) {
+        return apk.resolveSibling(apk.getFileName() + ".idsig");
+    }
+
+    /**
+     * Offset of an existing APK Signing Block right before the central directory, or the central directory
+     * offset itself when there is none.
+     */
+    static int signingBlockStart(ByteBuffer file, int cdOffset) throws IOException {
+        byte[] magic = ApkSigningBlock.MAGIC;
+        if (cdOffset < magic.length + 16) return cdOffset;
+        if (!file.slice(cdOffset - magic.length, magic.length).equals(ByteBuffer.wrap(magic))) return cdOffset;
+
+        long size = file.getLong(cdOffset - magic.length - 8);
+        long start = cdOffset - size - 8;
+        if (size < magic.length + 8 || start < 0 || file.getLong((int) start) != size) {
+            throw new IOException("Corrupt APK Signing Block");
+        }
+        return (int) start;
+    }
+
+    private static int paddingBefore(int offset) {
+        int remainder = offset % ApkSigningBlock.PAGE_ALIGNMENT;
+        return remainder == 0 ? 0 : ApkSigningBlock.PAGE_ALIGNMENT - remainder;
+    }
+
+    private static void transferFully(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        while (count > 0) {
+            long n = in.transferTo(position, count, out);
+            position += n;
+            count -= n;
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+}
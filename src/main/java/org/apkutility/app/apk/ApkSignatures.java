@@ -0,0 +1,272 @@
+package org.apkutility.app.apk;
+
+import org.apkutility.app.apk.signing.ApkSigningBlock;
+import org.apkutility.app.apk.signing.V1SchemeSigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.DSAPublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Signers of an APK read from its APK Signing Block (v2, v3 and v3.1), without verifying anything.
+ * <p>
+ * The block is found through the end of central directory, which points at the central directory the block
+ * sits right before, so only the directory record and the block itself are read. For each signer this gives
+ * the certificates with their fingerprints, the key type and size, the SDK range (v3/v3.1) and the
+ * key rotation lineage (v3 proof-of-rotation attribute).
+ */
+public record ApkSignatures(long blockOffset, long blockSize, List<Integer> blockIds, boolean jarSigned,
+                            List<Signer> signers) {
+
+    public static final int V31_BLOCK_ID = 0x1b93ad61;
+    private static final int PROOF_OF_ROTATION_ATTRIBUTE_ID = 0x3ba06f8c;
+    private static final int ROTATION_MIN_SDK_ATTRIBUTE_ID = 0x559f8b02;
+    // Real blocks are a few KB; this only guards against corrupt sizes
+    private static final long MAX_BLOCK_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_SIGNATURE_FILE_SIZE = 1024 * 1024;
+
+    /**
+     * @param scheme   "v2", "v3" or "v3.1"
+     * @param minSdk   lowest SDK the signer applies to; null for v2, which has no range
+     * @param lineage  certificates of the rotation lineage, oldest first; empty without key rotation
+     */
+    public record Signer(String scheme, List<Certificate> certificates, String keyAlgorithm, int keySize,
+                         List<Integer> signatureAlgorithms, Integer minSdk, Integer maxSdk,
+                         Integer rotationMinSdk, List<LineageNode> lineage) {
+
+        public Certificate certificate() {
+            return certificates.isEmpty() ? null : certificates.get(0);
+        }
+    }
+
+    public record Certificate(X509Certificate x509, String sha256, String sha1, String md5) {
+    }
+
+    /**
+     * @param flags capabilities granted to this key by the next one (installed data, shared UID, permissions...)
+     */
+    public record LineageNode(Certificate certificate, int flags) {
+    }
+
+    public boolean hasBlock() {
+        return blockOffset >= 0;
+    }
+
+    /** Human-readable summary, one signer after the other, in the style of {@code apksigner verify --print-certs}. */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!hasBlock()) {
+            lines.add(jarSigned ? "No APK Signing Block (v1 JAR signature only)" : "No APK Signing Block");
+            return lines;
+        }
+        lines.add(String.format("APK Signing Block: %d bytes at offset %d, %d pairs%s", blockSize, blockOffset,
+                blockIds.size(), jarSigned ? ", plus a v1 JAR signature" : ""));
+        int number = 1;
+        for (Signer signer : signers) {
+            String prefix = "Signer #" + number++ + " (" + signer.scheme() + ")";
+            Certificate certificate = signer.certificate();
+            if (certificate != null) {
+                lines.add(prefix + " certificate DN: " + certificate.x509().getSubjectX500Principal().getName());
+                lines.add(prefix + " certificate SHA-256 digest: " + certificate.sha256());
+                lines.add(prefix + " certificate SHA-1 digest: " + certificate.sha1());
+                lines.add(prefix + " certificate MD5 digest: " + certificate.md5());
+                lines.add(prefix + " valid until: " + certificate.x509().getNotAfter().toInstant());
+            }
+            lines.add(prefix + " key: " + signer.keyAlgorithm() + " " + signer.keySize() + " bits, signature algorithms "
+                    + signer.signatureAlgorithms().stream().map(id -> String.format("0x%04x", id)).toList());
+            if (signer.minSdk() != null) {
+                lines.add(prefix + " SDK range: " + signer.minSdk() + " - "
+                        + (signer.maxSdk() == Integer.MAX_VALUE ? "any" : signer.maxSdk())
+                        + (signer.rotationMinSdk() != null ? ", rotation from SDK " + signer.rotationMinSdk() : ""));
+            }
+            for (int i = 0; i < signer.lineage().size(); i++) {
+                LineageNode node = signer.lineage().get(i);
+                lines.add(prefix + " lineage #" + (i + 1) + ": " + node.certificate().sha256()
+                        + " " + node.certificate().x509().getSubjectX500Principal().getName()
+                        + String.format(" (flags 0x%x)", node.flags()));
+            }
+        }
+        return lines;
+    }
+
+    public static ApkSignatures read(Path apk) throws IOException {
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            return read(channel, ZipCentralDirectory.read(channel));
+        }
+    }
+
+    /** Reads the signers of an APK whose central directory was already read from {@code channel}. */
+    public static ApkSignatures read(FileChannel channel, ZipCentralDirectory cd) throws IOException {
+        boolean jarSigned = cd.getEntries().stream().anyMatch(entry -> V1SchemeSigner.isSignatureFile(entry.name()));
+
+        long cdOffset = cd.getOffset();
+        byte[] magic = ApkSigningBlock.MAGIC;
+        if (cdOffset < magic.length + 16) return new ApkSignatures(-1, 0, List.of(), jarSigned, List.of());
+        ByteBuffer footer = ZipCentralDirectory.readAt(channel, cdOffset - magic.length - 8, magic.length + 8);
+        if (!footer.slice(8, magic.length).equals(ByteBuffer.wrap(magic))) {
+            return new ApkSignatures(-1, 0, List.of(), jarSigned, List.of());
+        }
+
+        long size = footer.getLong(0);
+        long start = cdOffset - size - 8;
+        if (size < magic.length + 8 || size > MAX_BLOCK_SIZE || start < 0) throw new IOException("Corrupt APK Signing Block");
+        ByteBuffer block = ZipCentralDirectory.readAt(channel, start, (int) (size + 8));
+        if (block.getLong(0) != size) throw new IOException("Corrupt APK Signing Block");
+
+        List<Integer> ids = new ArrayList<>();
+        List<Signer> signers = new ArrayList<>();
+        ByteBuffer pairs = block.slice(8, block.capacity() - 8 - 8 - magic.length).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (pairs.remaining() >= 12) {
+                long length = pairs.getLong();
+                if (length < 4 || length > pairs.remaining()) throw new IOException("Corrupt APK Signing Block pair");
+                int id = pairs.getInt();
+                ByteBuffer value = slice(pairs, (int) length - 4);
+                ids.add(id);
+                if (id == ApkSigningBlock.V2_BLOCK_ID) signers.addAll(readSigners(value, "v2"));
+                else if (id == ApkSigningBlock.V3_BLOCK_ID) signers.addAll(readSigners(value, "v3"));
+                else if (id == V31_BLOCK_ID) signers.addAll(readSigners(value, "v3.1"));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt signer data in APK Signing Block", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Unreadable signer certificate: " + e.getMessage(), e);
+        }
+        return new ApkSignatures(start, size + 8, List.copyOf(ids), jarSigned, List.copyOf(signers));
+    }
+
+    /**
+     * First certificate of the v1 JAR signature (the PKCS#7 block next to the {@code .SF} file), or null when
+     * the APK has no JAR signature. Used when there is no APK Signing Block to take a signer from.
+     */
+    public static Certificate readJarCertificate(FileChannel channel, ZipCentralDirectory cd) throws IOException {
+        for (ZipCentralDirectory.Entry entry : cd.getEntries()) {
+            String upper = entry.name().toUpperCase();
+            if (!V1SchemeSigner.isSignatureFile(entry.name())
+                    || !(upper.endsWith(".RSA") || upper.endsWith(".DSA") || upper.endsWith(".EC"))) {
+                continue;
+            }
+            try {
+                Collection<? extends java.security.cert.Certificate> certificates = CertificateFactory.getInstance("X.509")
+                        .generateCertificates(new ByteArrayInputStream(bytes(ZipEntryReader.read(channel, entry, MAX_SIGNATURE_FILE_SIZE))));
+                if (certificates.isEmpty()) continue;
+                return certificate(certificates.iterator().next().getEncoded());
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Unreadable JAR signature " + entry.name() + ": " + e.getMessage(), e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * v2: signer = lp(signedData) lp(signatures) lp(publicKey), signedData = lp(digests) lp(certificates) lp(attributes).
+     * v3 adds int32 minSdk, int32 maxSdk after signedData, and inside signedData after the certificates.
+     */
+    private static List<Signer> readSigners(ByteBuffer value, String scheme) throws GeneralSecurityException {
+        boolean v3 = !scheme.equals("v2");
+        List<Signer> signers = new ArrayList<>();
+        ByteBuffer signerSequence = lengthPrefixed(value);
+        while (signerSequence.hasRemaining()) {
+            ByteBuffer signer = lengthPrefixed(signerSequence);
+            ByteBuffer signedData = lengthPrefixed(signer);
+            Integer minSdk = v3 ? signer.getInt() : null;
+            Integer maxSdk = v3 ? signer.getInt() : null;
+            ByteBuffer signatures = lengthPrefixed(signer);
+
+            lengthPrefixed(signedData); // digests
+            ByteBuffer certificateSequence = lengthPrefixed(signedData);
+            List<Certificate> certificates = new ArrayList<>();
+            while (certificateSequence.hasRemaining()) {
+                certificates.add(certificate(bytes(lengthPrefixed(certificateSequence))));
+            }
+            if (v3) signedData.position(signedData.position() + 8); // SDK range, repeated from the signer
+            List<LineageNode> lineage = List.of();
+            Integer rotationMinSdk = null;
+            ByteBuffer attributes = lengthPrefixed(signedData);
+            while (attributes.hasRemaining()) {
+                ByteBuffer attribute = lengthPrefixed(attributes);
+                int id = attribute.getInt();
+                if (id == PROOF_OF_ROTATION_ATTRIBUTE_ID) lineage = readLineage(attribute);
+                else if (id == ROTATION_MIN_SDK_ATTRIBUTE_ID) rotationMinSdk = attribute.getInt();
+            }
+
+            List<Integer> algorithms = new ArrayList<>();
+            while (signatures.hasRemaining()) {
+                algorithms.add(lengthPrefixed(signatures).getInt());
+            }
+            PublicKey publicKey = certificates.isEmpty() ? null : certificates.get(0).x509().getPublicKey();
+
+            signers.add(new Signer(scheme, List.copyOf(certificates),
+                    publicKey != null ? publicKey.getAlgorithm() : "", keySize(publicKey),
+                    List.copyOf(algorithms), minSdk, maxSdk, rotationMinSdk, lineage));
+        }
+        return signers;
+    }
+
+    /**
+     * Proof-of-rotation: int32 version, then lp(level)*; level = lp(lp(certificate) int32 algorithm)
+     * int32 flags int32 algorithm lp(signature).
+     */
+    private static List<LineageNode> readLineage(ByteBuffer attribute) throws GeneralSecurityException {
+        attribute.getInt(); // version
+        List<LineageNode> nodes = new ArrayList<>();
+        while (attribute.hasRemaining()) {
+            ByteBuffer level = lengthPrefixed(attribute);
+            ByteBuffer signedData = lengthPrefixed(level);
+            Certificate certificate = certificate(bytes(lengthPrefixed(signedData)));
+            nodes.add(new LineageNode(certificate, level.getInt()));
+        }
+        return List.copyOf(nodes);
+    }
+
+    private static Certificate certificate(byte[] encoded) throws GeneralSecurityException {
+        X509Certificate x509 = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(encoded));
+        HexFormat hex = HexFormat.of();
+        return new Certificate(x509,
+                hex.formatHex(MessageDigest.getInstance("SHA-256").digest(encoded)),
+                hex.formatHex(MessageDigest.getInstance("SHA-1").digest(encoded)),
+                hex.formatHex(MessageDigest.getInstance("MD5").digest(encoded)));
+    }
+
+    private static int keySize(PublicKey key) {
+        if (key instanceof RSAPublicKey rsa) return rsa.getModulus().bitLength();
+        if (key instanceof ECPublicKey ec) return ec.getParams().getCurve().getField().getFieldSize();
+        if (key instanceof DSAPublicKey dsa) return dsa.getParams().getP().bitLength();
+        return 0;
+    }
+
+    private static ByteBuffer lengthPrefixed(ByteBuffer buffer) {
+        return slice(buffer, buffer.getInt());
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Length out of bounds");
+        ByteBuffer slice = buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,308 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Decoder for Android binary XML (AXML), the compiled form of {@code AndroidManifest.xml} and res/ XML files.
+ * <p>
+ * The file is a chunk stream: a string pool (UTF-8 or UTF-16), a resource map giving the framework attribute
+ * id of each attribute name, then start/end namespace and element chunks. Names and string values are
+ * resolved against the string pool while decoding; references to resources ({@code @0x7f...}) are kept as ids.
+ */
+public final class BinaryXml {
+
+    static final int RES_STRING_POOL_TYPE = 0x0001;
+    static final int RES_XML_TYPE = 0x0003;
+    private static final int RES_XML_START_NAMESPACE_TYPE = 0x0100;
+    private static final int RES_XML_END_NAMESPACE_TYPE = 0x0101;
+    private static final int RES_XML_START_ELEMENT_TYPE = 0x0102;
+    private static final int RES_XML_END_ELEMENT_TYPE = 0x0103;
+    private static final int RES_XML_CDATA_TYPE = 0x0104;
+    private static final int RES_XML_RESOURCE_MAP_TYPE = 0x0180;
+    private static final int UTF8_FLAG = 1 << 8;
+    private static final int NO_INDEX = -1;
+
+    // Res_value data types
+    public static final int TYPE_NULL = 0x00;
+    public static final int TYPE_REFERENCE = 0x01;
+    public static final int TYPE_ATTRIBUTE = 0x02;
+    public static final int TYPE_STRING = 0x03;
+    public static final int TYPE_FLOAT = 0x04;
+    public static final int TYPE_DIMENSION = 0x05;
+    public static final int TYPE_FRACTION = 0x06;
+    public static final int TYPE_INT_DEC = 0x10;
+    public static final int TYPE_INT_HEX = 0x11;
+    public static final int TYPE_INT_BOOLEAN = 0x12;
+    public static final int TYPE_FIRST_COLOR = 0x1c;
+    public static final int TYPE_LAST_COLOR = 0x1f;
+
+    private static final String[] DIMENSION_UNITS = {"px", "dp", "sp", "pt", "in", "mm"};
+    private static final String[] FRACTION_UNITS = {"%", "%p"};
+
+    private BinaryXml() {
+    }
+
+    /**
+     * @param resourceId framework attribute id (e.g. 0x0101021b for versionCode), or 0 when the name has none
+     * @param string     the string value for {@link #TYPE_STRING}, or the raw source string if aapt kept it
+     */
+    public record Attribute(String namespace, String name, int resourceId, int type, int data, String string) {
+
+        /** The value as aapt would print it: strings as-is, references as {@code @0x...}, numbers decoded. */
+        public String value() {
+            return formatValue(type, data, string);
+        }
+
+        public boolean isReference() {
+            return type == TYPE_REFERENCE;
+        }
+
+        public Integer intValue() {
+            if (type >= TYPE_INT_DEC && type <= TYPE_LAST_COLOR) return data;
+            if (type == TYPE_STRING && string != null) {
+                try {
+                    return Integer.decode(string.trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        public boolean booleanValue() {
+            if (type == TYPE_INT_BOOLEAN) return data != 0;
+            return type == TYPE_STRING && "true".equalsIgnoreCase(string);
+        }
+    }
+
+    public record Element(String namespace, String name, List<Attribute> attributes, List<Element> children) {
+
+        /** Attribute by framework id, falling back to its name for stripped or non-framework attributes. */
+        public Attribute attribute(int resourceId, String name) {
+            for (Attribute attribute : attributes) {
+                if (resourceId != 0 && attribute.resourceId() == resourceId) return attribute;
+            }
+            for (Attribute attribute : attributes) {
+                if (attribute.name().equals(name)) return attribute;
+            }
+            return null;
+        }
+
+        public String value(int resourceId, String name) {
+            Attribute attribute = attribute(resourceId, name);
+            return attribute != null ? attribute.value() : null;
+        }
+
+        public List<Element> children(String name) {
+            return children.stream().filter(child -> child.name().equals(name)).toList();
+        }
+    }
+
+    /**
+     * Decodes a whole document and returns its root element.
+     */
+    public static Element parse(ByteBuffer data) throws IOException {
+        ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 8 || Short.toUnsignedInt(buffer.getShort(0)) != RES_XML_TYPE) {
+            throw new IOException("Not an Android binary XML file");
+        }
+        int end = Math.min(buffer.getInt(4), buffer.remaining());
+
+        StringPool strings = null;
+        int[] resourceIds = new int[0];
+        Element root = null;
+        Deque<Element> open = new ArrayDeque<>();
+
+        int position = Short.toUnsignedInt(buffer.getShort(2));
+        while (position + 8 <= end) {
+            int type = Short.toUnsignedInt(buffer.getShort(position));
+            int headerSize = Short.toUnsignedInt(buffer.getShort(position + 2));
+            int size = buffer.getInt(position + 4);
+            if (size < 8 || headerSize > size || position + size > end) {
+                throw new IOException("Corrupt chunk at offset " + position);
+            }
+            ByteBuffer chunk = buffer.slice(position, size).order(ByteOrder.LITTLE_ENDIAN);
+
+            switch (type) {
+                case RES_STRING_POOL_TYPE -> strings = StringPool.read(chunk);
+                case RES_XML_RESOURCE_MAP_TYPE -> {
+                    resourceIds = new int[(size - headerSize) / 4];
+                    for (int i = 0; i < resourceIds.length; i++) resourceIds[i] = chunk.getInt(headerSize + i * 4);
+                }
+                case RES_XML_START_ELEMENT_TYPE -> {
+                    if (strings == null) throw new IOException("Element before string pool");
+                    Element element = readElement(chunk, headerSize, strings, resourceIds);
+                    if (open.isEmpty()) {
+                        if (root != null) throw new IOException("More than one root element");
+                        root = element;
+                    } else {
+                        open.peek().children().add(element);
+                    }
+                    open.push(element);
+                }
+                case RES_XML_END_ELEMENT_TYPE -> {
+                    if (open.isEmpty()) throw new IOException("Unbalanced end element at offset " + position);
+                    open.pop();
+                }
+                case RES_XML_START_NAMESPACE_TYPE, RES_XML_END_NAMESPACE_TYPE, RES_XML_CDATA_TYPE -> {
+                    // Namespaces are resolved per attribute through their URI; text content is not needed
+                }
+                default -> {
+                    // Unknown chunks are skipped, like the platform parser does
+                }
+            }
+            position += size;
+        }
+        if (root == null) throw new IOException("Binary XML has no root element");
+        return root;
+    }
+
+    private static Element readElement(ByteBuffer chunk, int headerSize, StringPool strings, int[] resourceIds) throws IOException {
+        // ResXMLTree_attrExt follows the node header
+        int ext = headerSize;
+        String namespace = strings.getOrEmpty(chunk.getInt(ext));
+        String name = strings.getOrEmpty(chunk.getInt(ext + 4));
+        int attributeStart = Short.toUnsignedInt(chunk.getShort(ext + 8));
+        int attributeSize = Short.toUnsignedInt(chunk.getShort(ext + 10));
+        int attributeCount = Short.toUnsignedInt(chunk.getShort(ext + 12));
+        if (attributeSize < 20 || ext + attributeStart + attributeCount * attributeSize > chunk.capacity()) {
+            throw new IOException("Corrupt attributes of <" + name + ">");
+        }
+
+        List<Attribute> attributes = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            int at = ext + attributeStart + i * attributeSize;
+            int nameIndex = chunk.getInt(at + 4);
+            int rawValue = chunk.getInt(at + 8);
+            int dataType = Byte.toUnsignedInt(chunk.get(at + 15));
+            int data = chunk.getInt(at + 16);
+            String string = dataType == TYPE_STRING ? strings.getOrEmpty(data) : strings.get(rawValue);
+            attributes.add(new Attribute(
+                    strings.getOrEmpty(chunk.getInt(at)),
+                    strings.getOrEmpty(nameIndex),
+                    nameIndex >= 0 && nameIndex < resourceIds.length ? resourceIds[nameIndex] : 0,
+                    dataType, data, string));
+        }
+        return new Element(namespace, name, attributes, new ArrayList<>());
+    }
+
+    static String formatValue(int type, int data, String string) {
+        return switch (type) {
+            case TYPE_NULL -> data == 1 ? "@empty" : "@null";
+            case TYPE_STRING -> string;
+            case TYPE_REFERENCE -> data == 0 ? "@null" : String.format("@0x%08x", data);
+            case TYPE_ATTRIBUTE -> String.format("?0x%08x", data);
+            case TYPE_FLOAT -> Float.toString(Float.intBitsToFloat(data));
+            case TYPE_DIMENSION -> complex(data, false) + unit(DIMENSION_UNITS, data);
+            case TYPE_FRACTION -> complex(data, true) + unit(FRACTION_UNITS, data);
+            case TYPE_INT_HEX -> String.format("0x%08x", data);
+            case TYPE_INT_BOOLEAN -> data != 0 ? "true" : "false";
+            default -> type >= TYPE_FIRST_COLOR && type <= TYPE_LAST_COLOR
+                    ? String.format("#%08x", data)
+                    : type >= TYPE_INT_DEC && type <= TYPE_LAST_COLOR ? Integer.toString(data)
+                    : String.format("(type 0x%02x)0x%08x", type, data);
+        };
+    }
+
+    // Res_value complex: 24-bit mantissa, 2-bit radix selecting the binary point, 4-bit unit
+    private static String complex(int data, boolean fraction) {
+        int[] shifts = {0, 7, 15, 23};
+        float value = (data & 0xffffff00) * (1.0f / (1 << shifts[(data >> 4) & 3])) / (1 << 8);
+        if (fraction) value *= 100;
+        return value == (int) value ? Integer.toString((int) value) : Float.toString(value);
+    }
+
+    private static String unit(String[] units, int data) {
+        int unit = data & 0xf;
+        return unit < units.length ? units[unit] : "";
+    }
+
+    /**
+     * ResStringPool: offsets to length-prefixed strings, decoded lazily since a manifest only needs a few of them.
+     */
+    static final class StringPool {
+        private final ByteBuffer chunk;
+        private final int count;
+        private final int stringsStart;
+        private final int offsetsStart;
+        private final boolean utf8;
+        private final String[] cache;
+
+        private StringPool(ByteBuffer chunk, int count, int stringsStart, int offsetsStart, boolean utf8) {
+            this.chunk = chunk;
+            this.count = count;
+            this.stringsStart = stringsStart;
+            this.offsetsStart = offsetsStart;
+            this.utf8 = utf8;
+            this.cache = new String[count];
+        }
+
+        static StringPool read(ByteBuffer chunk) throws IOException {
+            int headerSize = Short.toUnsignedInt(chunk.getShort(2));
+            int count = chunk.getInt(8);
+            int flags = chunk.getInt(16);
+            int stringsStart = chunk.getInt(20);
+            if (count < 0 || headerSize + (long) count * 4 > chunk.capacity() || stringsStart > chunk.capacity()) {
+                throw new IOException("Corrupt string pool");
+            }
+            return new StringPool(chunk, count, stringsStart, headerSize, (flags & UTF8_FLAG) != 0);
+        }
+
+        int size() {
+            return count;
+        }
+
+        /** The string at {@code index}, or null for {@code -1} and out-of-range indexes. */
+        String get(int index) {
+            if (index == NO_INDEX || index < 0 || index >= count) return null;
+            String cached = cache[index];
+            if (cached == null) {
+                int offset = stringsStart + chunk.getInt(offsetsStart + index * 4);
+                cached = utf8 ? readUtf8(offset) : readUtf16(offset);
+                cache[index] = cached;
+            }
+            return cached;
+        }
+
+        String getOrEmpty(int index) {
+            String value = get(index);
+            return value != null ? value : "";
+        }
+
+        // Two lengths (UTF-16 units, then bytes), each one byte or two with the high bit set
+        private String readUtf8(int offset) {
+            int position = offset + (chunk.get(offset) < 0 ? 2 : 1);
+            int length = Byte.toUnsignedInt(chunk.get(position));
+            if ((length & 0x80) != 0) {
+                length = ((length & 0x7f) << 8) | Byte.toUnsignedInt(chunk.get(position + 1));
+                position += 2;
+            } else {
+                position += 1;
+            }
+            byte[] bytes = new byte[Math.min(length, chunk.capacity() - position)];
+            chunk.get(position, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // One length in UTF-16 units, one word or two with the high bit set
+        private String readUtf16(int offset) {
+            int length = Short.toUnsignedInt(chunk.getShort(offset));
+            int position = offset + 2;
+            if ((length & 0x8000) != 0) {
+                length = ((length & 0x7fff) << 16) | Short.toUnsignedInt(chunk.getShort(offset + 2));
+                position += 2;
+            }
+            length = Math.min(length, (chunk.capacity() - position) / 2);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) chars[i] = chunk.getChar(position + i * 2);
+            return new String(chars);
+        }
+    }
+}
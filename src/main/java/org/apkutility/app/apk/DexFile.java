@@ -0,0 +1,241 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Index of one {@code classesN.dex} of an APK, read in-process from the zip.
+ * <p>
+ * Opening reads only the 112-byte header, inflating just the start of a compressed entry, which is enough
+ * for the string, type, proto, field, method and class counts and the 64K reference check. The map list
+ * and the class list need the whole file and are read on first use.
+ */
+public final class DexFile {
+
+    /** Method and field references a single dex can address (16-bit indexes). */
+    public static final int MAX_REFERENCES = 65536;
+    private static final int HEADER_SIZE = 0x70;
+    private static final int MAX_DEX_SIZE = Integer.MAX_VALUE;
+    private static final Pattern DEX_NAME = Pattern.compile("classes(\\d*)\\.dex");
+
+    private final Path apk;
+    private final ZipCentralDirectory.Entry entry;
+    private final String version;
+    private final int fileSize;
+    private final int stringCount;
+    private final int typeCount;
+    private final int protoCount;
+    private final int fieldCount;
+    private final int methodCount;
+    private final int classCount;
+    private final int mapOffset;
+    private final int classDefsOffset;
+    private final int typeIdsOffset;
+    private final int stringIdsOffset;
+    private ByteBuffer data;
+    private List<Section> sections;
+    private List<String> classNames;
+
+    /** One map list item: a section of the file and how many items it holds. */
+    public record Section(int type, String name, int count, int offset) {
+    }
+
+    private DexFile(Path apk, ZipCentralDirectory.Entry entry, ByteBuffer header) throws IOException {
+        if (header.remaining() < HEADER_SIZE || header.get(0) != 'd' || header.get(1) != 'e' || header.get(2) != 'x') {
+            throw new IOException(entry.name() + " is not a dex file");
+        }
+        this.apk = apk;
+        this.entry = entry;
+        this.version = new String(new byte[]{header.get(4), header.get(5), header.get(6)}, StandardCharsets.US_ASCII);
+        this.fileSize = header.getInt(32);
+        this.mapOffset = header.getInt(52);
+        this.stringCount = header.getInt(56);
+        this.stringIdsOffset = header.getInt(60);
+        this.typeCount = header.getInt(64);
+        this.typeIdsOffset = header.getInt(68);
+        this.protoCount = header.getInt(72);
+        this.fieldCount = header.getInt(80);
+        this.methodCount = header.getInt(88);
+        this.classCount = header.getInt(96);
+        this.classDefsOffset = header.getInt(100);
+    }
+
+    /**
+     * Indexes every {@code classes*.dex} of {@code apk}, one task per file on {@code pool}, in multidex order
+     * ({@code classes.dex}, {@code classes2.dex}, ...).
+     */
+    public static List<DexFile> index(Path apk, ForkJoinPool pool) throws IOException {
+        List<ZipCentralDirectory.Entry> entries;
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            entries = ZipCentralDirectory.read(channel).getEntries().stream()
+                    .filter(entry -> DEX_NAME.matcher(entry.name()).matches())
+                    .sorted(Comparator.comparingInt(entry -> dexNumber(entry.name())))
+                    .toList();
+        }
+
+        List<Future<DexFile>> futures = new ArrayList<>();
+        for (ZipCentralDirectory.Entry entry : entries) {
+            futures.add(pool.submit(() -> {
+                try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+                    return new DexFile(apk, entry, ZipEntryReader.readPrefix(channel, entry, HEADER_SIZE));
+                }
+            }));
+        }
+        List<DexFile> dexFiles = new ArrayList<>(futures.size());
+        try {
+            for (Future<DexFile> future : futures) dexFiles.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while indexing dex files", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        return dexFiles;
+    }
+
+    // classes.dex is 1, classesN.dex is N
+    private static int dexNumber(String name) {
+        String digits = name.substring("classes".length(), name.length() - ".dex".length());
+        return digits.isEmpty() ? 1 : Integer.parseInt(digits);
+    }
+
+    public String getName() {
+        return entry.name();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getFileSize() {
+        return fileSize;
+    }
+
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    public int getProtoCount() {
+        return protoCount;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /** Method references (defined and called), the number limited to {@link #MAX_REFERENCES}. */
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public boolean exceedsReferenceLimit() {
+        return Integer.toUnsignedLong(methodCount) > MAX_REFERENCES || Integer.toUnsignedLong(fieldCount) > MAX_REFERENCES;
+    }
+
+    /** The map list: every section of the file with its item count. Reads the whole dex on first use. */
+    public synchronized List<Section> getSections() throws IOException {
+        if (sections == null) {
+            ByteBuffer dex = data();
+            int count = dex.getInt(mapOffset);
+            List<Section> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int item = mapOffset + 4 + i * 12;
+                int type = Short.toUnsignedInt(dex.getShort(item));
+                list.add(new Section(type, sectionName(type), dex.getInt(item + 4), dex.getInt(item + 8)));
+            }
+            sections = List.copyOf(list);
+        }
+        return sections;
+    }
+
+    /** Defined classes as Java names ({@code com.example.Foo$Bar}). Reads the whole dex on first use. */
+    public synchronized List<String> getClassNames() throws IOException {
+        if (classNames == null) {
+            ByteBuffer dex = data();
+            List<String> names = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                int typeIndex = dex.getInt(classDefsOffset + i * 32);
+                int stringIndex = dex.getInt(typeIdsOffset + typeIndex * 4);
+                names.add(javaName(string(dex, dex.getInt(stringIdsOffset + stringIndex * 4))));
+            }
+            classNames = List.copyOf(names);
+        }
+        return classNames;
+    }
+
+    private ByteBuffer data() throws IOException {
+        if (data == null) {
+            try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+                data = ZipEntryReader.map(channel, entry, MAX_DEX_SIZE);
+            }
+        }
+        return data;
+    }
+
+    // string_data_item: ULEB128 length in UTF-16 units, then MUTF-8 bytes up to a NUL
+    private static String string(ByteBuffer dex, int offset) {
+        int position = offset;
+        while ((dex.get(position++) & 0x80) != 0) {
+            // skip the length
+        }
+        int end = position;
+        while (dex.get(end) != 0) end++;
+        byte[] bytes = new byte[end - position];
+        dex.get(position, bytes);
+        // Class descriptors are ASCII in practice; MUTF-8 only differs for NUL and supplementary characters
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String javaName(String descriptor) {
+        if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+        return descriptor;
+    }
+
+    private static String sectionName(int type) {
+        return switch (type) {
+            case 0x0000 -> "header";
+            case 0x0001 -> "string_ids";
+            case 0x0002 -> "type_ids";
+            case 0x0003 -> "proto_ids";
+            case 0x0004 -> "field_ids";
+            case 0x0005 -> "method_ids";
+            case 0x0006 -> "class_defs";
+            case 0x0007 -> "call_site_ids";
+            case 0x0008 -> "method_handles";
+            case 0x1000 -> "map_list";
+            case 0x1001 -> "type_lists";
+            case 0x1002 -> "annotation_set_refs";
+            case 0x1003 -> "annotation_sets";
+            case 0x2000 -> "class_data";
+            case 0x2001 -> "code";
+            case 0x2002 -> "string_data";
+            case 0x2003 -> "debug_info";
+            case 0x2004 -> "annotations";
+            case 0x2005 -> "encoded_arrays";
+            case 0x2006 -> "annotations_directories";
+            case 0xf000 -> "hiddenapi_class_data";
+            default -> String.format("0x%04x", type);
+        };
+    }
+}
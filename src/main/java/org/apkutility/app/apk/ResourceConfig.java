@@ -0,0 +1,135 @@
+package org.apkutility.app.apk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The configuration (ResTable_config) a resources.arsc type chunk applies to, printed as the resource
+ * qualifiers it was compiled from, e.g. {@code fr-rCA-land-xxhdpi-v26}.
+ * <p>
+ * The struct grew over platform releases, so only the fields present in its declared size are read.
+ */
+public record ResourceConfig(int mcc, int mnc, String language, String region, int orientation, int touchscreen,
+                             int density, int keyboard, int navigation, int inputFlags, int screenWidth,
+                             int screenHeight, int sdkVersion, int screenLayout, int uiMode,
+                             int smallestScreenWidthDp, int screenWidthDp, int screenHeightDp, String script,
+                             String variant, int screenLayout2, int colorMode) {
+
+    public static final ResourceConfig DEFAULT = new ResourceConfig(0, 0, "", "", 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, "", "", 0, 0);
+
+    static ResourceConfig read(ByteBuffer buffer, int offset) {
+        int size = buffer.getInt(offset);
+        // Bytes past the declared size, or past the chunk, read as zero
+        ByteBuffer config = ByteBuffer.allocate(Math.max(size, 56)).order(buffer.order());
+        config.put(0, buffer, offset, Math.min(size, buffer.limit() - offset));
+        return new ResourceConfig(
+                u16(config, 4), u16(config, 6),
+                unpack(config.get(8), config.get(9), 'a'), unpack(config.get(10), config.get(11), '0'),
+                u8(config, 12), u8(config, 13), u16(config, 14),
+                u8(config, 16), u8(config, 17), u8(config, 18),
+                u16(config, 20), u16(config, 22), u16(config, 24),
+                u8(config, 28), u8(config, 29), u16(config, 30), u16(config, 32), u16(config, 34),
+                ascii(config, 36, 4), ascii(config, 40, 8),
+                u8(config, 48), u8(config, 49));
+    }
+
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    /** Qualifiers in the order aapt uses in directory names; empty for the default configuration. */
+    public String qualifiers() {
+        List<String> parts = new ArrayList<>();
+        if (mcc != 0) parts.add("mcc" + mcc);
+        if (mnc != 0) parts.add("mnc" + (mnc == 0xffff ? "00" : mnc));
+        if (!script.isEmpty() || variant.length() > 3) {
+            parts.add("b+" + language + (script.isEmpty() ? "" : "+" + script)
+                    + (region.isEmpty() ? "" : "+" + region) + (variant.isEmpty() ? "" : "+" + variant));
+        } else if (!language.isEmpty()) {
+            parts.add(language);
+            if (!region.isEmpty()) parts.add("r" + region);
+        }
+        add(parts, screenLayout & 0xc0, 0x40, "ldltr", 0x80, "ldrtl");
+        if (smallestScreenWidthDp != 0) parts.add("sw" + smallestScreenWidthDp + "dp");
+        if (screenWidthDp != 0) parts.add("w" + screenWidthDp + "dp");
+        if (screenHeightDp != 0) parts.add("h" + screenHeightDp + "dp");
+        add(parts, screenLayout & 0x0f, 1, "small", 2, "normal", 3, "large", 4, "xlarge");
+        add(parts, screenLayout & 0x30, 0x10, "notlong", 0x20, "long");
+        add(parts, screenLayout2 & 0x03, 1, "notround", 2, "round");
+        add(parts, colorMode & 0x03, 1, "nowidecg", 2, "widecg");
+        add(parts, colorMode & 0x0c, 4, "lowdr", 8, "highdr");
+        add(parts, orientation, 1, "port", 2, "land", 3, "square");
+        add(parts, uiMode & 0x0f, 2, "desk", 3, "car", 4, "television", 5, "appliance", 6, "watch", 7, "vrheadset");
+        add(parts, uiMode & 0x30, 0x10, "notnight", 0x20, "night");
+        if (density != 0) parts.add(density(density));
+        add(parts, touchscreen, 1, "notouch", 2, "stylus", 3, "finger");
+        add(parts, inputFlags & 0x03, 1, "keysexposed", 2, "keyshidden", 3, "keyssoft");
+        add(parts, keyboard, 1, "nokeys", 2, "qwerty", 3, "12key");
+        add(parts, inputFlags & 0x0c, 4, "navexposed", 8, "navhidden");
+        add(parts, navigation, 1, "nonav", 2, "dpad", 3, "trackball", 4, "wheel");
+        if (screenWidth != 0 || screenHeight != 0) parts.add(screenWidth + "x" + screenHeight);
+        if (sdkVersion != 0) parts.add("v" + sdkVersion);
+        return String.join("-", parts);
+    }
+
+    @Override
+    public String toString() {
+        String qualifiers = qualifiers();
+        return qualifiers.isEmpty() ? "default" : qualifiers;
+    }
+
+    private static String density(int density) {
+        return switch (density) {
+            case 120 -> "ldpi";
+            case 160 -> "mdpi";
+            case 213 -> "tvdpi";
+            case 240 -> "hdpi";
+            case 320 -> "xhdpi";
+            case 480 -> "xxhdpi";
+            case 640 -> "xxxhdpi";
+            case 0xfffe -> "anydpi";
+            case 0xffff -> "nodpi";
+            default -> density + "dpi";
+        };
+    }
+
+    // pairs of (value, qualifier); unknown values are left out
+    private static void add(List<String> parts, int value, Object... pairs) {
+        for (int i = 0; i < pairs.length; i += 2) {
+            if ((int) pairs[i] == value) {
+                parts.add((String) pairs[i + 1]);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Two-letter codes are stored as-is; three-letter codes are packed into 15 bits with the high bit set.
+     */
+    private static String unpack(byte first, byte second, char base) {
+        if (first == 0) return "";
+        if ((first & 0x80) == 0) return new String(new char[]{(char) first, (char) second});
+        int a = second & 0x1f;
+        int b = ((second & 0xe0) >> 5) | ((first & 0x03) << 3);
+        int c = (first & 0x7c) >> 2;
+        return new String(new char[]{(char) (base + a), (char) (base + b), (char) (base + c)});
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        int end = 0;
+        while (end < length && buffer.get(offset + end) != 0) end++;
+        byte[] bytes = new byte[end];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static int u8(ByteBuffer buffer, int offset) {
+        return Byte.toUnsignedInt(buffer.get(offset));
+    }
+
+    private static int u16(ByteBuffer buffer, int offset) {
+        return Short.toUnsignedInt(buffer.getShort(offset));
+    }
+}
@@ -0,0 +1,421 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy reader for {@code resources.arsc}, the compiled resource table of an APK.
+ * <p>
+ * The table is memory-mapped straight from the APK when stored (as aapt2 and zipalign leave it), so opening
+ * it only walks the chunk headers: packages, their types and one chunk per type and configuration. Entries
+ * are decoded when asked for, and strings of the three string pools (values, type names, key names) when
+ * first read, which keeps tables with 100k+ resources fast to open and small on the heap.
+ */
+public final class ResourceTable {
+
+    public static final String ENTRY_NAME = "resources.arsc";
+    private static final int MAX_TABLE_SIZE = Integer.MAX_VALUE;
+
+    private static final int RES_TABLE_TYPE = 0x0002;
+    private static final int RES_TABLE_PACKAGE_TYPE = 0x0200;
+    private static final int RES_TABLE_TYPE_TYPE = 0x0201;
+    private static final int RES_TABLE_TYPE_SPEC_TYPE = 0x0202;
+
+    private static final int NO_ENTRY = 0xffffffff;
+    private static final int NO_ENTRY_16 = 0xffff;
+    private static final int TYPE_FLAG_SPARSE = 0x01;
+    private static final int TYPE_FLAG_OFFSET16 = 0x02;
+    private static final int ENTRY_FLAG_COMPLEX = 0x0001;
+    private static final int ENTRY_FLAG_COMPACT = 0x0008;
+    // References are followed this far when resolving, to stop on cycles
+    private static final int MAX_REFERENCE_DEPTH = 8;
+
+    private final BinaryXml.StringPool values;
+    private final List<Package> packages;
+
+    private ResourceTable(BinaryXml.StringPool values, List<Package> packages) {
+        this.values = values;
+        this.packages = packages;
+    }
+
+    /**
+     * Opens the table of {@code apk}. The mapping stays valid after the file is closed.
+     */
+    public static ResourceTable read(Path apk) throws IOException {
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            ZipCentralDirectory cd = ZipCentralDirectory.read(channel);
+            ZipCentralDirectory.Entry entry = ZipEntryReader.find(cd, ENTRY_NAME);
+            if (entry == null) throw new IOException(apk.getFileName() + " has no " + ENTRY_NAME);
+            return parse(ZipEntryReader.map(channel, entry, MAX_TABLE_SIZE));
+        }
+    }
+
+    public static ResourceTable parse(ByteBuffer data) throws IOException {
+        ByteBuffer table = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (table.remaining() < 12 || Short.toUnsignedInt(table.getShort(0)) != RES_TABLE_TYPE) {
+            throw new IOException("Not a resources.arsc table");
+        }
+        int end = Math.min(table.getInt(4), table.remaining());
+
+        BinaryXml.StringPool values = null;
+        List<Package> packages = new ArrayList<>();
+        int position = Short.toUnsignedInt(table.getShort(2));
+        while (position + 8 <= end) {
+            ByteBuffer chunk = chunk(table, position, end);
+            switch (Short.toUnsignedInt(chunk.getShort(0))) {
+                case BinaryXml.RES_STRING_POOL_TYPE -> {
+                    if (values == null) values = BinaryXml.StringPool.read(chunk);
+                }
+                case RES_TABLE_PACKAGE_TYPE -> packages.add(readPackage(chunk));
+                default -> {
+                    // Unknown top-level chunks are skipped
+                }
+            }
+            position += chunk.capacity();
+        }
+        if (values == null) throw new IOException("resources.arsc has no value string pool");
+        return new ResourceTable(values, List.copyOf(packages));
+    }
+
+    public List<Package> getPackages() {
+        return packages;
+    }
+
+    /** Number of resource ids over all packages and types. */
+    public int getResourceCount() {
+        int count = 0;
+        for (Package pkg : packages) {
+            for (Type type : pkg.getTypes()) count += type.getEntryCount();
+        }
+        return count;
+    }
+
+    public Package getPackage(int id) {
+        for (Package pkg : packages) {
+            if (pkg.getId() == id) return pkg;
+        }
+        return null;
+    }
+
+    /** Value of {@code resourceId} in every configuration that defines it, default configuration first. */
+    public List<Entry> getEntries(int resourceId) {
+        Package pkg = getPackage(resourceId >>> 24);
+        Type type = pkg != null ? pkg.getType((resourceId >> 16) & 0xff) : null;
+        if (type == null) return List.of();
+
+        List<Entry> entries = new ArrayList<>();
+        for (TypeChunk chunk : type.getChunks()) {
+            Entry entry = chunk.getEntry(resourceId & 0xffff);
+            if (entry != null) {
+                if (chunk.getConfig().isDefault()) entries.add(0, entry);
+                else entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Value of {@code resourceId} in the default configuration (or the first one defining it), following
+     * references, e.g. an application label id to the label itself. Null if it does not resolve.
+     */
+    public String resolve(int resourceId) {
+        for (int depth = 0; depth < MAX_REFERENCE_DEPTH; depth++) {
+            List<Entry> entries = getEntries(resourceId);
+            if (entries.isEmpty() || entries.get(0).isComplex()) return null;
+            Entry entry = entries.get(0);
+            if (entry.type() != BinaryXml.TYPE_REFERENCE || entry.data() == 0) return format(entry);
+            resourceId = entry.data();
+        }
+        return null;
+    }
+
+    /**
+     * Resolves an attribute value printed as {@code @0x...} (see {@link BinaryXml.Attribute#value()}); other
+     * values, and references that do not resolve, are returned unchanged.
+     */
+    public String resolve(String value) {
+        if (value == null || !value.startsWith("@0x")) return value;
+        try {
+            String resolved = resolve(Integer.parseUnsignedInt(value.substring(3), 16));
+            return resolved != null ? resolved : value;
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    /** Name of a resource id as {@code package:type/key}, or null if unknown. */
+    public String getName(int resourceId) {
+        List<Entry> entries = getEntries(resourceId);
+        if (entries.isEmpty()) return null;
+        Package pkg = getPackage(resourceId >>> 24);
+        return pkg.getName() + ":" + entries.get(0).typeName() + "/" + entries.get(0).key();
+    }
+
+    private static ByteBuffer chunk(ByteBuffer buffer, int position, int end) throws IOException {
+        int headerSize = Short.toUnsignedInt(buffer.getShort(position + 2));
+        int size = buffer.getInt(position + 4);
+        if (size < 8 || headerSize > size || position + (long) size > end) {
+            throw new IOException("Corrupt chunk at offset " + position);
+        }
+        return buffer.slice(position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static Package readPackage(ByteBuffer chunk) throws IOException {
+        int headerSize = Short.toUnsignedInt(chunk.getShort(2));
+        int id = chunk.getInt(8);
+        char[] name = new char[128];
+        int length = 0;
+        while (length < name.length && chunk.getChar(12 + length * 2) != 0) {
+            name[length] = chunk.getChar(12 + length * 2);
+            length++;
+        }
+        int typeIdOffset = headerSize >= 288 ? chunk.getInt(284) : 0;
+        BinaryXml.StringPool typeNames = BinaryXml.StringPool.read(chunk(chunk, chunk.getInt(268), chunk.capacity()));
+        BinaryXml.StringPool keyNames = BinaryXml.StringPool.read(chunk(chunk, chunk.getInt(276), chunk.capacity()));
+
+        Package pkg = new Package(id, new String(name, 0, length), typeNames, keyNames, typeIdOffset);
+        int position = headerSize;
+        while (position + 8 <= chunk.capacity()) {
+            ByteBuffer child = chunk(chunk, position, chunk.capacity());
+            switch (Short.toUnsignedInt(child.getShort(0))) {
+                case RES_TABLE_TYPE_SPEC_TYPE -> pkg.type(Byte.toUnsignedInt(child.get(8)), child.getInt(12));
+                case RES_TABLE_TYPE_TYPE -> {
+                    Type type = pkg.type(Byte.toUnsignedInt(child.get(8)), child.getInt(12));
+                    type.chunks.add(new TypeChunk(pkg, type, child));
+                }
+                default -> {
+                    // String pools were read through the header offsets; library and overlay chunks are not needed
+                }
+            }
+            position += child.capacity();
+        }
+        return pkg;
+    }
+
+    public static final class Package {
+        private final int id;
+        private final String name;
+        private final BinaryXml.StringPool typeNames;
+        private final BinaryXml.StringPool keyNames;
+        private final int typeIdOffset;
+        private final Map<Integer, Type> types = new LinkedHashMap<>();
+
+        private Package(int id, String name, BinaryXml.StringPool typeNames, BinaryXml.StringPool keyNames, int typeIdOffset) {
+            this.id = id;
+            this.name = name;
+            this.typeNames = typeNames;
+            this.keyNames = keyNames;
+            this.typeIdOffset = typeIdOffset;
+        }
+
+        private Type type(int typeId, int entryCount) {
+            Type type = types.computeIfAbsent(typeId, key -> new Type(typeId, typeNames.getOrEmpty(typeId - 1 - typeIdOffset)));
+            type.entryCount = Math.max(type.entryCount, entryCount);
+            return type;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Type> getTypes() {
+            return List.copyOf(types.values());
+        }
+
+        public Type getType(int typeId) {
+            return types.get(typeId);
+        }
+
+        String key(int index) {
+            return keyNames.getOrEmpty(index);
+        }
+    }
+
+    /** A resource type (string, drawable...) with one chunk per configuration that defines some of its entries. */
+    public static final class Type {
+        private final int id;
+        private final String name;
+        private int entryCount;
+        private final List<TypeChunk> chunks = new ArrayList<>();
+
+        private Type(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public List<TypeChunk> getChunks() {
+            return chunks;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * The entries of a type in one configuration. Only the header is read up front.
+     */
+    public static final class TypeChunk {
+        private final Package pkg;
+        private final Type type;
+        private final ByteBuffer chunk;
+        private final int flags;
+        private final int entryCount;
+        private final int entriesStart;
+        private final int offsetsStart;
+        private ResourceConfig config;
+
+        private TypeChunk(Package pkg, Type type, ByteBuffer chunk) {
+            this.pkg = pkg;
+            this.type = type;
+            this.chunk = chunk;
+            this.flags = Byte.toUnsignedInt(chunk.get(9));
+            this.entryCount = chunk.getInt(12);
+            this.entriesStart = chunk.getInt(16);
+            this.offsetsStart = Short.toUnsignedInt(chunk.getShort(2));
+        }
+
+        public ResourceConfig getConfig() {
+            if (config == null) config = ResourceConfig.read(chunk, 20);
+            return config;
+        }
+
+        /** Number of slots; sparse chunks list only the entries they define. */
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        /** Entry {@code index} of the type in this configuration, or null if not defined here. */
+        public Entry getEntry(int index) {
+            int offset;
+            if ((flags & TYPE_FLAG_SPARSE) != 0) {
+                offset = sparseOffset(index);
+            } else if (index < 0 || index >= entryCount) {
+                return null;
+            } else if ((flags & TYPE_FLAG_OFFSET16) != 0) {
+                int offset16 = Short.toUnsignedInt(chunk.getShort(offsetsStart + index * 2));
+                offset = offset16 == NO_ENTRY_16 ? NO_ENTRY : offset16 * 4;
+            } else {
+                offset = chunk.getInt(offsetsStart + index * 4);
+            }
+            return offset == NO_ENTRY ? null : readEntry(index, entriesStart + offset);
+        }
+
+        /** The entries defined in this configuration, decoded now. */
+        public List<Entry> getEntries() {
+            List<Entry> entries = new ArrayList<>();
+            if ((flags & TYPE_FLAG_SPARSE) != 0) {
+                for (int i = 0; i < entryCount; i++) {
+                    int index = Short.toUnsignedInt(chunk.getShort(offsetsStart + i * 4));
+                    entries.add(readEntry(index, entriesStart + Short.toUnsignedInt(chunk.getShort(offsetsStart + i * 4 + 2)) * 4));
+                }
+                return entries;
+            }
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = getEntry(i);
+                if (entry != null) entries.add(entry);
+            }
+            return entries;
+        }
+
+        // Sparse chunks hold (index, offset / 4) pairs sorted by index
+        private int sparseOffset(int index) {
+            int low = 0, high = entryCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int at = Short.toUnsignedInt(chunk.getShort(offsetsStart + middle * 4));
+                if (at < index) low = middle + 1;
+                else if (at > index) high = middle - 1;
+                else return Short.toUnsignedInt(chunk.getShort(offsetsStart + middle * 4 + 2)) * 4;
+            }
+            return NO_ENTRY;
+        }
+
+        private Entry readEntry(int index, int at) {
+            int resourceId = (pkg.getId() << 24) | (type.getId() << 16) | index;
+            int size = Short.toUnsignedInt(chunk.getShort(at));
+            int entryFlags = Short.toUnsignedInt(chunk.getShort(at + 2));
+            if ((entryFlags & ENTRY_FLAG_COMPACT) != 0) {
+                // Compact entries keep the key in the size field and the value type in the high flag byte
+                return new Entry(resourceId, type.getName(), pkg.key(size), getConfig(),
+                        entryFlags >>> 8, chunk.getInt(at + 4), List.of());
+            }
+            String key = pkg.key(chunk.getInt(at + 4));
+            if ((entryFlags & ENTRY_FLAG_COMPLEX) != 0) {
+                int count = chunk.getInt(at + 12);
+                List<MapItem> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int item = at + size + i * 12;
+                    items.add(new MapItem(chunk.getInt(item), Byte.toUnsignedInt(chunk.get(item + 7)), chunk.getInt(item + 8)));
+                }
+                return new Entry(resourceId, type.getName(), key, getConfig(), -1, chunk.getInt(at + 8), List.copyOf(items));
+            }
+            return new Entry(resourceId, type.getName(), key, getConfig(),
+                    Byte.toUnsignedInt(chunk.get(at + size + 3)), chunk.getInt(at + size + 4), List.of());
+        }
+
+        @Override
+        public String toString() {
+            return type.getName() + " [" + getConfig() + "]";
+        }
+    }
+
+    /**
+     * One resource in one configuration. Complex entries (styles, arrays, plurals) have {@code type} -1,
+     * their parent id in {@code data} and their values in {@code items}.
+     */
+    public record Entry(int resourceId, String typeName, String key, ResourceConfig config,
+                        int type, int data, List<MapItem> items) {
+
+        public boolean isComplex() {
+            return type < 0;
+        }
+    }
+
+    /**
+     * @param name attribute id, or array index / plural quantity id for bags
+     */
+    public record MapItem(int name, int type, int data) {
+    }
+
+    /** An entry's value formatted like aapt does; strings are read from the value pool. */
+    public String format(Entry entry) {
+        if (entry.isComplex()) {
+            return "(" + entry.items().size() + " items" + (entry.data() != 0 ? String.format(", parent @0x%08x", entry.data()) : "") + ")";
+        }
+        return format(entry.type(), entry.data());
+    }
+
+    public String format(MapItem item) {
+        return format(item.type(), item.data());
+    }
+
+    private String format(int type, int data) {
+        return BinaryXml.formatValue(type, data, type == BinaryXml.TYPE_STRING ? values.getOrEmpty(data) : null);
+    }
+}
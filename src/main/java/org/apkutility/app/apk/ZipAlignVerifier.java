@@ -0,0 +1,125 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Checks zipalign requirements without rewriting anything: the APK is memory-mapped and only its
+ * central directory and local headers are read. Uses the same rules as {@link ZipAligner}.
+ */
+public class ZipAlignVerifier {
+
+    private final ZipAligner rules;
+
+    public ZipAlignVerifier(int alignment, int soPageSize) {
+        this.rules = new ZipAligner(alignment, soPageSize);
+    }
+
+    public record Issue(String entryName, long dataOffset, int requiredAlignment) {
+        @Override
+        public String toString() {
+            return entryName + " at offset " + dataOffset + " (needs " + requiredAlignment + "-byte alignment)";
+        }
+    }
+
+    /**
+     * Verification result of one APK. {@code error} is set when the file could not be read at all or is not a
+     * well-formed ZIP.
+     */
+    public record Report(Path apk, int entries, List<Issue> issues, String error, long millis) {
+        public boolean isAligned() {
+            return error == null && issues.isEmpty();
+        }
+    }
+
+    public Report verify(Path apk) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("APK larger than 2 GB");
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            file.order(ByteOrder.LITTLE_ENDIAN);
+
+            ZipCentralDirectory cd = ZipCentralDirectory.read(file);
+            List<Issue> issues = new ArrayList<>();
+            for (ZipCentralDirectory.Entry entry : cd.getEntries()) {
+                int required = rules.requiredAlignment(entry);
+                if (required == 0) continue;
+
+                long headerOffset = entry.localHeaderOffset();
+                if (headerOffset + ZipCentralDirectory.LOCAL_HEADER_SIZE > file.limit()) {
+                    throw new IOException("Local header of " + entry.name() + " lies past the end of the file");
+                }
+                int offset = (int) headerOffset;
+                if (file.getInt(offset) != ZipCentralDirectory.LOCAL_HEADER_SIGNATURE) {
+                    throw new IOException("Bad local header for " + entry.name());
+                }
+                long dataOffset = offset + ZipCentralDirectory.LOCAL_HEADER_SIZE
+                        + Short.toUnsignedInt(file.getShort(offset + 26)) + Short.toUnsignedInt(file.getShort(offset + 28));
+                if (dataOffset > file.limit()) {
+                    throw new IOException("Data of " + entry.name() + " lies past the end of the file");
+                }
+                if (dataOffset % required != 0) {
+                    issues.add(new Issue(entry.name(), dataOffset, required));
+                }
+            }
+            return new Report(apk, cd.getEntries().size(), issues, null, elapsedMillis(start));
+        } catch (IOException e) {
+            return new Report(apk, 0, List.of(), e.getMessage(), elapsedMillis(start));
+        } catch (RuntimeException e) {
+            // A corrupt central directory can still point reads outside the mapping; that is this file's
+            // error, not the folder run's
+            return new Report(apk, 0, List.of(), "Corrupt ZIP structure: " + e, elapsedMillis(start));
+        }
+    }
+
+    /**
+     * Verifies every .apk under {@code directory} on {@code threads} threads. Reports are passed to
+     * {@code onReport} as they complete and returned in path order.
+     */
+    public List<Report> verifyDirectory(Path directory, int threads, Consumer<Report> onReport) throws Exception {
+        List<Path> apks;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            apks = walk.filter(Files::isRegularFile)
+                       .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".apk"))
+                       .sorted()
+                       .toList();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "align-verify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Report>> futures = new ArrayList<>();
+            for (Path apk : apks) {
+                futures.add(pool.submit(() -> {
+                    Report report = verify(apk);
+                    if (onReport != null) onReport.accept(report);
+                    return report;
+                }));
+            }
+            List<Report> reports = new ArrayList<>();
+            for (Future<Report> future : futures) reports.add(future.get());
+            return reports;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,232 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * In-process replacement for {@code zipalign}.
+ * <p>
+ * Entries are copied as raw bytes with {@link FileChannel#transferTo} (never inflated or deflated).
+ * Stored entries get padding in their local extra field so their data starts on an {@code alignment}
+ * boundary, or on a page boundary for {@code .so} files. The padding uses the same 0xD935 extra field as apksigner.
+ * The APK Signing Block is dropped, as with native zipalign: the output must be signed again.
+ */
+public class ZipAligner {
+
+    public static final int DEFAULT_ALIGNMENT = 4;
+    public static final int PAGE_4K = 4096;
+    public static final int PAGE_16K = 16384;
+
+    static final short ALIGNMENT_EXTRA_ID = (short) 0xD935;
+    static final int ALIGNMENT_EXTRA_MIN_SIZE = 6;
+
+    private final int alignment;
+    private final int soPageSize;
+
+    /**
+     * @param soPageSize page size for stored {@code .so} files, or 0 to align them like any other entry
+     */
+    public ZipAligner(int alignment, int soPageSize) {
+        this.alignment = alignment;
+        this.soPageSize = soPageSize;
+    }
+
+    public record Result(int entries, int alignedEntries, long bytesRead, long bytesWritten, long millis) {
+    }
+
+    /**
+     * Aligns {@code input} into {@code output}. The output is written to a temporary file next to it first,
+     * so input and output may be the same file.
+     *
+     * @param progress receives the number of bytes written so far after every entry
+     */
+    public Result align(Path input, Path output, LongConsumer progress) throws IOException {
+        long start = System.nanoTime();
+        Path absoluteOutput = output.toAbsolutePath();
+        Path temp = absoluteOutput.resolveSibling(absoluteOutput.getFileName() + ".aligning");
+        Result result;
+        try {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                ZipCentralDirectory cd = ZipCentralDirectory.read(in);
+                ByteBuffer newCd = ByteBuffer.allocate((int) cd.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+                long bytesRead = 0;
+                int aligned = 0;
+
+                for (ZipCentralDirectory.Entry entry : cd.getEntriesInFileOrder()) {
+                    long newOffset = out.position();
+                    LocalHeader header = LocalHeader.read(in, entry);
+                    if (requiredAlignment(entry) > 0) aligned++;
+
+                    writeFully(out, rewriteLocalHeader(header, entry, newOffset));
+                    transferFully(in, header.dataOffset, header.dataLength, out);
+                    bytesRead += header.headerLength + header.dataLength;
+                    newCd.put(relocatedCentralRecord(entry, newOffset));
+
+                    if (progress != null) progress.accept(out.position());
+                }
+
+                long newCdOffset = out.position();
+                writeFully(out, newCd.flip());
+                ByteBuffer eocd = cd.getEocd();
+                eocd.putInt(16, (int) newCdOffset);
+                writeFully(out, eocd);
+                bytesRead += cd.getSize() + eocd.capacity();
+
+                result = new Result(cd.getEntries().size(), aligned, bytesRead, out.position(), (System.nanoTime() - start) / 1_000_000);
+            }
+            // Both channels are closed by now: Windows cannot replace a file that is still open
+            Files.move(temp, absoluteOutput, StandardCopyOption.REPLACE_EXISTING);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Alignment the data of this entry must have, or 0 if it does not need any (compressed entries).
+     */
+    public int requiredAlignment(ZipCentralDirectory.Entry entry) {
+        if (!entry.isStored()) return 0;
+        if (soPageSize > 0 && entry.name().endsWith(".so")) return soPageSize;
+        return alignment;
+    }
+
+    /**
+     * Local header of {@code entry} for its new position, with the padding its data needs.
+     */
+    ByteBuffer rewriteLocalHeader(LocalHeader header, ZipCentralDirectory.Entry entry, long newOffset) {
+        int entryAlignment = requiredAlignment(entry);
+        byte[] extra = entryAlignment > 0
+                ? alignedExtra(header.extra, newOffset + ZipCentralDirectory.LOCAL_HEADER_SIZE + header.name.length, entryAlignment)
+                : header.extra;
+
+        ByteBuffer newHeader = ByteBuffer.allocate(ZipCentralDirectory.LOCAL_HEADER_SIZE + header.name.length + extra.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        newHeader.put(header.fixed.duplicate().rewind());
+        newHeader.putShort(28, (short) extra.length);
+        return newHeader.put(header.name).put(extra).flip();
+    }
+
+    static byte[] relocatedCentralRecord(ZipCentralDirectory.Entry entry, long newOffset) {
+        byte[] record = entry.centralRecord().clone();
+        ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN).putInt(42, (int) newOffset);
+        return record;
+    }
+
+    /**
+     * Returns {@code extra} without previous alignment padding plus a new 0xD935 block sized so that
+     * the entry data, which starts right after the extra field, lands on an {@code alignment} boundary.
+     */
+    static byte[] alignedExtra(byte[] extra, long extraOffset, int alignment) {
+        byte[] stripped = stripAlignmentExtra(extra);
+        long dataOffset = extraOffset + stripped.length + ALIGNMENT_EXTRA_MIN_SIZE;
+        int padding = (int) ((alignment - (dataOffset % alignment)) % alignment);
+
+        ByteBuffer result = ByteBuffer.allocate(stripped.length + ALIGNMENT_EXTRA_MIN_SIZE + padding).order(ByteOrder.LITTLE_ENDIAN);
+        result.put(stripped);
+        result.putShort(ALIGNMENT_EXTRA_ID);
+        result.putShort((short) (2 + padding));
+        result.putShort((short) alignment);
+        return result.array();
+    }
+
+    private static byte[] stripAlignmentExtra(byte[] extra) {
+        ByteBuffer in = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer out = ByteBuffer.allocate(extra.length);
+        while (in.remaining() >= 4) {
+            int blockStart = in.position();
+            short id = in.getShort();
+            int size = Short.toUnsignedInt(in.getShort());
+            if (size > in.remaining()) {
+                // Malformed (often zero padding from older zipalign): drop the rest
+                break;
+            }
+            in.position(in.position() + size);
+            if (id != ALIGNMENT_EXTRA_ID && id != 0) {
+                out.put(extra, blockStart, 4 + size);
+            }
+        }
+        byte[] result = new byte[out.position()];
+        out.flip().get(result);
+        return result;
+    }
+
+    private static void transferFully(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long n = in.transferTo(position + done, count - done, out);
+            if (n <= 0) throw new IOException("Unexpected end of file while copying entry data");
+            done += n;
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    /**
+     * Local file header of an entry: the 30 fixed bytes, name and extra field, plus where the data starts.
+     */
+    static final class LocalHeader {
+        final ByteBuffer fixed;
+        final byte[] name;
+        final byte[] extra;
+        final long dataOffset;
+        final int headerLength;
+        /** Compressed data plus the data descriptor, if any. */
+        final long dataLength;
+
+        private LocalHeader(ByteBuffer fixed, byte[] name, byte[] extra, long dataOffset, long dataLength) {
+            this.fixed = fixed;
+            this.name = name;
+            this.extra = extra;
+            this.dataOffset = dataOffset;
+            this.headerLength = ZipCentralDirectory.LOCAL_HEADER_SIZE + name.length + extra.length;
+            this.dataLength = dataLength;
+        }
+
+        static LocalHeader read(FileChannel in, ZipCentralDirectory.Entry entry) throws IOException {
+            return read(in.size(), (position, length) -> ZipCentralDirectory.readAt(in, position, length), entry);
+        }
+
+        /** Reads the header from a buffer holding the whole file, typically a memory mapping. */
+        static LocalHeader read(ByteBuffer file, ZipCentralDirectory.Entry entry) throws IOException {
+            return read(file.capacity(), (position, length) -> file.slice((int) position, length).order(ByteOrder.LITTLE_ENDIAN), entry);
+        }
+
+        private static LocalHeader read(long fileSize, ZipCentralDirectory.RangeReader reader, ZipCentralDirectory.Entry entry) throws IOException {
+            long offset = entry.localHeaderOffset();
+            if (offset + ZipCentralDirectory.LOCAL_HEADER_SIZE > fileSize) throw new IOException("Bad local header offset for " + entry.name());
+            ByteBuffer fixed = reader.read(offset, ZipCentralDirectory.LOCAL_HEADER_SIZE);
+            if (fixed.getInt(0) != ZipCentralDirectory.LOCAL_HEADER_SIGNATURE) {
+                throw new IOException("Bad local header for " + entry.name());
+            }
+            int nameLen = Short.toUnsignedInt(fixed.getShort(26));
+            int extraLen = Short.toUnsignedInt(fixed.getShort(28));
+            ByteBuffer variable = reader.read(offset + ZipCentralDirectory.LOCAL_HEADER_SIZE, nameLen + extraLen);
+            byte[] name = new byte[nameLen];
+            byte[] extra = new byte[extraLen];
+            variable.get(name).get(extra);
+
+            long dataOffset = offset + ZipCentralDirectory.LOCAL_HEADER_SIZE + nameLen + extraLen;
+            long dataLength = entry.compressedSize();
+            if (entry.hasDataDescriptor()) {
+                long descriptorOffset = dataOffset + entry.compressedSize();
+                boolean signed = descriptorOffset + 4 <= fileSize
+                        && reader.read(descriptorOffset, 4).getInt(0) == ZipCentralDirectory.DATA_DESCRIPTOR_SIGNATURE;
+                dataLength += signed ? 16 : 12;
+            }
+            if (dataOffset + dataLength > fileSize) throw new IOException("Entry data out of bounds for " + entry.name());
+            return new LocalHeader(fixed, name, extra, dataOffset, dataLength);
+        }
+    }
+}
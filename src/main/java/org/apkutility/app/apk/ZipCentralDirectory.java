@@ -0,0 +1,163 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Central directory of a ZIP/APK, read from the end of the file without touching entry data.
+ * ZIP64 archives are rejected: APKs are limited to 4 GB.
+ */
+public final class ZipCentralDirectory {
+
+    public static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    public static final int LOCAL_HEADER_SIZE = 30;
+    public static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final List<Entry> entries;
+    private final long offset;
+    private final long size;
+    private final long eocdOffset;
+    private final ByteBuffer eocd;
+
+    private ZipCentralDirectory(List<Entry> entries, long offset, long size, long eocdOffset, ByteBuffer eocd) {
+        this.entries = entries;
+        this.offset = offset;
+        this.size = size;
+        this.eocdOffset = eocdOffset;
+        this.eocd = eocd;
+    }
+
+    public static ZipCentralDirectory read(FileChannel channel) throws IOException {
+        return read(channel.size(), (position, length) -> readAt(channel, position, length));
+    }
+
+    /**
+     * Reads the directory from a buffer holding the whole file, typically a memory mapping.
+     */
+    public static ZipCentralDirectory read(ByteBuffer file) throws IOException {
+        return read(file.capacity(), (position, length) -> file.slice((int) position, length).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    private static ZipCentralDirectory read(long fileSize, RangeReader reader) throws IOException {
+        int tailSize = (int) Math.min(fileSize, EOCD_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = reader.read(fileSize - tailSize, tailSize);
+
+        int eocdPos = -1;
+        for (int i = tailSize - EOCD_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE && i + EOCD_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) == tailSize) {
+                eocdPos = i;
+                break;
+            }
+        }
+        if (eocdPos < 0) throw new IOException("Not a ZIP archive: end of central directory not found");
+
+        ByteBuffer eocd = ByteBuffer.allocate(tailSize - eocdPos).order(ByteOrder.LITTLE_ENDIAN);
+        eocd.put(tail.duplicate().position(eocdPos)).flip();
+
+        int count = Short.toUnsignedInt(eocd.getShort(10));
+        long cdSize = Integer.toUnsignedLong(eocd.getInt(12));
+        long cdOffset = Integer.toUnsignedLong(eocd.getInt(16));
+        if (count == 0xFFFF || cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL) {
+            throw new IOException("ZIP64 archives are not supported");
+        }
+        long eocdOffset = fileSize - tailSize + eocdPos;
+        if (cdOffset + cdSize > eocdOffset) throw new IOException("Corrupt central directory");
+
+        ByteBuffer cd = reader.read(cdOffset, (int) cdSize);
+        List<Entry> entries = new ArrayList<>(count);
+        int pos = 0;
+        while (pos + CENTRAL_HEADER_SIZE <= cdSize) {
+            if (cd.getInt(pos) != CENTRAL_HEADER_SIGNATURE) throw new IOException("Corrupt central directory at entry " + entries.size());
+            int nameLen = Short.toUnsignedInt(cd.getShort(pos + 28));
+            int extraLen = Short.toUnsignedInt(cd.getShort(pos + 30));
+            int commentLen = Short.toUnsignedInt(cd.getShort(pos + 32));
+            int recordLen = CENTRAL_HEADER_SIZE + nameLen + extraLen + commentLen;
+
+            byte[] nameBytes = new byte[nameLen];
+            cd.get(pos + CENTRAL_HEADER_SIZE, nameBytes);
+            byte[] record = new byte[recordLen];
+            cd.get(pos, record);
+
+            entries.add(new Entry(
+                    new String(nameBytes, StandardCharsets.UTF_8),
+                    Short.toUnsignedInt(cd.getShort(pos + 8)),
+                    Short.toUnsignedInt(cd.getShort(pos + 10)),
+                    Integer.toUnsignedLong(cd.getInt(pos + 16)),
+                    Integer.toUnsignedLong(cd.getInt(pos + 20)),
+                    Integer.toUnsignedLong(cd.getInt(pos + 24)),
+                    Integer.toUnsignedLong(cd.getInt(pos + 42)),
+                    record));
+            pos += recordLen;
+        }
+        return new ZipCentralDirectory(entries, cdOffset, cdSize, eocdOffset, eocd);
+    }
+
+    /** Entries in central directory order. */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /** Entries sorted by the position of their data in the file. */
+    public List<Entry> getEntriesInFileOrder() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> Long.compare(a.localHeaderOffset(), b.localHeaderOffset()));
+        return sorted;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getEocdOffset() {
+        return eocdOffset;
+    }
+
+    /** Copy of the end of central directory record, including the archive comment. */
+    public ByteBuffer getEocd() {
+        ByteBuffer copy = ByteBuffer.allocate(eocd.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        return copy.put(eocd.duplicate()).flip();
+    }
+
+    static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+        return buffer.flip();
+    }
+
+    @FunctionalInterface
+    interface RangeReader {
+        ByteBuffer read(long position, int length) throws IOException;
+    }
+
+    /**
+     * One central directory record. {@code centralRecord} is the raw record, used when the directory is rewritten.
+     */
+    public record Entry(String name, int flags, int method, long crc, long compressedSize, long uncompressedSize,
+                        long localHeaderOffset, byte[] centralRecord) {
+
+        public boolean isStored() {
+            return method == 0;
+        }
+
+        public boolean hasDataDescriptor() {
+            return (flags & 0x08) != 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.apkutility.app.apk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads single entries of an APK by random access: only the entry's local header and data are read,
+ * so pulling a small file such as {@code AndroidManifest.xml} out of a large APK costs a few reads.
+ */
+public final class ZipEntryReader {
+
+    private static final int METHOD_DEFLATED = 8;
+    // Compressed bytes read per step when only a prefix is needed
+    private static final int PREFIX_READ_SIZE = 8192;
+
+    private ZipEntryReader() {
+    }
+
+    /**
+     * Returns the uncompressed data of {@code entry}, little-endian and ready to read.
+     *
+     * @param maxSize entries claiming to be larger are rejected before anything is allocated
+     */
+    public static ByteBuffer read(FileChannel channel, ZipCentralDirectory.Entry entry, int maxSize) throws IOException {
+        if (entry.uncompressedSize() > maxSize || entry.compressedSize() > Integer.MAX_VALUE) {
+            throw new IOException(entry.name() + " is too large (" + entry.uncompressedSize() + " bytes)");
+        }
+        ZipAligner.LocalHeader header = ZipAligner.LocalHeader.read(channel, entry);
+        ByteBuffer data = ZipCentralDirectory.readAt(channel, header.dataOffset, (int) entry.compressedSize());
+
+        if (entry.isStored()) return data;
+        if (entry.method() != METHOD_DEFLATED) {
+            throw new IOException(entry.name() + " uses unsupported compression method " + entry.method());
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteBuffer out = ByteBuffer.allocate((int) entry.uncompressedSize());
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated data for " + entry.name());
+                }
+            }
+            return out.flip().order(ByteOrder.LITTLE_ENDIAN);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt data for " + entry.name() + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads only the first {@code length} uncompressed bytes of {@code entry} (fewer if it is shorter),
+     * inflating no more of a compressed entry than needed. Used to peek at file headers.
+     */
+    public static ByteBuffer readPrefix(FileChannel channel, ZipCentralDirectory.Entry entry, int length) throws IOException {
+        int size = (int) Math.min(length, entry.uncompressedSize());
+        ZipAligner.LocalHeader header = ZipAligner.LocalHeader.read(channel, entry);
+        if (entry.isStored()) return ZipCentralDirectory.readAt(channel, header.dataOffset, size);
+        if (entry.method() != METHOD_DEFLATED) {
+            throw new IOException(entry.name() + " uses unsupported compression method " + entry.method());
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            ByteBuffer out = ByteBuffer.allocate(size);
+            long position = header.dataOffset;
+            long end = header.dataOffset + entry.compressedSize();
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (position >= end) throw new IOException("Truncated data for " + entry.name());
+                    int chunk = (int) Math.min(PREFIX_READ_SIZE, end - position);
+                    inflater.setInput(ZipCentralDirectory.readAt(channel, position, chunk));
+                    position += chunk;
+                }
+                inflater.inflate(out);
+            }
+            return out.flip().order(ByteOrder.LITTLE_ENDIAN);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt data for " + entry.name() + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Like {@link #read}, but a stored entry is memory-mapped in place instead of copied: nothing is read
+     * until the returned buffer is accessed. Compressed entries are inflated onto the heap.
+     */
+    public static ByteBuffer map(FileChannel channel, ZipCentralDirectory.Entry entry, int maxSize) throws IOException {
+        if (!entry.isStored()) return read(channel, entry, maxSize);
+        if (entry.uncompressedSize() > maxSize) {
+            throw new IOException(entry.name() + " is too large (" + entry.uncompressedSize() + " bytes)");
+        }
+        ZipAligner.LocalHeader header = ZipAligner.LocalHeader.read(channel, entry);
+        return channel.map(FileChannel.MapMode.READ_ONLY, header.dataOffset, entry.uncompressedSize())
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** The entry called {@code name}, or null. */
+    public static ZipCentralDirectory.Entry find(ZipCentralDirectory cd, String name) {
+        for (ZipCentralDirectory.Entry entry : cd.getEntries()) {
+            if (entry.name().equals(name)) return entry;
+        }
+        return null;
+    }
+}
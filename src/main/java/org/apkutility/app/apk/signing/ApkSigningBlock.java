@@ -0,0 +1,123 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+
+/**
+ * Builds the APK Signing Block with v2 and v3 signatures over a precomputed chunked SHA-256 content digest.
+ * <pre>
+ *   uint64 size | (uint64 len, uint32 id, value)* | uint64 size | "APK Sig Block 42"
+ * </pre>
+ * The layout follows apksigner byte for byte (trailing reserved v2 field, v3 min SDK, padding pair),
+ * so a v4 signature computed over the result matches the one apksigner would produce.
+ */
+public final class ApkSigningBlock {
+
+    public static final int V2_BLOCK_ID = 0x7109871a;
+    public static final int V3_BLOCK_ID = 0xf05368c0;
+    public static final byte[] MAGIC = "APK Sig Block 42".getBytes(StandardCharsets.US_ASCII);
+    /** The block is padded to a multiple of this, and apksigner starts it on such a boundary as well. */
+    public static final int PAGE_ALIGNMENT = 4096;
+    private static final int PADDING_BLOCK_ID = 0x42726577;
+
+    /** v2 signed-data attribute naming stronger schemes that must also be present (anti-stripping). */
+    static final int STRIPPING_PROTECTION_ATTRIBUTE_ID = 0xbeeff00d;
+    // Lowest SDK of the supported signature algorithms (RSA/EC/DSA with SHA-256 all need N), as apksigner writes it
+    static final int V3_MIN_SDK = 24;
+    static final int V3_MAX_SDK = Integer.MAX_VALUE;
+
+    private ApkSigningBlock() {
+    }
+
+    public static byte[] v2Value(SigningKey key, byte[] contentDigest, boolean v3Present) throws GeneralSecurityException {
+        byte[] attributes = v3Present
+                ? lengthPrefixed(lengthPrefixed(littleEndianInt(STRIPPING_PROTECTION_ATTRIBUTE_ID), littleEndianInt(3)))
+                : lengthPrefixed();
+        // The trailing empty field is reserved; apksigner always writes it
+        byte[] signedData = concat(digests(key, contentDigest), certificates(key), attributes, lengthPrefixed());
+
+        byte[] signer = concat(
+                lengthPrefixed(signedData),
+                signatures(key, signedData),
+                lengthPrefixed(key.certificate().getPublicKey().getEncoded()));
+        return lengthPrefixed(lengthPrefixed(signer));
+    }
+
+    public static byte[] v3Value(SigningKey key, byte[] contentDigest) throws GeneralSecurityException {
+        byte[] sdkRange = concat(littleEndianInt(V3_MIN_SDK), littleEndianInt(V3_MAX_SDK));
+        byte[] signedData = concat(digests(key, contentDigest), certificates(key), sdkRange, lengthPrefixed());
+
+        byte[] signer = concat(
+                lengthPrefixed(signedData),
+                sdkRange,
+                signatures(key, signedData),
+                lengthPrefixed(key.certificate().getPublicKey().getEncoded()));
+        return lengthPrefixed(lengthPrefixed(signer));
+    }
+
+    /**
+     * Wraps id/value pairs (in map order) into a complete signing block, padded with a padding pair
+     * to a multiple of {@link #PAGE_ALIGNMENT}.
+     */
+    public static byte[] assemble(Map<Integer, byte[]> pairs) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Map.Entry<Integer, byte[]> pair : pairs.entrySet()) {
+            writePair(body, pair.getKey(), pair.getValue());
+        }
+
+        int unpadded = 8 + body.size() + 8 + MAGIC.length;
+        if (unpadded % PAGE_ALIGNMENT != 0) {
+            int padding = PAGE_ALIGNMENT - unpadded % PAGE_ALIGNMENT;
+            // A pair needs 12 bytes for its length and id
+            if (padding < 12) padding += PAGE_ALIGNMENT;
+            writePair(body, PADDING_BLOCK_ID, new byte[padding - 12]);
+        }
+
+        long size = body.size() + 8L + MAGIC.length;
+        return concat(littleEndianLong(size), body.toByteArray(), littleEndianLong(size), MAGIC);
+    }
+
+    private static void writePair(ByteArrayOutputStream body, int id, byte[] value) {
+        body.writeBytes(littleEndianLong(4L + value.length));
+        body.writeBytes(littleEndianInt(id));
+        body.writeBytes(value);
+    }
+
+    private static byte[] digests(SigningKey key, byte[] contentDigest) {
+        return lengthPrefixed(lengthPrefixed(littleEndianInt(key.signatureAlgorithmId()), lengthPrefixed(contentDigest)));
+    }
+
+    private static byte[] certificates(SigningKey key) throws GeneralSecurityException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (X509Certificate certificate : key.certificates()) {
+            out.writeBytes(lengthPrefixed(certificate.getEncoded()));
+        }
+        return lengthPrefixed(out.toByteArray());
+    }
+
+    private static byte[] signatures(SigningKey key, byte[] signedData) throws GeneralSecurityException {
+        return lengthPrefixed(lengthPrefixed(littleEndianInt(key.signatureAlgorithmId()), lengthPrefixed(key.sign(signedData))));
+    }
+
+    static byte[] lengthPrefixed(byte[]... parts) {
+        byte[] content = concat(parts);
+        return concat(littleEndianInt(content.length), content);
+    }
+
+    static byte[] concat(byte[]... parts) {
+        return DerEncoder.concat(parts);
+    }
+
+    static byte[] littleEndianInt(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    static byte[] littleEndianLong(long value) {
+        return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+    }
+}
@@ -0,0 +1,77 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Streaming v2/v3 content digest (CONTENT_DIGEST_CHUNKED_SHA256).
+ * <p>
+ * Each section (entries, central directory, end of central directory) is split into 1 MB chunks that never
+ * span sections; every chunk is digested as {@code SHA-256(0xa5 || len || chunk)} and the result is
+ * {@code SHA-256(0x5a || chunkCount || chunk digests...)}. Data can be fed in pieces of any size.
+ */
+public class ChunkedDigester {
+
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final MessageDigest sha256;
+    private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    private final ByteArrayOutputStream chunkDigests = new ByteArrayOutputStream();
+    private int chunkCount;
+
+    public ChunkedDigester() {
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void update(ByteBuffer data) {
+        while (data.hasRemaining()) {
+            int n = Math.min(chunk.remaining(), data.remaining());
+            chunk.put(data.slice(data.position(), n));
+            data.position(data.position() + n);
+            if (!chunk.hasRemaining()) digestChunk();
+        }
+    }
+
+    public void update(byte[] data) {
+        update(ByteBuffer.wrap(data));
+    }
+
+    /** Ends the current section; the next byte starts a new chunk. */
+    public void endSection() {
+        if (chunk.position() > 0) digestChunk();
+    }
+
+    public byte[] digest() {
+        endSection();
+        sha256.update((byte) 0x5a);
+        sha256.update(littleEndianInt(chunkCount));
+        sha256.update(chunkDigests.toByteArray());
+        return sha256.digest();
+    }
+
+    /** {@code SHA-256(0xa5 || len || data)}; consumes {@code data}. */
+    static byte[] digestChunk(MessageDigest sha256, ByteBuffer data) {
+        sha256.update((byte) 0xa5);
+        sha256.update(littleEndianInt(data.remaining()));
+        sha256.update(data);
+        return sha256.digest();
+    }
+
+    private void digestChunk() {
+        chunk.flip();
+        chunkDigests.writeBytes(digestChunk(sha256, chunk));
+        chunk.clear();
+        chunkCount++;
+    }
+
+    static byte[] littleEndianInt(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+}
@@ -0,0 +1,113 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Minimal DER encoder for the ASN.1 structures APK signing needs (PKCS#7 SignedData, X.509 certificates).
+ */
+public final class DerEncoder {
+
+    private static final DateTimeFormatter UTC_TIME = DateTimeFormatter.ofPattern("yyMMddHHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter GENERALIZED_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private DerEncoder() {
+    }
+
+    public static byte[] sequence(byte[]... items) {
+        return tagged(0x30, concat(items));
+    }
+
+    /** SET OF: DER requires the encoded elements in ascending order. */
+    public static byte[] set(byte[]... items) {
+        byte[][] sorted = items.clone();
+        Arrays.sort(sorted, Arrays::compareUnsigned);
+        return tagged(0x31, concat(sorted));
+    }
+
+    public static byte[] integer(BigInteger value) {
+        return tagged(0x02, value.toByteArray());
+    }
+
+    public static byte[] integer(long value) {
+        return integer(BigInteger.valueOf(value));
+    }
+
+    public static byte[] oid(String dotted) {
+        String[] arcs = dotted.split("\\.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBase128(out, Long.parseLong(arcs[0]) * 40 + Long.parseLong(arcs[1]));
+        for (int i = 2; i < arcs.length; i++) {
+            writeBase128(out, Long.parseLong(arcs[i]));
+        }
+        return tagged(0x06, out.toByteArray());
+    }
+
+    public static byte[] nullValue() {
+        return new byte[]{0x05, 0x00};
+    }
+
+    public static byte[] octetString(byte[] value) {
+        return tagged(0x04, value);
+    }
+
+    /** BIT STRING with no unused bits. */
+    public static byte[] bitString(byte[] value) {
+        return tagged(0x03, concat(new byte[]{0}, value));
+    }
+
+    public static byte[] utf8String(String value) {
+        return tagged(0x0C, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] printableString(String value) {
+        return tagged(0x13, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** X.509 time: UTCTime until 2049, GeneralizedTime from 2050 (RFC 5280). */
+    public static byte[] time(Instant instant) {
+        int year = instant.atZone(ZoneOffset.UTC).getYear();
+        return year < 2050
+                ? tagged(0x17, UTC_TIME.format(instant).getBytes(StandardCharsets.US_ASCII))
+                : tagged(0x18, GENERALIZED_TIME.format(instant).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Constructed context-specific tag [number], used for both EXPLICIT and IMPLICIT constructed fields. */
+    public static byte[] contextSpecific(int number, byte[]... content) {
+        return tagged(0xA0 | number, concat(content));
+    }
+
+    public static byte[] tagged(int tag, byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 6);
+        out.write(tag);
+        int length = content.length;
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int bytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--) out.write(length >>> (i * 8));
+        }
+        out.writeBytes(content);
+        return out.toByteArray();
+    }
+
+    public static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) out.writeBytes(part);
+        return out.toByteArray();
+    }
+
+    private static void writeBase128(ByteArrayOutputStream out, long value) {
+        int groups = Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+        for (int i = groups - 1; i >= 0; i--) {
+            int group = (int) ((value >>> (i * 7)) & 0x7F);
+            out.write(i == 0 ? group : group | 0x80);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * fs-verity style SHA-256 Merkle tree over a whole file (4 KB blocks, no salt), as used by v4 signatures.
+ * <p>
+ * Every level holds the digests of the 4 KB blocks of the level below (the file for the leaf level),
+ * zero-padded to a whole block; the last data block is zero-padded too. Levels are stored top-down and the
+ * root hash is the digest of the single top block. Blocks of a level are hashed in parallel on a fork/join
+ * pool, so the work per level is spread over all threads before moving up.
+ */
+public final class MerkleTree {
+
+    public static final int BLOCK_SIZE = 4096;
+    public static final byte LOG2_BLOCK_SIZE = 12;
+    private static final int DIGEST_LENGTH = 32;
+    // Blocks per leaf task: 1 MB of data, or 256 digests of an upper level
+    private static final int LEAF_BLOCKS = 256;
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final byte[] tree;
+    private final byte[] rootHash;
+
+    private MerkleTree(byte[] tree, byte[] rootHash) {
+        this.tree = tree;
+        this.rootHash = rootHash;
+    }
+
+    /** All levels, top level first, each padded to a whole block. */
+    public byte[] getTree() {
+        return tree;
+    }
+
+    public byte[] getRootHash() {
+        return rootHash;
+    }
+
+    /**
+     * Builds the tree over the remaining bytes of {@code data}, which is not modified.
+     */
+    public static MerkleTree build(ByteBuffer data, ForkJoinPool pool) {
+        // Level sizes from the leaf level up; the loop ends with the first level that fits in one block
+        List<Integer> levelSizes = new ArrayList<>();
+        long levelDataSize = data.remaining();
+        while (true) {
+            long blocks = blockCount(levelDataSize);
+            long digestBytes = blocks * DIGEST_LENGTH;
+            levelSizes.add(Math.toIntExact(blockCount(digestBytes) * BLOCK_SIZE));
+            if (digestBytes <= BLOCK_SIZE) break;
+            levelDataSize = digestBytes;
+        }
+
+        // levelOffsets[i] is where level i (0 = leaf) starts in the top-down tree
+        int levels = levelSizes.size();
+        int[] levelOffsets = new int[levels];
+        int offset = 0;
+        for (int i = levels - 1; i >= 0; i--) {
+            levelOffsets[i] = offset;
+            offset += levelSizes.get(i);
+        }
+        byte[] tree = new byte[offset];
+
+        ByteBuffer levelInput = data.slice();
+        for (int i = 0; i < levels; i++) {
+            int blocks = (int) blockCount(levelInput.remaining());
+            pool.invoke(new BlockTask(levelInput, tree, levelOffsets[i], 0, blocks));
+            levelInput = ByteBuffer.wrap(tree, levelOffsets[i], levelSizes.get(i)).slice();
+        }
+
+        MessageDigest sha256 = SHA256.get();
+        sha256.update(tree, 0, BLOCK_SIZE);
+        return new MerkleTree(tree, sha256.digest());
+    }
+
+    private static long blockCount(long size) {
+        return Math.max(1, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * Digests blocks {@code [from, to)} of {@code input} into {@code tree} at {@code outputOffset}.
+     */
+    private static final class BlockTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Fork/join tasks are never serialized; the field is transient only to say so
+        private final transient ByteBuffer input;
+        private final byte[] tree;
+        private final int outputOffset;
+        private final int from;
+        private final int to;
+
+        BlockTask(ByteBuffer input, byte[] tree, int outputOffset, int from, int to) {
+            this.input = input;
+            this.tree = tree;
+            this.outputOffset = outputOffset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_BLOCKS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(input, tree, outputOffset, from, middle),
+                          new BlockTask(input, tree, outputOffset, middle, to));
+                return;
+            }
+
+            MessageDigest sha256 = SHA256.get();
+            for (int block = from; block < to; block++) {
+                int start = block * BLOCK_SIZE;
+                int length = Math.min(BLOCK_SIZE, input.remaining() - start);
+                sha256.update(input.slice(start, length));
+                if (length < BLOCK_SIZE) sha256.update(new byte[BLOCK_SIZE - length]);
+                try {
+                    sha256.digest(tree, outputOffset + block * DIGEST_LENGTH, DIGEST_LENGTH);
+                } catch (DigestException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * v2/v3 content digest (CONTENT_DIGEST_CHUNKED_SHA256) of sections that are already in memory or mapped.
+ * <p>
+ * Same result as {@link ChunkedDigester}, but the 1 MB chunks are independent, so their digests are computed
+ * on a fork/join pool; only the final digest over the chunk digests is sequential.
+ */
+public final class ParallelChunkDigester {
+
+    private static final int DIGEST_LENGTH = 32;
+    // Chunks per leaf task: 8 MB keeps task overhead negligible while still splitting a 100 MB APK 12 ways
+    private static final int LEAF_CHUNKS = 8;
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ForkJoinPool pool;
+
+    public ParallelChunkDigester(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Digests the remaining bytes of each section in order; chunks never span sections. Buffers are not modified.
+     */
+    public byte[] digest(ByteBuffer... sections) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        for (ByteBuffer section : sections) {
+            for (int pos = section.position(); pos < section.limit(); pos += ChunkedDigester.CHUNK_SIZE) {
+                chunks.add(section.slice(pos, Math.min(ChunkedDigester.CHUNK_SIZE, section.limit() - pos)));
+            }
+        }
+
+        byte[] chunkDigests = new byte[chunks.size() * DIGEST_LENGTH];
+        pool.invoke(new ChunkTask(chunks, chunkDigests, 0, chunks.size()));
+
+        MessageDigest sha256 = SHA256.get();
+        sha256.update((byte) 0x5a);
+        sha256.update(ChunkedDigester.littleEndianInt(chunks.size()));
+        sha256.update(chunkDigests);
+        return sha256.digest();
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Fork/join tasks are never serialized; the field is transient only to say so
+        private final transient List<ByteBuffer> chunks;
+        private final byte[] chunkDigests;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<ByteBuffer> chunks, byte[] chunkDigests, int from, int to) {
+            this.chunks = chunks;
+            this.chunkDigests = chunkDigests;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_CHUNKS) {
+                MessageDigest sha256 = SHA256.get();
+                for (int i = from; i < to; i++) {
+                    byte[] digest = ChunkedDigester.digestChunk(sha256, chunks.get(i).duplicate());
+                    System.arraycopy(digest, 0, chunkDigests, i * DIGEST_LENGTH, DIGEST_LENGTH);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(chunks, chunkDigests, from, middle), new ChunkTask(chunks, chunkDigests, middle, to));
+        }
+    }
+}
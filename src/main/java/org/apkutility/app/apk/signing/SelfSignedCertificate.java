@@ -0,0 +1,61 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.apkutility.app.apk.signing.DerEncoder.*;
+
+/**
+ * Builds a self-signed X.509 v3 certificate (what {@code keytool -genkeypair} produces) without keytool
+ * or third-party libraries. RSA keys are signed with SHA256withRSA, EC keys with SHA256withECDSA.
+ */
+public final class SelfSignedCertificate {
+
+    private static final String OID_SHA256_WITH_RSA = "1.2.840.113549.1.1.11";
+    private static final String OID_ECDSA_WITH_SHA256 = "1.2.840.10045.4.3.2";
+    private static final String OID_COUNTRY = "2.5.4.6";
+    private static final String OID_ORGANIZATION = "2.5.4.10";
+    private static final String OID_COMMON_NAME = "2.5.4.3";
+
+    private SelfSignedCertificate() {
+    }
+
+    public static X509Certificate create(KeyPair keyPair, String commonName, String organization, String country,
+                                         Duration validity) throws GeneralSecurityException {
+        boolean ec = "EC".equals(keyPair.getPrivate().getAlgorithm());
+        byte[] algorithm = ec ? sequence(oid(OID_ECDSA_WITH_SHA256)) : sequence(oid(OID_SHA256_WITH_RSA), nullValue());
+
+        // Distinguished names list the most significant RDN first: C, O, CN
+        byte[] name = sequence(
+                set(sequence(oid(OID_COUNTRY), printableString(country))),
+                set(sequence(oid(OID_ORGANIZATION), utf8String(organization))),
+                set(sequence(oid(OID_COMMON_NAME), utf8String(commonName))));
+
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        byte[] tbsCertificate = sequence(
+                contextSpecific(0, integer(2)),
+                integer(new BigInteger(63, new SecureRandom())),
+                algorithm,
+                name,
+                sequence(time(notBefore), time(notBefore.plus(validity))),
+                name,
+                keyPair.getPublic().getEncoded());
+
+        Signature signer = Signature.getInstance(ec ? "SHA256withECDSA" : "SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(tbsCertificate);
+        byte[] certificate = sequence(tbsCertificate, algorithm, bitString(signer.sign()));
+
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(certificate));
+    }
+}
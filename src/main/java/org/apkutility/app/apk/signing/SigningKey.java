@@ -0,0 +1,97 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Private key and certificate chain used to sign APKs, with the algorithm choices of apksigner
+ * (SHA-256 digests; RSA PKCS#1 v1.5, ECDSA or DSA signatures).
+ */
+public record SigningKey(PrivateKey privateKey, List<X509Certificate> certificates) {
+
+    public static final int SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256 = 0x0103;
+    public static final int SIGNATURE_ECDSA_WITH_SHA256 = 0x0201;
+    public static final int SIGNATURE_DSA_WITH_SHA256 = 0x0301;
+
+    /**
+     * Loads a key from a JKS or PKCS#12 keystore (the type is detected). A blank alias picks the first key entry,
+     * a blank key password falls back to the store password.
+     */
+    public static SigningKey load(Path keystore, String storePassword, String alias, String keyPassword)
+            throws IOException, GeneralSecurityException {
+        char[] storePass = storePassword == null ? new char[0] : storePassword.toCharArray();
+        KeyStore store = KeyStore.getInstance(keystore.toFile(), storePass);
+
+        if (alias == null || alias.isBlank()) {
+            alias = Collections.list(store.aliases()).stream()
+                    .filter(name -> isKeyEntry(store, name))
+                    .findFirst()
+                    .orElseThrow(() -> new KeyStoreException("No private key in " + keystore));
+        }
+        char[] keyPass = keyPassword == null || keyPassword.isEmpty() ? storePass : keyPassword.toCharArray();
+        Key key = store.getKey(alias, keyPass);
+        if (!(key instanceof PrivateKey privateKey)) {
+            throw new KeyStoreException("No private key for alias '" + alias + "'");
+        }
+
+        List<X509Certificate> chain = new ArrayList<>();
+        for (Certificate certificate : store.getCertificateChain(alias)) {
+            chain.add((X509Certificate) certificate);
+        }
+        return new SigningKey(privateKey, List.copyOf(chain));
+    }
+
+    public X509Certificate certificate() {
+        return certificates.get(0);
+    }
+
+    /** "RSA", "EC" or "DSA". */
+    public String keyAlgorithm() {
+        return privateKey.getAlgorithm();
+    }
+
+    /** ID of the signature algorithm in v2/v3 signing blocks. */
+    public int signatureAlgorithmId() {
+        return switch (keyAlgorithm()) {
+            case "RSA" -> SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256;
+            case "EC" -> SIGNATURE_ECDSA_WITH_SHA256;
+            case "DSA" -> SIGNATURE_DSA_WITH_SHA256;
+            default -> throw new IllegalStateException("Unsupported key algorithm " + keyAlgorithm());
+        };
+    }
+
+    public String jcaSignatureAlgorithm() {
+        return "EC".equals(keyAlgorithm()) ? "SHA256withECDSA" : "SHA256with" + keyAlgorithm();
+    }
+
+    public byte[] sign(byte[] data) throws GeneralSecurityException {
+        return sign(data, jcaSignatureAlgorithm());
+    }
+
+    /** Signs with another JCA algorithm for this key type, e.g. SHA1withRSA for old JAR signature verifiers. */
+    public byte[] sign(byte[] data, String jcaAlgorithm) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(jcaAlgorithm);
+        signature.initSign(privateKey);
+        signature.update(data);
+        return signature.sign();
+    }
+
+    private static boolean isKeyEntry(KeyStore store, String alias) {
+        try {
+            return store.isKeyEntry(alias);
+        } catch (KeyStoreException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apkutility.app.apk.signing.DerEncoder.*;
+
+/**
+ * JAR signature (APK Signature Scheme v1): MANIFEST.MF with a digest per entry, CERT.SF with a digest
+ * of the manifest and of every manifest section, and a detached PKCS#7 SignedData block over CERT.SF.
+ * Entry digests are fed in by the caller so they can be computed while the APK is being copied.
+ * <p>
+ * The digest follows the APK's minSdkVersion the way apksigner chooses it: SHA-256 v1 digests are only
+ * understood from Android 4.3 (API 18), and DSA with SHA-256 from API 21, so older targets get SHA-1.
+ * ECDSA JAR signatures cannot be verified below API 18 at all.
+ */
+public class V1SchemeSigner {
+
+    public static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+    private static final String SIGNER_NAME = "CERT";
+    private static final String CREATED_BY = "1.0 (APK Utility)";
+    private static final String OID_SIGNED_DATA = "1.2.840.113549.1.7.2";
+    private static final String OID_DATA = "1.2.840.113549.1.7.1";
+    private static final String OID_SHA1 = "1.3.14.3.2.26";
+    private static final String OID_SHA256 = "2.16.840.1.101.3.4.2.1";
+    private static final String OID_RSA = "1.2.840.113549.1.1.1";
+    // Key type OIDs rather than ecdsa-with-SHA256 / dsa-with-SHA1, like apksigner: platforms before API 21 only
+    // accept an EC signature under id-ecPublicKey
+    private static final String OID_EC_PUBLIC_KEY = "1.2.840.10045.2.1";
+    private static final String OID_DSA = "1.2.840.10040.4.1";
+    private static final String OID_DSA_SHA256 = "2.16.840.1.101.3.4.3.2";
+
+    private final SigningKey key;
+    private final boolean sha1;
+    private final Map<String, byte[]> entryDigests = new LinkedHashMap<>();
+
+    /**
+     * @param minSdk minSdkVersion of the APK (1 when the manifest does not declare one)
+     * @throws InvalidKeyException for an EC key on an APK that still supports API levels below 18
+     */
+    public V1SchemeSigner(SigningKey key, int minSdk) throws InvalidKeyException {
+        this.key = key;
+        this.sha1 = switch (key.keyAlgorithm()) {
+            case "RSA" -> minSdk < 18;
+            case "DSA" -> minSdk < 21;
+            default -> {
+                if (minSdk < 18) {
+                    throw new InvalidKeyException("ECDSA JAR signatures need minSdkVersion 18 or higher, the APK has " + minSdk
+                            + "; sign with an RSA key or without v1");
+                }
+                yield false;
+            }
+        };
+    }
+
+    /** JCA name of the digest {@link #addEntry} expects: "SHA-1" or "SHA-256". */
+    public String digestAlgorithm() {
+        return sha1 ? "SHA-1" : "SHA-256";
+    }
+
+    /**
+     * True for files of an existing JAR signature, which are dropped when re-signing.
+     */
+    public static boolean isSignatureFile(String name) {
+        if (!name.startsWith("META-INF/") || name.indexOf('/', "META-INF/".length()) >= 0) return false;
+        String upper = name.toUpperCase();
+        return upper.equals(MANIFEST_NAME) || upper.endsWith(".SF") || upper.endsWith(".RSA")
+                || upper.endsWith(".DSA") || upper.endsWith(".EC") || upper.startsWith("META-INF/SIG-");
+    }
+
+    /** Records the {@link #digestAlgorithm()} digest of an entry's uncompressed content. Directories should not be added. */
+    public void addEntry(String name, byte[] digest) {
+        entryDigests.put(name, digest);
+    }
+
+    public record GeneratedEntry(String name, byte[] data) {
+    }
+
+    /**
+     * Builds MANIFEST.MF, CERT.SF and the signature block.
+     *
+     * @param apkSchemeIds v2/v3 schemes the APK is also signed with, advertised in CERT.SF so
+     *                     newer platforms reject an APK whose v2/v3 signature was stripped
+     */
+    public List<GeneratedEntry> sign(List<Integer> apkSchemeIds) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance(digestAlgorithm());
+        String digestAttribute = sha1 ? "SHA1-Digest" : "SHA-256-Digest";
+
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        writeAttribute(manifest, "Manifest-Version", "1.0");
+        writeAttribute(manifest, "Created-By", CREATED_BY);
+        writeCrlf(manifest);
+
+        Map<String, byte[]> sections = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : entryDigests.entrySet()) {
+            ByteArrayOutputStream section = new ByteArrayOutputStream();
+            writeAttribute(section, "Name", entry.getKey());
+            writeAttribute(section, digestAttribute, Base64.getEncoder().encodeToString(entry.getValue()));
+            writeCrlf(section);
+            sections.put(entry.getKey(), section.toByteArray());
+            manifest.writeBytes(section.toByteArray());
+        }
+        byte[] manifestBytes = manifest.toByteArray();
+
+        ByteArrayOutputStream signatureFile = new ByteArrayOutputStream();
+        writeAttribute(signatureFile, "Signature-Version", "1.0");
+        writeAttribute(signatureFile, "Created-By", CREATED_BY);
+        writeAttribute(signatureFile, digestAttribute + "-Manifest", Base64.getEncoder().encodeToString(digest.digest(manifestBytes)));
+        if (!apkSchemeIds.isEmpty()) {
+            List<String> ids = apkSchemeIds.stream().map(String::valueOf).toList();
+            writeAttribute(signatureFile, "X-Android-APK-Signed", String.join(", ", ids));
+        }
+        writeCrlf(signatureFile);
+        for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+            writeAttribute(signatureFile, "Name", section.getKey());
+            writeAttribute(signatureFile, digestAttribute, Base64.getEncoder().encodeToString(digest.digest(section.getValue())));
+            writeCrlf(signatureFile);
+        }
+        byte[] signatureFileBytes = signatureFile.toByteArray();
+
+        List<GeneratedEntry> entries = new ArrayList<>();
+        entries.add(new GeneratedEntry(MANIFEST_NAME, manifestBytes));
+        entries.add(new GeneratedEntry("META-INF/" + SIGNER_NAME + ".SF", signatureFileBytes));
+        entries.add(new GeneratedEntry("META-INF/" + SIGNER_NAME + "." + key.keyAlgorithm(), signedData(signatureFileBytes)));
+        return entries;
+    }
+
+    /**
+     * Detached PKCS#7 SignedData without authenticated attributes, as produced by apksigner.
+     */
+    private byte[] signedData(byte[] signatureFile) throws GeneralSecurityException {
+        X509Certificate certificate = key.certificate();
+        byte[] digestAlgorithm = sequence(oid(sha1 ? OID_SHA1 : OID_SHA256), nullValue());
+
+        byte[][] certificates = new byte[key.certificates().size()][];
+        for (int i = 0; i < certificates.length; i++) {
+            certificates[i] = key.certificates().get(i).getEncoded();
+        }
+
+        byte[] signerInfo = sequence(
+                integer(1),
+                sequence(certificate.getIssuerX500Principal().getEncoded(), integer(certificate.getSerialNumber())),
+                digestAlgorithm,
+                signatureAlgorithm(),
+                octetString(key.sign(signatureFile, jcaSignatureAlgorithm())));
+
+        byte[] signedData = sequence(
+                integer(1),
+                set(digestAlgorithm),
+                sequence(oid(OID_DATA)),
+                contextSpecific(0, certificates),
+                set(signerInfo));
+
+        return sequence(oid(OID_SIGNED_DATA), contextSpecific(0, signedData));
+    }
+
+    private byte[] signatureAlgorithm() {
+        return switch (key.keyAlgorithm()) {
+            case "RSA" -> sequence(oid(OID_RSA), nullValue());
+            case "EC" -> sequence(oid(OID_EC_PUBLIC_KEY));
+            default -> sequence(oid(sha1 ? OID_DSA : OID_DSA_SHA256));
+        };
+    }
+
+    private String jcaSignatureAlgorithm() {
+        return sha1 ? "SHA1with" + key.keyAlgorithm() : key.jcaSignatureAlgorithm();
+    }
+
+    /**
+     * Writes "name: value" wrapped at 72 bytes per line, continuation lines starting with a space.
+     */
+    private static void writeAttribute(ByteArrayOutputStream out, String name, String value) {
+        byte[] line = (name + ": " + value).getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        int width = 72;
+        while (line.length - offset > width) {
+            out.write(line, offset, width);
+            writeCrlf(out);
+            out.write(' ');
+            offset += width;
+            width = 71;
+        }
+        out.write(line, offset, line.length - offset);
+        writeCrlf(out);
+    }
+
+    private static void writeCrlf(ByteArrayOutputStream out) {
+        out.write('\r');
+        out.write('\n');
+    }
+}
@@ -0,0 +1,101 @@
+package org.apkutility.app.apk.signing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes the v4 signature file ({@code .idsig}) of a v2/v3-signed APK, in the format apksigner produces:
+ * <pre>
+ *   int32 version (2) | bytes hashingInfo | bytes signingInfos | bytes merkleTree
+ *   hashingInfo  = int32 hashAlgorithm (1 = SHA-256) | int8 log2BlockSize | bytes salt | bytes rootHash
+ *   signingInfos = bytes apkDigest | bytes certificate | bytes additionalData | bytes publicKey
+ *                  | int32 signatureAlgorithm | bytes signature
+ * </pre>
+ * where {@code bytes} is an int32 length followed by the data, all little-endian. {@code apkDigest} is the
+ * v2/v3 content digest of the APK, and the signature covers the file size, hashing info, APK digest,
+ * certificate and additional data.
+ */
+public final class V4SchemeSigner {
+
+    private static final int VERSION = 2;
+    private static final int HASH_ALGORITHM_SHA256 = 1;
+    private static final byte[] NO_SALT = new byte[0];
+    private static final byte[] NO_ADDITIONAL_DATA = new byte[0];
+
+    private V4SchemeSigner() {
+    }
+
+    public record Result(long treeBytes, long treeMillis, long millis) {
+    }
+
+    /**
+     * @param apkDigest the v2/v3 CONTENT_DIGEST_CHUNKED_SHA256 of {@code apk}
+     */
+    public static Result sign(Path apk, Path idsig, SigningKey key, byte[] apkDigest, ForkJoinPool pool)
+            throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        MerkleTree tree;
+        long apkSize;
+        try (FileChannel in = FileChannel.open(apk, StandardOpenOption.READ)) {
+            apkSize = in.size();
+            MappedByteBuffer file = in.map(FileChannel.MapMode.READ_ONLY, 0, apkSize);
+            tree = MerkleTree.build(file, pool);
+        }
+        long treeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        byte[] certificate = key.certificate().getEncoded();
+        byte[] hashingInfo = ApkSigningBlock.concat(
+                ApkSigningBlock.littleEndianInt(HASH_ALGORITHM_SHA256),
+                new byte[]{MerkleTree.LOG2_BLOCK_SIZE},
+                ApkSigningBlock.lengthPrefixed(NO_SALT),
+                ApkSigningBlock.lengthPrefixed(tree.getRootHash()));
+
+        byte[] signedData = ApkSigningBlock.concat(
+                ApkSigningBlock.littleEndianLong(apkSize),
+                hashingInfo,
+                ApkSigningBlock.lengthPrefixed(apkDigest),
+                ApkSigningBlock.lengthPrefixed(certificate),
+                ApkSigningBlock.lengthPrefixed(NO_ADDITIONAL_DATA));
+        // The signed data starts with its own size, including these 4 bytes
+        signedData = ApkSigningBlock.concat(ApkSigningBlock.littleEndianInt(4 + signedData.length), signedData);
+
+        byte[] signingInfo = ApkSigningBlock.concat(
+                ApkSigningBlock.lengthPrefixed(apkDigest),
+                ApkSigningBlock.lengthPrefixed(certificate),
+                ApkSigningBlock.lengthPrefixed(NO_ADDITIONAL_DATA),
+                ApkSigningBlock.lengthPrefixed(key.certificate().getPublicKey().getEncoded()),
+                ApkSigningBlock.littleEndianInt(key.signatureAlgorithmId()),
+                ApkSigningBlock.lengthPrefixed(key.sign(signedData)));
+
+        byte[] header = ApkSigningBlock.concat(
+                ApkSigningBlock.littleEndianInt(VERSION),
+                ApkSigningBlock.lengthPrefixed(hashingInfo),
+                ApkSigningBlock.lengthPrefixed(signingInfo),
+                ApkSigningBlock.littleEndianInt(tree.getTree().length));
+
+        // Header and tree go out through one channel as a single gathering write
+        Path absoluteIdsig = idsig.toAbsolutePath();
+        Path temp = absoluteIdsig.resolveSibling(absoluteIdsig.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] buffers = {
+                        ByteBuffer.wrap(header),
+                        ByteBuffer.wrap(tree.getTree())
+                };
+                while (buffers[1].hasRemaining()) out.write(buffers);
+            }
+            Files.move(temp, absoluteIdsig, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new Result(tree.getTree().length, treeMillis, (System.nanoTime() - start) / 1_000_000);
+    }
+}
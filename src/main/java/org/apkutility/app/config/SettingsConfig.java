@@ -18,6 +18,25 @@ public class SettingsConfig {
     public static final String DEFAULT_WORKING_DIR = System.getProperty("user.home") + "/apktool-workspace";
     public static final boolean DEFAULT_DARK_MODE = true;
     public static final boolean DEFAULT_AUTO_SAVE = false;
+    public static final int DEFAULT_JVM_LANE_THREADS = 2;
+    public static final int DEFAULT_NATIVE_LANE_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_ADB_LANE_THREADS = 2;
+    public static final boolean DEFAULT_APKTOOL_WARM_ENGINE = false;
+    public static final boolean DEFAULT_APKEDITOR_WORKER = true;
+    public static final int DEFAULT_APKEDITOR_WORKER_MAX_JOBS = 50;
+    public static final int DEFAULT_APKEDITOR_WORKER_MAX_HEAP_MB = 768;
+    public static final boolean DEFAULT_RESULT_CACHE_ENABLED = true;
+    public static final boolean DEFAULT_ZIPALIGN_NATIVE = false;
+    public static final int DEFAULT_BATCH_SIGN_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_SIGNING_DIGEST_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_RESULT_CACHE_MAX_MB = 256;
+    public static final int DEFAULT_AAPT2_DAEMON_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    public static final int DEFAULT_CONSOLE_MAX_LINES = 10000;
+    public static final int DEFAULT_OUTPUT_SPILL_THRESHOLD_MB = 16;
+    // Job timeouts in minutes per lane, 0 = none; apktool builds of big APKs get the most room
+    public static final int DEFAULT_JVM_JOB_TIMEOUT_MINUTES = 60;
+    public static final int DEFAULT_NATIVE_JOB_TIMEOUT_MINUTES = 15;
+    public static final int DEFAULT_ADB_JOB_TIMEOUT_MINUTES = 15;
 
     private String apktoolPath = DEFAULT_APKTOOL_PATH;
     private String apkEditorPath = DEFAULT_APKEDITOR_PATH;
@@ -31,6 +50,24 @@ public class SettingsConfig {
     private String defaultWorkingDir = DEFAULT_WORKING_DIR;
     private boolean darkMode = DEFAULT_DARK_MODE;
     private boolean autoSave = DEFAULT_AUTO_SAVE;
+    private int jvmLaneThreads = DEFAULT_JVM_LANE_THREADS;
+    private int nativeLaneThreads = DEFAULT_NATIVE_LANE_THREADS;
+    private int adbLaneThreads = DEFAULT_ADB_LANE_THREADS;
+    private boolean apktoolWarmEngine = DEFAULT_APKTOOL_WARM_ENGINE;
+    private boolean apkEditorWorker = DEFAULT_APKEDITOR_WORKER;
+    private int apkEditorWorkerMaxJobs = DEFAULT_APKEDITOR_WORKER_MAX_JOBS;
+    private int apkEditorWorkerMaxHeapMb = DEFAULT_APKEDITOR_WORKER_MAX_HEAP_MB;
+    private int aapt2DaemonCount = DEFAULT_AAPT2_DAEMON_COUNT;
+    private boolean resultCacheEnabled = DEFAULT_RESULT_CACHE_ENABLED;
+    private int resultCacheMaxMb = DEFAULT_RESULT_CACHE_MAX_MB;
+    private boolean zipalignNative = DEFAULT_ZIPALIGN_NATIVE;
+    private int batchSignThreads = DEFAULT_BATCH_SIGN_THREADS;
+    private int signingDigestThreads = DEFAULT_SIGNING_DIGEST_THREADS;
+    private int consoleMaxLines = DEFAULT_CONSOLE_MAX_LINES;
+    private int outputSpillThresholdMb = DEFAULT_OUTPUT_SPILL_THRESHOLD_MB;
+    private int jvmJobTimeoutMinutes = DEFAULT_JVM_JOB_TIMEOUT_MINUTES;
+    private int nativeJobTimeoutMinutes = DEFAULT_NATIVE_JOB_TIMEOUT_MINUTES;
+    private int adbJobTimeoutMinutes = DEFAULT_ADB_JOB_TIMEOUT_MINUTES;
 
     // Helper removed as we use OSUtils now
 
@@ -47,6 +84,24 @@ public class SettingsConfig {
     public String getDefaultWorkingDir() { return valueOr(defaultWorkingDir, DEFAULT_WORKING_DIR); }
     public boolean isDarkMode() { return darkMode; }
     public boolean isAutoSave() { return autoSave; }
+    public int getJvmLaneThreads() { return atLeastOne(jvmLaneThreads); }
+    public int getNativeLaneThreads() { return atLeastOne(nativeLaneThreads); }
+    public int getAdbLaneThreads() { return atLeastOne(adbLaneThreads); }
+    public boolean isApktoolWarmEngine() { return apktoolWarmEngine; }
+    public boolean isApkEditorWorker() { return apkEditorWorker; }
+    public int getApkEditorWorkerMaxJobs() { return apkEditorWorkerMaxJobs; }
+    public int getApkEditorWorkerMaxHeapMb() { return apkEditorWorkerMaxHeapMb; }
+    public int getAapt2DaemonCount() { return atLeastOne(aapt2DaemonCount); }
+    public boolean isResultCacheEnabled() { return resultCacheEnabled; }
+    public int getResultCacheMaxMb() { return atLeastOne(resultCacheMaxMb); }
+    public boolean isZipalignNative() { return zipalignNative; }
+    public int getBatchSignThreads() { return atLeastOne(batchSignThreads); }
+    public int getSigningDigestThreads() { return atLeastOne(signingDigestThreads); }
+    public int getConsoleMaxLines() { return atLeastOne(consoleMaxLines); }
+    public int getOutputSpillThresholdMb() { return atLeastOne(outputSpillThresholdMb); }
+    public int getJvmJobTimeoutMinutes() { return Math.max(0, jvmJobTimeoutMinutes); }
+    public int getNativeJobTimeoutMinutes() { return Math.max(0, nativeJobTimeoutMinutes); }
+    public int getAdbJobTimeoutMinutes() { return Math.max(0, adbJobTimeoutMinutes); }
 
     // Setters
     public void setApktoolPath(String v) { apktoolPath = v; }
@@ -61,6 +116,24 @@ public class SettingsConfig {
     public void setDefaultWorkingDir(String v) { defaultWorkingDir = v; }
     public void setDarkMode(boolean v) { darkMode = v; }
     public void setAutoSave(boolean v) { autoSave = v; }
+    public void setJvmLaneThreads(int v) { jvmLaneThreads = v; }
+    public void setNativeLaneThreads(int v) { nativeLaneThreads = v; }
+    public void setAdbLaneThreads(int v) { adbLaneThreads = v; }
+    public void setApktoolWarmEngine(boolean v) { apktoolWarmEngine = v; }
+    public void setApkEditorWorker(boolean v) { apkEditorWorker = v; }
+    public void setApkEditorWorkerMaxJobs(int v) { apkEditorWorkerMaxJobs = v; }
+    public void setApkEditorWorkerMaxHeapMb(int v) { apkEditorWorkerMaxHeapMb = v; }
+    public void setAapt2DaemonCount(int v) { aapt2DaemonCount = v; }
+    public void setResultCacheEnabled(boolean v) { resultCacheEnabled = v; }
+    public void setResultCacheMaxMb(int v) { resultCacheMaxMb = v; }
+    public void setZipalignNative(boolean v) { zipalignNative = v; }
+    public void setBatchSignThreads(int v) { batchSignThreads = v; }
+    public void setSigningDigestThreads(int v) { signingDigestThreads = v; }
+    public void setConsoleMaxLines(int v) { consoleMaxLines = v; }
+    public void setOutputSpillThresholdMb(int v) { outputSpillThresholdMb = v; }
+    public void setJvmJobTimeoutMinutes(int v) { jvmJobTimeoutMinutes = v; }
+    public void setNativeJobTimeoutMinutes(int v) { nativeJobTimeoutMinutes = v; }
+    public void setAdbJobTimeoutMinutes(int v) { adbJobTimeoutMinutes = v; }
 
     // Validators
     public boolean validateApktoolPath() { return fileExists(getApktoolPath()); }
@@ -84,6 +157,10 @@ public class SettingsConfig {
         return notBlank(value) ? value : defaultValue;
     }
 
+    private int atLeastOne(int value) {
+        return Math.max(1, value);
+    }
+
     private boolean fileExists(String path) {
         return new File(path).exists();
     }
@@ -1,24 +1,49 @@
 package org.apkutility.app.services;
 
+import javafx.application.Platform;
+import org.apkutility.app.apk.AndroidManifest;
+import org.apkutility.app.apk.DexFile;
+import org.apkutility.app.apk.ResourceTable;
+import org.apkutility.app.services.cache.ResultCache;
+import org.apkutility.app.services.engine.Aapt2DaemonPool;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.JobLane;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.apkutility.app.utils.StringUtils.isBlank;
 import static org.apkutility.app.utils.StringUtils.notBlank;
+import static org.apkutility.app.utils.StringUtils.nullToEmpty;
 
 public class AaptService {
 
     private final UserNotifier userNotifier;
     private final CommandExecutor commandExecutor;
+    private final Aapt2DaemonPool daemonPool = new Aapt2DaemonPool(AaptService::getAapt2Path,
+            SettingsManager.getInstance().getSettings().getAapt2DaemonCount());
 
     public AaptService(LogOutput logOutput, UserNotifier userNotifier, CommandExecutor commandExecutor) {
         this.userNotifier = userNotifier;
         this.commandExecutor = commandExecutor;
     }
 
+    public void setDaemonCount(int count) {
+        daemonPool.setSize(count);
+    }
+
+    public void shutdown() {
+        daemonPool.close();
+    }
+
     public static String getAaptPath() {
         return resolvePath(
             () -> SettingsManager.getInstance().getSettings().getAaptPath(),
@@ -34,115 +59,201 @@ public class AaptService {
     }
 
     // AAPT dump commands
-    public void dumpBadging(String apkPath) {
-        executeAaptDump(apkPath, "badging", "Dumping APK badging...");
+    public CompletableFuture<CommandResult> dumpBadging(String apkPath) {
+        return executeAaptDump(apkPath, "badging", "Dumping APK badging...");
     }
 
-    public void dumpPermissions(String apkPath) {
-        executeAaptDump(apkPath, "permissions", "Dumping APK permissions...");
+    public CompletableFuture<CommandResult> dumpPermissions(String apkPath) {
+        return executeAaptDump(apkPath, "permissions", "Dumping APK permissions...");
     }
 
-    public void dumpResources(String apkPath) {
-        executeAaptDump(apkPath, "resources", "Dumping APK resources...");
+    public CompletableFuture<CommandResult> dumpResources(String apkPath) {
+        return executeAaptDump(apkPath, "resources", "Dumping APK resources...");
     }
 
-    public void dumpConfigurations(String apkPath) {
-        executeAaptDump(apkPath, "configurations", "Dumping APK configurations...");
+    public CompletableFuture<CommandResult> dumpConfigurations(String apkPath) {
+        return executeAaptDump(apkPath, "configurations", "Dumping APK configurations...");
     }
 
-    public void dumpXmlTree(String apkPath, String assetPath) {
-        if (!requireApk(apkPath)) return;
+    public CompletableFuture<CommandResult> dumpXmlTree(String apkPath, String assetPath) {
+        if (isBlank(apkPath)) return missingApk();
 
         List<String> cmd = buildAaptCommand("dump", "xmltree");
         cmd.add(apkPath);
         cmd.add(isBlank(assetPath) ? "AndroidManifest.xml" : assetPath);
 
-        commandExecutor.executeCommand(cmd, "Dumping XML tree...");
+        return commandExecutor.submit(cmd, "Dumping XML tree...");
     }
 
-    public void listContents(String apkPath, boolean verbose) {
-        if (!requireApk(apkPath)) return;
+    public CompletableFuture<CommandResult> listContents(String apkPath, boolean verbose) {
+        if (isBlank(apkPath)) return missingApk();
 
         List<String> cmd = buildAaptCommand("list");
         if (verbose) cmd.add("-v");
         cmd.add(apkPath);
 
-        commandExecutor.executeCommand(cmd, "Listing APK contents...");
+        return commandExecutor.submit(cmd, "Listing APK contents...");
     }
 
-    public void getVersion() {
-        commandExecutor.executeCommand(buildAaptCommand("version"), "Getting AAPT version...");
+    /**
+     * Badging-style summary of the manifest, decoded in-process: no aapt process and no extraction.
+     */
+    public CompletableFuture<CommandResult> dumpManifest(String apkPath) {
+        if (isBlank(apkPath)) return missingApk();
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[built-in] dump badging " + apkPath, "Decoding manifest...", null, output -> {
+            long start = System.nanoTime();
+            AndroidManifest manifest = AndroidManifest.read(Path.of(apkPath));
+            ResourceTable resources = null;
+            try {
+                resources = ResourceTable.read(Path.of(apkPath));
+            } catch (IOException e) {
+                output.accept("⚠️ " + e.getMessage() + ", resource references are shown as ids");
+            }
+            badging(manifest, resources).forEach(output);
+            output.accept(String.format("Decoded %s in %.1f ms", AndroidManifest.ENTRY_NAME, (System.nanoTime() - start) / 1e6));
+            return 0;
+        });
+    }
+
+    /**
+     * Opens resources.arsc in-process (memory-mapped, decoded lazily) and hands the table to {@code onLoaded}
+     * on the FX thread, instead of a full text dump.
+     */
+    public CompletableFuture<CommandResult> readResourceTable(String apkPath, Consumer<ResourceTable> onLoaded) {
+        if (isBlank(apkPath)) return missingApk();
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[built-in] read " + ResourceTable.ENTRY_NAME + " " + apkPath, "Reading resource table...", null, output -> {
+            long start = System.nanoTime();
+            ResourceTable table = ResourceTable.read(Path.of(apkPath));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            for (ResourceTable.Package pkg : table.getPackages()) {
+                output.accept(String.format("Package 0x%02x %s", pkg.getId(), pkg.getName()));
+                for (ResourceTable.Type type : pkg.getTypes()) {
+                    output.accept("  " + type.getName() + ": " + type.getEntryCount() + " entries, " + type.getChunks().size() + " configurations");
+                }
+            }
+            output.accept("Opened " + table.getResourceCount() + " resources in " + millis + " ms");
+            Platform.runLater(() -> onLoaded.accept(table));
+            return 0;
+        });
+    }
+
+    /**
+     * Method, field and class counts of every dex file, read from the dex headers in parallel, with the
+     * 64K reference check; the class list is only read when {@code listClasses} is set.
+     */
+    public CompletableFuture<CommandResult> dumpDex(String apkPath, boolean listClasses) {
+        if (isBlank(apkPath)) return missingApk();
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[built-in] dex index " + apkPath, "Indexing dex files...", null, output -> {
+            long start = System.nanoTime();
+            List<DexFile> dexFiles = DexFile.index(Path.of(apkPath), ForkJoinPool.commonPool());
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long methods = 0, fields = 0, classes = 0;
+            boolean overLimit = false;
+            for (DexFile dex : dexFiles) {
+                output.accept(String.format("%s (dex %s, %d bytes): %d classes, %d methods (%.1f%% of 64K), %d fields, %d strings%s",
+                        dex.getName(), dex.getVersion(), dex.getFileSize(), dex.getClassCount(), dex.getMethodCount(),
+                        100.0 * dex.getMethodCount() / DexFile.MAX_REFERENCES, dex.getFieldCount(), dex.getStringCount(),
+                        dex.exceedsReferenceLimit() ? "  ⚠️ over the 64K reference limit" : ""));
+                methods += dex.getMethodCount();
+                fields += dex.getFieldCount();
+                classes += dex.getClassCount();
+                overLimit |= dex.exceedsReferenceLimit();
+            }
+            output.accept(String.format("%d dex files%s: %d classes, %d method references, %d field references (indexed in %d ms)",
+                    dexFiles.size(), dexFiles.size() > 1 ? " (multidex)" : "", classes, methods, fields, millis));
+
+            if (listClasses) {
+                for (DexFile dex : dexFiles) {
+                    output.accept("--- " + dex.getName() + " ---");
+                    output.accept(dex.getSections().stream()
+                            .map(section -> section.name() + "=" + section.count())
+                            .collect(Collectors.joining(", ", "Sections: ", "")));
+                    dex.getClassNames().forEach(output);
+                }
+            }
+            return overLimit ? 1 : 0;
+        });
+    }
+
+    public CompletableFuture<CommandResult> getVersion() {
+        return commandExecutor.submit(buildAaptCommand("version"), "Getting AAPT version...");
     }
 
     // AAPT2 dump commands
-    public void aapt2DumpBadging(String apkPath) {
-        executeAapt2Dump(apkPath, "badging", "AAPT2: Dumping APK badging...");
+    public CompletableFuture<CommandResult> aapt2DumpBadging(String apkPath) {
+        return executeAapt2Dump(apkPath, "badging", "AAPT2: Dumping APK badging...");
     }
 
-    public void aapt2DumpPermissions(String apkPath) {
-        executeAapt2Dump(apkPath, "permissions", "AAPT2: Dumping permissions...");
+    public CompletableFuture<CommandResult> aapt2DumpPermissions(String apkPath) {
+        return executeAapt2Dump(apkPath, "permissions", "AAPT2: Dumping permissions...");
     }
 
-    public void aapt2DumpResources(String apkPath) {
-        executeAapt2Dump(apkPath, "resources", "AAPT2: Dumping resources...");
+    public CompletableFuture<CommandResult> aapt2DumpResources(String apkPath) {
+        return executeAapt2Dump(apkPath, "resources", "AAPT2: Dumping resources...");
     }
 
-    public void aapt2DumpConfigurations(String apkPath) {
-        executeAapt2Dump(apkPath, "configurations", "AAPT2: Dumping configurations...");
+    public CompletableFuture<CommandResult> aapt2DumpConfigurations(String apkPath) {
+        return executeAapt2Dump(apkPath, "configurations", "AAPT2: Dumping configurations...");
     }
 
-    public void aapt2DumpStrings(String apkPath) {
-        executeAapt2Dump(apkPath, "strings", "AAPT2: Dumping strings...");
+    public CompletableFuture<CommandResult> aapt2DumpStrings(String apkPath) {
+        return executeAapt2Dump(apkPath, "strings", "AAPT2: Dumping strings...");
     }
 
-    public void aapt2DumpXmlTree(String apkPath, String assetPath) {
-        if (!requireApk(apkPath)) return;
+    public CompletableFuture<CommandResult> aapt2DumpXmlTree(String apkPath, String assetPath) {
+        if (isBlank(apkPath)) return missingApk();
 
         List<String> cmd = buildAapt2Command("dump", "xmltree", "--file");
         cmd.add(isBlank(assetPath) ? "AndroidManifest.xml" : assetPath);
         cmd.add(apkPath);
 
-        commandExecutor.executeCommand(cmd, "AAPT2: Dumping XML tree...");
+        return commandExecutor.submit(cmd, "AAPT2: Dumping XML tree...");
     }
 
-    public void getAapt2Version() {
-        commandExecutor.executeCommand(buildAapt2Command("version"), "Getting AAPT2 version...");
+    public CompletableFuture<CommandResult> getAapt2Version() {
+        return commandExecutor.submit(buildAapt2Command("version"), "Getting AAPT2 version...");
     }
 
-    public void aapt2Compile(String resourcePath, String outputDir) {
+    public CompletableFuture<CommandResult> aapt2Compile(String resourcePath, String outputDir) {
         if (isBlank(resourcePath)) {
-            userNotifier.showError("Please select a resource file.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select a resource file.");
         }
         if (isBlank(outputDir)) {
-            userNotifier.showError("Please select an output directory.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an output directory.");
         }
 
         List<String> cmd = buildAapt2Command("compile", "-o", outputDir);
         cmd.add(resourcePath);
-        commandExecutor.executeCommand(cmd, "AAPT2: Compiling resource...");
+        return executeOnDaemon(cmd, "AAPT2: Compiling resource...");
     }
 
-    public void aapt2CompileDir(String resourceDir, String outputDir) {
+    public CompletableFuture<CommandResult> aapt2CompileDir(String resourceDir, String outputDir) {
         if (isBlank(resourceDir)) {
-            userNotifier.showError("Please select a resource directory.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select a resource directory.");
         }
         if (isBlank(outputDir)) {
-            userNotifier.showError("Please select an output directory.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an output directory.");
         }
 
-        List<String> cmd = buildAapt2Command("compile", "--dir", resourceDir, "-o", outputDir + "/compiled_resources.zip");
-        commandExecutor.executeCommand(cmd, "AAPT2: Compiling resources directory...");
+        String outputZip = outputDir + "/compiled_resources.zip";
+        List<String> cmd = buildAapt2Command("compile", "--dir", resourceDir, "-o", outputZip);
+        return commandExecutor.submitTask(JobLane.NATIVE, "[daemon] " + String.join(" ", cmd), "AAPT2: Compiling resources directory...", null, output -> {
+            try {
+                return daemonPool.compileTree(Path.of(resourceDir), Path.of(outputZip), output);
+            } catch (IOException e) {
+                output.accept("⚠️ aapt2 daemon unavailable (" + e.getMessage() + "), using a new process");
+                return CommandExecutor.runProcess(cmd, output);
+            }
+        });
     }
 
-    public void aapt2Link(String compiledResources, String manifestPath, String outputApk,
-                          String minSdk, String targetSdk, String androidJar) {
+    public CompletableFuture<CommandResult> aapt2Link(String compiledResources, String manifestPath, String outputApk,
+                                                      String minSdk, String targetSdk, String androidJar) {
         if (compiledResources == null || manifestPath == null || outputApk == null) {
-            userNotifier.showError("Missing required parameters for linking.");
-            return;
+            return CommandResult.invalid(userNotifier, "Missing required parameters for linking.");
         }
 
         List<String> cmd = buildAapt2Command("link", "-o", outputApk, "--manifest", manifestPath);
@@ -161,24 +272,70 @@ public class AaptService {
         }
 
         cmd.add(compiledResources);
-        commandExecutor.executeCommand(cmd, "AAPT2: Linking resources...");
+        return executeOnDaemon(cmd, "AAPT2: Linking resources...");
     }
 
     // Helper methods
-    private void executeAaptDump(String apkPath, String dumpType, String statusMessage) {
-        if (!requireApk(apkPath)) return;
+
+    /**
+     * Runs an aapt2 command on a pooled daemon, falling back to a fresh process if no daemon can be started.
+     */
+    private CompletableFuture<CommandResult> executeOnDaemon(List<String> cmd, String statusMessage) {
+        List<String> args = cmd.subList(1, cmd.size());
+        return commandExecutor.submitTask(JobLane.NATIVE, "[daemon] " + String.join(" ", cmd), statusMessage, null, output -> {
+            try {
+                return daemonPool.run(args, output);
+            } catch (IOException e) {
+                output.accept("⚠️ aapt2 daemon unavailable (" + e.getMessage() + "), using a new process");
+                return CommandExecutor.runProcess(cmd, output);
+            }
+        });
+    }
+
+    private CompletableFuture<CommandResult> executeAaptDump(String apkPath, String dumpType, String statusMessage) {
+        if (isBlank(apkPath)) return missingApk();
 
         List<String> cmd = buildAaptCommand("dump", dumpType);
         cmd.add(apkPath);
-        commandExecutor.executeCommand(cmd, statusMessage);
+        return executeCached(apkPath, cmd, statusMessage);
     }
 
-    private void executeAapt2Dump(String apkPath, String dumpType, String statusMessage) {
-        if (!requireApk(apkPath)) return;
+    private CompletableFuture<CommandResult> executeAapt2Dump(String apkPath, String dumpType, String statusMessage) {
+        if (isBlank(apkPath)) return missingApk();
 
         List<String> cmd = buildAapt2Command("dump", dumpType);
         cmd.add(apkPath);
-        commandExecutor.executeCommand(cmd, statusMessage);
+        return executeCached(apkPath, cmd, statusMessage);
+    }
+
+    private CompletableFuture<CommandResult> executeCached(String apkPath, List<String> cmd, String statusMessage) {
+        return commandExecutor.submitTask(JobLane.NATIVE, String.join(" ", cmd), statusMessage, null,
+                ResultCache.getInstance().cached(apkPath, cmd.get(0), cmd, output -> CommandExecutor.runProcess(cmd, output)));
+    }
+
+    // Same line format as "aapt dump badging" for the fields the manifest alone can answer
+    private static List<String> badging(AndroidManifest manifest, ResourceTable resources) {
+        List<String> lines = new ArrayList<>();
+        lines.add("package: name='" + manifest.packageName() + "' versionCode='" + manifest.versionCode()
+                + "' versionName='" + nullToEmpty(manifest.versionName()) + "'"
+                + (manifest.compileSdk() != null ? " compileSdkVersion='" + manifest.compileSdk() + "'" : "")
+                + (manifest.compileSdkCodename() != null ? " compileSdkVersionCodename='" + manifest.compileSdkCodename() + "'" : ""));
+        if (manifest.minSdk() != null) lines.add("sdkVersion:'" + manifest.minSdk() + "'");
+        if (manifest.targetSdk() != null) lines.add("targetSdkVersion:'" + manifest.targetSdk() + "'");
+        if (manifest.maxSdk() != null) lines.add("maxSdkVersion:'" + manifest.maxSdk() + "'");
+        for (String permission : manifest.permissions()) lines.add("uses-permission: name='" + permission + "'");
+        for (AndroidManifest.Feature feature : manifest.features()) {
+            lines.add((feature.required() ? "uses-feature: name='" : "uses-feature-not-required: name='") + feature.name() + "'");
+        }
+        String label = resources != null ? resources.resolve(manifest.applicationLabel()) : manifest.applicationLabel();
+        String icon = resources != null ? resources.resolve(manifest.applicationIcon()) : manifest.applicationIcon();
+        lines.add("application: label='" + nullToEmpty(label) + "' icon='" + nullToEmpty(icon) + "'");
+        if (manifest.applicationClass() != null) lines.add("application-class: '" + manifest.applicationClass() + "'");
+        if (manifest.launchableActivity() != null) lines.add("launchable-activity: name='" + manifest.launchableActivity() + "'");
+        if (manifest.debuggable()) lines.add("application-debuggable");
+        lines.add("activities: " + manifest.activities().size() + ", services: " + manifest.services().size()
+                + ", receivers: " + manifest.receivers().size() + ", providers: " + manifest.providers().size());
+        return lines;
     }
 
     private List<String> buildAaptCommand(String... args) {
@@ -195,12 +352,8 @@ public class AaptService {
         return cmd;
     }
 
-    private boolean requireApk(String apkPath) {
-        if (isBlank(apkPath)) {
-            userNotifier.showError("Please select an APK file.");
-            return false;
-        }
-        return true;
+    private CompletableFuture<CommandResult> missingApk() {
+        return CommandResult.invalid(userNotifier, "Please select an APK file.");
     }
 
     private static String resolvePath(java.util.function.Supplier<String> configGetter, String defaultPath, String fallback) {
@@ -1,12 +1,17 @@
 package org.apkutility.app.services;
 
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.JobLane;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static org.apkutility.app.utils.StringUtils.isBlank;
@@ -14,6 +19,8 @@ import static org.apkutility.app.utils.StringUtils.notBlank;
 
 public class AdbService {
 
+    private static final String NO_DEVICE = "Please select a device.";
+
     private final UserNotifier userNotifier;
     private final CommandExecutor commandExecutor;
 
@@ -61,79 +68,100 @@ public class AdbService {
         }).start();
     }
 
-    public void install(String deviceId, String apkPath) {
-        if (isBlank(apkPath)) {
-            userNotifier.showError("Please select an APK file to install.");
-            return;
-        }
-        if (!requireDevice(deviceId)) return;
+    public CompletableFuture<CommandResult> install(String deviceId, String apkPath) {
+        if (isBlank(apkPath)) return CommandResult.invalid(userNotifier, "Please select an APK file to install.");
+        if (isBlank(deviceId)) return CommandResult.invalid(userNotifier, NO_DEVICE);
 
         List<String> cmd = buildDeviceCommand(deviceId, "install", "-r", apkPath);
-        commandExecutor.executeCommand(cmd, "Installing APK on " + deviceId + "...");
+        return commandExecutor.submit(cmd, "Installing APK on " + deviceId + "...");
     }
 
-    public void uninstall(String deviceId, String packageName) {
-        if (isBlank(packageName)) {
-            userNotifier.showError("Please enter a package name.");
-            return;
-        }
-        if (!requireDevice(deviceId)) return;
+    public CompletableFuture<CommandResult> uninstall(String deviceId, String packageName) {
+        if (isBlank(packageName)) return CommandResult.invalid(userNotifier, "Please enter a package name.");
+        if (isBlank(deviceId)) return CommandResult.invalid(userNotifier, NO_DEVICE);
 
         List<String> cmd = buildDeviceCommand(deviceId, "uninstall", packageName);
-        commandExecutor.executeCommand(cmd, "Uninstalling " + packageName + " from " + deviceId + "...");
+        return commandExecutor.submit(cmd, "Uninstalling " + packageName + " from " + deviceId + "...");
     }
 
-    public void pair(String ip, String port, String code) {
-        if (ip.isEmpty() || port.isEmpty() || code.isEmpty()) {
-            userNotifier.showError("Please enter IP, Port, and Code.");
-            return;
-        }
+    public CompletableFuture<CommandResult> pair(String ip, String port, String code) {
+        if (ip.isEmpty() || port.isEmpty() || code.isEmpty()) return CommandResult.invalid(userNotifier, "Please enter IP, Port, and Code.");
+
         List<String> cmd = buildCommand("pair", ip + ":" + port, code);
-        commandExecutor.executeCommand(cmd, "Pairing with " + ip + ":" + port + "...");
+        return commandExecutor.submit(cmd, "Pairing with " + ip + ":" + port + "...");
     }
 
-    public void connect(String ip, String port) {
-        if (ip.isEmpty() || port.isEmpty()) {
-            userNotifier.showError("Please enter IP and Port.");
-            return;
-        }
+    public CompletableFuture<CommandResult> connect(String ip, String port) {
+        if (ip.isEmpty() || port.isEmpty()) return CommandResult.invalid(userNotifier, "Please enter IP and Port.");
+
         List<String> cmd = buildCommand("connect", ip + ":" + port);
-        commandExecutor.executeCommand(cmd, "Connecting to " + ip + ":" + port + "...");
+        return commandExecutor.submit(cmd, "Connecting to " + ip + ":" + port + "...");
     }
 
-    public void executeShellCommand(String deviceId, String shellCommand, Consumer<String> outputConsumer) {
-        if (!requireDevice(deviceId)) {
+    public CompletableFuture<CommandResult> executeShellCommand(String deviceId, String shellCommand, Consumer<String> outputConsumer) {
+        if (isBlank(deviceId)) {
             if (outputConsumer != null) outputConsumer.accept("Error: No device selected.");
-            return;
+            return CommandResult.invalid(userNotifier, NO_DEVICE);
         }
 
         List<String> cmd = buildDeviceCommand(deviceId);
         for (String part : shellCommand.split("\\s+")) cmd.add(part);
-        commandExecutor.executeCommand(cmd, "Executing: " + shellCommand, outputConsumer);
+        return commandExecutor.submit(JobLane.ADB, cmd, "Executing: " + shellCommand, outputConsumer);
     }
 
-    public void pullApk(String deviceId, String packageName, String destDir) {
-        if (deviceId == null || packageName.isEmpty() || destDir == null) {
+    /**
+     * Pulls every APK of a package: the base APK as {@code <package>.apk} and each split next to it as
+     * {@code <package>-<split>.apk}, all pulls running side by side on the ADB lane. Completes with the
+     * files that were pulled; empty when the package is not installed or the input is invalid.
+     * <p>
+     * Unlike the other methods this completes with the pulled files rather than a {@link CommandResult}, since it
+     * runs one job per split; like them it never completes exceptionally.
+     */
+    public CompletableFuture<List<Path>> pullApk(String deviceId, String packageName, String destDir) {
+        if (isBlank(deviceId) || isBlank(packageName) || isBlank(destDir)) {
             userNotifier.showError("Invalid parameters for Pull APK.");
-            return;
+            return CompletableFuture.completedFuture(List.of());
         }
 
-        List<String> pathCmd = List.of(getAdbPath(), "-s", deviceId, "shell", "pm", "path", packageName);
-        commandExecutor.executeCommand(pathCmd, "Finding APK path for " + packageName + "...", output -> {
-            if (output.startsWith("package:")) {
-                String remotePath = output.substring("package:".length()).trim();
-                List<String> pullCmd = buildDeviceCommand(deviceId, "pull", remotePath, destDir + File.separator + packageName + ".apk");
-                javafx.application.Platform.runLater(() ->
-                    commandExecutor.executeCommand(pullCmd, "Pulling " + packageName + ".apk...")
-                );
-            }
-        });
+        List<String> pathCmd = buildDeviceCommand(deviceId, "shell", "pm", "path", packageName);
+        return commandExecutor.submit(pathCmd, "Finding APK path for " + packageName + "...")
+                .thenCompose(paths -> {
+                    List<String> remotePaths = paths.stdout().stream()
+                            .filter(line -> line.startsWith("package:"))
+                            .map(line -> line.substring("package:".length()).trim())
+                            .toList();
+                    if (remotePaths.isEmpty()) {
+                        if (paths.isSuccess()) userNotifier.showError(packageName + " is not installed on " + deviceId + ".");
+                        return CompletableFuture.completedFuture(List.<Path>of());
+                    }
+
+                    List<CompletableFuture<Path>> pulls = new ArrayList<>();
+                    for (String remotePath : remotePaths) {
+                        Path local = Path.of(destDir, localApkName(packageName, remotePath));
+                        List<String> pullCmd = buildDeviceCommand(deviceId, "pull", remotePath, local.toString());
+                        pulls.add(commandExecutor.submit(pullCmd, "Pulling " + local.getFileName() + "...")
+                                .thenApply(result -> result.isSuccess() ? local : null));
+                    }
+                    return CompletableFuture.allOf(pulls.toArray(CompletableFuture[]::new))
+                            .thenApply(done -> pulls.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList());
+                });
+    }
+
+    public CompletableFuture<CommandResult> dumpPackage(String deviceId, String packageName, Consumer<String> output) {
+        if (isBlank(deviceId) || isBlank(packageName)) {
+            return CommandResult.invalid(userNotifier, "Please select a device and enter a package name.");
+        }
+        List<String> cmd = buildDeviceCommand(deviceId, "shell", "dumpsys", "package", packageName);
+        return commandExecutor.submit(JobLane.ADB, cmd, "Dumping package info...", output);
     }
 
-    public void dumpPackage(String deviceId, String packageName, Consumer<String> output) {
-        if (deviceId == null || packageName.isEmpty()) return;
-        List<String> cmd = List.of(getAdbPath(), "-s", deviceId, "shell", "dumpsys", "package", packageName);
-        commandExecutor.executeCommand(cmd, "Dumping package info...", output);
+    // "base.apk" keeps the old <package>.apk name; "split_config.arm64_v8a.apk" becomes <package>-config.arm64_v8a.apk
+    private static String localApkName(String packageName, String remotePath) {
+        String name = remotePath.substring(remotePath.lastIndexOf('/') + 1);
+        if (name.equals("base.apk") || !name.endsWith(".apk")) return packageName + ".apk";
+        String split = name.substring(0, name.length() - ".apk".length());
+        if (split.startsWith("split_")) split = split.substring("split_".length());
+        return packageName + "-" + split + ".apk";
     }
 
     private List<String> buildCommand(String... args) {
@@ -151,12 +179,4 @@ public class AdbService {
         for (String arg : args) cmd.add(arg);
         return cmd;
     }
-
-    private boolean requireDevice(String deviceId) {
-        if (isBlank(deviceId)) {
-            userNotifier.showError("Please select a device.");
-            return false;
-        }
-        return true;
-    }
 }
\ No newline at end of file
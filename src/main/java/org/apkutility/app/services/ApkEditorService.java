@@ -1,25 +1,43 @@
 package org.apkutility.app.services;
 
+import org.apkutility.app.apk.AndroidManifest;
+import org.apkutility.app.apk.ApkSignatures;
+import org.apkutility.app.apk.DexFile;
+import org.apkutility.app.apk.ResourceTable;
+import org.apkutility.app.config.SettingsConfig;
+import org.apkutility.app.services.cache.ResultCache;
+import org.apkutility.app.services.engine.ToolWorker;
+import org.apkutility.app.services.executor.CommandTask;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.JobLane;
 
 import org.apkutility.app.config.ApkEditorGetInfoConfig;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import static org.apkutility.app.utils.StringUtils.isBlank;
 import static org.apkutility.app.utils.StringUtils.notBlank;
+import static org.apkutility.app.utils.StringUtils.nullToEmpty;
 
 public class ApkEditorService {
 
     private final UserNotifier userNotifier;
     private final CommandExecutor commandExecutor;
+    private final ToolWorker worker = new ToolWorker("APKEditor", ApkEditorService::getApkEditorPath,
+            () -> SettingsManager.getInstance().getSettings().getJavaPath());
 
     public ApkEditorService(UserNotifier userNotifier, CommandExecutor commandExecutor) {
         this.userNotifier = userNotifier;
         this.commandExecutor = commandExecutor;
+        applyRecyclePolicy(worker, SettingsManager.getInstance().getSettings());
     }
 
     public static String getApkEditorPath() {
@@ -36,8 +54,8 @@ public class ApkEditorService {
         return defaultPath.exists() ? defaultPath.getAbsolutePath() : "";
     }
 
-    public void executeDecompile(String apkPath, String outputDir, boolean decompileToXml, boolean loadDex, String dexLibrary) {
-        if (!requireApk(apkPath, "decompile")) return;
+    public CompletableFuture<CommandResult> executeDecompile(String apkPath, String outputDir, boolean decompileToXml, boolean loadDex, String dexLibrary) {
+        if (isBlank(apkPath)) return missingApk("decompile");
 
         List<String> cmd = buildCommand("d", "-i", apkPath);
         addOptional(cmd, "-o", outputDir);
@@ -45,13 +63,12 @@ public class ApkEditorService {
         if (loadDex) addArgs(cmd, "-load-dex", "3");
         addOptional(cmd, "-dex-lib", dexLibrary);
 
-        commandExecutor.executeCommand(cmd, "Decompiling APK...");
+        return execute(cmd, "Decompiling APK...");
     }
 
-    public void executeBuild(String inputDir, String outputApk, boolean buildFromXml, String dexLibrary) {
+    public CompletableFuture<CommandResult> executeBuild(String inputDir, String outputApk, boolean buildFromXml, String dexLibrary) {
         if (isBlank(inputDir)) {
-            userNotifier.showError("Please select a decompiled directory to build.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select a decompiled directory to build.");
         }
 
         List<String> cmd = buildCommand("b", "-i", inputDir);
@@ -59,25 +76,23 @@ public class ApkEditorService {
         if (buildFromXml) addArgs(cmd, "-t", "xml");
         addOptional(cmd, "-dex-lib", dexLibrary);
 
-        commandExecutor.executeCommand(cmd, "Building APK...");
+        return execute(cmd, "Building APK...");
     }
 
-    public void executeMerge(String inputPath, String outputApk) {
+    public CompletableFuture<CommandResult> executeMerge(String inputPath, String outputApk) {
         if (isBlank(inputPath)) {
-            userNotifier.showError("Please select input for merging.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select input for merging.");
         }
 
         List<String> cmd = buildCommand("m", "-i", inputPath);
         addOptional(cmd, "-o", outputApk);
-        commandExecutor.executeCommand(cmd, "Merging APKs...");
+        return execute(cmd, "Merging APKs...");
     }
 
-    public void executeMergeAdvanced(String inputPath, String outputApk, String resDir, String extractNativeLibs,
-                                     boolean cleanMeta, boolean forceDelete, boolean validateModules, boolean vrd) {
+    public CompletableFuture<CommandResult> executeMergeAdvanced(String inputPath, String outputApk, String resDir, String extractNativeLibs,
+                                                                 boolean cleanMeta, boolean forceDelete, boolean validateModules, boolean vrd) {
         if (isBlank(inputPath)) {
-            userNotifier.showError("Please select input for merging.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select input for merging.");
         }
 
         List<String> cmd = buildCommand("m", "-i", inputPath);
@@ -90,12 +105,12 @@ public class ApkEditorService {
         if (validateModules) cmd.add("-validate-modules");
         if (vrd) cmd.add("-vrd");
 
-        commandExecutor.executeCommand(cmd, "Merging APKs...");
+        return execute(cmd, "Merging APKs...");
     }
 
-    public void executeRefactor(String inputApk, String outputApk, String publicXml,
-                                boolean cleanMeta, boolean forceDelete, boolean fixTypes) {
-        if (!requireApk(inputApk, "refactor")) return;
+    public CompletableFuture<CommandResult> executeRefactor(String inputApk, String outputApk, String publicXml,
+                                                            boolean cleanMeta, boolean forceDelete, boolean fixTypes) {
+        if (isBlank(inputApk)) return missingApk("refactor");
 
         List<String> cmd = buildCommand("x", "-i", inputApk);
         addOptional(cmd, "-o", outputApk);
@@ -105,13 +120,13 @@ public class ApkEditorService {
         if (forceDelete) cmd.add("-f");
         if (fixTypes) cmd.add("-fix-types");
 
-        commandExecutor.executeCommand(cmd, "Refactoring APK...");
+        return execute(cmd, "Refactoring APK...");
     }
 
-    public void executeProtect(String inputApk, String outputApk, String keepType,
-                               boolean confuseZip, String dicDirNames, String dicFileNames,
-                               boolean forceDelete, boolean skipManifest) {
-        if (!requireApk(inputApk, "protect")) return;
+    public CompletableFuture<CommandResult> executeProtect(String inputApk, String outputApk, String keepType,
+                                                           boolean confuseZip, String dicDirNames, String dicFileNames,
+                                                           boolean forceDelete, boolean skipManifest) {
+        if (isBlank(inputApk)) return missingApk("protect");
 
         List<String> cmd = buildCommand("p", "-i", inputApk);
         addOptional(cmd, "-o", outputApk);
@@ -123,12 +138,13 @@ public class ApkEditorService {
         if (forceDelete) cmd.add("-f");
         if (skipManifest) cmd.add("-skip-manifest");
 
-        commandExecutor.executeCommand(cmd, "Protecting APK...");
+        return execute(cmd, "Protecting APK...");
     }
 
-    public void executeGetInfo(String inputApk, String outputFile, ApkEditorGetInfoConfig config, Consumer<String> outputConsumer) {
+    public CompletableFuture<CommandResult> executeGetInfo(String inputApk, String outputFile, ApkEditorGetInfoConfig config,
+                                                           Consumer<String> outputConsumer) {
 
-        if (!requireApk(inputApk, "get information")) return;
+        if (isBlank(inputApk)) return missingApk("get information");
 
         List<String> cmd = buildCommand("info", "-i", inputApk);
         addOptional(cmd, "-o", outputFile);
@@ -163,15 +179,138 @@ public class ApkEditorService {
         if (config.isVersionCode()) cmd.add("-version-code");
         if (config.isVersionName()) cmd.add("-version-name");
 
-        commandExecutor.executeCommand(cmd, "Getting APK information...", outputConsumer);
+        // Writing to an output file is a side effect, so only console output is cached
+        return execute(cmd, "Getting APK information...", outputConsumer, isBlank(outputFile) ? inputApk : null);
+    }
+
+    public void applyWorkerSettings(SettingsConfig settings) {
+        applyRecyclePolicy(worker, settings);
+    }
+
+    // Static so the constructor can use it without calling an overridable method
+    private static void applyRecyclePolicy(ToolWorker worker, SettingsConfig settings) {
+        worker.setRecyclePolicy(settings.getApkEditorWorkerMaxJobs(), settings.getApkEditorWorkerMaxHeapMb() * 1024L * 1024L);
+    }
+
+    /**
+     * Starts the APKEditor worker in the background so the first Info query does not pay JVM start-up.
+     */
+    public void warmUp() {
+        if (!SettingsManager.getInstance().getSettings().isApkEditorWorker()) return;
+
+        Thread warmer = new Thread(() -> {
+            try {
+                worker.warmUp();
+            } catch (Exception ignored) {
+                // First job will fall back to a plain process
+            }
+        }, "apkeditor-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    public void shutdown() {
+        worker.close();
+    }
+
+    /**
+     * Manifest-only subset of {@link #executeGetInfo}, decoded in-process instead of starting APKEditor.
+     * Output uses the same {@code Key="Value"} and list format, so it renders the same way.
+     */
+    public CompletableFuture<CommandResult> executeQuickInfo(String inputApk, Consumer<String> outputConsumer) {
+        if (isBlank(inputApk)) return missingApk("get information");
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[built-in] info -i " + inputApk, "Decoding manifest...", outputConsumer, output -> {
+            long start = System.nanoTime();
+            AndroidManifest manifest = AndroidManifest.read(Path.of(inputApk));
+            output.accept("package=\"" + nullToEmpty(manifest.packageName()) + "\"");
+            output.accept("VersionCode=\"" + manifest.versionCode() + "\"");
+            output.accept("VersionName=\"" + nullToEmpty(manifest.versionName()) + "\"");
+            if (manifest.minSdk() != null) output.accept("MinSdkVersion=\"" + manifest.minSdk() + "\"");
+            if (manifest.targetSdk() != null) output.accept("TargetSdkVersion=\"" + manifest.targetSdk() + "\"");
+            if (manifest.compileSdk() != null) output.accept("CompileSdkVersion=\"" + manifest.compileSdk() + "\"");
+            ResourceTable resources = readResourceTable(inputApk);
+            if (manifest.applicationLabel() != null) output.accept("AppName=\"" + resolve(resources, manifest.applicationLabel()) + "\"");
+            if (manifest.applicationIcon() != null) output.accept("AppIcon=\"" + resolve(resources, manifest.applicationIcon()) + "\"");
+            if (manifest.applicationClass() != null) output.accept("AppClass=\"" + manifest.applicationClass() + "\"");
+            if (manifest.launchableActivity() != null) output.accept("activity-main=\"" + manifest.launchableActivity() + "\"");
+            output.accept("Debuggable=\"" + manifest.debuggable() + "\"");
+            List<DexFile> dexFiles = DexFile.index(Path.of(inputApk), ForkJoinPool.commonPool());
+            output.accept("DexFiles=\"" + dexFiles.size() + "\"");
+            output.accept("MethodReferences=\"" + dexFiles.stream().mapToLong(DexFile::getMethodCount).sum() + "\"");
+            output.accept("DecodeTime=\"" + String.format("%.1f ms", (System.nanoTime() - start) / 1e6) + "\"");
+            for (DexFile dex : dexFiles) {
+                output.accept("Name=\"" + dex.getName() + "\"");
+                output.accept("  Version=\"" + dex.getVersion() + "\" Size=\"" + dex.getFileSize() + "\"");
+                output.accept("  Classes=\"" + dex.getClassCount() + "\" Strings=\"" + dex.getStringCount() + "\" Types=\"" + dex.getTypeCount() + "\"");
+                output.accept("  Methods=\"" + dex.getMethodCount() + "\" Fields=\"" + dex.getFieldCount() + "\""
+                        + (dex.exceedsReferenceLimit() ? " (over the 64K reference limit)" : ""));
+            }
+            ApkSignatures signatures = ApkSignatures.read(Path.of(inputApk));
+            output.accept("Certificates=\"" + signatures.signers().size() + "\"");
+            signatures.describe().forEach(output);
+            list(output, "uses-permission", manifest.permissions());
+            list(output, "activities", manifest.activities().stream().map(AndroidManifest.Component::name).toList());
+            list(output, "services", manifest.services().stream().map(AndroidManifest.Component::name).toList());
+            list(output, "receivers", manifest.receivers().stream().map(AndroidManifest.Component::name).toList());
+            list(output, "providers", manifest.providers().stream().map(AndroidManifest.Component::name).toList());
+            return 0;
+        });
+    }
+
+    // Labels and icons are resource references; without a readable table they are shown as ids
+    private static ResourceTable readResourceTable(String apk) {
+        try {
+            return ResourceTable.read(Path.of(apk));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String resolve(ResourceTable resources, String value) {
+        return resources != null ? resources.resolve(value) : value;
+    }
+
+    private static void list(Consumer<String> output, String name, List<String> items) {
+        if (items.isEmpty()) return;
+        output.accept(name + " [ count " + items.size() + "]");
+        for (int i = 0; i < items.size(); i++) output.accept("  " + (i + 1) + ") " + items.get(i));
+    }
+
+    private CompletableFuture<CommandResult> execute(List<String> args, String statusMessage) {
+        return execute(args, statusMessage, null, null);
+    }
+
+    /**
+     * @param cacheableApk APK whose result may be served from {@link ResultCache}, or null for jobs with side effects
+     */
+    private CompletableFuture<CommandResult> execute(List<String> args, String statusMessage,
+                                                     Consumer<String> outputConsumer, String cacheableApk) {
+        List<String> command = processCommand(args);
+        boolean useWorker = SettingsManager.getInstance().getSettings().isApkEditorWorker();
+
+        String description = (useWorker ? "[worker] APKEditor " + String.join(" ", args) : String.join(" ", command));
+        CommandTask task = useWorker
+                ? output -> worker.runOrFallback(args, command, output)
+                : output -> CommandExecutor.runProcess(command, output);
+        if (cacheableApk != null) {
+            task = ResultCache.getInstance().cached(cacheableApk, getApkEditorPath(), args, task);
+        }
+        return commandExecutor.submitTask(JobLane.JVM, description, statusMessage, outputConsumer, task);
     }
 
     private List<String> buildCommand(String... args) {
+        List<String> cmd = new ArrayList<>();
+        for (String arg : args) cmd.add(arg);
+        return cmd;
+    }
+
+    private List<String> processCommand(List<String> args) {
         List<String> cmd = new ArrayList<>();
         cmd.add("java");
         cmd.add("-jar");
         cmd.add(getApkEditorPath());
-        for (String arg : args) cmd.add(arg);
+        cmd.addAll(args);
         return cmd;
     }
 
@@ -183,11 +322,7 @@ public class ApkEditorService {
         for (String arg : args) cmd.add(arg);
     }
 
-    private boolean requireApk(String apkPath, String action) {
-        if (isBlank(apkPath)) {
-            userNotifier.showError("Please select an APK file to " + action + ".");
-            return false;
-        }
-        return true;
+    private CompletableFuture<CommandResult> missingApk(String action) {
+        return CommandResult.invalid(userNotifier, "Please select an APK file to " + action + ".");
     }
 }
@@ -1,12 +1,57 @@
 package org.apkutility.app.services;
 
+import javafx.application.Platform;
+import org.apkutility.app.apk.ApkAlignSigner;
+import org.apkutility.app.apk.ApkSchemeSigner;
+import org.apkutility.app.apk.ApkSignatures;
+import org.apkutility.app.apk.ZipAligner;
+import org.apkutility.app.apk.signing.SelfSignedCertificate;
+import org.apkutility.app.apk.signing.SigningKey;
+import org.apkutility.app.services.cache.Verification;
+import org.apkutility.app.services.cache.VerificationCache;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.Job;
+import org.apkutility.app.services.executor.JobLane;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 public class ApkSignerService {
 
@@ -14,10 +59,19 @@ public class ApkSignerService {
     private static final String TEST_KEYSTORE_PASSWORD = "android";
     private static final String TEST_KEY_ALIAS = "androiddebugkey";
     private static final String TEST_KEY_PASSWORD = "android";
+    private static final int TEST_KEY_VALIDITY_DAYS = 10000;
+    private static final ExecutorService KEYGEN_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "test-keystore");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final LogOutput logOutput;
     private final UserNotifier userNotifier;
     private final CommandExecutor commandExecutor;
+    private final Map<String, SigningKey> unlockedKeys = new ConcurrentHashMap<>();
+    private CompletableFuture<String> testKeystore;
+    private ForkJoinPool digestPool;
 
     public ApkSignerService(LogOutput logOutput, UserNotifier userNotifier, CommandExecutor commandExecutor) {
         this.logOutput = logOutput;
@@ -41,60 +95,62 @@ public class ApkSignerService {
         return defaultPath.exists() ? defaultPath.getAbsolutePath() : "";
     }
 
-    public String getOrCreateTestKeystore() {
-        Path keystorePath = Path.of(System.getProperty("user.home"), ".apktool-gui", TEST_KEYSTORE_NAME);
+    /**
+     * Returns the test keystore, generating it in-process on a background thread the first time.
+     * The future completes with the keystore path; concurrent callers share one generation.
+     */
+    public synchronized CompletableFuture<String> getTestKeystoreAsync() {
+        if (testKeystore == null || testKeystore.isCompletedExceptionally()) {
+            Path keystorePath = getTestKeystorePath();
+            testKeystore = Files.exists(keystorePath)
+                    ? CompletableFuture.completedFuture(keystorePath.toString())
+                    : CompletableFuture.supplyAsync(() -> generateTestKeystore(keystorePath), KEYGEN_EXECUTOR);
+        }
+        return testKeystore;
+    }
 
-        if (Files.exists(keystorePath)) {
-            return keystorePath.toString();
+    /**
+     * Starts generating the test keystore at startup if it does not exist yet, so the first quick sign does not wait.
+     */
+    public void prewarmTestKeystore() {
+        if (!Files.exists(getTestKeystorePath())) {
+            getTestKeystoreAsync();
         }
+    }
 
+    private String generateTestKeystore(Path keystorePath) {
+        long start = System.nanoTime();
         try {
             Files.createDirectories(keystorePath.getParent());
-        } catch (Exception e) {
-            logOutput.append("❌ Failed to create keystore directory: " + e.getMessage());
-            return null;
-        }
-
-        logOutput.append("🔑 Generating test keystore...");
 
-        List<String> cmd = new ArrayList<>();
-        cmd.add("keytool");
-        cmd.add("-genkeypair");
-        cmd.add("-v");
-        cmd.add("-keystore");
-        cmd.add(keystorePath.toString());
-        cmd.add("-storepass");
-        cmd.add(TEST_KEYSTORE_PASSWORD);
-        cmd.add("-alias");
-        cmd.add(TEST_KEY_ALIAS);
-        cmd.add("-keypass");
-        cmd.add(TEST_KEY_PASSWORD);
-        cmd.add("-keyalg");
-        cmd.add("RSA");
-        cmd.add("-keysize");
-        cmd.add("2048");
-        cmd.add("-validity");
-        cmd.add("10000");
-        cmd.add("-dname");
-        cmd.add("CN=Android Debug,O=Android,C=US");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            X509Certificate certificate = SelfSignedCertificate.create(keyPair, "Android Debug", "Android", "US",
+                    Duration.ofDays(TEST_KEY_VALIDITY_DAYS));
 
-        try {
-            ProcessBuilder pb = new ProcessBuilder(cmd);
-            pb.redirectErrorStream(true);
-            int exitCode = pb.start().waitFor();
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            store.load(null, null);
+            store.setKeyEntry(TEST_KEY_ALIAS, keyPair.getPrivate(), TEST_KEY_PASSWORD.toCharArray(), new Certificate[]{certificate});
 
-            if (exitCode == 0 && Files.exists(keystorePath)) {
-                logOutput.append("✅ Test keystore created at: " + keystorePath);
-                return keystorePath.toString();
+            // Written under a temporary name so a crash never leaves a half-written keystore behind
+            Path temp = keystorePath.resolveSibling(TEST_KEYSTORE_NAME + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                store.store(out, TEST_KEYSTORE_PASSWORD.toCharArray());
             }
-            logOutput.append("❌ Failed to create test keystore");
-            return null;
+            Files.move(temp, keystorePath, StandardCopyOption.REPLACE_EXISTING);
+
+            logOutput.append(String.format("✅ Test keystore created at: %s (%d ms)", keystorePath, (System.nanoTime() - start) / 1_000_000));
+            return keystorePath.toString();
         } catch (Exception e) {
-            logOutput.append("❌ Failed to create test keystore: " + e.getMessage());
-            return null;
+            throw new CompletionException(e);
         }
     }
 
+    private static Path getTestKeystorePath() {
+        return Path.of(System.getProperty("user.home"), ".apktool-gui", TEST_KEYSTORE_NAME);
+    }
+
     public String getTestKeystorePassword() {
         return TEST_KEYSTORE_PASSWORD;
     }
@@ -107,26 +163,15 @@ public class ApkSignerService {
         return TEST_KEY_PASSWORD;
     }
 
-    public void signApk(String inputApk, String outputApk, String keystorePath,
-                        String keystorePassword, String keyAlias, String keyPassword,
-                        boolean v1, boolean v2, boolean v3, boolean v4, boolean useTestKey) {
+    public CompletableFuture<CommandResult> signApk(String inputApk, String outputApk, String keystorePath,
+                                                    String keystorePassword, String keyAlias, String keyPassword,
+                                                    boolean v1, boolean v2, boolean v3, boolean v4, boolean useTestKey) {
 
         if (isBlank(inputApk)) {
-            userNotifier.showError("Please select an APK file to sign.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an APK file to sign.");
         }
 
-        if (useTestKey || isBlank(keystorePath)) {
-            keystorePath = getOrCreateTestKeystore();
-            if (keystorePath == null) {
-                userNotifier.showError("Failed to create test keystore.");
-                return;
-            }
-            keystorePassword = TEST_KEYSTORE_PASSWORD;
-            keyAlias = TEST_KEY_ALIAS;
-            keyPassword = TEST_KEY_PASSWORD;
-            logOutput.append("🔑 Using test key for signing");
-        }
+        Keystore keystore = resolveKeystore(keystorePath, keystorePassword, keyAlias, keyPassword, useTestKey);
 
         if (isBlank(outputApk)) {
             outputApk = inputApk.replace(".apk", "_signed.apk");
@@ -141,48 +186,465 @@ public class ApkSignerService {
         cmd.add(String.valueOf(v3));
         cmd.add("--v4-signing-enabled");
         cmd.add(String.valueOf(v4));
-        addKeystoreArgs(cmd, keystorePath, keystorePassword, keyAlias, keyPassword);
+        addKeystoreArgs(cmd, keystore.path(), keystore.storePassword(), keystore.alias(), keystore.keyPassword());
         cmd.add("--out");
         cmd.add(outputApk);
         cmd.add(inputApk);
 
-        commandExecutor.executeCommand(cmd, "Signing APK...");
+        if (!v1 && (v2 || v3)) {
+            return signInProcess(inputApk, outputApk, keystore, v2, v3, v4, cmd);
+        }
+
+        return commandExecutor.submitTask(JobLane.forCommand(cmd), String.join(" ", cmd), "Signing APK...", null, output -> {
+            awaitKeystore(keystore);
+            return CommandExecutor.runProcess(cmd, output);
+        });
+    }
+
+    /**
+     * v2/v3(/v4) signing without forking apksigner: chunk digests and the v4 Merkle tree are computed in
+     * parallel over the mapped APK. APKs that still carry a JAR signature are handed to apksigner
+     * ({@code fallbackCommand}).
+     */
+    private CompletableFuture<CommandResult> signInProcess(String inputApk, String outputApk, Keystore keystore,
+                                                           boolean v2, boolean v3, boolean v4, List<String> fallbackCommand) {
+        String schemes = (v2 ? "v2 " : "") + (v3 ? "v3 " : "") + (v4 ? "v4" : "");
+        return commandExecutor.submitTask(JobLane.NATIVE, "[java] sign (" + schemes.trim() + ") " + inputApk + " -> " + outputApk,
+                "Signing APK...", null, out -> {
+            if (ApkSchemeSigner.hasJarSignature(Path.of(inputApk))) {
+                out.accept("APK has a JAR signature, signing with apksigner");
+                awaitKeystore(keystore);
+                return CommandExecutor.runProcess(fallbackCommand, out);
+            }
+
+            SigningKey key = unlock(keystore);
+            ForkJoinPool pool = digestPool();
+            ApkSchemeSigner.Result result = new ApkSchemeSigner(key, v2, v3, v4, pool).sign(Path.of(inputApk), Path.of(outputApk));
+            out.accept(String.format("Signed %s in %d ms (content digest %d ms on %d threads)",
+                    formatMb(result.bytesWritten()), result.millis(), result.digestMillis(), pool.getParallelism()));
+            out.accept("Output: " + outputApk);
+            if (v4) {
+                out.accept(String.format("v4 signature: %s (%d ms)", ApkSchemeSigner.idsigPath(Path.of(outputApk)), result.v4Millis()));
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * Times the bundled apksigner.jar against the in-process v2/v3 signer (one thread and the configured
+     * digest threads) on generated 100 MB, 500 MB and 1 GB APKs, and verifies the in-process output.
+     * The generated APKs take their AndroidManifest.xml from {@code seedApk} (apksigner needs one) and are
+     * written to a temp directory that is deleted afterwards.
+     */
+    public CompletableFuture<CommandResult> benchmarkSigning(String seedApk) {
+        if (isBlank(seedApk)) {
+            return CommandResult.invalid(userNotifier, "Please select an APK file to benchmark with.");
+        }
+
+        Keystore keystore = resolveKeystore(null, null, null, null, true);
+        int[] sizesMb = {100, 500, 1024};
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[java] signing benchmark (v2 + v3)", "Benchmarking signing...", null, output -> {
+            SigningKey key = unlock(keystore);
+            ForkJoinPool pool = digestPool();
+            byte[] manifest;
+            try (ZipFile seed = new ZipFile(seedApk)) {
+                ZipEntry manifestEntry = seed.getEntry("AndroidManifest.xml");
+                if (manifestEntry == null) throw new IOException("No AndroidManifest.xml in " + seedApk);
+                manifest = seed.getInputStream(manifestEntry).readAllBytes();
+            }
+
+            Path workDir = Files.createTempDirectory("sign-bench");
+            try (ForkJoinPool single = new ForkJoinPool(1)) {
+                output.accept(String.format("%-8s %14s %12s %12s %9s", "size", "apksigner ms",
+                        "1 thread ms", pool.getParallelism() + " thr ms", "verified"));
+
+                int failures = 0;
+                for (int sizeMb : sizesMb) {
+                    Path input = workDir.resolve(sizeMb + "mb.apk");
+                    Path output1 = workDir.resolve(sizeMb + "mb-1.apk");
+                    Path outputN = workDir.resolve(sizeMb + "mb-n.apk");
+                    writeBenchmarkApk(input, manifest, sizeMb * 1024L * 1024L);
+
+                    List<String> cmd = buildBaseCommand("sign");
+                    cmd.addAll(List.of("--v1-signing-enabled", "false", "--v2-signing-enabled", "true",
+                            "--v3-signing-enabled", "true", "--v4-signing-enabled", "false", "--min-sdk-version", "24"));
+                    addKeystoreArgs(cmd, keystore.path(), keystore.storePassword(), keystore.alias(), keystore.keyPassword());
+                    cmd.addAll(List.of("--out", workDir.resolve(sizeMb + "mb-apksigner.apk").toString(), input.toString()));
+
+                    long start = System.nanoTime();
+                    int exitCode = CommandExecutor.runProcess(cmd, line -> { });
+                    long apksignerMillis = (System.nanoTime() - start) / 1_000_000;
+                    long singleMillis = new ApkSchemeSigner(key, true, true, false, single).sign(input, output1).millis();
+                    long parallelMillis = new ApkSchemeSigner(key, true, true, false, pool).sign(input, outputN).millis();
+
+                    List<String> verify = buildBaseCommand("verify");
+                    verify.addAll(List.of("--min-sdk-version", "24", outputN.toString()));
+                    boolean verified = CommandExecutor.runProcess(verify, line -> { }) == 0;
+                    if (exitCode != 0 || !verified) failures++;
+
+                    output.accept(String.format("%-8s %14s %12d %12d %9s", sizeMb + " MB",
+                            exitCode == 0 ? String.valueOf(apksignerMillis) : "failed", singleMillis, parallelMillis, verified ? "yes" : "NO"));
+                    deleteRecursively(workDir, false);
+                }
+                return failures == 0 ? 0 : 1;
+            } finally {
+                deleteRecursively(workDir, true);
+            }
+        });
+    }
+
+    /**
+     * Incompressible stored entries of 8 MB each, so signing cost is dominated by digesting like in a real game APK.
+     */
+    private static void writeBenchmarkApk(Path apk, byte[] manifest, long size) throws IOException {
+        byte[] data = new byte[8 * 1024 * 1024];
+        new SplittableRandom(42).nextBytes(data);
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(apk), 1 << 16))) {
+            zip.putNextEntry(new ZipEntry("AndroidManifest.xml"));
+            zip.write(manifest);
+            zip.closeEntry();
+            for (int i = 0; (long) i * data.length < size; i++) {
+                data[0] = (byte) i;
+                data[1] = (byte) (i >> 8);
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                ZipEntry entry = new ZipEntry("assets/blob" + i + ".bin");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(data.length);
+                entry.setCrc(crc.getValue());
+                zip.putNextEntry(entry);
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path root, boolean includeRoot) {
+        try (var paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .filter(path -> includeRoot || !path.equals(root))
+                 .forEach(path -> path.toFile().delete());
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Pool for chunk-parallel content digests, rebuilt when the "signing digest threads" setting changes.
+     */
+    private synchronized ForkJoinPool digestPool() {
+        int parallelism = SettingsManager.getInstance().getSettings().getSigningDigestThreads();
+        if (digestPool == null || digestPool.getParallelism() != parallelism) {
+            if (digestPool != null) digestPool.shutdown();
+            digestPool = new ForkJoinPool(parallelism);
+        }
+        return digestPool;
+    }
+
+    /**
+     * Aligns and signs (v1/v2/v3) in one in-process pass, writing the output APK once.
+     */
+    public CompletableFuture<CommandResult> alignAndSignApk(String inputApk, String outputApk, String keystorePath,
+                                                            String keystorePassword, String keyAlias, String keyPassword,
+                                                            boolean v1, boolean v2, boolean v3, int soPageSize, boolean useTestKey) {
+
+        if (isBlank(inputApk)) {
+            return CommandResult.invalid(userNotifier, "Please select an APK file to sign.");
+        }
+        if (!v1 && !v2 && !v3) {
+            return CommandResult.invalid(userNotifier, "Select at least one of the v1, v2 or v3 schemes.");
+        }
+
+        Keystore keystore = resolveKeystore(keystorePath, keystorePassword, keyAlias, keyPassword, useTestKey);
+
+        String output = isBlank(outputApk) ? inputApk.replace(".apk", "_signed.apk") : outputApk;
+        String schemes = (v1 ? "v1 " : "") + (v2 ? "v2 " : "") + (v3 ? "v3" : "");
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[java] align + sign (" + schemes.trim() + ") " + inputApk + " -> " + output,
+                "Aligning and signing APK...", null, out -> {
+            SigningKey key = unlock(keystore);
+            ApkAlignSigner signer = new ApkAlignSigner(key, new ZipAligner(ZipAligner.DEFAULT_ALIGNMENT, soPageSize), v1, v2, v3);
+            ApkAlignSigner.Result result = signer.alignAndSign(Path.of(inputApk), Path.of(output), null);
+
+            long inputSize = new File(inputApk).length();
+            out.accept(String.format("Aligned and signed %d entries in %d ms: %s read, %s written",
+                    result.entries(), result.millis(), formatMb(result.bytesRead()), formatMb(result.bytesWritten())));
+            out.accept(String.format("Separate zipalign + apksigner would read ~%s and write ~%s",
+                    formatMb(inputSize * 3), formatMb(inputSize * 2)));
+            out.accept("Output: " + output);
+            return 0;
+        });
+    }
+
+    /**
+     * Signs many APKs (e.g. a set of splits) concurrently with one unlocked key, aligned like
+     * {@link #alignAndSignApk}. Outputs go to {@code outputDir} under their original names, or with the
+     * {@code _signed} suffix of the single-file default when that folder holds the originals; every APK gets its
+     * own result line. Refused when two APKs would end up with the same output file.
+     */
+    public CompletableFuture<CommandResult> batchSign(List<String> apks, String outputDir, String keystorePath,
+                                                      String keystorePassword, String keyAlias, String keyPassword,
+                                                      boolean v1, boolean v2, boolean v3, int soPageSize, boolean useTestKey) {
+
+        if (apks == null || apks.isEmpty()) {
+            return CommandResult.invalid(userNotifier, "No APK files selected for batch signing.");
+        }
+        if (!v1 && !v2 && !v3) {
+            return CommandResult.invalid(userNotifier, "Select at least one of the v1, v2 or v3 schemes.");
+        }
+        if (isBlank(outputDir)) {
+            return CommandResult.invalid(userNotifier, "Please select an output folder for batch signing.");
+        }
+
+        Map<Path, Path> outputs = batchOutputs(apks, Path.of(outputDir));
+        if (outputs == null) {
+            return CommandResult.invalid(userNotifier, "Two of the selected APKs would be signed to the same file in "
+                    + outputDir + ", or one would overwrite another input. Rename them or sign them in separate batches.");
+        }
+
+        Keystore keystore = resolveKeystore(keystorePath, keystorePassword, keyAlias, keyPassword, useTestKey);
+
+        int threads = SettingsManager.getInstance().getSettings().getBatchSignThreads();
+        return commandExecutor.submitTask(JobLane.NATIVE, "[java] batch sign " + apks.size() + " APKs -> " + outputDir,
+                "Batch signing " + apks.size() + " APKs...", null, out -> {
+            long start = System.nanoTime();
+            boolean cached = unlockedKeys.containsKey(keystore.id());
+            SigningKey key = unlock(keystore);
+            out.accept(cached ? "🔑 Using unlocked key from this session"
+                    : String.format("🔑 Keystore unlocked in %d ms", (System.nanoTime() - start) / 1_000_000));
+
+            Files.createDirectories(Path.of(outputDir));
+            ApkAlignSigner signer = new ApkAlignSigner(key, new ZipAligner(ZipAligner.DEFAULT_ALIGNMENT, soPageSize), v1, v2, v3);
+            ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "batch-sign");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Long>> results = new ArrayList<>();
+                for (Map.Entry<Path, Path> files : outputs.entrySet()) {
+                    Path input = files.getKey();
+                    Path output = files.getValue();
+                    results.add(pool.submit(() -> {
+                        try {
+                            ApkAlignSigner.Result result = signer.alignAndSign(input, output, null);
+                            synchronized (out) {
+                                out.accept(String.format("✅ %s (%s, %d ms)", input.getFileName(), formatMb(result.bytesWritten()), result.millis()));
+                            }
+                            return result.millis();
+                        } catch (Exception e) {
+                            synchronized (out) {
+                                out.accept("❌ " + input.getFileName() + ": " + e.getMessage());
+                            }
+                            return -1L;
+                        }
+                    }));
+                }
+
+                int failed = 0;
+                long busyMillis = 0;
+                for (Future<Long> result : results) {
+                    long millis = result.get();
+                    if (millis < 0) failed++;
+                    else busyMillis += millis;
+                }
+                out.accept(String.format("Signed %d/%d APKs on %d threads in %d ms (sum of per-APK times %d ms)",
+                        apks.size() - failed, apks.size(), threads, (System.nanoTime() - start) / 1_000_000, busyMillis));
+                out.accept("Output: " + outputDir);
+                return failed == 0 ? 0 : 1;
+            } finally {
+                pool.shutdownNow();
+            }
+        });
+    }
+
+    /**
+     * Output file of every input, in input order, or null when two inputs share an output or an output is
+     * itself one of the inputs. Names are compared ignoring case, as on Windows and macOS file systems.
+     */
+    private static Map<Path, Path> batchOutputs(List<String> apks, Path outputDir) {
+        Path dir = outputDir.toAbsolutePath().normalize();
+        Map<Path, Path> outputs = new LinkedHashMap<>();
+        Set<String> inputs = new HashSet<>();
+        for (String apk : apks) {
+            Path input = Path.of(apk).toAbsolutePath().normalize();
+            inputs.add(input.toString().toLowerCase());
+            String name = input.getFileName().toString();
+            // Signing next to the originals keeps them, like the single-file default
+            if (dir.equals(input.getParent())) {
+                name = name.toLowerCase().endsWith(".apk")
+                        ? name.substring(0, name.length() - ".apk".length()) + "_signed.apk"
+                        : name + "_signed";
+            }
+            outputs.put(input, dir.resolve(name));
+        }
+
+        Set<String> taken = new HashSet<>();
+        for (Path output : outputs.values()) {
+            String key = output.toString().toLowerCase();
+            if (!taken.add(key) || inputs.contains(key)) return null;
+        }
+        return outputs.size() == apks.size() ? outputs : null;
     }
 
-    public void quickSignWithTestKey(String inputApk, String outputApk) {
-        signApk(inputApk, outputApk, null, null, null, null, true, true, true, false, true);
+    public CompletableFuture<CommandResult> quickSignWithTestKey(String inputApk, String outputApk) {
+        return signApk(inputApk, outputApk, null, null, null, null, true, true, true, false, true);
+    }
+
+    public CompletableFuture<CommandResult> verifyApk(String apkPath, boolean verbose, boolean printCerts) {
+        if (isBlank(apkPath)) {
+            return CommandResult.invalid(userNotifier, "Please select an APK file to verify.");
+        }
+
+        List<String> cmd = verifyCommand(apkPath);
+        return commandExecutor.submitTask(JobLane.JVM, String.join(" ", cmd), "Verifying APK signature...", null, output -> {
+            VerificationCache.Lookup lookup = VerificationCache.getInstance()
+                    .verify(Path.of(apkPath), getApkSignerPath(), out -> CommandExecutor.runProcess(cmd, out));
+            lookup.verification().render(verbose, printCerts).forEach(output);
+            if (lookup.cached()) {
+                output.accept(String.format("(cached result, %d µs)", lookup.nanos() / 1000));
+            }
+            return lookup.verification().verifies() ? 0 : 1;
+        });
     }
 
-    public void verifyApk(String apkPath, boolean verbose, boolean printCerts) {
+    /**
+     * Signers, certificates, key sizes, SDK ranges and rotation lineage read straight from the APK Signing Block,
+     * without starting apksigner. Nothing is verified.
+     */
+    public CompletableFuture<CommandResult> showSignatures(String apkPath) {
         if (isBlank(apkPath)) {
-            userNotifier.showError("Please select an APK file to verify.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an APK file.");
+        }
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[built-in] signing block " + apkPath, "Reading signatures...", null, output -> {
+            long start = System.nanoTime();
+            ApkSignatures signatures = ApkSignatures.read(Path.of(apkPath));
+            signatures.describe().forEach(output);
+            output.accept(String.format("Read in %.1f ms (not verified; use Verify for that)", (System.nanoTime() - start) / 1e6));
+            return 0;
+        });
+    }
+
+    /**
+     * One row of a folder verification; {@code verification} is null when {@code error} is set.
+     */
+    public record FolderVerification(Path apk, Verification verification, String error, boolean cached, long micros) {
+    }
+
+    /**
+     * Verifies every APK under {@code directory} concurrently, at most as many apksigner runs at once as the JVM
+     * lane has threads, reusing cached results for unchanged APKs, and hands all rows to {@code onComplete} on
+     * the UI thread.
+     */
+    public CompletableFuture<CommandResult> verifyFolder(String directory, Consumer<List<FolderVerification>> onComplete) {
+        if (isBlank(directory)) {
+            return CommandResult.invalid(userNotifier, "Please select a folder to verify.");
+        }
+
+        return commandExecutor.submitTask(JobLane.JVM, "apksigner verify (folder) " + directory, "Verifying APK signatures...", null, output -> {
+            List<Path> apks;
+            try (Stream<Path> walk = Files.walk(Path.of(directory))) {
+                apks = walk.filter(Files::isRegularFile)
+                           .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".apk"))
+                           .sorted()
+                           .toList();
+            }
+
+            long start = System.nanoTime();
+            // The pool threads are not the job's own, so they run on its behalf: Stop and the timeout then
+            // kill their apksigner processes too instead of only interrupting this thread
+            Job job = Job.current();
+            // This job already holds one JVM lane slot, so its own thread verifies too and only threads - 1
+            // helpers join it: the folder never runs more apksigner JVMs at once than the lane has threads
+            int threads = Math.max(1, Math.min(SettingsManager.getInstance().getSettings().getJvmLaneThreads(), apks.size()));
+            FolderVerification[] results = new FolderVerification[apks.size()];
+            AtomicInteger next = new AtomicInteger();
+            Callable<Void> verifier = () -> {
+                for (int i = next.getAndIncrement(); i < results.length && !job.isStopped(); i = next.getAndIncrement()) {
+                    Path apk = apks.get(i);
+                    FolderVerification row = job.runAs(() -> verifyOne(apk));
+                    // A run killed by Stop is not a verification failure worth a row
+                    if (job.isStopped()) break;
+                    synchronized (output) {
+                        output.accept(describe(row));
+                    }
+                    results[i] = row;
+                }
+                return null;
+            };
+            ExecutorService helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "verify-folder");
+                thread.setDaemon(true);
+                return thread;
+            }) : null;
+            try {
+                List<Future<Void>> running = new ArrayList<>();
+                for (int i = 1; i < threads; i++) running.add(helpers.submit(verifier));
+                verifier.call();
+                for (Future<Void> helper : running) helper.get();
+            } finally {
+                if (helpers != null) helpers.shutdownNow();
+            }
+            // A stopped run is reported as such by the executor; its rows are incomplete
+            if (job.isStopped()) return 1;
+            List<FolderVerification> rows = List.of(results);
+
+            long verified = rows.stream().filter(row -> row.verification() != null && row.verification().verifies()).count();
+            long cached = rows.stream().filter(FolderVerification::cached).count();
+            output.accept(String.format("Verified %d APKs on %d threads in %d ms: %d verify, %d fail, %d from cache",
+                    rows.size(), threads, (System.nanoTime() - start) / 1_000_000, verified, rows.size() - verified, cached));
+            Platform.runLater(() -> onComplete.accept(rows));
+            return verified == rows.size() ? 0 : 1;
+        });
+    }
+
+    private FolderVerification verifyOne(Path apk) {
+        long start = System.nanoTime();
+        try {
+            List<String> cmd = verifyCommand(apk.toString());
+            VerificationCache.Lookup lookup = VerificationCache.getInstance()
+                    .verify(apk, getApkSignerPath(), out -> CommandExecutor.runProcess(cmd, out));
+            return new FolderVerification(apk, lookup.verification(), null, lookup.cached(), lookup.nanos() / 1000);
+        } catch (Exception e) {
+            return new FolderVerification(apk, null, e.getMessage(), false, (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    private static String describe(FolderVerification row) {
+        String name = row.apk().getFileName().toString();
+        if (row.verification() == null) {
+            return String.format("❌ %s: %s", name, row.error());
         }
+        Verification verification = row.verification();
+        String signer = verification.signers().isEmpty() ? "" : " " + verification.signers().get(0).dn();
+        return String.format("%s %s: %s%s (%s)", verification.verifies() ? "✅" : "❌", name,
+                verification.verifies() ? verification.schemes() : "does not verify", signer,
+                row.cached() ? "cached, " + row.micros() + " µs" : row.micros() / 1000 + " ms");
+    }
 
+    private List<String> verifyCommand(String apkPath) {
         List<String> cmd = buildBaseCommand("verify");
-        if (verbose) cmd.add("-v");
-        if (printCerts) cmd.add("--print-certs");
+        cmd.add("-v");
+        cmd.add("--print-certs");
         cmd.add(apkPath);
-
-        commandExecutor.executeCommand(cmd, "Verifying APK signature...");
+        return cmd;
     }
 
-    public void getVersion() {
-        commandExecutor.executeCommand(buildBaseCommand("version"), "Getting apksigner version...");
+    public CompletableFuture<CommandResult> getVersion() {
+        return commandExecutor.submit(buildBaseCommand("version"), "Getting apksigner version...");
     }
 
-    public void rotateSigningKey(String inputApk, String outputApk,
-                                  String oldKsPath, String oldKsPass, String oldAlias, String oldKeyPass,
-                                  String newKsPath, String newKsPass, String newAlias, String newKeyPass) {
+    public CompletableFuture<CommandResult> rotateSigningKey(String inputApk, String outputApk,
+                                                             String oldKsPath, String oldKsPass, String oldAlias, String oldKeyPass,
+                                                             String newKsPath, String newKsPass, String newAlias, String newKeyPass) {
 
         if (isBlank(inputApk)) {
-            userNotifier.showError("Please select an APK file.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an APK file.");
         }
 
         if (oldKsPath == null || newKsPath == null) {
-            userNotifier.showError("Both old and new keystores are required for key rotation.");
-            return;
+            return CommandResult.invalid(userNotifier, "Both old and new keystores are required for key rotation.");
         }
 
         logOutput.append("🔄 Creating signing certificate lineage...");
@@ -203,7 +665,53 @@ public class ApkSignerService {
         cmd.add("--ks-key-alias");
         cmd.add(newAlias);
 
-        commandExecutor.executeCommand(cmd, "Rotating signing key...");
+        return commandExecutor.submit(cmd, "Rotating signing key...");
+    }
+
+    /**
+     * Keystore to sign with: the given one, or the test keystore when requested or when none is given.
+     * Never blocks: jobs call {@link #awaitKeystore} before using it, so a test keystore still being generated
+     * only delays the job, not the UI thread.
+     */
+    private Keystore resolveKeystore(String keystorePath, String keystorePassword, String keyAlias, String keyPassword,
+                                     boolean useTestKey) {
+        if (!useTestKey && !isBlank(keystorePath)) {
+            return new Keystore(keystorePath, keystorePassword, keyAlias, keyPassword);
+        }
+
+        getTestKeystoreAsync();
+        logOutput.append("🔑 Using test key for signing");
+        return new Keystore(getTestKeystorePath().toString(), TEST_KEYSTORE_PASSWORD, TEST_KEY_ALIAS, TEST_KEY_PASSWORD);
+    }
+
+    private void awaitKeystore(Keystore keystore) throws Exception {
+        if (keystore.path().equals(getTestKeystorePath().toString())) {
+            try {
+                getTestKeystoreAsync().get();
+            } catch (ExecutionException e) {
+                throw new Exception("Failed to create test keystore: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Unlocks a keystore once per session; later jobs with the same file, alias and passwords reuse the key.
+     */
+    private SigningKey unlock(Keystore keystore) throws Exception {
+        awaitKeystore(keystore);
+        SigningKey key = unlockedKeys.get(keystore.id());
+        if (key == null) {
+            key = SigningKey.load(Path.of(keystore.path()), keystore.storePassword(), keystore.alias(), keystore.keyPassword());
+            unlockedKeys.put(keystore.id(), key);
+        }
+        return key;
+    }
+
+    private record Keystore(String path, String storePassword, String alias, String keyPassword) {
+        String id() {
+            File file = new File(path);
+            return file.getAbsolutePath() + "|" + file.lastModified() + "|" + alias + "|" + Objects.hash(storePassword, keyPassword);
+        }
     }
 
     private List<String> buildBaseCommand(String subCommand) {
@@ -226,6 +734,10 @@ public class ApkSignerService {
         cmd.add("pass:" + keyPass);
     }
 
+    private static String formatMb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     private static String getJavaPath() {
         return SettingsManager.getInstance().getSettings().getJavaPath();
     }
@@ -2,7 +2,11 @@ package org.apkutility.app.services;
 
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import org.apkutility.app.services.engine.ToolWorker;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.CommandTask;
+import org.apkutility.app.services.executor.JobLane;
 import org.apkutility.app.utils.UiUtils;
 
 import java.io.File;
@@ -10,8 +14,10 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static org.apkutility.app.utils.StringUtils.isBlank;
 import static org.apkutility.app.utils.StringUtils.notBlank;
@@ -21,6 +27,8 @@ public class ApkToolService {
     private final LogOutput logOutput;
     private final UserNotifier userNotifier;
     private final CommandExecutor commandExecutor;
+    private final ToolWorker worker = new ToolWorker("apktool", ApkToolService::getApkToolPath,
+            () -> SettingsManager.getInstance().getSettings().getJavaPath());
 
     public ApkToolService(LogOutput logOutput, UserNotifier userNotifier, CommandExecutor commandExecutor) {
         this.logOutput = logOutput;
@@ -42,14 +50,13 @@ public class ApkToolService {
         return defaultPath.exists() ? defaultPath.getAbsolutePath() : "";
     }
 
-    public void executeDecode(String apkPath, String outputPath, String frameworkPath,
-                              String apiLevel, String jobs, boolean noRes, boolean noSrc,
-                              boolean noAssets, boolean onlyManifest, boolean force,
-                              boolean noDebug, boolean matchOriginal, boolean keepBroken,
-                              boolean onlyMainClasses) {
+    public CompletableFuture<CommandResult> executeDecode(String apkPath, String outputPath, String frameworkPath,
+                                                          String apiLevel, String jobs, boolean noRes, boolean noSrc,
+                                                          boolean noAssets, boolean onlyManifest, boolean force,
+                                                          boolean noDebug, boolean matchOriginal, boolean keepBroken,
+                                                          boolean onlyMainClasses) {
         if (isBlank(apkPath)) {
-            userNotifier.showError("Please select an APK file to decode.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an APK file to decode.");
         }
 
         List<String> cmd = buildCommand("d");
@@ -69,16 +76,15 @@ public class ApkToolService {
         if (onlyMainClasses) cmd.add("--only-main-classes");
 
         cmd.add(apkPath);
-        commandExecutor.executeCommand(cmd, "Decoding APK...");
+        return execute(cmd, "Decoding APK...");
     }
 
-    public void executeBuild(String inputDir, String outputPath, String aaptPath,
-                             String frameworkPath, boolean debug, boolean copyOriginal,
-                             boolean force, boolean noApk, boolean noCrunch,
-                             boolean useAapt1, boolean netSec) {
+    public CompletableFuture<CommandResult> executeBuild(String inputDir, String outputPath, String aaptPath,
+                                                         String frameworkPath, boolean debug, boolean copyOriginal,
+                                                         boolean force, boolean noApk, boolean noCrunch,
+                                                         boolean useAapt1, boolean netSec) {
         if (isBlank(inputDir)) {
-            userNotifier.showError("Please select a project directory to build.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select a project directory to build.");
         }
 
         List<String> cmd = buildCommand("b");
@@ -95,53 +101,52 @@ public class ApkToolService {
         if (netSec) cmd.add("-n");
 
         cmd.add(inputDir);
-        commandExecutor.executeCommand(cmd, "Building APK...");
+        return execute(cmd, "Building APK...");
     }
 
-    public void executeInstallFramework(String frameworkApk, String tag) {
+    public CompletableFuture<CommandResult> executeInstallFramework(String frameworkApk, String tag) {
         if (isBlank(frameworkApk)) {
-            userNotifier.showError("Please select a framework APK file.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select a framework APK file.");
         }
 
         List<String> cmd = buildCommand("if");
         addOptional(cmd, "-t", tag);
         cmd.add(frameworkApk);
-        commandExecutor.executeCommand(cmd, "Installing framework...");
+        return execute(cmd, "Installing framework...");
     }
 
-    public void executeListFrameworks() {
-        commandExecutor.executeCommand(buildCommand("lf"), "Listing frameworks...");
+    public CompletableFuture<CommandResult> executeListFrameworks() {
+        return execute(buildCommand("lf"), "Listing frameworks...");
     }
 
-    public void executeEmptyFrameworkDir() {
+    public CompletableFuture<CommandResult> executeEmptyFrameworkDir() {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm Deletion");
         confirm.setHeaderText("Empty Framework Directory");
         confirm.setContentText("This will delete ALL framework files. Are you sure?");
 
-        if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            List<String> cmd = buildCommand("efd", "-f");
-            commandExecutor.executeCommand(cmd, "Emptying framework directory...");
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return CompletableFuture.completedFuture(CommandResult.notRun("apktool efd -f", null));
         }
+        List<String> cmd = buildCommand("efd", "-f");
+        return execute(cmd, "Emptying framework directory...");
     }
 
-    public void executePublicizeResources(String arscPath) {
+    public CompletableFuture<CommandResult> executePublicizeResources(String arscPath) {
         if (isBlank(arscPath)) {
-            userNotifier.showError("Please select an ARSC file.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an ARSC file.");
         }
 
         List<String> cmd = buildCommand("pr", arscPath);
-        commandExecutor.executeCommand(cmd, "Publicizing resources...");
+        return execute(cmd, "Publicizing resources...");
     }
 
-    public void executeVersionCheck() {
-        commandExecutor.executeCommand(buildCommand("v"), "Checking version...");
+    public CompletableFuture<CommandResult> executeVersionCheck() {
+        return execute(buildCommand("v"), "Checking version...");
     }
 
-    public void executeHelp() {
-        commandExecutor.executeCommand(buildCommand("h"), "Showing help...");
+    public CompletableFuture<CommandResult> executeHelp() {
+        return execute(buildCommand("h"), "Showing help...");
     }
 
     public void checkApktoolAvailability() {
@@ -180,15 +185,89 @@ public class ApkToolService {
         }
     }
 
+    /**
+     * Times cold ({@code java -jar} per call) against warm (helper JVM) runs of v, lf, d and b and logs a table.
+     * The decoded project and rebuilt APK go to a temp directory that is deleted afterwards.
+     */
+    public CompletableFuture<CommandResult> benchmarkEngine(String apkPath) {
+        if (isBlank(apkPath)) {
+            return CommandResult.invalid(userNotifier, "Please select an APK file to benchmark with.");
+        }
+
+        return commandExecutor.submitTask(JobLane.JVM, "apktool engine benchmark: " + apkPath, "Benchmarking apktool engine...", null, output -> {
+            Path workDir = Files.createTempDirectory("apktool-bench");
+            try {
+                String decoded = workDir.resolve("decoded").toString();
+                String rebuilt = workDir.resolve("rebuilt.apk").toString();
+                List<List<String>> operations = List.of(
+                        List.of("v"),
+                        List.of("lf"),
+                        List.of("d", "-f", "-o", decoded, apkPath),
+                        List.of("b", "-o", rebuilt, decoded)
+                );
+
+                long start = System.nanoTime();
+                worker.warmUp();
+                output.accept(String.format("Worker start-up: %d ms", (System.nanoTime() - start) / 1_000_000));
+                output.accept(String.format("%-4s %10s %12s %12s", "cmd", "cold ms", "warm#1 ms", "warm#2 ms"));
+
+                int failures = 0;
+                for (List<String> args : operations) {
+                    long[] cold = time(out -> CommandExecutor.runProcess(processCommand(args), out));
+                    long[] warm1 = time(out -> worker.run(args, out));
+                    long[] warm2 = time(out -> worker.run(args, out));
+                    if (cold[1] != 0 || warm1[1] != 0 || warm2[1] != 0) failures++;
+                    output.accept(String.format("%-4s %10d %12d %12d", args.get(0), cold[0], warm1[0], warm2[0]));
+                }
+                return failures == 0 ? 0 : 1;
+            } finally {
+                deleteRecursively(workDir);
+            }
+        });
+    }
+
+    public void shutdown() {
+        worker.close();
+    }
+
+    private CompletableFuture<CommandResult> execute(List<String> args, String statusMessage) {
+        List<String> command = processCommand(args);
+        if (!SettingsManager.getInstance().getSettings().isApktoolWarmEngine()) {
+            return commandExecutor.submit(command, statusMessage);
+        }
+
+        return commandExecutor.submitTask(JobLane.JVM, "[warm] apktool " + String.join(" ", args), statusMessage, null,
+                output -> worker.runOrFallback(args, command, output));
+    }
+
     private List<String> buildCommand(String... args) {
+        List<String> cmd = new ArrayList<>();
+        for (String arg : args) cmd.add(arg);
+        return cmd;
+    }
+
+    private List<String> processCommand(List<String> args) {
         List<String> cmd = new ArrayList<>();
         cmd.add("java");
         cmd.add("-jar");
         cmd.add(getApkToolPath());
-        for (String arg : args) cmd.add(arg);
+        cmd.addAll(args);
         return cmd;
     }
 
+    private static long[] time(CommandTask task) throws Exception {
+        long start = System.nanoTime();
+        int exitCode = task.run(line -> { });
+        return new long[]{(System.nanoTime() - start) / 1_000_000, exitCode};
+    }
+
+    private static void deleteRecursively(Path root) {
+        try (var paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (Exception ignored) {
+        }
+    }
+
     private void addOptional(List<String> cmd, String flag, String value) {
         if (notBlank(value)) {
             cmd.add(flag);
@@ -1,10 +1,12 @@
 package org.apkutility.app.services;
 
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class InjectDocService {
 
@@ -24,10 +26,9 @@ public class InjectDocService {
         return "";
     }
 
-    public void executeInjectDoc(String apkPath){
+    public CompletableFuture<CommandResult> executeInjectDoc(String apkPath){
         if (apkPath == null || apkPath.trim().isEmpty()) {
-            userNotifier.showError("Please select an APK file to inject document.");
-            return;
+            return CommandResult.invalid(userNotifier, "Please select an APK file to inject document.");
         }
         List<String> command = new ArrayList<>();
         command.add("java");
@@ -35,7 +36,7 @@ public class InjectDocService {
         command.add(getInjectDocPath());
         command.add(apkPath);
 
-        commandExecutor.executeCommand(command, "Injecting document Provider...");
+        return commandExecutor.submit(command, "Injecting document Provider...");
     }
 
 }
@@ -32,6 +32,24 @@ public class SettingsManager {
     private static final String KEY_DEFAULT_DIR = "default.dir";
     private static final String KEY_DARK_MODE = "dark.mode";
     private static final String KEY_AUTO_SAVE = "auto.save";
+    private static final String KEY_JVM_LANE_THREADS = "lane.jvm.threads";
+    private static final String KEY_NATIVE_LANE_THREADS = "lane.native.threads";
+    private static final String KEY_ADB_LANE_THREADS = "lane.adb.threads";
+    private static final String KEY_APKTOOL_WARM_ENGINE = "apktool.warm.engine";
+    private static final String KEY_APKEDITOR_WORKER = "apkeditor.worker";
+    private static final String KEY_APKEDITOR_WORKER_MAX_JOBS = "apkeditor.worker.max.jobs";
+    private static final String KEY_APKEDITOR_WORKER_MAX_HEAP_MB = "apkeditor.worker.max.heap.mb";
+    private static final String KEY_AAPT2_DAEMON_COUNT = "aapt2.daemon.count";
+    private static final String KEY_RESULT_CACHE_ENABLED = "result.cache.enabled";
+    private static final String KEY_RESULT_CACHE_MAX_MB = "result.cache.max.mb";
+    private static final String KEY_ZIPALIGN_NATIVE = "zipalign.native";
+    private static final String KEY_BATCH_SIGN_THREADS = "batch.sign.threads";
+    private static final String KEY_SIGNING_DIGEST_THREADS = "signing.digest.threads";
+    private static final String KEY_CONSOLE_MAX_LINES = "console.max.lines";
+    private static final String KEY_OUTPUT_SPILL_THRESHOLD_MB = "output.spill.threshold.mb";
+    private static final String KEY_JVM_JOB_TIMEOUT_MINUTES = "job.timeout.jvm.minutes";
+    private static final String KEY_NATIVE_JOB_TIMEOUT_MINUTES = "job.timeout.native.minutes";
+    private static final String KEY_ADB_JOB_TIMEOUT_MINUTES = "job.timeout.adb.minutes";
     
     private SettingsManager() {
         this.configPath = Path.of(System.getProperty("user.home"), CONFIG_FILE);
@@ -76,6 +94,24 @@ public class SettingsManager {
             settings.setDefaultWorkingDir(props.getProperty(KEY_DEFAULT_DIR, SettingsConfig.DEFAULT_WORKING_DIR));
             settings.setDarkMode(Boolean.parseBoolean(props.getProperty(KEY_DARK_MODE, String.valueOf(SettingsConfig.DEFAULT_DARK_MODE))));
             settings.setAutoSave(Boolean.parseBoolean(props.getProperty(KEY_AUTO_SAVE, String.valueOf(SettingsConfig.DEFAULT_AUTO_SAVE))));
+            settings.setJvmLaneThreads(parseInt(props.getProperty(KEY_JVM_LANE_THREADS), SettingsConfig.DEFAULT_JVM_LANE_THREADS));
+            settings.setNativeLaneThreads(parseInt(props.getProperty(KEY_NATIVE_LANE_THREADS), SettingsConfig.DEFAULT_NATIVE_LANE_THREADS));
+            settings.setAdbLaneThreads(parseInt(props.getProperty(KEY_ADB_LANE_THREADS), SettingsConfig.DEFAULT_ADB_LANE_THREADS));
+            settings.setApktoolWarmEngine(Boolean.parseBoolean(props.getProperty(KEY_APKTOOL_WARM_ENGINE, String.valueOf(SettingsConfig.DEFAULT_APKTOOL_WARM_ENGINE))));
+            settings.setApkEditorWorker(Boolean.parseBoolean(props.getProperty(KEY_APKEDITOR_WORKER, String.valueOf(SettingsConfig.DEFAULT_APKEDITOR_WORKER))));
+            settings.setApkEditorWorkerMaxJobs(parseInt(props.getProperty(KEY_APKEDITOR_WORKER_MAX_JOBS), SettingsConfig.DEFAULT_APKEDITOR_WORKER_MAX_JOBS));
+            settings.setApkEditorWorkerMaxHeapMb(parseInt(props.getProperty(KEY_APKEDITOR_WORKER_MAX_HEAP_MB), SettingsConfig.DEFAULT_APKEDITOR_WORKER_MAX_HEAP_MB));
+            settings.setAapt2DaemonCount(parseInt(props.getProperty(KEY_AAPT2_DAEMON_COUNT), SettingsConfig.DEFAULT_AAPT2_DAEMON_COUNT));
+            settings.setResultCacheEnabled(Boolean.parseBoolean(props.getProperty(KEY_RESULT_CACHE_ENABLED, String.valueOf(SettingsConfig.DEFAULT_RESULT_CACHE_ENABLED))));
+            settings.setResultCacheMaxMb(parseInt(props.getProperty(KEY_RESULT_CACHE_MAX_MB), SettingsConfig.DEFAULT_RESULT_CACHE_MAX_MB));
+            settings.setZipalignNative(Boolean.parseBoolean(props.getProperty(KEY_ZIPALIGN_NATIVE, String.valueOf(SettingsConfig.DEFAULT_ZIPALIGN_NATIVE))));
+            settings.setBatchSignThreads(parseInt(props.getProperty(KEY_BATCH_SIGN_THREADS), SettingsConfig.DEFAULT_BATCH_SIGN_THREADS));
+            settings.setSigningDigestThreads(parseInt(props.getProperty(KEY_SIGNING_DIGEST_THREADS), SettingsConfig.DEFAULT_SIGNING_DIGEST_THREADS));
+            settings.setConsoleMaxLines(parseInt(props.getProperty(KEY_CONSOLE_MAX_LINES), SettingsConfig.DEFAULT_CONSOLE_MAX_LINES));
+            settings.setOutputSpillThresholdMb(parseInt(props.getProperty(KEY_OUTPUT_SPILL_THRESHOLD_MB), SettingsConfig.DEFAULT_OUTPUT_SPILL_THRESHOLD_MB));
+            settings.setJvmJobTimeoutMinutes(parseInt(props.getProperty(KEY_JVM_JOB_TIMEOUT_MINUTES), SettingsConfig.DEFAULT_JVM_JOB_TIMEOUT_MINUTES));
+            settings.setNativeJobTimeoutMinutes(parseInt(props.getProperty(KEY_NATIVE_JOB_TIMEOUT_MINUTES), SettingsConfig.DEFAULT_NATIVE_JOB_TIMEOUT_MINUTES));
+            settings.setAdbJobTimeoutMinutes(parseInt(props.getProperty(KEY_ADB_JOB_TIMEOUT_MINUTES), SettingsConfig.DEFAULT_ADB_JOB_TIMEOUT_MINUTES));
             
         } catch (IOException e) {
             System.err.println("Failed to load settings: " + e.getMessage());
@@ -86,6 +122,14 @@ public class SettingsManager {
         validateAndFixPaths();
     }
 
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     private void validateAndFixPaths() {
         if (!settings.validateApktoolPath()) settings.setApktoolPath(SettingsConfig.DEFAULT_APKTOOL_PATH);
         if (!settings.validateApkEditorPath()) settings.setApkEditorPath(SettingsConfig.DEFAULT_APKEDITOR_PATH);
@@ -114,6 +158,24 @@ public class SettingsManager {
         props.setProperty(KEY_DEFAULT_DIR, settings.getDefaultWorkingDir());
         props.setProperty(KEY_DARK_MODE, String.valueOf(settings.isDarkMode()));
         props.setProperty(KEY_AUTO_SAVE, String.valueOf(settings.isAutoSave()));
+        props.setProperty(KEY_JVM_LANE_THREADS, String.valueOf(settings.getJvmLaneThreads()));
+        props.setProperty(KEY_NATIVE_LANE_THREADS, String.valueOf(settings.getNativeLaneThreads()));
+        props.setProperty(KEY_ADB_LANE_THREADS, String.valueOf(settings.getAdbLaneThreads()));
+        props.setProperty(KEY_APKTOOL_WARM_ENGINE, String.valueOf(settings.isApktoolWarmEngine()));
+        props.setProperty(KEY_APKEDITOR_WORKER, String.valueOf(settings.isApkEditorWorker()));
+        props.setProperty(KEY_APKEDITOR_WORKER_MAX_JOBS, String.valueOf(settings.getApkEditorWorkerMaxJobs()));
+        props.setProperty(KEY_APKEDITOR_WORKER_MAX_HEAP_MB, String.valueOf(settings.getApkEditorWorkerMaxHeapMb()));
+        props.setProperty(KEY_AAPT2_DAEMON_COUNT, String.valueOf(settings.getAapt2DaemonCount()));
+        props.setProperty(KEY_RESULT_CACHE_ENABLED, String.valueOf(settings.isResultCacheEnabled()));
+        props.setProperty(KEY_RESULT_CACHE_MAX_MB, String.valueOf(settings.getResultCacheMaxMb()));
+        props.setProperty(KEY_ZIPALIGN_NATIVE, String.valueOf(settings.isZipalignNative()));
+        props.setProperty(KEY_BATCH_SIGN_THREADS, String.valueOf(settings.getBatchSignThreads()));
+        props.setProperty(KEY_SIGNING_DIGEST_THREADS, String.valueOf(settings.getSigningDigestThreads()));
+        props.setProperty(KEY_CONSOLE_MAX_LINES, String.valueOf(settings.getConsoleMaxLines()));
+        props.setProperty(KEY_OUTPUT_SPILL_THRESHOLD_MB, String.valueOf(settings.getOutputSpillThresholdMb()));
+        props.setProperty(KEY_JVM_JOB_TIMEOUT_MINUTES, String.valueOf(settings.getJvmJobTimeoutMinutes()));
+        props.setProperty(KEY_NATIVE_JOB_TIMEOUT_MINUTES, String.valueOf(settings.getNativeJobTimeoutMinutes()));
+        props.setProperty(KEY_ADB_JOB_TIMEOUT_MINUTES, String.valueOf(settings.getAdbJobTimeoutMinutes()));
         
         try (OutputStream out = Files.newOutputStream(configPath)) {
             props.store(out, "ApkUtility GUI Settings");
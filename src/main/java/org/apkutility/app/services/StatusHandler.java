@@ -4,4 +4,5 @@ public interface StatusHandler {
     void setStatus(String status);
     void setProgressVisible(boolean visible);
     void setProgress(double progress);
+    void setLaneStatus(String laneStatus);
 }
@@ -1,10 +1,18 @@
 package org.apkutility.app.services;
 
+import org.apkutility.app.apk.ZipAlignVerifier;
+import org.apkutility.app.apk.ZipAligner;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.CommandResult;
+import org.apkutility.app.services.executor.JobLane;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.apkutility.app.utils.StringUtils.notBlank;
 
@@ -29,13 +37,96 @@ public class ZipAlignService {
         return org.apkutility.app.config.SettingsConfig.DEFAULT_ZIPALIGN_PATH;
     }
 
-    public void alignApk(String apkPath, String outputPath) {
-        List<String> cmd = new ArrayList<>();
-        cmd.add(getZipalignPath());
-        cmd.add("-v");
-        cmd.add("4");
-        cmd.add(apkPath);
-        cmd.add(outputPath);
-        commandExecutor.executeCommand(cmd, "Aligning APK...");
+    public CompletableFuture<CommandResult> alignApk(String apkPath, String outputPath) {
+        return alignApk(apkPath, outputPath, 0);
+    }
+
+    /**
+     * Aligns stored entries to 4 bytes and, when {@code soPageSize} is not 0, stored .so files to that page size.
+     */
+    public CompletableFuture<CommandResult> alignApk(String apkPath, String outputPath, int soPageSize) {
+        if (SettingsManager.getInstance().getSettings().isZipalignNative()) {
+            List<String> cmd = new ArrayList<>();
+            cmd.add(getZipalignPath());
+            if (soPageSize > 0) {
+                cmd.add("-P");
+                cmd.add(String.valueOf(soPageSize / 1024));
+            }
+            cmd.add("-v");
+            cmd.add(String.valueOf(ZipAligner.DEFAULT_ALIGNMENT));
+            cmd.add(apkPath);
+            cmd.add(outputPath);
+            return commandExecutor.submit(cmd, "Aligning APK...");
+        }
+
+        String description = "[java] zipalign " + ZipAligner.DEFAULT_ALIGNMENT
+                + (soPageSize > 0 ? " (.so " + soPageSize / 1024 + " KB pages) " : " ") + apkPath + " " + outputPath;
+        return commandExecutor.submitTask(JobLane.NATIVE, description, "Aligning APK...", null, output -> {
+            ZipAligner aligner = new ZipAligner(ZipAligner.DEFAULT_ALIGNMENT, soPageSize);
+            long total = new File(apkPath).length();
+            long[] nextReport = {total / 10};
+
+            ZipAligner.Result result = aligner.align(Path.of(apkPath), Path.of(outputPath), written -> {
+                if (written >= nextReport[0] && total > 0) {
+                    output.accept(String.format("  %s / %s (%d%%)", formatMb(written), formatMb(total), Math.min(100, written * 100 / total)));
+                    nextReport[0] += total / 10;
+                }
+            });
+
+            double seconds = Math.max(result.millis(), 1) / 1000.0;
+            output.accept(String.format("Aligned %d entries (%d stored entries aligned): %s read, %s written in %d ms (%.0f MB/s)",
+                    result.entries(), result.alignedEntries(), formatMb(result.bytesRead()), formatMb(result.bytesWritten()),
+                    result.millis(), result.bytesWritten() / (1024.0 * 1024.0) / seconds));
+            output.accept("Output: " + outputPath);
+            return 0;
+        });
+    }
+
+    /**
+     * Checks alignment of one APK, or of every APK under a directory in parallel, without rewriting anything.
+     */
+    public CompletableFuture<CommandResult> verifyAlignment(String path, int soPageSize) {
+        ZipAlignVerifier verifier = new ZipAlignVerifier(ZipAligner.DEFAULT_ALIGNMENT, soPageSize);
+        Path target = Path.of(path);
+
+        return commandExecutor.submitTask(JobLane.NATIVE, "[java] zipalign -c " + ZipAligner.DEFAULT_ALIGNMENT + " " + path,
+                "Verifying alignment...", null, output -> {
+            if (!Files.isDirectory(target)) {
+                ZipAlignVerifier.Report report = verifier.verify(target);
+                printReport(report, output);
+                return report.isAligned() ? 0 : 1;
+            }
+
+            long start = System.nanoTime();
+            int threads = Runtime.getRuntime().availableProcessors();
+            List<ZipAlignVerifier.Report> reports = verifier.verifyDirectory(target, threads, report -> {
+                synchronized (output) {
+                    printReport(report, output);
+                }
+            });
+
+            long aligned = reports.stream().filter(ZipAlignVerifier.Report::isAligned).count();
+            long errors = reports.stream().filter(report -> report.error() != null).count();
+            output.accept(String.format("Verified %d APKs on %d threads in %d ms: %d aligned, %d misaligned, %d unreadable",
+                    reports.size(), threads, (System.nanoTime() - start) / 1_000_000,
+                    aligned, reports.size() - aligned - errors, errors));
+            return aligned == reports.size() ? 0 : 1;
+        });
+    }
+
+    private static void printReport(ZipAlignVerifier.Report report, Consumer<String> output) {
+        String name = report.apk().toString();
+        if (report.error() != null) {
+            output.accept(String.format("❌ %s: %s (%d ms)", name, report.error(), report.millis()));
+        } else if (report.isAligned()) {
+            output.accept(String.format("✅ %s: %d entries OK (%d ms)", name, report.entries(), report.millis()));
+        } else {
+            output.accept(String.format("⚠️ %s: %d misaligned of %d entries (%d ms)", name, report.issues().size(), report.entries(), report.millis()));
+            report.issues().forEach(issue -> output.accept("    " + issue));
+        }
+    }
+
+    private static String formatMb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
     }
 }
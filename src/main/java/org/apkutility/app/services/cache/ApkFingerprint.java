@@ -0,0 +1,100 @@
+package org.apkutility.app.services.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Cheap identity of an APK's content: file size and the CRC32 of its ZIP central directory, together with
+ * the APK Signing Block in front of it when there is one. Only the tail of the file is read, so a 150 MB APK
+ * is fingerprinted in a few milliseconds.
+ * <p>
+ * The central directory holds the CRC of every entry, so any change to the entries alters it; the signing
+ * block is included because re-signing with v2+ only rewrites that block. The modification time is left out
+ * on purpose, so a copy of the same APK has the same fingerprint.
+ */
+public record ApkFingerprint(long size, long centralDirectoryCrc) {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final long SIGNING_BLOCK_MAGIC_LO = 0x20676953204b5041L;
+    private static final long SIGNING_BLOCK_MAGIC_HI = 0x3234206b636f6c42L;
+    private static final int SIGNING_BLOCK_FOOTER_SIZE = 24;
+    private static final int EOCD_MIN_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    public static ApkFingerprint of(Path apk) throws IOException {
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return new ApkFingerprint(size, centralDirectoryCrc(channel, size));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return size + ":" + Long.toHexString(centralDirectoryCrc);
+    }
+
+    private static long centralDirectoryCrc(FileChannel channel, long size) throws IOException {
+        int tailSize = (int) Math.min(size, EOCD_MIN_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, tail, size - tailSize);
+
+        CRC32 crc = new CRC32();
+        for (int i = tailSize - EOCD_MIN_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) != EOCD_SIGNATURE) continue;
+
+            long cdSize = Integer.toUnsignedLong(tail.getInt(i + 12));
+            long cdOffset = Integer.toUnsignedLong(tail.getInt(i + 16));
+            if (cdOffset + cdSize > size) break;
+
+            // The signing block ends right where the central directory starts, so both are one range
+            update(crc, channel, signingBlockStart(channel, cdOffset), cdOffset + cdSize);
+            return crc.getValue();
+        }
+
+        // Not a ZIP (or ZIP64 with an unusable record): the tail still changes with the content
+        tail.rewind();
+        crc.update(tail);
+        return crc.getValue();
+    }
+
+    // Start of the APK Signing Block before the central directory, or cdOffset when there is none
+    private static long signingBlockStart(FileChannel channel, long cdOffset) throws IOException {
+        if (cdOffset < SIGNING_BLOCK_FOOTER_SIZE) return cdOffset;
+        ByteBuffer footer = ByteBuffer.allocate(SIGNING_BLOCK_FOOTER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, footer, cdOffset - SIGNING_BLOCK_FOOTER_SIZE);
+        if (footer.remaining() < SIGNING_BLOCK_FOOTER_SIZE
+                || footer.getLong(8) != SIGNING_BLOCK_MAGIC_LO || footer.getLong(16) != SIGNING_BLOCK_MAGIC_HI) {
+            return cdOffset;
+        }
+        // The size field counts the block without its leading size field
+        long blockSize = footer.getLong(0);
+        long start = cdOffset - blockSize - 8;
+        return blockSize < SIGNING_BLOCK_FOOTER_SIZE || start < 0 ? cdOffset : start;
+    }
+
+    private static void update(CRC32 crc, FileChannel channel, long position, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) break;
+            position += read;
+            buffer.flip();
+            crc.update(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) break;
+            position += read;
+        }
+        buffer.flip();
+    }
+}
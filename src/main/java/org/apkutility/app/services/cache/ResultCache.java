@@ -0,0 +1,254 @@
+package org.apkutility.app.services.cache;
+
+import org.apkutility.app.services.SettingsManager;
+import org.apkutility.app.services.executor.CommandTask;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache for the output of read-only tool queries (dumps, info, verify).
+ * <p>
+ * Entries are content-addressed: the key hashes the APK fingerprint, the tool path and version and the
+ * argument list with the APK path replaced by its fingerprint. The fingerprint covers the APK's content but
+ * not its modification time, so a copied or renamed APK still hits.
+ * Entries live under {@code ~/.apktool-gui/cache}; the least recently used ones are evicted once the
+ * directory grows past the configured size.
+ */
+public class ResultCache {
+
+    private static final String ENTRY_SUFFIX = ".out";
+    private static ResultCache instance;
+
+    private final Path directory;
+
+    private ResultCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized ResultCache getInstance() {
+        if (instance == null) {
+            instance = new ResultCache(Path.of(System.getProperty("user.home"), ".apktool-gui", "cache"));
+        }
+        return instance;
+    }
+
+    /**
+     * Wraps a read-only task so its output is served from the cache when the same query was already
+     * answered for the same APK and tool. Only successful runs are stored.
+     */
+    public CommandTask cached(String apkPath, String toolPath, List<String> args, CommandTask task) {
+        return output -> {
+            if (!SettingsManager.getInstance().getSettings().isResultCacheEnabled()) {
+                return task.run(output);
+            }
+
+            String key;
+            try {
+                key = key(apkPath, toolPath, args);
+            } catch (IOException e) {
+                return task.run(output);
+            }
+
+            if (replay(key, output)) return 0;
+
+            // Streamed to the entry as it arrives: a dump of hundreds of MB is never held in memory
+            PendingEntry entry = new PendingEntry(key);
+            int exitCode;
+            try {
+                exitCode = task.run(line -> {
+                    entry.add(line);
+                    output.accept(line);
+                });
+            } catch (Exception e) {
+                entry.discard();
+                throw e;
+            }
+            if (exitCode == 0) {
+                entry.commit();
+            } else {
+                entry.discard();
+            }
+            return exitCode;
+        };
+    }
+
+    public long sizeBytes() {
+        long total = 0;
+        for (Path entry : entries()) {
+            try {
+                total += Files.size(entry);
+            } catch (IOException ignored) {
+            }
+        }
+        return total;
+    }
+
+    public void clear() {
+        for (Path entry : entries()) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private String key(String apkPath, String toolPath, List<String> args) throws IOException {
+        Path apk = Path.of(apkPath);
+        String fingerprint = ApkFingerprint.of(apk).toString();
+
+        File tool = new File(toolPath);
+        // File size and mtime stand in for the tool version: a replaced binary or jar invalidates its entries
+        String toolVersion = tool.length() + ":" + tool.lastModified();
+
+        StringBuilder material = new StringBuilder()
+                .append(fingerprint).append('\n')
+                .append(tool.getAbsolutePath()).append('\n')
+                .append(toolVersion).append('\n');
+        for (String arg : args) {
+            material.append(arg.equals(apkPath) ? "<apk>" : arg).append('\n');
+        }
+
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(material.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /** Lines stored under {@code key}, or null. Also used by {@link VerificationCache}. */
+    List<String> read(String key) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        try {
+            List<String> lines = Files.readAllLines(entry, StandardCharsets.UTF_8);
+            // Touch for LRU eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return lines;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Streams the lines stored under {@code key} to {@code output}; false when there is no entry. */
+    private boolean replay(String key, Consumer<String> output) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        try (BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.accept(line);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    synchronized void write(String key, List<String> lines) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            evict(SettingsManager.getInstance().getSettings().getResultCacheMaxMb() * 1024L * 1024L);
+        } catch (IOException ignored) {
+            // A cache that cannot be written only costs the next run its speed-up
+        }
+    }
+
+    private synchronized void commit(Path temp, String key) throws IOException {
+        Files.move(temp, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        evict(SettingsManager.getInstance().getSettings().getResultCacheMaxMb() * 1024L * 1024L);
+    }
+
+    /**
+     * An entry being written while its task runs. Goes live on {@link #commit()} only; any write error
+     * just leaves the query uncached.
+     */
+    private final class PendingEntry {
+        private final String key;
+        private Path temp;
+        private BufferedWriter writer;
+
+        PendingEntry(String key) {
+            this.key = key;
+            try {
+                Files.createDirectories(directory);
+                temp = Files.createTempFile(directory, key, ".tmp");
+                writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        void add(String line) {
+            if (writer == null) return;
+            try {
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        void commit() {
+            if (writer == null) return;
+            try {
+                writer.close();
+                writer = null;
+                ResultCache.this.commit(temp, key);
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        void discard() {
+            try {
+                if (writer != null) writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void evict(long maxBytes) {
+        List<Path> entries = new ArrayList<>(entries());
+        entries.sort(Comparator.comparingLong(entry -> entry.toFile().lastModified()));
+
+        long total = sizeBytes();
+        for (Path entry : entries) {
+            if (total <= maxBytes) break;
+            long size = entry.toFile().length();
+            if (entry.toFile().delete()) total -= size;
+        }
+    }
+
+    private List<Path> entries() {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+}
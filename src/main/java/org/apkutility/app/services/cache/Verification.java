@@ -0,0 +1,74 @@
+package org.apkutility.app.services.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed result of {@code apksigner verify -v --print-certs}: overall verdict, verified schemes and signer
+ * certificates, plus the raw output so it can be replayed.
+ */
+public record Verification(boolean verifies, boolean v1, boolean v2, boolean v3, boolean v31, boolean v4,
+                           List<Signer> signers, List<String> output) {
+
+    public record Signer(String dn, String sha256) {
+    }
+
+    /**
+     * Returns null if the output is not an apksigner verdict (tool missing, crash...), which must not be cached.
+     */
+    public static Verification parse(List<String> output) {
+        Boolean verifies = null;
+        boolean v1 = false, v2 = false, v3 = false, v31 = false, v4 = false;
+        List<String> dns = new ArrayList<>();
+        List<String> digests = new ArrayList<>();
+
+        for (String line : output) {
+            if (line.equals("Verifies")) {
+                verifies = true;
+            } else if (line.equals("DOES NOT VERIFY")) {
+                verifies = false;
+            } else if (line.startsWith("Verified using v")) {
+                boolean verified = line.endsWith(": true");
+                if (line.startsWith("Verified using v1 ")) v1 = verified;
+                else if (line.startsWith("Verified using v2 ")) v2 = verified;
+                else if (line.startsWith("Verified using v3 ")) v3 = verified;
+                else if (line.startsWith("Verified using v3.1 ")) v31 = verified;
+                else if (line.startsWith("Verified using v4 ")) v4 = verified;
+            } else if (line.startsWith("Signer #") && line.contains(" certificate DN: ")) {
+                dns.add(line.substring(line.indexOf(" certificate DN: ") + 17));
+            } else if (line.startsWith("Signer #") && line.contains(" certificate SHA-256 digest: ")) {
+                digests.add(line.substring(line.indexOf(" certificate SHA-256 digest: ") + 29));
+            }
+        }
+        if (verifies == null) return null;
+
+        List<Signer> signers = new ArrayList<>();
+        for (int i = 0; i < dns.size(); i++) {
+            signers.add(new Signer(dns.get(i), i < digests.size() ? digests.get(i) : ""));
+        }
+        return new Verification(verifies, v1, v2, v3, v31, v4, List.copyOf(signers), List.copyOf(output));
+    }
+
+    /** Verified schemes, e.g. "v1 v2 v3". */
+    public String schemes() {
+        StringBuilder schemes = new StringBuilder();
+        if (v1) schemes.append("v1 ");
+        if (v2) schemes.append("v2 ");
+        if (v3) schemes.append("v3 ");
+        if (v31) schemes.append("v3.1 ");
+        if (v4) schemes.append("v4 ");
+        return schemes.toString().trim();
+    }
+
+    /**
+     * The output apksigner would have printed for the given flags: scheme lines only when verbose,
+     * certificate lines only when printing certificates. Warnings and errors are always kept.
+     */
+    public List<String> render(boolean verbose, boolean printCerts) {
+        return output.stream()
+                .filter(line -> verbose || !(line.startsWith("Verified using") || line.startsWith("Verified for")
+                        || line.startsWith("Number of signers")))
+                .filter(line -> printCerts || !line.startsWith("Signer #"))
+                .toList();
+    }
+}
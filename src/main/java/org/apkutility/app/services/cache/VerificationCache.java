@@ -0,0 +1,151 @@
+package org.apkutility.app.services.cache;
+
+import org.apkutility.app.apk.signing.ParallelChunkDigester;
+import org.apkutility.app.services.SettingsManager;
+import org.apkutility.app.services.executor.CommandTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Signature verification results keyed by the content digest of the APK.
+ * <p>
+ * The digest (chunked SHA-256 of the whole file, computed in parallel over a mapping) is remembered per path
+ * together with the file's size and modification time, so an unchanged APK is answered from memory after a
+ * single stat, in microseconds. Copies and renames share the result through the digest. Results are also
+ * stored in the {@link ResultCache} directory, so they survive restarts and follow its size limit.
+ */
+public class VerificationCache {
+
+    // Mapped in pieces so files over 2 GB can be digested; a multiple of the chunk size keeps the digest unchanged
+    private static final long MAP_SIZE = 1L << 30;
+    private static VerificationCache instance;
+
+    private final ResultCache store;
+    private final Map<Path, Stamp> stamps = new ConcurrentHashMap<>();
+    private final Map<String, Verification> results = new ConcurrentHashMap<>();
+
+    private record Stamp(long size, long lastModified, String digest) {
+    }
+
+    /**
+     * @param nanos time to answer, including the verification itself on a miss
+     */
+    public record Lookup(Verification verification, boolean cached, long nanos) {
+    }
+
+    private VerificationCache(ResultCache store) {
+        this.store = store;
+    }
+
+    public static synchronized VerificationCache getInstance() {
+        if (instance == null) {
+            instance = new VerificationCache(ResultCache.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached verification of {@code apk} by {@code toolPath}, running {@code verifier}
+     * (an {@code apksigner verify -v --print-certs} run) on a miss. Output that is not an apksigner
+     * verdict is returned uncached as a failed verification.
+     */
+    public Lookup verify(Path apk, String toolPath, CommandTask verifier) throws Exception {
+        long start = System.nanoTime();
+        if (!SettingsManager.getInstance().getSettings().isResultCacheEnabled()) {
+            return new Lookup(run(verifier), false, System.nanoTime() - start);
+        }
+
+        String key = contentDigest(apk) + ":" + toolStamp(toolPath);
+        Verification hit = results.get(key);
+        if (hit == null) {
+            List<String> stored = store.read(storeKey(key));
+            if (stored != null) {
+                hit = Verification.parse(stored);
+                if (hit != null) results.put(key, hit);
+            }
+        }
+        if (hit != null) {
+            return new Lookup(hit, true, System.nanoTime() - start);
+        }
+
+        List<String> lines = new ArrayList<>();
+        verifier.run(lines::add);
+        Verification verification = Verification.parse(lines);
+        if (verification == null) {
+            return new Lookup(unverified(lines), false, System.nanoTime() - start);
+        }
+        results.put(key, verification);
+        store.write(storeKey(key), lines);
+        return new Lookup(verification, false, System.nanoTime() - start);
+    }
+
+    public void clear() {
+        stamps.clear();
+        results.clear();
+    }
+
+    private String contentDigest(Path apk) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(apk, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        Path key = apk.toAbsolutePath().normalize();
+
+        Stamp stamp = stamps.get(key);
+        if (stamp != null && stamp.size() == size && stamp.lastModified() == lastModified) {
+            return stamp.digest();
+        }
+
+        try (FileChannel channel = FileChannel.open(apk, StandardOpenOption.READ)) {
+            List<ByteBuffer> sections = new ArrayList<>();
+            for (long position = 0; position < size; position += MAP_SIZE) {
+                sections.add(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_SIZE, size - position)));
+            }
+            byte[] digest = new ParallelChunkDigester(ForkJoinPool.commonPool()).digest(sections.toArray(new ByteBuffer[0]));
+            String hex = HexFormat.of().formatHex(digest);
+            stamps.put(key, new Stamp(size, lastModified, hex));
+            return hex;
+        }
+    }
+
+    private static Verification run(CommandTask verifier) throws Exception {
+        List<String> lines = new ArrayList<>();
+        verifier.run(lines::add);
+        Verification verification = Verification.parse(lines);
+        return verification != null ? verification : unverified(lines);
+    }
+
+    private static Verification unverified(List<String> lines) {
+        return new Verification(false, false, false, false, false, false, List.of(), List.copyOf(lines));
+    }
+
+    // A replaced apksigner jar invalidates its results, like tool versions in ResultCache
+    private static String toolStamp(String toolPath) {
+        File tool = new File(toolPath);
+        return tool.getAbsolutePath() + ":" + tool.length() + ":" + tool.lastModified();
+    }
+
+    private static String storeKey(String key) throws IOException {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return "verify-" + HexFormat.of().formatHex(sha256.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package org.apkutility.app.services.cache;
+
+import org.apkutility.app.apk.AndroidManifest;
+import org.apkutility.app.apk.ApkSignatures;
+import org.apkutility.app.apk.ZipCentralDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.apkutility.app.utils.StringUtils.nullToEmpty;
+
+/**
+ * Metadata of every APK under a workspace directory (package, version, SDKs, size, signer, ABIs), kept in an
+ * index file so the workspace opens without reading its APKs again.
+ * <p>
+ * Opening publishes the stored index right away, then walks the workspace and reads only the APKs whose size
+ * or modification time changed, in parallel on the common pool. A {@link WatchService} on every directory then
+ * keeps the index current; events are coalesced until the directory has been quiet for a moment, so an APK
+ * being copied in is read once it is complete. Index files live under {@code ~/.apktool-gui/index}, one per
+ * workspace.
+ */
+public class WorkspaceIndex implements AutoCloseable {
+
+    private static final String FORMAT = "apk-index\t1";
+    private static final long SETTLE_MILLIS = 300;
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final Path workspace;
+    private final Path indexFile;
+    private final Consumer<Snapshot> listener;
+    private final Map<String, ApkRecord> records = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread thread;
+    private WatchService watcher;
+    private volatile boolean closed;
+    private volatile boolean scanned;
+    private long lastPublish;
+
+    /**
+     * @param path         location relative to the workspace, with {@code /} separators
+     * @param signerSha256 SHA-256 of the signing certificate (v3, else v2, else v1); empty when unsigned
+     * @param abis         native library directories under {@code lib/}
+     * @param error        why the APK could not be read, or null
+     */
+    public record ApkRecord(String path, long size, long lastModified, String packageName, long versionCode,
+                            String versionName, Integer minSdk, Integer targetSdk, String signerSha256,
+                            List<String> abis, String error) {
+
+        /** Case-insensitive match of {@code query} (already lower case) against the searchable columns. */
+        public boolean matches(String query) {
+            return query.isEmpty() || contains(path, query) || contains(packageName, query)
+                    || contains(versionName, query) || contains(signerSha256, query)
+                    || abis.stream().anyMatch(abi -> contains(abi, query));
+        }
+
+        private static boolean contains(String value, String query) {
+            return value != null && value.toLowerCase(Locale.ROOT).contains(query);
+        }
+    }
+
+    /**
+     * @param apks    indexed APKs sorted by path
+     * @param scanned whether the workspace was walked since opening; before that, {@code apks} is the stored index
+     * @param pending APKs still being read; 0 once the index is current
+     * @param message why the workspace cannot be indexed, or null
+     */
+    public record Snapshot(Path workspace, List<ApkRecord> apks, boolean scanned, int pending, String message) {
+    }
+
+    private WorkspaceIndex(Path workspace, Path indexFile, Consumer<Snapshot> listener) {
+        this.workspace = workspace;
+        this.indexFile = indexFile;
+        this.listener = listener;
+        this.thread = new Thread(this::run, "workspace-index");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts indexing {@code workspace} in the background. {@code listener} is called on the indexing thread
+     * with the stored index, then with updates (at most a few per second while APKs are being read).
+     */
+    public static WorkspaceIndex open(Path workspace, Consumer<Snapshot> listener) throws IOException {
+        Path normalized = workspace.toAbsolutePath().normalize();
+        Path indexFile = Path.of(System.getProperty("user.home"), ".apktool-gui", "index", indexName(normalized));
+        WorkspaceIndex index = new WorkspaceIndex(normalized, indexFile, listener);
+        index.thread.start();
+        return index;
+    }
+
+    public Path getWorkspace() {
+        return workspace;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        synchronized (this) {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            load();
+            publish(true);
+            if (!Files.isDirectory(workspace)) {
+                listener.accept(new Snapshot(workspace, List.of(), true, 0, "Workspace folder " + workspace + " does not exist"));
+                return;
+            }
+            synchronized (this) {
+                if (closed) return;
+                watcher = FileSystems.getDefault().newWatchService();
+            }
+            scan();
+            watch();
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed
+        } catch (IOException e) {
+            if (!closed) listener.accept(new Snapshot(workspace, sorted(), scanned, 0, "Indexing stopped: " + e.getMessage()));
+        }
+    }
+
+    /** Walks the whole workspace: drops APKs that are gone and reads new and changed ones. */
+    private void scan() throws IOException, InterruptedException {
+        Map<String, BasicFileAttributes> found = new HashMap<>();
+        walk(workspace, found);
+        scanned = true;
+        boolean removed = records.keySet().retainAll(found.keySet());
+        if (!index(found) && removed) save();
+    }
+
+    private void watch() throws IOException, InterruptedException {
+        while (!closed) {
+            WatchKey key = watcher.take();
+            Set<Path> changed = new HashSet<>();
+            boolean overflow = false;
+            do {
+                Path directory = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                        overflow = true;
+                    } else {
+                        changed.add(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) watchedDirectories.remove(key);
+            } while ((key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+            if (overflow) {
+                scan();
+            } else {
+                update(changed);
+            }
+        }
+    }
+
+    private void update(Set<Path> changed) throws IOException, InterruptedException {
+        Map<String, BasicFileAttributes> found = new HashMap<>();
+        boolean removed = false;
+        for (Path path : changed) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException e) {
+                // Deleted or moved away: the file itself, or everything under a directory
+                String key = key(path);
+                removed |= records.keySet().removeIf(name -> name.equals(key) || name.startsWith(key + "/"));
+                continue;
+            }
+            if (attributes.isDirectory()) {
+                walk(path, found);
+            } else if (attributes.isRegularFile() && isApk(path)) {
+                found.put(key(path), attributes);
+            }
+        }
+        if (!index(found) && removed) save();
+    }
+
+    /**
+     * Reads the APKs of {@code found} that are new or changed since they were indexed. The index is published
+     * either way, and saved when something was read.
+     *
+     * @return whether anything was read
+     */
+    private boolean index(Map<String, BasicFileAttributes> found) throws IOException, InterruptedException {
+        List<Map.Entry<String, BasicFileAttributes>> stale = found.entrySet().stream()
+                .filter(entry -> !isCurrent(records.get(entry.getKey()), entry.getValue()))
+                .toList();
+        if (stale.isEmpty()) {
+            publish(true);
+            return false;
+        }
+
+        pending.set(stale.size());
+        publish(true);
+        try {
+            ForkJoinPool.commonPool().submit(() -> stale.parallelStream().forEach(entry -> {
+                if (closed) return;
+                records.put(entry.getKey(), read(entry.getKey(), entry.getValue()));
+                pending.decrementAndGet();
+                publish(false);
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            pending.set(0);
+        }
+        save();
+        publish(true);
+        return true;
+    }
+
+    private static boolean isCurrent(ApkRecord record, BasicFileAttributes attributes) {
+        return record != null && record.size() == attributes.size()
+                && record.lastModified() == attributes.lastModifiedTime().toMillis();
+    }
+
+    /** Registers every directory under {@code root} with the watcher and collects the APKs. */
+    private void walk(Path root, Map<String, BasicFileAttributes> found) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                WatchKey key = directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirectories.put(key, directory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && isApk(file)) found.put(key(file), attributes);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Unreadable or vanished while walking
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private ApkRecord read(String key, BasicFileAttributes attributes) {
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        try (FileChannel channel = FileChannel.open(workspace.resolve(key), StandardOpenOption.READ)) {
+            ZipCentralDirectory cd = ZipCentralDirectory.read(channel);
+            AndroidManifest manifest = AndroidManifest.read(channel, cd);
+            List<String> abis = cd.getEntries().stream()
+                    .map(ZipCentralDirectory.Entry::name)
+                    .filter(name -> name.startsWith("lib/") && name.indexOf('/', 4) > 4)
+                    .map(name -> name.substring(4, name.indexOf('/', 4)))
+                    .distinct()
+                    .sorted()
+                    .toList();
+            return new ApkRecord(key, size, lastModified, nullToEmpty(manifest.packageName()), manifest.versionCode(),
+                    nullToEmpty(manifest.versionName()), manifest.minSdk(), manifest.targetSdk(), signer(channel, cd), abis, null);
+        } catch (IOException | RuntimeException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new ApkRecord(key, size, lastModified, "", 0, "", null, null, "", List.of(), message);
+        }
+    }
+
+    private static String signer(FileChannel channel, ZipCentralDirectory cd) {
+        try {
+            ApkSignatures signatures = ApkSignatures.read(channel, cd);
+            ApkSignatures.Signer signer = signatures.signers().stream()
+                    .filter(candidate -> candidate.scheme().equals("v3"))
+                    .findFirst()
+                    .orElse(signatures.signers().isEmpty() ? null : signatures.signers().get(0));
+            ApkSignatures.Certificate certificate = signer != null ? signer.certificate()
+                    : signatures.jarSigned() ? ApkSignatures.readJarCertificate(channel, cd) : null;
+            return certificate != null ? certificate.sha256() : "";
+        } catch (IOException | RuntimeException e) {
+            // The manifest is still worth indexing
+            return "";
+        }
+    }
+
+    private synchronized void publish(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastPublish < PUBLISH_INTERVAL_NANOS) return;
+        lastPublish = now;
+        if (!closed) listener.accept(new Snapshot(workspace, sorted(), scanned, pending.get(), null));
+    }
+
+    private List<ApkRecord> sorted() {
+        List<ApkRecord> list = new ArrayList<>(records.values());
+        list.sort(Comparator.comparing(ApkRecord::path));
+        return list;
+    }
+
+    private String key(Path path) {
+        return workspace.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static boolean isApk(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".apk");
+    }
+
+    // Index file: a header line, then one tab-separated line per APK
+
+    private void load() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return;
+        }
+        if (lines.isEmpty() || !lines.get(0).equals(FORMAT + "\t" + escape(workspace.toString()))) return;
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split("\t", -1);
+            if (fields.length != 11) continue;
+            try {
+                ApkRecord record = new ApkRecord(unescape(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                        unescape(fields[3]), Long.parseLong(fields[4]), unescape(fields[5]), integer(fields[6]),
+                        integer(fields[7]), fields[8], fields[9].isEmpty() ? List.of() : List.of(unescape(fields[9]).split(",")),
+                        fields[10].isEmpty() ? null : unescape(fields[10]));
+                records.put(record.path(), record);
+            } catch (NumberFormatException ignored) {
+                // A damaged line is read again from the APK
+            }
+        }
+    }
+
+    private synchronized void save() {
+        List<String> lines = new ArrayList<>(records.size() + 1);
+        lines.add(FORMAT + "\t" + escape(workspace.toString()));
+        for (ApkRecord record : sorted()) {
+            lines.add(String.join("\t", escape(record.path()), String.valueOf(record.size()),
+                    String.valueOf(record.lastModified()), escape(record.packageName()), String.valueOf(record.versionCode()),
+                    escape(record.versionName()), record.minSdk() != null ? record.minSdk().toString() : "",
+                    record.targetSdk() != null ? record.targetSdk().toString() : "", record.signerSha256(),
+                    escape(String.join(",", record.abis())), record.error() != null ? escape(record.error()) : ""));
+        }
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path temp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ignored) {
+            // An index that cannot be written only costs the next opening its speed-up
+        }
+    }
+
+    private static Integer integer(String field) {
+        return field.isEmpty() ? null : Integer.valueOf(field);
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                out.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            out.append(switch (next) {
+                case 't' -> '\t';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                default -> next;
+            });
+        }
+        return out.toString();
+    }
+
+    private static String indexName(Path workspace) throws IOException {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha256.digest(workspace.toString().getBytes(StandardCharsets.UTF_8));
+            return "workspace-" + HexFormat.of().formatHex(digest, 0, 8) + ".tsv";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
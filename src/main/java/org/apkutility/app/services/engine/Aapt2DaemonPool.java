@@ -0,0 +1,277 @@
+package org.apkutility.app.services.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Pool of {@code aapt2 daemon} processes.
+ * <p>
+ * The daemon reads one command per request from stdin (one argument per line, terminated by an empty line)
+ * and answers with "Done" once it has finished, preceded by "Error" if the command failed.
+ * Requests are multiplexed over up to {@code size} daemons; a daemon that dies is dropped and respawned on demand.
+ */
+public class Aapt2DaemonPool implements AutoCloseable {
+
+    private static final long START_TIMEOUT_SECONDS = 15;
+
+    private final Supplier<String> aapt2Path;
+    private final LinkedBlockingDeque<Daemon> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private volatile int size;
+    private volatile boolean closed;
+
+    public Aapt2DaemonPool(Supplier<String> aapt2Path, int size) {
+        this.aapt2Path = aapt2Path;
+        this.size = Math.max(1, size);
+    }
+
+    public void setSize(int size) {
+        this.size = Math.max(1, size);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Runs one aapt2 command (without the executable, e.g. {@code compile -o out res/values/strings.xml})
+     * on a pooled daemon. Returns 0 on success, 1 if aapt2 reported an error.
+     */
+    public int run(List<String> args, Consumer<String> output) throws IOException, InterruptedException {
+        Daemon daemon = borrow();
+        boolean healthy = false;
+        try {
+            int result = daemon.execute(args, output);
+            healthy = daemon.isAlive();
+            return result;
+        } finally {
+            release(daemon, healthy);
+        }
+    }
+
+    /**
+     * Compiles every file of a res/ tree with one daemon request per file, spread over the whole pool,
+     * then packs the resulting .flat files into {@code outputZip} (accepted by {@code aapt2 link}).
+     */
+    public int compileTree(Path resDir, Path outputZip, Consumer<String> output) throws Exception {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(resDir, 2)) {
+            files = walk.filter(Files::isRegularFile)
+                        .filter(path -> !path.getParent().equals(resDir))
+                        .toList();
+        }
+
+        // Fail fast (IOException) when no daemon can be started, so the caller can fall back to "compile --dir"
+        release(borrow(), true);
+
+        Path flatDir = Files.createTempDirectory("aapt2-flat");
+        ExecutorService fanOut = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "aapt2-compile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            Consumer<String> synchronizedOutput = line -> {
+                synchronized (output) {
+                    output.accept(line);
+                }
+            };
+
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Path file : files) {
+                List<String> args = List.of("compile", "-o", flatDir.toString(), file.toString());
+                results.add(fanOut.submit(() -> run(args, synchronizedOutput)));
+            }
+
+            int failures = 0;
+            for (Future<Integer> result : results) {
+                if (result.get() != 0) failures++;
+            }
+
+            writeFlatArchive(flatDir, outputZip);
+            output.accept(String.format("Compiled %d files on %d daemon(s) in %d ms, %d failed",
+                    files.size(), Math.min(size, Math.max(1, files.size())), (System.nanoTime() - start) / 1_000_000, failures));
+            return failures == 0 ? 0 : 1;
+        } finally {
+            fanOut.shutdownNow();
+            deleteRecursively(flatDir);
+        }
+    }
+
+    private Daemon borrow() throws IOException, InterruptedException {
+        while (true) {
+            if (closed) throw new IOException("aapt2 daemon pool is closed");
+
+            Daemon daemon = idle.pollFirst();
+            if (daemon != null) {
+                if (daemon.isAlive()) return daemon;
+                created.decrementAndGet();
+                continue;
+            }
+
+            if (created.incrementAndGet() <= size) {
+                try {
+                    return Daemon.start(aapt2Path.get());
+                } catch (IOException e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+            created.decrementAndGet();
+
+            daemon = idle.pollFirst(200, TimeUnit.MILLISECONDS);
+            if (daemon != null) {
+                if (daemon.isAlive()) return daemon;
+                created.decrementAndGet();
+            }
+        }
+    }
+
+    private void release(Daemon daemon, boolean healthy) {
+        if (healthy && !closed && created.get() <= size) {
+            idle.addFirst(daemon);
+        } else {
+            daemon.quit();
+            created.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Daemon daemon;
+        while ((daemon = idle.pollFirst()) != null) {
+            daemon.quit();
+            created.decrementAndGet();
+        }
+    }
+
+    private static void writeFlatArchive(Path flatDir, Path outputZip) throws IOException {
+        if (outputZip.getParent() != null) Files.createDirectories(outputZip.getParent());
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(outputZip));
+             Stream<Path> flats = Files.list(flatDir)) {
+            for (Path flat : (Iterable<Path>) flats.sorted()::iterator) {
+                zip.putNextEntry(new ZipEntry(flat.getFileName().toString()));
+                Files.copy(flat, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * One running {@code aapt2 daemon}. stdout and stderr are pumped into a single queue by reader threads.
+     */
+    private static final class Daemon {
+        private static final String EOF = "\u0000EOF";
+
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final LinkedBlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private final AtomicInteger openStreams = new AtomicInteger(2);
+
+        private Daemon(Process process) {
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            pump(process.getInputStream(), "aapt2-daemon-out");
+            pump(process.getErrorStream(), "aapt2-daemon-err");
+        }
+
+        static Daemon start(String aapt2) throws IOException, InterruptedException {
+            Process process = new ProcessBuilder(aapt2, "daemon").start();
+            Daemon daemon = new Daemon(process);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(START_TIMEOUT_SECONDS);
+            while (System.nanoTime() < deadline) {
+                String line = daemon.lines.poll(100, TimeUnit.MILLISECONDS);
+                if (line == null) continue;
+                if (line.equals("Ready")) return daemon;
+                if (line.equals(EOF)) break;
+            }
+            daemon.quit();
+            throw new IOException("aapt2 daemon did not become ready");
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        int execute(List<String> args, Consumer<String> output) throws IOException, InterruptedException {
+            for (String arg : args) {
+                stdin.write(arg);
+                stdin.newLine();
+            }
+            stdin.newLine();
+            stdin.flush();
+
+            boolean failed = false;
+            while (true) {
+                String line = lines.take();
+                if (line.equals("Done")) break;
+                if (line.equals(EOF)) {
+                    output.accept("aapt2 daemon exited unexpectedly");
+                    return 1;
+                }
+                if (line.equals("Error")) {
+                    failed = true;
+                } else {
+                    output.accept(line);
+                }
+            }
+            return failed ? 1 : 0;
+        }
+
+        void quit() {
+            try {
+                stdin.write("quit");
+                stdin.newLine();
+                stdin.newLine();
+                stdin.flush();
+            } catch (IOException ignored) {
+            }
+            process.destroy();
+        }
+
+        private void pump(InputStream stream, String threadName) {
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) lines.add(line);
+                } catch (IOException ignored) {
+                } finally {
+                    if (openStreams.decrementAndGet() == 0) lines.add(EOF);
+                }
+            }, threadName);
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+}
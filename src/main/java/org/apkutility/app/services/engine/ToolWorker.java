@@ -0,0 +1,278 @@
+package org.apkutility.app.services.engine;
+
+import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.Job;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a tool jar (apktool, APKEditor...) loaded in a long-lived helper JVM so jobs skip
+ * JVM boot, class loading and JIT warm-up. Jobs run one at a time; see {@link ToolWorkerMain} for the protocol.
+ * On a runtime that cannot trap the tool's System.exit the worker refuses to start, and on one that does not start
+ * at all with {@code -Djava.security.manager=allow} (JDK 24 and later) it dies before the handshake; either way
+ * that java executable is remembered and jobs run as plain processes instead of starting a worker every time.
+ */
+public class ToolWorker implements AutoCloseable {
+
+    private final String name;
+    private final Supplier<String> jarPath;
+    private final Supplier<String> javaPath;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Process process;
+    private BufferedWriter stdin;
+    private BufferedReader stdout;
+    private String loadedJar;
+    private long nextJobId = 1;
+    private int jobsSinceStart;
+    private int maxJobs;
+    private long maxHeapBytes;
+    // Java executable the worker cannot run on (System.exit cannot be trapped, or the JVM refuses to start), and why
+    private String unusableJava;
+    private String unusableReason;
+
+    public ToolWorker(String name, Supplier<String> jarPath, Supplier<String> javaPath) {
+        this.name = name;
+        this.jarPath = jarPath;
+        this.javaPath = javaPath;
+    }
+
+    /**
+     * Restarts the helper JVM after {@code maxJobs} jobs or once the heap used after a job exceeds
+     * {@code maxHeapBytes}, so leaks in the tool cannot accumulate. Zero disables a limit.
+     */
+    public void setRecyclePolicy(int maxJobs, long maxHeapBytes) {
+        this.maxJobs = maxJobs;
+        this.maxHeapBytes = maxHeapBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBusy() {
+        return lock.isLocked();
+    }
+
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Runs a job on the warm worker. Falls back to {@code fallbackCommand} as a fresh process when the
+     * worker is busy with another job or cannot be started, so callers always get a result.
+     */
+    public int runOrFallback(List<String> args, List<String> fallbackCommand, Consumer<String> output) throws Exception {
+        if (!lock.tryLock()) {
+            return CommandExecutor.runProcess(fallbackCommand, output);
+        }
+        try {
+            String knownUnusable = unusableJava;
+            try {
+                ensureStarted();
+            } catch (IOException e) {
+                // Warned once per java executable; later jobs on it fall back quietly
+                if (knownUnusable == null || !knownUnusable.equals(unusableJava)) {
+                    output.accept("⚠️ " + name + " worker unavailable (" + e.getMessage() + "), using a new process");
+                }
+                return CommandExecutor.runProcess(fallbackCommand, output);
+            }
+            return runLocked(args, output);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a job on the worker, starting it if needed. Blocks while another job is running.
+     */
+    public int run(List<String> args, Consumer<String> output) throws IOException {
+        lock.lock();
+        try {
+            ensureStarted();
+            return runLocked(args, output);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the helper JVM ahead of the first job.
+     */
+    public void warmUp() throws IOException {
+        lock.lock();
+        try {
+            ensureStarted();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int runLocked(List<String> args, Consumer<String> output) throws IOException {
+        long jobId = nextJobId++;
+        StringBuilder request = new StringBuilder("JOB ").append(jobId);
+        for (String arg : args) {
+            request.append(' ').append(Base64.getEncoder().encodeToString(arg.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        try {
+            stdin.write(request.toString());
+            stdin.newLine();
+            stdin.flush();
+        } catch (IOException e) {
+            destroy();
+            throw e;
+        }
+
+        // Stopping the job kills the worker, which ends the read below
+        Job job = Job.current();
+        Process running = process;
+        if (job != null) job.attach(running);
+        try {
+            return readResult(jobId, output);
+        } finally {
+            if (job != null) job.detach(running);
+        }
+    }
+
+    private int readResult(long jobId, Consumer<String> output) throws IOException {
+        String prefix = "@" + jobId + " ";
+        String line;
+        while ((line = stdout.readLine()) != null) {
+            if (!line.startsWith(prefix)) {
+                output.accept(line);
+                continue;
+            }
+            char type = line.length() > prefix.length() ? line.charAt(prefix.length()) : '?';
+            String payload = line.length() > prefix.length() + 2 ? line.substring(prefix.length() + 2) : "";
+            if (type == 'O') {
+                output.accept(payload);
+            } else if (type == 'X') {
+                String[] parts = payload.split(" ");
+                recycleIfNeeded(Long.parseLong(parts[1]));
+                return Integer.parseInt(parts[0]);
+            }
+        }
+
+        // The tool took the whole JVM down (System.exit without a trap); its exit status is the job result
+        int exitCode = waitForExit();
+        destroy();
+        return exitCode;
+    }
+
+    private void recycleIfNeeded(long heapUsedBytes) {
+        jobsSinceStart++;
+        boolean tooManyJobs = maxJobs > 0 && jobsSinceStart >= maxJobs;
+        boolean heapTooLarge = maxHeapBytes > 0 && heapUsedBytes > maxHeapBytes;
+        if (tooManyJobs || heapTooLarge) {
+            // Next job starts a fresh JVM
+            destroy();
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        String jar = jarPath.get();
+        if (jar == null || jar.isEmpty() || !new File(jar).exists()) {
+            throw new IOException(name + " jar not found");
+        }
+        if (isAlive() && jar.equals(loadedJar)) return;
+
+        destroy();
+
+        // Each tool's System.exit would kill the worker, so it would only add a start-up to every job
+        String java = javaPath.get();
+        if (java.equals(unusableJava)) {
+            throw new IOException(unusableReason);
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Djava.security.manager=allow");
+        command.add("-Dfile.encoding=UTF-8");
+        command.add("-cp");
+        command.add(workerClasspath());
+        command.add(ToolWorkerMain.class.getName());
+        command.add(jar);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        process = pb.start();
+        stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+        String handshake = stdout.readLine();
+        if (handshake == null || handshake.startsWith("@0 U ")) {
+            // Neither changes until the java executable does: a JVM that dies before the handshake rejected
+            // the worker's command line, which every later start would repeat
+            destroy();
+            unusableJava = java;
+            unusableReason = handshake == null ? "worker exited during start-up" : handshake.substring(5);
+            throw new IOException(unusableReason);
+        }
+        if (!handshake.startsWith("@0 R ")) {
+            destroy();
+            throw new IOException(handshake.substring(Math.min(5, handshake.length())));
+        }
+        loadedJar = jar;
+        jobsSinceStart = 0;
+    }
+
+    private int waitForExit() {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private void destroy() {
+        if (process != null) {
+            try {
+                stdin.write("QUIT");
+                stdin.newLine();
+                stdin.flush();
+            } catch (IOException ignored) {
+            }
+            process.destroy();
+        }
+        process = null;
+        stdin = null;
+        stdout = null;
+        loadedJar = null;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            destroy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Location of this application's classes (jar or classes directory); only {@link ToolWorkerMain} is used from it.
+     */
+    private static String workerClasspath() throws IOException {
+        try {
+            return Path.of(ToolWorkerMain.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IOException("cannot locate worker classes: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.apkutility.app.services.engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serial;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.Permission;
+import java.util.Base64;
+import java.util.jar.JarFile;
+
+/**
+ * Entry point of the long-lived helper JVM started by {@link ToolWorker}.
+ * <p>
+ * Loads a tool jar once into an isolated class loader and runs its Main-Class for every job read from stdin.
+ * Must not depend on JavaFX or any other GUI class: it runs on a plain classpath.
+ * <p>
+ * Protocol (one message per line, UTF-8):
+ * <pre>
+ *   in : JOB &lt;id&gt; &lt;base64 arg&gt; ...     run a job
+ *   in : QUIT                            exit
+ *   out: @0 R &lt;main class&gt;               ready
+ *   out: @0 E &lt;message&gt;                  failed to load the jar
+ *   out: @0 U &lt;message&gt;                  System.exit cannot be trapped on this runtime
+ *   out: @&lt;id&gt; O &lt;text&gt;                 output line of a job (stdout and stderr merged)
+ *   out: @&lt;id&gt; X &lt;exit code&gt; &lt;heap&gt;    job finished, heap = used bytes after the job
+ * </pre>
+ */
+public final class ToolWorkerMain {
+
+    private static final PrintStream PROTOCOL =
+            new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+    private static volatile long currentJob = -1;
+
+    private ToolWorkerMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            PROTOCOL.println("@0 E usage: ToolWorkerMain <tool.jar>");
+            return;
+        }
+
+        // Without the trap the first tool's System.exit would take the worker down with it, so every job
+        // would pay a restart; say so up front and let the GUI side use plain processes instead
+        String trapProblem = trapSystemExit();
+        if (trapProblem != null) {
+            PROTOCOL.println("@0 U " + oneLine(trapProblem));
+            return;
+        }
+
+        Method entry;
+        try {
+            entry = resolveEntry(new File(args[0]));
+        } catch (Exception e) {
+            PROTOCOL.println("@0 E " + oneLine(String.valueOf(e)));
+            return;
+        }
+
+        TaggedLineStream tagged = new TaggedLineStream();
+        PrintStream jobStream = new PrintStream(tagged, true, StandardCharsets.UTF_8);
+        System.setOut(jobStream);
+        System.setErr(jobStream);
+        PROTOCOL.println("@0 R " + entry.getDeclaringClass().getName());
+
+        BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = stdin.readLine()) != null) {
+            if (line.equals("QUIT")) break;
+            if (!line.startsWith("JOB ")) continue;
+
+            String[] parts = line.split(" ");
+            long jobId = Long.parseLong(parts[1]);
+            String[] toolArgs = new String[parts.length - 2];
+            for (int i = 2; i < parts.length; i++) {
+                toolArgs[i - 2] = new String(Base64.getDecoder().decode(parts[i]), StandardCharsets.UTF_8);
+            }
+
+            currentJob = jobId;
+            int exitCode = invoke(entry, toolArgs);
+            jobStream.flush();
+            tagged.finishLine();
+            currentJob = -1;
+
+            Runtime runtime = Runtime.getRuntime();
+            long heapUsed = runtime.totalMemory() - runtime.freeMemory();
+            PROTOCOL.println("@" + jobId + " X " + exitCode + " " + heapUsed);
+        }
+        System.exit(0);
+    }
+
+    private static int invoke(Method entry, String[] toolArgs) {
+        try {
+            Object result = entry.invoke(null, (Object) toolArgs);
+            return result instanceof Integer code ? code : 0;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ExitTrappedException exit) return exit.status;
+            if (cause != null) cause.printStackTrace();
+            return 1;
+        } catch (ExitTrappedException exit) {
+            return exit.status;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return 1;
+        }
+    }
+
+    /**
+     * Finds the tool's entry point: a static {@code int execute(String[])} when the tool has one
+     * (it returns the exit code instead of calling System.exit), otherwise {@code main(String[])}.
+     */
+    private static Method resolveEntry(File jar) throws Exception {
+        String mainClassName;
+        try (JarFile jarFile = new JarFile(jar)) {
+            mainClassName = jarFile.getManifest() == null ? null
+                    : jarFile.getManifest().getMainAttributes().getValue("Main-Class");
+        }
+        if (mainClassName == null) throw new IllegalStateException("No Main-Class in " + jar);
+
+        // Parent is the platform loader: the tool never sees this worker's own classes
+        URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, ClassLoader.getPlatformClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        Class<?> mainClass = Class.forName(mainClassName, true, loader);
+
+        try {
+            Method execute = mainClass.getDeclaredMethod("execute", String[].class);
+            if (Modifier.isStatic(execute.getModifiers()) && execute.getReturnType() == int.class) {
+                execute.setAccessible(true);
+                return execute;
+            }
+        } catch (NoSuchMethodException ignored) {
+        }
+        return mainClass.getMethod("main", String[].class);
+    }
+
+    /**
+     * Tools call System.exit when they finish or fail. The worker is started with
+     * -Djava.security.manager=allow so the exit can be turned into an exception and the JVM stays warm.
+     *
+     * @return null once the trap is installed, otherwise why the runtime refused it
+     */
+    @SuppressWarnings("removal")
+    private static String trapSystemExit() {
+        try {
+            System.setSecurityManager(new SecurityManager() {
+                @Override
+                public void checkPermission(Permission perm) {
+                }
+
+                @Override
+                public void checkPermission(Permission perm, Object context) {
+                }
+
+                @Override
+                public void checkExit(int status) {
+                    if (currentJob >= 0) throw new ExitTrappedException(status);
+                }
+            });
+            return null;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return "System.exit cannot be trapped on Java " + Runtime.version().feature() + " (" + e.getMessage() + ")";
+        }
+    }
+
+    private static String oneLine(String text) {
+        return text.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    private static final class ExitTrappedException extends SecurityException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ExitTrappedException(int status) {
+            super("System.exit(" + status + ")");
+            this.status = status;
+        }
+    }
+
+    /**
+     * Splits tool output into lines and prefixes each with the current job id.
+     */
+    private static final class TaggedLineStream extends OutputStream {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                emit();
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) write(b[i]);
+        }
+
+        // PrintStream auto-flushes after every print; partial lines are only emitted at the end of a job
+        @Override
+        public void flush() {
+        }
+
+        synchronized void finishLine() {
+            if (line.size() > 0) emit();
+        }
+
+        private void emit() {
+            long job = currentJob;
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            if (job >= 0) PROTOCOL.println("@" + job + " O " + text);
+        }
+    }
+}
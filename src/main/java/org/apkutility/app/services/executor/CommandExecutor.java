@@ -1,122 +1,474 @@
 package org.apkutility.app.services.executor;
 
-import javafx.application.Platform;
+import org.apkutility.app.config.SettingsConfig;
 import org.apkutility.app.services.LogOutput;
+import org.apkutility.app.services.SettingsManager;
 import org.apkutility.app.services.StatusHandler;
+import org.apkutility.app.utils.UiUpdatePump;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class CommandExecutor {
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final JobScheduler scheduler;
+    private final AtomicInteger activeJobs = new AtomicInteger();
     private final LogOutput logOutput;
     private final StatusHandler statusHandler;
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<Path> spillListener = file -> { };
+    private volatile Runnable jobsListener = () -> { };
 
     public CommandExecutor(LogOutput logOutput, StatusHandler statusHandler) {
         this.logOutput = logOutput;
         this.statusHandler = statusHandler;
+        this.scheduler = new JobScheduler(laneConcurrency(SettingsManager.getInstance().getSettings()));
+        this.scheduler.setStatsListener(this::publishLaneStatus);
     }
 
-    public void executeCommand(List<String> command, String statusMessage) {
-        executeCommand(command, statusMessage, null);
+    public JobScheduler getScheduler() {
+        return scheduler;
     }
 
-    public void executeCommand(List<String> command, String statusMessage, Consumer<String> outputConsumer) {
-        executor.submit(() -> {
-            runOnUi(() -> {
-                if (statusHandler != null) {
-                    statusHandler.setProgressVisible(true);
-                    statusHandler.setProgress(-1);
-                    statusHandler.setStatus(statusMessage);
-                }
-                if (logOutput != null) {
-                    logOutput.append("> " + String.join(" ", command) + "\n");
-                }
-            });
+    /**
+     * Called from the worker thread with the temp file holding the output a job printed past the spill
+     * threshold, once the job has finished.
+     */
+    public void setSpillListener(Consumer<Path> spillListener) {
+        this.spillListener = spillListener;
+    }
+
+    /** Called from any thread whenever a job is submitted, starts or ends. */
+    public void setJobsListener(Runnable jobsListener) {
+        this.jobsListener = jobsListener;
+    }
+
+    /** Queued and running jobs, oldest first. */
+    public List<Job> getJobs() {
+        List<Job> snapshot = new ArrayList<>(jobs);
+        snapshot.sort(Comparator.comparingLong(Job::getId));
+        return snapshot;
+    }
+
+    /**
+     * Re-reads lane concurrency from settings. Running jobs keep going, new limits apply to queued ones.
+     */
+    public void applyLaneSettings(SettingsConfig settings) {
+        laneConcurrency(settings).forEach(scheduler::setConcurrency);
+    }
+
+    public Job executeCommand(List<String> command, String statusMessage) {
+        return executeCommand(command, statusMessage, null);
+    }
+
+    public Job executeCommand(List<String> command, String statusMessage, Consumer<String> outputConsumer) {
+        return executeCommand(JobLane.forCommand(command), command, statusMessage, outputConsumer);
+    }
+
+    public Job executeCommand(JobLane lane, List<String> command, String statusMessage, Consumer<String> outputConsumer) {
+        return schedule(lane, String.join(" ", command), statusMessage, outputConsumer, commandTask(command), null);
+    }
+
+    /**
+     * Runs an arbitrary job on a lane with the same status, logging and batching behaviour as a process.
+     * The task pushes output one line at a time and returns an exit code (0 = success).
+     * The job times out after the lane's configured limit; the returned handle stops it earlier.
+     */
+    public Job executeTask(JobLane lane, String description, String statusMessage,
+                           Consumer<String> outputConsumer, CommandTask task) {
+        return schedule(lane, description, statusMessage, outputConsumer, (out, err) -> task.run(out), null);
+    }
+
+    public CompletableFuture<CommandResult> submit(List<String> command, String statusMessage) {
+        return submit(JobLane.forCommand(command), command, statusMessage, null);
+    }
+
+    /**
+     * Like {@link #executeCommand}, but also captures the output, with stdout and stderr kept apart, and
+     * completes with a {@link CommandResult} once the job is done. Cancelling the future stops the job.
+     * <p>
+     * The future completes on the job's lane thread: dependent stages may submit further jobs directly, and
+     * hop to the FX thread only for UI work. It never completes exceptionally: failures, including a job
+     * refused because the executor has shut down, are in the result. Services that validate input before
+     * submitting follow the same contract and complete through {@link CommandResult#invalid}.
+     */
+    public CompletableFuture<CommandResult> submit(JobLane lane, List<String> command, String statusMessage,
+                                                   Consumer<String> outputConsumer) {
+        CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        Job job = schedule(lane, String.join(" ", command), statusMessage, outputConsumer, commandTask(command), result);
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) job.cancel();
+        });
+        return result;
+    }
+
+    /** {@link #submit} for an in-process task; its output is reported as stdout. */
+    public CompletableFuture<CommandResult> submitTask(JobLane lane, String description, String statusMessage,
+                                                       Consumer<String> outputConsumer, CommandTask task) {
+        CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        Job job = schedule(lane, description, statusMessage, outputConsumer, (out, err) -> task.run(out), result);
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) job.cancel();
+        });
+        return result;
+    }
+
+    /** A task with separate stdout and stderr sinks; commands fill both, in-process tasks only stdout. */
+    @FunctionalInterface
+    private interface StreamTask {
+        int run(Consumer<String> stdout, Consumer<String> stderr) throws Exception;
+    }
+
+    private static StreamTask commandTask(List<String> command) {
+        return (out, err) -> runProcess(command, out, err);
+    }
 
+    // result is null for fire-and-forget jobs, which then capture nothing
+    private Job schedule(JobLane lane, String description, String statusMessage, Consumer<String> outputConsumer,
+                         StreamTask task, CompletableFuture<CommandResult> result) {
+        Job job = new Job(description, lane, timeoutMillis(lane, SettingsManager.getInstance().getSettings()));
+        jobs.add(job);
+        jobsListener.run();
+        try {
+            scheduler.submit(lane, () -> run(job, description, statusMessage, outputConsumer, task, result));
+        } catch (RejectedExecutionException e) {
+            // Lanes are gone after shutdown(); the job will never start, so settle it here
+            job.cancel();
+            jobs.remove(job);
+            jobsListener.run();
+            if (logOutput != null) logOutput.append("[CANCELLED] " + description + " (executor shut down)\n");
+            if (result != null) result.complete(CommandResult.notRun(description, e));
+        }
+        return job;
+    }
+
+    private void run(Job job, String description, String statusMessage, Consumer<String> outputConsumer,
+                     StreamTask task, CompletableFuture<CommandResult> result) {
+        CommandResult outcome;
+        if (!job.begin()) {
+            if (logOutput != null) logOutput.append("[CANCELLED] " + description + " (before it started)\n");
+            jobs.remove(job);
+            jobsListener.run();
+            outcome = new CommandResult(description, job.getState(), -1, List.of(), List.of(), null, null,
+                    job.getWaitMillis(), 0, 0);
+        } else {
+            jobsListener.run();
             try {
-                ProcessBuilder pb = new ProcessBuilder(command);
-                pb.redirectErrorStream(true);
-                Process process = pb.start();
-
-                long lastUiUpdate = System.currentTimeMillis();
-                StringBuilder outputBatch = new StringBuilder();
-                int linesInBatch = 0;
-
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        outputBatch.append(line).append("\n");
-                        linesInBatch++;
-
-                        long now = System.currentTimeMillis();
-                        if (linesInBatch >= 10 || (now - lastUiUpdate > 100)) {
-                            flushBatchToUi(outputBatch.toString(), outputConsumer);
-                            outputBatch.setLength(0);
-                            linesInBatch = 0;
-                            lastUiUpdate = now;
-                        }
-                    }
-                    // Flush remaining
-                    if (outputBatch.length() > 0) {
-                        flushBatchToUi(outputBatch.toString(), outputConsumer);
-                    }
-                }
-                
-                int exitCode = process.waitFor();
-                runOnUi(() -> handleCompletion(exitCode, outputConsumer));
+                outcome = runJob(job, statusMessage, outputConsumer, task, result != null);
+            } finally {
+                job.end();
+                jobs.remove(job);
+                jobsListener.run();
+            }
+        }
+        // After end(), so stages that run on this thread are not mistaken for part of the job
+        if (result != null) result.complete(outcome);
+    }
+
+    private CommandResult runJob(Job job, String statusMessage, Consumer<String> outputConsumer, StreamTask task,
+                                 boolean capture) {
+        activeJobs.incrementAndGet();
+        if (statusHandler != null) {
+            statusHandler.setProgressVisible(true);
+            statusHandler.setProgress(-1);
+            statusHandler.setStatus(statusMessage);
+        }
+        if (logOutput != null) {
+            logOutput.append("> " + job.getDescription() + "\n");
+        }
 
-            } catch (Exception e) {
-                runOnUi(() -> handleError(e, outputConsumer));
+        OutputBatch batch = new OutputBatch(outputConsumer, capture);
+        int exitCode = -1;
+        Exception error = null;
+        try {
+            try {
+                exitCode = task.run(batch::add, batch::addError);
+            } finally {
+                job.done();
+                // Flush remaining
+                batch.close();
             }
-        });
+
+            boolean last = activeJobs.decrementAndGet() == 0;
+            if (job.isStopped()) {
+                handleStopped(job, outputConsumer, last);
+            } else {
+                handleCompletion(job, exitCode, outputConsumer, last);
+            }
+
+        } catch (Exception e) {
+            error = e;
+            boolean last = activeJobs.decrementAndGet() == 0;
+            if (job.isStopped()) {
+                handleStopped(job, outputConsumer, last);
+            } else {
+                handleError(e, outputConsumer, last);
+            }
+        }
+        Job.State state = job.isStopped() ? job.getState() : Job.State.FINISHED;
+        return new CommandResult(job.getDescription(), state, state == Job.State.FINISHED && error == null ? exitCode : -1,
+                batch.capturedStdout, batch.capturedStderr, batch.spillFile, error,
+                job.getWaitMillis(), job.getRunMillis(), job.getCpuMillis());
+    }
+
+    /**
+     * Starts a process with stderr merged into stdout and streams its output line by line, decoded as UTF-8.
+     * Runs on the calling thread; returns the process exit code.
+     */
+    public static int runProcess(List<String> command, Consumer<String> output) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        return run(pb.start(), output, null);
+    }
+
+    /**
+     * Starts a process and streams stdout and stderr separately, stderr from a helper thread.
+     * Runs on the calling thread; returns the process exit code.
+     */
+    public static int runProcess(List<String> command, Consumer<String> stdout, Consumer<String> stderr) throws Exception {
+        return run(new ProcessBuilder(command).start(), stdout, stderr);
+    }
+
+    private static int run(Process process, Consumer<String> stdout, Consumer<String> stderr) throws Exception {
+        Job job = Job.current();
+        if (job != null) job.attach(process);
+        Thread errorReader = null;
+        if (stderr != null) {
+            errorReader = new Thread(() -> {
+                try (InputStream err = process.getErrorStream()) {
+                    OutputDecoder.readLines(err, stderr);
+                } catch (IOException ignored) {
+                    // Killed along with the process
+                }
+            }, "process-stderr");
+            errorReader.setDaemon(true);
+            errorReader.start();
+        }
+        try (InputStream in = process.getInputStream()) {
+            OutputDecoder.readLines(in, stdout);
+            if (job != null) job.sampleCpu(process);
+            if (errorReader != null) errorReader.join();
+            return process.waitFor();
+        } finally {
+            if (job != null) job.detach(process);
+        }
     }
 
     private void flushBatchToUi(String batch, Consumer<String> outputConsumer) {
         if (batch.isEmpty()) return;
-        runOnUi(() -> {
-            if (outputConsumer != null) outputConsumer.accept(batch);
-            if (logOutput != null) logOutput.append(batch);
-        });
+        deliver(outputConsumer, batch);
+        if (logOutput != null) logOutput.append(batch);
     }
 
+    // Output consumers touch their tab's controls, so they run on the FX thread
+    private void deliver(Consumer<String> outputConsumer, String text) {
+        if (outputConsumer != null) runOnUi(() -> outputConsumer.accept(text));
+    }
+
+    /**
+     * Groups output lines into one message every 10 lines or 100 ms, so fewer entries reach the UI pump.
+     * Once a job has printed more than the spill threshold, further lines go to a temp file instead of the
+     * UI, where {@link OutputPager} can page through them. Captures stop there too, so a submitted job's memory
+     * stays bounded; its result reports the spill file and {@link CommandResult#isTruncated()}.
+     */
+    private final class OutputBatch {
+        private final Consumer<String> outputConsumer;
+        private final List<String> capturedStdout;
+        private final List<String> capturedStderr;
+        private final StringBuilder lines = new StringBuilder();
+        private int linesInBatch = 0;
+        private long lastUiUpdate = System.currentTimeMillis();
+        private long spillThreshold = SettingsManager.getInstance().getSettings().getOutputSpillThresholdMb() * 1024L * 1024L;
+        private long shownChars;
+        private Path spillFile;
+        private BufferedWriter spill;
+        private long spilledLines;
+        private long spilledChars;
+        private IOException spillError;
+
+        OutputBatch(Consumer<String> outputConsumer, boolean capture) {
+            this.outputConsumer = outputConsumer;
+            this.capturedStdout = capture ? new ArrayList<>() : List.of();
+            this.capturedStderr = capture ? new ArrayList<>() : List.of();
+        }
+
+        // Both streams show up in the terminal alike; captures keep them apart
+        void add(String line) {
+            add(line, capturedStdout);
+        }
+
+        void addError(String line) {
+            add(line, capturedStderr);
+        }
+
+        // Synchronized: stderr lines arrive from the process's stderr reader thread
+        private synchronized void add(String line, List<String> captured) {
+            if (spill != null || (shownChars + line.length() + 1 > spillThreshold && startSpill())) {
+                writeSpill(line);
+                return;
+            }
+            shownChars += line.length() + 1;
+            if (captured instanceof ArrayList<String>) captured.add(line);
+            lines.append(line).append("\n");
+            linesInBatch++;
+
+            long now = System.currentTimeMillis();
+            if (linesInBatch >= 10 || (now - lastUiUpdate > 100)) {
+                flush();
+                lastUiUpdate = now;
+            }
+        }
+
+        synchronized void flush() {
+            if (lines.length() > 0) {
+                flushBatchToUi(lines.toString(), outputConsumer);
+            }
+            lines.setLength(0);
+            linesInBatch = 0;
+        }
+
+        synchronized void close() {
+            flush();
+            if (spillFile == null) return;
+            try {
+                spill.close();
+            } catch (IOException e) {
+                if (spillError == null) spillError = e;
+            }
+            if (logOutput != null) {
+                logOutput.append(String.format("[OUTPUT] %,d more lines (%.1f MB) saved to %s%s%n", spilledLines,
+                        spilledChars / (1024.0 * 1024.0), spillFile,
+                        spillError != null ? " (incomplete: " + spillError.getMessage() + ")" : ""));
+            }
+            spillListener.accept(spillFile);
+        }
+
+        private boolean startSpill() {
+            try {
+                spillFile = Files.createTempFile("apktool-gui-output-", ".txt");
+                spillFile.toFile().deleteOnExit();
+                spill = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // No room for a spill file: keep showing everything
+                spillFile = null;
+                spillThreshold = Long.MAX_VALUE;
+                return false;
+            }
+            flush();
+            if (logOutput != null) {
+                logOutput.append("[OUTPUT] Over " + spillThreshold / (1024 * 1024) + " MB of output, the rest goes to "
+                        + spillFile + "\n");
+            }
+            return true;
+        }
+
+        private void writeSpill(String line) {
+            if (spillError != null) return;
+            try {
+                spill.write(line);
+                spill.write('\n');
+                spilledLines++;
+                spilledChars += line.length() + 1;
+            } catch (IOException e) {
+                spillError = e;
+            }
+        }
+    }
+
+    /** Stops every job, killing their process trees, and the lanes with them. */
     public void shutdown() {
-        executor.shutdownNow();
+        jobs.forEach(Job::cancel);
+        scheduler.shutdownNow();
     }
 
-    private void handleCompletion(int exitCode, Consumer<String> outputConsumer) {
-        if (statusHandler != null) statusHandler.setProgressVisible(false);
+    private void handleCompletion(Job job, int exitCode, Consumer<String> outputConsumer, boolean lastActiveJob) {
+        if (statusHandler != null && lastActiveJob) statusHandler.setProgressVisible(false);
 
+        String usage = String.format(" (%.1f s, CPU %.1f s)", job.getRunMillis() / 1000.0, job.getCpuMillis() / 1000.0);
         if (exitCode == 0) {
             if (statusHandler != null) statusHandler.setStatus("Command completed successfully");
-            if (logOutput != null) logOutput.append("\n[SUCCESS] Command completed with exit code: " + exitCode + "\n");
+            if (logOutput != null) logOutput.append("\n[SUCCESS] Command completed with exit code: " + exitCode + usage + "\n");
         } else {
-            String error = "\n[ERROR] Command failed with exit code: " + exitCode + "\n";
+            String error = "\n[ERROR] Command failed with exit code: " + exitCode + usage + "\n";
             if (statusHandler != null) statusHandler.setStatus("Command failed with exit code: " + exitCode);
             if (logOutput != null) logOutput.append(error);
-            if (outputConsumer != null) outputConsumer.accept(error);
+            deliver(outputConsumer, error);
         }
 
         if (logOutput != null) logOutput.append("=".repeat(80) + "\n\n");
     }
 
-    private void handleError(Exception e, Consumer<String> outputConsumer) {
+    private void handleStopped(Job job, Consumer<String> outputConsumer, boolean lastActiveJob) {
+        String message = job.getState() == Job.State.TIMED_OUT
+                ? "Timed out after " + formatMinutes(job.getTimeoutMillis())
+                : "Stopped by user";
+        if (statusHandler != null) {
+            if (lastActiveJob) statusHandler.setProgressVisible(false);
+            statusHandler.setStatus(message);
+        }
+        String notice = "\n[" + (job.getState() == Job.State.TIMED_OUT ? "TIMEOUT" : "CANCELLED") + "] " + message + "\n";
+        if (logOutput != null) {
+            logOutput.append(notice);
+            logOutput.append("=".repeat(80) + "\n\n");
+        }
+        deliver(outputConsumer, notice);
+    }
+
+    private void handleError(Exception e, Consumer<String> outputConsumer, boolean lastActiveJob) {
         String error = "\n[EXCEPTION] " + e.getMessage() + "\n";
         if (statusHandler != null) {
-            statusHandler.setProgressVisible(false);
+            if (lastActiveJob) statusHandler.setProgressVisible(false);
             statusHandler.setStatus("Error executing command");
         }
         if (logOutput != null) logOutput.append(error);
-        if (outputConsumer != null) outputConsumer.accept(error);
+        deliver(outputConsumer, error);
         e.printStackTrace();
     }
 
+    private void publishLaneStatus() {
+        if (statusHandler != null) statusHandler.setLaneStatus(scheduler.describe());
+    }
+
+    /** Per-lane job timeout from settings; the lane stands for the tool (JVM tools, adb, native binaries). */
+    private static long timeoutMillis(JobLane lane, SettingsConfig settings) {
+        int minutes = switch (lane) {
+            case JVM -> settings.getJvmJobTimeoutMinutes();
+            case NATIVE -> settings.getNativeJobTimeoutMinutes();
+            case ADB -> settings.getAdbJobTimeoutMinutes();
+        };
+        return TimeUnit.MINUTES.toMillis(minutes);
+    }
+
+    private static String formatMinutes(long millis) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        return minutes == 1 ? "1 minute" : minutes + " minutes";
+    }
+
+    private static Map<JobLane, Integer> laneConcurrency(SettingsConfig settings) {
+        Map<JobLane, Integer> concurrency = new EnumMap<>(JobLane.class);
+        concurrency.put(JobLane.JVM, settings.getJvmLaneThreads());
+        concurrency.put(JobLane.NATIVE, settings.getNativeLaneThreads());
+        concurrency.put(JobLane.ADB, settings.getAdbLaneThreads());
+        return concurrency;
+    }
+
     private void runOnUi(Runnable action) {
-        Platform.runLater(action);
+        UiUpdatePump.getInstance().post(action);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.apkutility.app.services.executor;
+
+import org.apkutility.app.services.UserNotifier;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of a job submitted through {@link CommandExecutor#submit}.
+ * <p>
+ * {@code stdout} and {@code stderr} hold the lines as printed; in-process tasks have a single stream and report
+ * it as stdout. When the job printed more than the spill threshold, both lists stop there, {@link #isTruncated()}
+ * is true and {@code spillFile} holds the rest of both streams. {@code exitCode} is -1 when the job did not run
+ * to an exit status (stopped, refused, or failed with {@code error}).
+ */
+public record CommandResult(String description, Job.State state, int exitCode,
+                            List<String> stdout, List<String> stderr, Path spillFile, Exception error,
+                            long waitMillis, long runMillis, long cpuMillis) {
+
+    /**
+     * Result of a job that never ran: refused on invalid input (with {@code error} saying why), declined by
+     * the user, or submitted after the executor shut down.
+     */
+    public static CommandResult notRun(String description, Exception error) {
+        return new CommandResult(description, Job.State.CANCELLED, -1, List.of(), List.of(), null, error, 0, 0, 0);
+    }
+
+    /**
+     * The one error contract of the services: input refused before anything is scheduled is shown to the user
+     * through {@code notifier}, and the returned future completes normally with a {@link #notRun} result whose
+     * error says why. Like {@link CommandExecutor#submit}, it never completes exceptionally.
+     */
+    public static CompletableFuture<CommandResult> invalid(UserNotifier notifier, String message) {
+        notifier.showError(message);
+        return CompletableFuture.completedFuture(notRun(message, new IllegalArgumentException(message)));
+    }
+
+    public boolean isSuccess() {
+        return state == Job.State.FINISHED && error == null && exitCode == 0;
+    }
+
+    /** True when output past the spill threshold went to {@code spillFile} instead of the captured lists. */
+    public boolean isTruncated() {
+        return spillFile != null;
+    }
+
+    /** First stdout line starting with {@code prefix}, without the prefix, or null. */
+    public String firstLineAfter(String prefix) {
+        for (String line : stdout) {
+            if (line.startsWith(prefix)) return line.substring(prefix.length());
+        }
+        return null;
+    }
+}
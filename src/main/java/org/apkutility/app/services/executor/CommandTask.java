@@ -0,0 +1,11 @@
+package org.apkutility.app.services.executor;
+
+import java.util.function.Consumer;
+
+/**
+ * A unit of work scheduled by {@link CommandExecutor}: pushes output lines and returns an exit code.
+ */
+@FunctionalInterface
+public interface CommandTask {
+    int run(Consumer<String> output) throws Exception;
+}
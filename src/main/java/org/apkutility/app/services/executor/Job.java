@@ -0,0 +1,209 @@
+package org.apkutility.app.services.executor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle of a job submitted to {@link CommandExecutor}, used to stop it.
+ * <p>
+ * Stopping a job that is still queued makes it skip when its turn comes. Stopping a running job kills every
+ * process it started through {@link CommandExecutor#runProcess} (or a warm worker it is using) together with
+ * all their descendants, and interrupts its thread for in-process work. A job with a timeout is stopped the
+ * same way once it has run that long.
+ * <p>
+ * A job also keeps its timings and CPU use: the CPU time of its own thread plus that of its processes, sampled
+ * every {@value #CPU_SAMPLE_MILLIS} ms while they run and once more when each one's output ends.
+ */
+public final class Job {
+
+    public enum State { QUEUED, RUNNING, FINISHED, CANCELLED, TIMED_OUT }
+
+    private static final long CPU_SAMPLE_MILLIS = 500;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final ThreadLocal<Job> CURRENT = new ThreadLocal<>();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long id = IDS.incrementAndGet();
+    private final String description;
+    private final JobLane lane;
+    private final long timeoutMillis;
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> processCpuNanos = new ConcurrentHashMap<>();
+    private final long submittedAt = System.nanoTime();
+    private volatile State state = State.QUEUED;
+    private Thread worker;
+    private ScheduledFuture<?> timer;
+    private ScheduledFuture<?> sampler;
+    private volatile long startedAt;
+    private volatile long doneAt;
+    private long threadCpuStart = -1;
+    private volatile long threadCpuNanos;
+
+    Job(String description, JobLane lane, long timeoutMillis) {
+        this.description = description;
+        this.lane = lane;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** The job running on the calling thread, or null outside of a job. */
+    public static Job current() {
+        return CURRENT.get();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public JobLane getLane() {
+        return lane;
+    }
+
+    /** 0 when the job has no timeout. */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isStopped() {
+        State current = state;
+        return current == State.CANCELLED || current == State.TIMED_OUT;
+    }
+
+    /** Stops the job; false when it had already finished or been stopped. */
+    public boolean cancel() {
+        return stop(State.CANCELLED);
+    }
+
+    /**
+     * Ties a process to this job for as long as it runs, so stopping the job kills it. A process attached to
+     * a job that is already stopped is killed right away.
+     */
+    public void attach(Process process) {
+        synchronized (this) {
+            if (!isStopped()) {
+                processes.add(process);
+                return;
+            }
+        }
+        destroyTree(process);
+    }
+
+    public void detach(Process process) {
+        processes.remove(process);
+    }
+
+    /**
+     * Runs {@code task} on the calling thread as part of this job, for work the job fans out to its own helper
+     * threads: while it runs, {@link #current()} is this job there too, so processes the task starts through
+     * {@link CommandExecutor#runProcess} are attached to the job and killed when it is stopped.
+     */
+    public <T> T runAs(Callable<T> task) throws Exception {
+        Job previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    /** Time spent queued behind other jobs of the lane. */
+    public long getWaitMillis() {
+        long started = startedAt;
+        return TimeUnit.NANOSECONDS.toMillis((started != 0 ? started : System.nanoTime()) - submittedAt);
+    }
+
+    /** Time spent running, so far or in total. */
+    public long getRunMillis() {
+        long started = startedAt;
+        if (started == 0) return 0;
+        long done = doneAt;
+        return TimeUnit.NANOSECONDS.toMillis((done != 0 ? done : System.nanoTime()) - started);
+    }
+
+    /** CPU time of the job's thread and processes; final once the job is done. */
+    public long getCpuMillis() {
+        long total = threadCpuNanos;
+        for (long nanos : processCpuNanos.values()) total += nanos;
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    /** Marks the job running on the calling thread; false when it was stopped while queued. */
+    synchronized boolean begin() {
+        if (isStopped()) return false;
+        state = State.RUNNING;
+        worker = Thread.currentThread();
+        CURRENT.set(this);
+        startedAt = System.nanoTime();
+        if (THREADS.isCurrentThreadCpuTimeSupported()) threadCpuStart = THREADS.getCurrentThreadCpuTime();
+        if (timeoutMillis > 0) {
+            timer = WATCHDOG.schedule(() -> stop(State.TIMED_OUT), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        sampler = WATCHDOG.scheduleAtFixedRate(() -> processes.forEach(this::sampleCpu),
+                CPU_SAMPLE_MILLIS, CPU_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /** Fixes the run time and CPU use; called on the job's thread when its work returns. */
+    synchronized void done() {
+        if (doneAt != 0) return;
+        doneAt = System.nanoTime();
+        if (sampler != null) sampler.cancel(false);
+        if (threadCpuStart >= 0) threadCpuNanos = THREADS.getCurrentThreadCpuTime() - threadCpuStart;
+    }
+
+    /** Called on the job's thread once it is done, whether it finished or was stopped. */
+    synchronized void end() {
+        done();
+        if (timer != null) timer.cancel(false);
+        CURRENT.remove();
+        worker = null;
+        if (state == State.RUNNING) state = State.FINISHED;
+        // An interrupt from stop() must not leak into the next job on this pool thread
+        Thread.interrupted();
+    }
+
+    private boolean stop(State reason) {
+        synchronized (this) {
+            if (state == State.FINISHED || isStopped()) return false;
+            state = reason;
+            if (worker != null) worker.interrupt();
+        }
+        processes.forEach(Job::destroyTree);
+        return true;
+    }
+
+    // A process's CPU time is only readable while it exists, so keep the highest value seen
+    void sampleCpu(Process process) {
+        process.info().totalCpuDuration()
+                .ifPresent(cpu -> processCpuNanos.merge(process.pid(), cpu.toNanos(), Math::max));
+    }
+
+    // Children first: once the parent is gone they are re-parented and no longer show up as its descendants
+    private static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
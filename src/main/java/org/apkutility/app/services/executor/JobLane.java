@@ -0,0 +1,53 @@
+package org.apkutility.app.services.executor;
+
+import org.apkutility.app.services.SettingsManager;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Execution lanes used by the {@link JobScheduler}.
+ * Each lane has its own worker pool so cheap native queries never queue behind long JVM builds.
+ */
+public enum JobLane {
+    JVM("JVM"),
+    NATIVE("Native"),
+    ADB("ADB");
+
+    private final String displayName;
+
+    JobLane(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Picks a lane from the executable of a command line.
+     * java/apktool/APKEditor/apksigner jobs go to JVM, adb to ADB, everything else (aapt, zipalign...) to NATIVE.
+     */
+    public static JobLane forCommand(List<String> command) {
+        if (command == null || command.isEmpty()) return NATIVE;
+
+        String executable = command.get(0);
+        String name = new File(executable).getName().toLowerCase(Locale.ENGLISH);
+        if (name.endsWith(".exe")) name = name.substring(0, name.length() - 4);
+
+        if (name.equals("java") || name.equals("javaw") || command.contains("-jar") || isConfiguredJava(executable)) {
+            return JVM;
+        }
+        if (name.equals("adb")) return ADB;
+        return NATIVE;
+    }
+
+    private static boolean isConfiguredJava(String executable) {
+        try {
+            return executable.equals(SettingsManager.getInstance().getSettings().getJavaPath());
+        } catch (Exception ignored) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.apkutility.app.services.executor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-lane job scheduler.
+ * Every {@link JobLane} owns a fixed-size pool with its own queue, so lanes never block each other
+ * and independent jobs inside a lane run concurrently up to the configured limit.
+ */
+public class JobScheduler {
+
+    private final Map<JobLane, Lane> lanes = new EnumMap<>(JobLane.class);
+    private volatile Runnable statsListener;
+
+    public JobScheduler(Map<JobLane, Integer> concurrency) {
+        for (JobLane lane : JobLane.values()) {
+            lanes.put(lane, new Lane(lane, concurrency.getOrDefault(lane, 1)));
+        }
+    }
+
+    /** @throws RejectedExecutionException after {@link #shutdownNow()} */
+    public void submit(JobLane lane, Runnable job) {
+        lanes.get(lane).submit(job);
+    }
+
+    public void setConcurrency(JobLane lane, int threads) {
+        lanes.get(lane).resize(threads);
+        notifyStats();
+    }
+
+    public int getConcurrency(JobLane lane) {
+        return lanes.get(lane).pool.getMaximumPoolSize();
+    }
+
+    public void setStatsListener(Runnable statsListener) {
+        this.statsListener = statsListener;
+    }
+
+    public List<LaneStats> snapshot() {
+        List<LaneStats> stats = new ArrayList<>();
+        for (Lane lane : lanes.values()) stats.add(lane.stats());
+        return stats;
+    }
+
+    /**
+     * Short status bar text, e.g. "JVM 1/2 · 3 queued (wait 4.1s) | Native 2/8".
+     * Idle lanes are omitted.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (LaneStats stats : snapshot()) {
+            if (stats.running() == 0 && stats.queued() == 0) continue;
+            if (sb.length() > 0) sb.append(" | ");
+            sb.append(stats.lane().getDisplayName()).append(' ')
+              .append(stats.running()).append('/').append(stats.threads());
+            if (stats.queued() > 0) {
+                sb.append(" · ").append(stats.queued()).append(" queued (wait ")
+                  .append(formatSeconds(stats.oldestWaitMillis())).append(')');
+            } else if (stats.lastWaitMillis() > 0) {
+                sb.append(" · waited ").append(formatSeconds(stats.lastWaitMillis()));
+            }
+        }
+        return sb.length() == 0 ? "Lanes idle" : sb.toString();
+    }
+
+    public void shutdownNow() {
+        for (Lane lane : lanes.values()) lane.pool.shutdownNow();
+    }
+
+    private void notifyStats() {
+        Runnable listener = statsListener;
+        if (listener != null) listener.run();
+    }
+
+    private static String formatSeconds(long millis) {
+        return String.format("%.1fs", millis / 1000.0);
+    }
+
+    public record LaneStats(JobLane lane, int threads, int running, int queued,
+                            long oldestWaitMillis, long lastWaitMillis) {
+    }
+
+    private final class Lane {
+        private final JobLane lane;
+        private final ThreadPoolExecutor pool;
+        private final ConcurrentLinkedQueue<Long> pendingSince = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong lastWaitMillis = new AtomicLong();
+
+        Lane(JobLane lane, int threads) {
+            this.lane = lane;
+            int size = Math.max(1, threads);
+            this.pool = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), namedThreads(lane));
+            this.pool.allowCoreThreadTimeOut(true);
+        }
+
+        void submit(Runnable job) {
+            Long enqueuedAt = System.currentTimeMillis();
+            pendingSince.add(enqueuedAt);
+            try {
+                pool.execute(() -> {
+                    pendingSince.remove(enqueuedAt);
+                    lastWaitMillis.set(System.currentTimeMillis() - enqueuedAt);
+                    running.incrementAndGet();
+                    notifyStats();
+                    try {
+                        job.run();
+                    } finally {
+                        running.decrementAndGet();
+                        notifyStats();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingSince.remove(enqueuedAt);
+                throw e;
+            }
+            notifyStats();
+        }
+
+        void resize(int threads) {
+            int size = Math.max(1, threads);
+            if (size > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(size);
+                pool.setCorePoolSize(size);
+            } else {
+                pool.setCorePoolSize(size);
+                pool.setMaximumPoolSize(size);
+            }
+        }
+
+        LaneStats stats() {
+            Long oldest = pendingSince.peek();
+            long oldestWait = oldest == null ? 0 : System.currentTimeMillis() - oldest;
+            return new LaneStats(lane, pool.getMaximumPoolSize(), running.get(), pool.getQueue().size(),
+                    oldestWait, lastWaitMillis.get());
+        }
+    }
+
+    private static ThreadFactory namedThreads(JobLane lane) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, lane.name().toLowerCase() + "-lane-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
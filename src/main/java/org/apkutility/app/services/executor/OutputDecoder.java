@@ -0,0 +1,107 @@
+package org.apkutility.app.services.executor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Splits a child process's output into lines, reading raw bytes into one reusable buffer and decoding them
+ * as UTF-8 incrementally.
+ * <p>
+ * Line breaks follow {@link java.io.BufferedReader#readLine()}: {@code \n}, {@code \r} or {@code \r\n}.
+ * Unlike an {@code InputStreamReader} on the platform charset, the result does not depend on the OS locale,
+ * and binary output cannot break it: malformed bytes decode to U+FFFD, and a "line" that never ends is cut
+ * every {@link #MAX_LINE_LENGTH} characters, so memory use is fixed however much a tool prints.
+ */
+final class OutputDecoder {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder line = new StringBuilder();
+    private final Consumer<String> output;
+    private boolean skipLineFeed;
+
+    private OutputDecoder(Consumer<String> output) {
+        this.output = output;
+    }
+
+    /** Reads {@code in} to the end, passing each line to {@code output}. Does not close the stream. */
+    static void readLines(InputStream in, Consumer<String> output) throws IOException {
+        new OutputDecoder(output).read(in);
+    }
+
+    private void read(InputStream in) throws IOException {
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            // Reading into the backing array directly: a process pipe is not a channel, so a direct
+            // buffer would only add a copy
+            int read = in.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                bytes.position(bytes.position() + read);
+            }
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                drainChars();
+            } while (result.isOverflow());
+            bytes.compact();
+        }
+        CoderResult result;
+        do {
+            result = decoder.flush(chars);
+            drainChars();
+        } while (result.isOverflow());
+        if (!line.isEmpty()) emitLine();
+    }
+
+    private void drainChars() {
+        chars.flip();
+        char[] array = chars.array();
+        int end = chars.arrayOffset() + chars.limit();
+        int start = chars.arrayOffset() + chars.position();
+        // Copy runs of ordinary characters at once rather than one append per character
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            char c = array[i];
+            if (c != '\n' && c != '\r') {
+                if (skipLineFeed) skipLineFeed = false;
+                if (line.length() + (i - runStart) >= MAX_LINE_LENGTH) {
+                    line.append(array, runStart, i - runStart);
+                    emitLine();
+                    runStart = i;
+                }
+                continue;
+            }
+            line.append(array, runStart, i - runStart);
+            runStart = i + 1;
+            if (c == '\n' && skipLineFeed) {
+                skipLineFeed = false;
+                continue;
+            }
+            skipLineFeed = c == '\r';
+            emitLine();
+        }
+        line.append(array, runStart, end - runStart);
+        chars.clear();
+    }
+
+    private void emitLine() {
+        output.accept(line.toString());
+        line.setLength(0);
+    }
+}
@@ -0,0 +1,139 @@
+package org.apkutility.app.services.executor;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Random access to the lines of a large UTF-8 text file, such as spilled job output, without reading it onto
+ * the heap.
+ * <p>
+ * The file is memory-mapped in 1 GB segments. Opening it scans the mapping once and records the offset of
+ * every {@value #INDEX_STRIDE}th line, so the index costs 8 bytes per {@value #INDEX_STRIDE} lines; a line is
+ * found by skipping forward from the nearest recorded offset. Lines longer than {@link #MAX_LINE_BYTES} are
+ * cut off with an ellipsis. Instances are safe for use from one thread at a time.
+ */
+public final class OutputPager {
+
+    static final int INDEX_STRIDE = 64;
+    static final int MAX_LINE_BYTES = 16 * 1024;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final Path file;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private final long[] index;
+    private final int lineCount;
+    private final byte[] lineBytes = new byte[MAX_LINE_BYTES];
+
+    // Start of the line last looked up, so scrolling forward does not rescan from the index
+    private int cursorLine = -1;
+    private long cursorOffset;
+
+    private OutputPager(Path file, long size, MappedByteBuffer[] segments, long[] index, int lineCount) {
+        this.file = file;
+        this.size = size;
+        this.segments = segments;
+        this.index = index;
+        this.lineCount = lineCount;
+    }
+
+    public static OutputPager open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+            }
+
+            long[] index = new long[16];
+            long lines = 0;
+            long lineStart = 0;
+            for (int s = 0; s < segments.length; s++) {
+                MappedByteBuffer segment = segments[s];
+                long base = (long) s << SEGMENT_SHIFT;
+                int limit = segment.limit();
+                for (int i = 0; i < limit; i++) {
+                    if (segment.get(i) != '\n') continue;
+                    if (lines % INDEX_STRIDE == 0) {
+                        int slot = (int) (lines / INDEX_STRIDE);
+                        if (slot == index.length) index = Arrays.copyOf(index, index.length * 2);
+                        index[slot] = lineStart;
+                    }
+                    lines++;
+                    lineStart = base + i + 1;
+                }
+            }
+            // A last line without a line break
+            if (lineStart < size) {
+                if (lines % INDEX_STRIDE == 0) {
+                    int slot = (int) (lines / INDEX_STRIDE);
+                    if (slot == index.length) index = Arrays.copyOf(index, index.length + 1);
+                    index[slot] = lineStart;
+                }
+                lines++;
+            }
+            if (lines > Integer.MAX_VALUE) throw new IOException(file + " has more lines than can be paged");
+            return new OutputPager(file, size, segments, index, (int) lines);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public String getLine(int line) {
+        if (line < 0 || line >= lineCount) throw new IndexOutOfBoundsException(line);
+
+        long offset;
+        int current;
+        if (cursorLine >= 0 && cursorLine <= line && line - cursorLine < INDEX_STRIDE) {
+            offset = cursorOffset;
+            current = cursorLine;
+        } else {
+            offset = index[line / INDEX_STRIDE];
+            current = line / INDEX_STRIDE * INDEX_STRIDE;
+        }
+        while (current < line) {
+            offset = lineEnd(offset) + 1;
+            current++;
+        }
+        cursorLine = line;
+        cursorOffset = offset;
+
+        long end = lineEnd(offset);
+        if (end > offset && byteAt(end - 1) == '\r') end--;
+        int length = (int) Math.min(end - offset, MAX_LINE_BYTES);
+        for (int i = 0; i < length; i++) {
+            lineBytes[i] = byteAt(offset + i);
+        }
+        String text = new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+        return end - offset > MAX_LINE_BYTES ? text + "…" : text;
+    }
+
+    // Offset of the line break ending the line at offset, or the file size for the last line
+    private long lineEnd(long offset) {
+        for (long i = offset; i < size; i++) {
+            if (byteAt(i) == '\n') return i;
+        }
+        return size;
+    }
+
+    private byte byteAt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & (SEGMENT_SIZE - 1)));
+    }
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,109 +19,395 @@ public class ApkInfoParser {
         public List<String> locales = new ArrayList<>();
         public List<String> dexBlocks = new ArrayList<>();
         public String certificateInfo = "";
+
+        /** Folds one parser event into this model. */
+        public void apply(Event event) {
+            switch (event) {
+                case GeneralField field -> generalInfo.put(field.key(), field.value());
+                case Permission permission -> permissions.add(permission.name());
+                case Configuration configuration -> configurations.add(configuration.value());
+                case Language language -> languages.add(language.value());
+                case Locale locale -> locales.add(locale.value());
+                case DexBlock dex -> {
+                    if (dex.index() < dexBlocks.size()) dexBlocks.set(dex.index(), dex.text());
+                    else dexBlocks.add(dex.text());
+                }
+                case Certificate certificate -> certificateInfo = certificate.text();
+            }
+        }
+    }
+
+    /**
+     * What the streaming parser recognised. Blocks (dex, certificate) are re-emitted with their text so far
+     * at the end of each chunk that added lines to them, so a view can show them before the block ends.
+     */
+    public sealed interface Event permits GeneralField, Permission, Configuration, Language, Locale, DexBlock, Certificate {
+    }
+
+    public record GeneralField(String key, String value) implements Event {
+    }
+
+    public record Permission(String name) implements Event {
+    }
+
+    public record Configuration(String value) implements Event {
+    }
+
+    public record Language(String value) implements Event {
     }
 
-    // Regex patterns
+    public record Locale(String value) implements Event {
+    }
+
+    /** @param index position of the block among the dex blocks, the same on every update of that block */
+    public record DexBlock(int index, String text) implements Event {
+    }
+
+    public record Certificate(String text) implements Event {
+    }
+
+    // Regex patterns, used by parseWithRegex
     private static final Pattern KEY_VALUE_PATTERN = Pattern.compile("^([^=\\s]+)=\"([^\"]*)\"$");
     private static final Pattern LIST_HEADER_PATTERN = Pattern.compile("^(.+)\\s+\\[\\s*count\\s+(\\d+)\\s*\\]$");
     private static final Pattern LIST_ITEM_PATTERN = Pattern.compile("^\\s+\\d+\\)\\s+(.+)$");
     private static final Pattern DEX_HEADER_PATTERN = Pattern.compile("^Name=\"(.+\\.dex)\"$");
     private static final Pattern CERT_HEADER_PATTERN = Pattern.compile("^Certificates=\"(\\d+)\"$");
 
+    private static final String DEX_HEADER_PREFIX = "Name=\"";
+    private static final String CERT_HEADER_PREFIX = "Certificates=\"";
+
+    private enum Section {
+        PERMISSIONS, CONFIGURATIONS, LANGUAGES, LOCALES, DEX, CERT, OTHER
+    }
+
     public static ApkInfo parse(String rawOutput) {
+        return parse(rawOutput, false);
+    }
+
+    /**
+     * Same as {@link #parse(String)} on the original regular expressions. Kept as the baseline in the benchmarks.
+     */
+    public static ApkInfo parseWithRegex(String rawOutput) {
+        return parse(rawOutput, true);
+    }
+
+    private static ApkInfo parse(String rawOutput, boolean regex) {
         ApkInfo info = new ApkInfo();
         if (rawOutput == null || rawOutput.isEmpty()) return info;
 
-        String[] lines = rawOutput.split("\\r?\\n");
+        StreamParser parser = new StreamParser(info::apply, regex);
+        parser.feed(rawOutput);
+        parser.finish();
+        return info;
+    }
 
-        // State parsing
-        String currentSection = null;
-        StringBuilder currentBlock = new StringBuilder();
+    /**
+     * Push parser for output arriving in chunks: lines split across chunks are carried over, and events are
+     * emitted as soon as a line is complete, so nothing is re-parsed when more output arrives.
+     * <p>
+     * Lines are classified by scanning the chunk in place, so only the values that end up in an event are
+     * copied into strings; the result is the same as matching the regular expressions above.
+     * Not thread-safe; feed it from one thread (the FX thread in the Info tab).
+     */
+    public static final class StreamParser {
+        private final Consumer<Event> events;
+        private final boolean regex;
+        private final StringBuilder partialLine = new StringBuilder();
+        private final StringBuilder currentBlock = new StringBuilder();
+        private Section currentSection = null;
+        private int dexBlocks = 0;
+        // Lines were added to currentBlock since it was last emitted
+        private boolean blockPending;
 
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty()) continue;
+        public StreamParser(Consumer<Event> events) {
+            this(events, false);
+        }
+
+        private StreamParser(Consumer<Event> events, boolean regex) {
+            this.events = events;
+            this.regex = regex;
+        }
+
+        public void feed(CharSequence chunk) {
+            int start = 0;
+            int end;
+            while ((end = indexOfLineBreak(chunk, start)) >= 0) {
+                if (partialLine.length() > 0) {
+                    partialLine.append(chunk, start, end);
+                    terminatedLine(partialLine, 0, partialLine.length());
+                    partialLine.setLength(0);
+                } else {
+                    terminatedLine(chunk, start, end);
+                }
+                start = end + 1;
+            }
+            partialLine.append(chunk, start, chunk.length());
+            emitBlock();
+        }
+
+        /** Processes a last line without a line break and emits the block still open. */
+        public void finish() {
+            if (partialLine.length() > 0) {
+                line(partialLine, 0, partialLine.length());
+                partialLine.setLength(0);
+            }
+            emitBlock();
+        }
+
+        // Line breaks are \r?\n; a lone \r, even at the end of the output, stays part of the line
+        private void terminatedLine(CharSequence text, int from, int to) {
+            line(text, from, to > from && text.charAt(to - 1) == '\r' ? to - 1 : to);
+        }
+
+        private void line(CharSequence text, int from, int to) {
+            if (regex) {
+                regexLine(text.subSequence(from, to).toString());
+                return;
+            }
+
+            int start = from;
+            int end = to;
+            while (start < end && text.charAt(start) <= ' ') start++;
+            while (end > start && text.charAt(end - 1) <= ' ') end--;
+            if (start == end) return;
 
             // 1. Check for specific block headers that change state
-            Matcher dexMatcher = DEX_HEADER_PATTERN.matcher(line.trim()); // trim again just in case
-            if (dexMatcher.matches()) {
-                saveBlock(info, currentSection, currentBlock);
-                currentSection = "DEX";
+            if (isDexHeader(text, start, end)) {
+                startBlock(Section.DEX, text, from, to);
+                return;
+            }
+            if (isCertHeader(text, start, end)) {
+                startBlock(Section.CERT, text, from, to);
+                return;
+            }
+
+            // 2. Check for List Headers (e.g., uses-permission [ count 10])
+            int nameEnd = listHeaderNameEnd(text, start, end);
+            if (nameEnd >= 0) {
+                while (text.charAt(nameEnd - 1) <= ' ') nameEnd--;
+                emitBlock();
+                currentSection = section(text, start, nameEnd);
                 currentBlock.setLength(0);
-                currentBlock.append(line).append("\n");
-                continue;
+                return;
             }
 
-            Matcher certMatcher = CERT_HEADER_PATTERN.matcher(line.trim());
+            // 3. Handle Content based on current section, 4. or General Info (Key="Value")
+            if (currentSection != null) {
+                content(text, from, to);
+            } else {
+                keyValue(text, start, end);
+            }
+        }
+
+        private void regexLine(String line) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) return;
+
+            Matcher dexMatcher = DEX_HEADER_PATTERN.matcher(trimmed);
+            if (dexMatcher.matches()) {
+                startBlock(Section.DEX, line, 0, line.length());
+                return;
+            }
+
+            Matcher certMatcher = CERT_HEADER_PATTERN.matcher(trimmed);
             if (certMatcher.matches()) {
-                saveBlock(info, currentSection, currentBlock);
-                currentSection = "CERT";
-                currentBlock.setLength(0);
-                currentBlock.append(line).append("\n");
-                continue;
+                startBlock(Section.CERT, line, 0, line.length());
+                return;
             }
 
-            // 2. Check for List Headers (e.g., uses-permission [ count 10])
-            Matcher listHeaderMatcher = LIST_HEADER_PATTERN.matcher(line.trim());
+            Matcher listHeaderMatcher = LIST_HEADER_PATTERN.matcher(trimmed);
             if (listHeaderMatcher.matches()) {
-                saveBlock(info, currentSection, currentBlock);
-                currentSection = listHeaderMatcher.group(1).trim(); // e.g., "uses-permission"
+                String name = listHeaderMatcher.group(1).trim(); // e.g., "uses-permission"
+                emitBlock();
+                currentSection = section(name, 0, name.length());
                 currentBlock.setLength(0);
-                continue;
+                return;
             }
 
-            // 3. Handle Content based on current section
             if (currentSection != null) {
-                switch (currentSection) {
-                    case "uses-permission":
-                        extractListItem(line, info.permissions);
-                        break;
-                    case "configurations":
-                        extractListItem(line, info.configurations);
-                        break;
-                    case "languages":
-                        extractListItem(line, info.languages);
-                        break;
-                    case "locales":
-                        extractListItem(line, info.locales);
-                        break;
-                    case "DEX":
-                    case "CERT":
-                        currentBlock.append(line).append("\n");
-                        break;
-                    default:
-                        // Unknown list or block
-                        break;
-                }
+                content(line, 0, line.length());
             } else {
-                // 4. Default / General Info (Key="Value")
                 Matcher kvMatcher = KEY_VALUE_PATTERN.matcher(trimmed);
                 if (kvMatcher.matches()) {
-                    info.generalInfo.put(kvMatcher.group(1), kvMatcher.group(2));
+                    events.accept(new GeneralField(kvMatcher.group(1), kvMatcher.group(2)));
                 }
             }
         }
 
-        // Save any remaining block at the end
-        saveBlock(info, currentSection, currentBlock);
+        private void content(CharSequence line, int from, int to) {
+            switch (currentSection) {
+                case PERMISSIONS -> listItem(line, from, to, Permission::new);
+                case CONFIGURATIONS -> listItem(line, from, to, Configuration::new);
+                case LANGUAGES -> listItem(line, from, to, Language::new);
+                case LOCALES -> listItem(line, from, to, Locale::new);
+                case DEX, CERT -> appendToBlock(line, from, to);
+                case OTHER -> {
+                    // Unknown list or block
+                }
+            }
+        }
 
-        return info;
-    }
+        private void startBlock(Section section, CharSequence header, int from, int to) {
+            emitBlock();
+            currentSection = section;
+            currentBlock.setLength(0);
+            appendToBlock(header, from, to);
+        }
 
-    private static void saveBlock(ApkInfo info, String section, StringBuilder block) {
-        if (section == null || block.length() == 0) return;
+        private void appendToBlock(CharSequence line, int from, int to) {
+            // A block opened by a "DEX [ count N]" list header has no header line; it becomes a block on its first line
+            if (currentSection == Section.DEX && currentBlock.length() == 0) dexBlocks++;
+            currentBlock.append(line, from, to).append("\n");
+            blockPending = true;
+        }
 
-        if (section.equals("DEX")) {
-            info.dexBlocks.add(block.toString());
-        } else if (section.equals("CERT")) {
-            info.certificateInfo = block.toString();
+        // Copies the block text once per chunk (or when the block ends) rather than once per line
+        private void emitBlock() {
+            if (!blockPending) return;
+            blockPending = false;
+            String text = currentBlock.toString();
+            events.accept(currentSection == Section.DEX ? new DexBlock(dexBlocks - 1, text) : new Certificate(text));
         }
-    }
 
-    private static void extractListItem(String line, List<String> targetList) {
-        Matcher m = LIST_ITEM_PATTERN.matcher(line);
-        if (m.matches()) {
-            targetList.add(m.group(1).trim());
+        private void listItem(CharSequence line, int from, int to, Function<String, Event> event) {
+            if (regex) {
+                Matcher m = LIST_ITEM_PATTERN.matcher(line);
+                if (m.matches()) {
+                    events.accept(event.apply(m.group(1).trim()));
+                }
+                return;
+            }
+
+            // \s+ \d+ ) \s+ (.+)
+            int i = skipSpaces(line, from, to);
+            if (i == from) return;
+            int digits = i;
+            while (i < to && isDigit(line.charAt(i))) i++;
+            if (i == digits || i == to || line.charAt(i) != ')') return;
+            int spaces = ++i;
+            i = skipSpaces(line, spaces, to);
+            if (i == spaces || to - spaces < 2) return;
+            // The item keeps at least one character even when the rest of the line is blank
+            int start = Math.min(i, to - 1);
+            if (hasLineTerminator(line, start, to)) return;
+
+            int end = to;
+            while (start < end && line.charAt(start) <= ' ') start++;
+            while (end > start && line.charAt(end - 1) <= ' ') end--;
+            events.accept(event.apply(line.subSequence(start, end).toString()));
+        }
+
+        // ([^=\s]+)="([^"]*)"
+        private void keyValue(CharSequence line, int start, int end) {
+            int i = start;
+            while (i < end && line.charAt(i) != '=' && !isSpace(line.charAt(i))) i++;
+            if (i == start || end - i < 3 || line.charAt(i) != '=' || line.charAt(i + 1) != '"') return;
+            if (line.charAt(end - 1) != '"') return;
+            for (int j = i + 2; j < end - 1; j++) {
+                if (line.charAt(j) == '"') return;
+            }
+            events.accept(new GeneralField(line.subSequence(start, i).toString(), line.subSequence(i + 2, end - 1).toString()));
+        }
+
+        // Name="(.+\.dex)"
+        private static boolean isDexHeader(CharSequence line, int start, int end) {
+            int valueStart = start + DEX_HEADER_PREFIX.length();
+            return end - valueStart >= ".dex\"".length() + 1
+                    && startsWith(line, start, DEX_HEADER_PREFIX)
+                    && startsWith(line, end - 5, ".dex\"")
+                    && !hasLineTerminator(line, valueStart, end - 5);
+        }
+
+        // Certificates="(\d+)"
+        private static boolean isCertHeader(CharSequence line, int start, int end) {
+            int valueStart = start + CERT_HEADER_PREFIX.length();
+            if (end - valueStart < 2 || !startsWith(line, start, CERT_HEADER_PREFIX) || line.charAt(end - 1) != '"') {
+                return false;
+            }
+            for (int i = valueStart; i < end - 1; i++) {
+                if (!isDigit(line.charAt(i))) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Matches {@code (.+)\s+\[\s*count\s+(\d+)\s*\]} from the right, where every part has a single
+         * possible extent. Returns where the name ends (before the whitespace ahead of the bracket), or -1.
+         */
+        private static int listHeaderNameEnd(CharSequence line, int start, int end) {
+            int i = end - 1;
+            if (line.charAt(i) != ']') return -1;
+            i = skipSpacesBack(line, start, i);
+            int digitsEnd = i;
+            while (i > start && isDigit(line.charAt(i - 1))) i--;
+            if (i == digitsEnd) return -1;
+            int spacesEnd = i;
+            i = skipSpacesBack(line, start, i);
+            if (i == spacesEnd || i - start < 5 || !startsWith(line, i - 5, "count")) return -1;
+            i = skipSpacesBack(line, start, i - 5);
+            if (i == start || line.charAt(i - 1) != '[') return -1;
+            int bracket = i - 1;
+            i = skipSpacesBack(line, start, bracket);
+            if (i == bracket || i == start || hasLineTerminator(line, start, i)) return -1;
+            return i;
+        }
+
+        private static Section section(CharSequence name, int start, int end) {
+            if (equals(name, start, end, "uses-permission")) return Section.PERMISSIONS;
+            if (equals(name, start, end, "configurations")) return Section.CONFIGURATIONS;
+            if (equals(name, start, end, "languages")) return Section.LANGUAGES;
+            if (equals(name, start, end, "locales")) return Section.LOCALES;
+            if (equals(name, start, end, "DEX")) return Section.DEX;
+            if (equals(name, start, end, "CERT")) return Section.CERT;
+            return Section.OTHER;
+        }
+
+        private static int indexOfLineBreak(CharSequence text, int from) {
+            if (text instanceof String string) return string.indexOf('\n', from);
+            for (int i = from; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') return i;
+            }
+            return -1;
+        }
+
+        private static int skipSpaces(CharSequence text, int from, int to) {
+            while (from < to && isSpace(text.charAt(from))) from++;
+            return from;
+        }
+
+        private static int skipSpacesBack(CharSequence text, int from, int to) {
+            while (to > from && isSpace(text.charAt(to - 1))) to--;
+            return to;
+        }
+
+        private static boolean startsWith(CharSequence text, int offset, String prefix) {
+            if (offset < 0 || offset + prefix.length() > text.length()) return false;
+            for (int i = 0; i < prefix.length(); i++) {
+                if (text.charAt(offset + i) != prefix.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private static boolean equals(CharSequence text, int start, int end, String value) {
+            return end - start == value.length() && startsWith(text, start, value);
+        }
+
+        // What \s matches without UNICODE_CHARACTER_CLASS
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        // Characters '.' does not match
+        private static boolean hasLineTerminator(CharSequence text, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return true;
+            }
+            return false;
         }
     }
-}
\ No newline at end of file
+}
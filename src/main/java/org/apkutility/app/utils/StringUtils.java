@@ -12,4 +12,8 @@ public final class StringUtils {
     public static boolean notBlank(String str) {
         return str != null && !str.trim().isEmpty();
     }
+
+    public static String nullToEmpty(String str) {
+        return str != null ? str : "";
+    }
 }
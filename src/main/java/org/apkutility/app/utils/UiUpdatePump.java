@@ -0,0 +1,174 @@
+package org.apkutility.app.utils;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Funnels UI updates from worker threads into the JavaFX pulse instead of one {@link Platform#runLater} each.
+ * <p>
+ * Log text and actions go into one lock-free FIFO queue; updates posted under a key (status text, progress)
+ * keep only the latest value. An {@link AnimationTimer} drains everything once per frame: consecutive log
+ * messages are joined into a single append, and each key is applied once. The timer stops itself after an
+ * idle frame, so an idle application does not keep pulsing. When the FX thread falls behind by
+ * {@link #MAX_PENDING_MESSAGES} log messages, new ones are dropped and a marker line says how many.
+ */
+public final class UiUpdatePump {
+
+    /** Log messages waiting for the FX thread beyond this many are dropped. */
+    public static final int MAX_PENDING_MESSAGES = 50_000;
+    /** Time spent draining per frame, so a flood of output cannot starve input and layout. */
+    private static final long FRAME_BUDGET_NANOS = 8_000_000;
+
+    private static final UiUpdatePump INSTANCE = new UiUpdatePump();
+
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Map<String, Runnable> latest = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder pulses = new LongAdder();
+    private volatile Consumer<String> logSink = text -> { };
+    private AnimationTimer timer;
+
+    public record Stats(long queued, long dropped, long coalesced, long pulses) {
+        @Override
+        public String toString() {
+            return String.format("UI updates: %,d queued, %,d coalesced, %,d dropped in %,d frames",
+                    queued, coalesced, dropped, pulses);
+        }
+    }
+
+    private UiUpdatePump() {
+    }
+
+    public static UiUpdatePump getInstance() {
+        return INSTANCE;
+    }
+
+    /** Where joined log text goes; called on the FX thread. */
+    public void setLogSink(Consumer<String> logSink) {
+        this.logSink = logSink;
+    }
+
+    /** Queues a log message; like {@code LogOutput.append}, each message ends a line. Any thread. */
+    public void append(String text) {
+        if (pendingMessages.incrementAndGet() > MAX_PENDING_MESSAGES) {
+            pendingMessages.decrementAndGet();
+            dropped.increment();
+            unreportedDrops.incrementAndGet();
+        } else {
+            queued.increment();
+            queue.add(text);
+        }
+        arm();
+    }
+
+    /** Queues an action to run on the FX thread, in order with other actions and log messages. Any thread. */
+    public void post(Runnable action) {
+        queued.increment();
+        queue.add(action);
+        arm();
+    }
+
+    /**
+     * Queues an action that replaces any not yet applied action under the same key, for state where only the
+     * latest value matters (a label text, a progress value). Any thread.
+     */
+    public void update(String key, Runnable action) {
+        queued.increment();
+        if (latest.put(key, action) != null) coalesced.increment();
+        arm();
+    }
+
+    public Stats stats() {
+        return new Stats(queued.sum(), dropped.sum(), coalesced.sum(), pulses.sum());
+    }
+
+    private void arm() {
+        if (armed.compareAndSet(false, true)) {
+            Platform.runLater(this::start);
+        }
+    }
+
+    private void start() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    pulse();
+                }
+            };
+        }
+        timer.start();
+    }
+
+    private void pulse() {
+        pulses.increment();
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        boolean worked = false;
+        StringBuilder text = new StringBuilder();
+        int drained = 0;
+        Object event;
+        while ((event = queue.poll()) != null) {
+            worked = true;
+            if (event instanceof String message) {
+                pendingMessages.decrementAndGet();
+                if (!text.isEmpty()) coalesced.increment();
+                text.append(message, 0, message.endsWith("\n") ? message.length() - 1 : message.length()).append('\n');
+            } else {
+                flushText(text);
+                run((Runnable) event);
+            }
+            if (++drained % 256 == 0 && System.nanoTime() > deadline) break;
+        }
+        long drops = unreportedDrops.getAndSet(0);
+        if (drops > 0) {
+            text.append("[").append(drops).append(" log messages dropped while the UI was busy]\n");
+        }
+        flushText(text);
+
+        for (String key : latest.keySet()) {
+            Runnable action = latest.remove(key);
+            if (action != null) {
+                worked = true;
+                run(action);
+            }
+        }
+
+        if (!worked) {
+            timer.stop();
+            armed.set(false);
+            // Something may have been queued after the drain but before the flag was cleared
+            if (!queue.isEmpty() || !latest.isEmpty() || unreportedDrops.get() > 0) arm();
+        }
+    }
+
+    private void flushText(StringBuilder text) {
+        if (text.isEmpty()) return;
+        String joined = text.toString();
+        text.setLength(0);
+        run(() -> logSink.accept(joined));
+    }
+
+    // One failing update must not take the rest of the frame with it
+    private static void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+}
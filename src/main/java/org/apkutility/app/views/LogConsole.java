@@ -0,0 +1,275 @@
+package org.apkutility.app.views;
+
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The terminal output panel: a {@link ListView} over a bounded ring buffer of lines.
+ * <p>
+ * The list view only lays out the rows that are visible, and the buffer drops its oldest lines once it holds
+ * {@code capacity} of them, so appending costs the same after a million lines as after ten. Dropped lines
+ * (including cleared ones) are written to a session log under {@code ~/.apktool-gui/logs} on a background
+ * thread, so nothing that was printed is lost. All methods must be called on the FX thread.
+ */
+public final class LogConsole {
+
+    private final LineBuffer lines;
+    private final ListView<String> view;
+    private final SessionLog sessionLog = new SessionLog();
+    private Consumer<Long> spillListener = spilled -> { };
+
+    public LogConsole(int capacity) {
+        this.lines = new LineBuffer(capacity);
+        this.view = new ListView<>(lines);
+        view.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        view.setPrefHeight(150);
+        view.getStyleClass().add("terminal-list");
+
+        MenuItem copy = new MenuItem("Copy");
+        copy.setOnAction(e -> copySelection());
+        MenuItem copyAll = new MenuItem("Copy All");
+        copyAll.setOnAction(e -> copy(String.join("\n", lines)));
+        view.setContextMenu(new ContextMenu(copy, copyAll));
+        view.setOnKeyPressed(e -> {
+            if (e.isShortcutDown() && e.getCode() == KeyCode.C) copySelection();
+        });
+    }
+
+    public Node getView() {
+        return view;
+    }
+
+    /**
+     * Appends one message. Like text appended to a terminal, each message ends a line, and line breaks inside it
+     * start new ones; a single trailing line break does not add an empty line.
+     */
+    public void append(String text) {
+        int end = text.endsWith("\n") ? text.length() - 1 : text.length();
+        List<String> added = new ArrayList<>();
+        int start = 0;
+        for (int i = text.indexOf('\n'); i >= 0 && i < end; i = text.indexOf('\n', start)) {
+            added.add(text.substring(start, i));
+            start = i + 1;
+        }
+        added.add(text.substring(start, end));
+
+        boolean following = isFollowingTail();
+        spill(lines.addAll(added));
+        if (following) view.scrollTo(lines.size() - 1);
+    }
+
+    public void clear() {
+        view.getSelectionModel().clearSelection();
+        spill(lines.removeAllLines());
+    }
+
+    /** Changes how many lines are kept; lines beyond a smaller capacity go to the session log. */
+    public void setCapacity(int capacity) {
+        spill(lines.setCapacity(capacity));
+    }
+
+    /** Called with the number of lines written to the session log so far, each time more are written. */
+    public void setSpillListener(Consumer<Long> spillListener) {
+        this.spillListener = spillListener;
+    }
+
+    /** The session log file, or null while no line has been dropped from the console yet. */
+    public Path getSessionLog() {
+        return sessionLog.file;
+    }
+
+    /** Writes out pending session log lines; call when the application stops. */
+    public void close() {
+        sessionLog.close();
+    }
+
+    private void spill(List<String> dropped) {
+        if (dropped.isEmpty()) return;
+        sessionLog.write(dropped);
+        spillListener.accept(sessionLog.lineCount);
+    }
+
+    // Follow new output unless the user scrolled up to read something
+    private boolean isFollowingTail() {
+        for (Node node : view.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL && bar.isVisible()) {
+                return bar.getValue() >= bar.getMax() - 1e-3;
+            }
+        }
+        return true;
+    }
+
+    private void copySelection() {
+        copy(String.join("\n", view.getSelectionModel().getSelectedItems()));
+    }
+
+    private static void copy(String text) {
+        ClipboardContent content = new ClipboardContent();
+        content.putString(text);
+        Clipboard.getSystemClipboard().setContent(content);
+    }
+
+    /**
+     * Fixed-capacity ring of lines. Appending past the capacity overwrites the oldest lines and reports them as
+     * removed from the start of the list, so the list view only re-lays its visible rows.
+     */
+    private static final class LineBuffer extends ObservableListBase<String> {
+        private String[] ring;
+        private int head;
+        private int size;
+
+        LineBuffer(int capacity) {
+            this.ring = new String[Math.max(1, capacity)];
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return ring[(head + index) % ring.length];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /** Appends {@code added} and returns the lines that no longer fit, oldest first. */
+        List<String> addAll(List<String> added) {
+            int capacity = ring.length;
+            List<String> dropped = new ArrayList<>();
+            // More lines than fit at all: the first ones go straight to the log
+            int skip = Math.max(0, added.size() - capacity);
+            int evict = Math.max(0, Math.min(size, size + added.size() - skip - capacity));
+
+            beginChange();
+            if (evict > 0) {
+                List<String> removed = new ArrayList<>(evict);
+                for (int i = 0; i < evict; i++) {
+                    removed.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % capacity;
+                }
+                size -= evict;
+                dropped.addAll(removed);
+                nextRemove(0, removed);
+            }
+            dropped.addAll(added.subList(0, skip));
+            int from = size;
+            for (int i = skip; i < added.size(); i++) {
+                ring[(head + size) % capacity] = added.get(i);
+                size++;
+            }
+            if (size > from) nextAdd(from, size);
+            endChange();
+            return dropped;
+        }
+
+        List<String> removeAllLines() {
+            if (size == 0) return List.of();
+            List<String> removed = new ArrayList<>(this);
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+            beginChange();
+            nextRemove(0, removed);
+            endChange();
+            return removed;
+        }
+
+        List<String> setCapacity(int capacity) {
+            capacity = Math.max(1, capacity);
+            if (capacity == ring.length) return List.of();
+            List<String> kept = new ArrayList<>(this);
+            List<String> dropped = List.of();
+            if (kept.size() > capacity) {
+                dropped = new ArrayList<>(kept.subList(0, kept.size() - capacity));
+                beginChange();
+                nextRemove(0, dropped);
+                kept = kept.subList(kept.size() - capacity, kept.size());
+            } else {
+                beginChange();
+            }
+            ring = new String[capacity];
+            for (int i = 0; i < kept.size(); i++) ring[i] = kept.get(i);
+            head = 0;
+            size = kept.size();
+            endChange();
+            return dropped;
+        }
+    }
+
+    /** Append-only file of the lines dropped from the console, created on the first drop. */
+    private static final class SessionLog {
+        private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private Path file;
+        private BufferedWriter out;
+        private long lineCount;
+
+        void write(List<String> dropped) {
+            if (file == null) {
+                String name = "session-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".log";
+                file = Path.of(System.getProperty("user.home"), ".apktool-gui", "logs", name);
+            }
+            lineCount += dropped.size();
+            Path target = file;
+            writer.execute(() -> {
+                try {
+                    if (out == null) {
+                        Files.createDirectories(target.getParent());
+                        out = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+                    }
+                    for (String line : dropped) {
+                        out.write(line);
+                        out.newLine();
+                    }
+                    out.flush();
+                } catch (IOException ignored) {
+                    // The console keeps working without its log
+                }
+            });
+        }
+
+        void close() {
+            writer.execute(() -> {
+                try {
+                    if (out != null) out.close();
+                } catch (IOException ignored) {
+                }
+            });
+            writer.shutdown();
+            try {
+                writer.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.apkutility.app.services.*;
 import org.apkutility.app.services.executor.CommandExecutor;
+import org.apkutility.app.services.executor.Job;
+import org.apkutility.app.utils.UiUpdatePump;
 import org.apkutility.app.utils.UiUtils;
 import org.apkutility.app.config.SettingsConfig;
 import org.apkutility.app.views.tabs.*;
@@ -18,6 +20,7 @@ import org.apkutility.app.views.tabs.*;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -37,9 +40,14 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
     private SettingsManager settingsManager;
 
     // UI Components
-    public TextArea outputArea;
+    public LogConsole logConsole;
+    private Label spilledLabel;
+    private Button openOutputBtn;
+    private MenuButton jobsMenu;
+    private Path lastSpilledOutput;
     public ProgressBar progressBar;
     public Label statusLabel;
+    public Label laneStatusLabel;
     
     private BorderPane rootLayout;
     private StackPane contentArea;
@@ -52,7 +60,9 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
     private Node utilitiesView;
     private Node adbView;
     private Node apkSignerView;
+    private Node workspaceView;
     private Node settingsView;
+    private WorkspaceTab workspaceTab;
 
     private Stage primaryStage;
     String apktoolPath = getApkToolPath();
@@ -66,6 +76,21 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
         if (commandExecutor != null) {
             commandExecutor.shutdown();
         }
+        if (apkToolService != null) {
+            apkToolService.shutdown();
+        }
+        if (apkEditorService != null) {
+            apkEditorService.shutdown();
+        }
+        if (aaptService != null) {
+            aaptService.shutdown();
+        }
+        if (workspaceTab != null) {
+            workspaceTab.close();
+        }
+        if (logConsole != null) {
+            logConsole.close();
+        }
     }
 
     public void initialize(Stage primaryStage) {
@@ -83,8 +108,15 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
         utilitiesView = new UtilitiesTab(this, injectDocService, zipAlignService).createContent();
         adbView = new AdbTab(this, adbService).createContent();
         apkSignerView = new ApkSignerTab(this, this, apkSignerService, aaptService).createContent();
+        workspaceTab = new WorkspaceTab(this);
+        workspaceView = workspaceTab.createContent();
         SettingsTab settingsTab = new SettingsTab(this, this, settingsManager);
         settingsTab.setApkToolService(apkToolService);
+        settingsTab.setApkEditorService(apkEditorService);
+        settingsTab.setAaptService(aaptService);
+        settingsTab.setApkSignerService(apkSignerService);
+        settingsTab.setCommandExecutor(commandExecutor);
+        settingsTab.setLogConsole(logConsole);
         settingsView = settingsTab.createContent();
 
         // Create Main Layout
@@ -118,6 +150,8 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
 
         // Check for apktool
         apkToolService.checkApktoolAvailability();
+        apkEditorService.warmUp();
+        apkSignerService.prewarmTestKeystore();
     }
 
     private VBox createSidebar() {
@@ -134,9 +168,10 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
         Button utilsBtn = createSidebarButton("🔧 Utilities", utilitiesView);
         Button adbBtn = createSidebarButton("📱 ADB Ops", adbView);
         Button signerBtn = createSidebarButton("🔐 Signer", apkSignerView);
+        Button workspaceBtn = createSidebarButton("📂 Workspace", workspaceView);
         Button settingsBtn = createSidebarButton("⚙️ Settings", settingsView);
 
-        sidebar.getChildren().addAll(appTitle, apktoolBtn, apkEditorBtn, infoBtn, utilsBtn, adbBtn, signerBtn, settingsBtn);
+        sidebar.getChildren().addAll(appTitle, apktoolBtn, apkEditorBtn, infoBtn, utilsBtn, adbBtn, signerBtn, workspaceBtn, settingsBtn);
         
         // Spacer to push bottom items down
         Region spacer = new Region();
@@ -175,16 +210,27 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
     }
 
     private void initializeUIComponents() {
-        outputArea = new TextArea();
-        outputArea.setEditable(false);
-        outputArea.setWrapText(true);
-        outputArea.setPrefHeight(150);
-        outputArea.getStyleClass().add("terminal-text-area");
+        logConsole = new LogConsole(SettingsManager.getInstance().getSettings().getConsoleMaxLines());
+        spilledLabel = new Label();
+        spilledLabel.getStyleClass().add("status-label");
+        spilledLabel.setStyle("-fx-text-fill: #8b949e; -fx-font-size: 11px;");
+        logConsole.setSpillListener(spilled -> {
+            spilledLabel.setText(String.format("%,d older lines in session log", spilled));
+            spilledLabel.setTooltip(new Tooltip(String.valueOf(logConsole.getSessionLog())));
+        });
+        UiUpdatePump.getInstance().setLogSink(logConsole::append);
 
         statusLabel = new Label("Ready");
         statusLabel.getStyleClass().add("status-label");
         statusLabel.setStyle("-fx-text-fill: #8b949e;");
 
+        laneStatusLabel = new Label("Lanes idle");
+        laneStatusLabel.getStyleClass().add("status-label");
+        laneStatusLabel.setStyle("-fx-text-fill: #8b949e; -fx-font-size: 11px;");
+        Tooltip pumpStats = new Tooltip();
+        pumpStats.setOnShowing(e -> pumpStats.setText(UiUpdatePump.getInstance().stats().toString()));
+        laneStatusLabel.setTooltip(pumpStats);
+
         progressBar = new ProgressBar();
         progressBar.setVisible(false);
         progressBar.setPrefWidth(200);
@@ -194,6 +240,12 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
     private void initializeServices() {
         settingsManager = SettingsManager.getInstance();
         commandExecutor = new CommandExecutor(this, this);
+        commandExecutor.setJobsListener(() -> UiUpdatePump.getInstance().update("jobs", this::refreshJobsMenu));
+        commandExecutor.setSpillListener(file -> UiUpdatePump.getInstance().post(() -> {
+            lastSpilledOutput = file;
+            openOutputBtn.setVisible(true);
+            openOutputBtn.setManaged(true);
+        }));
         apkToolService = new ApkToolService(this, this, commandExecutor);
         apkEditorService = new ApkEditorService(this, commandExecutor);
         injectDocService = new InjectDocService(this, commandExecutor);
@@ -215,10 +267,7 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
     // Interface Implementations
     @Override
     public void append(String text) {
-        Platform.runLater(() -> {
-            outputArea.appendText(text + "\n");
-            outputArea.setScrollTop(Double.MAX_VALUE);
-        });
+        UiUpdatePump.getInstance().append(text);
     }
 
     @Override
@@ -239,17 +288,38 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
 
     @Override
     public void setStatus(String status) {
-        Platform.runLater(() -> statusLabel.setText(status));
+        UiUpdatePump.getInstance().update("status", () -> statusLabel.setText(status));
     }
 
     @Override
     public void setProgressVisible(boolean visible) {
-        Platform.runLater(() -> progressBar.setVisible(visible));
+        UiUpdatePump.getInstance().update("progress-visible", () -> progressBar.setVisible(visible));
     }
 
     @Override
     public void setProgress(double progress) {
-        Platform.runLater(() -> progressBar.setProgress(progress));
+        UiUpdatePump.getInstance().update("progress", () -> progressBar.setProgress(progress));
+    }
+
+    @Override
+    public void setLaneStatus(String laneStatus) {
+        UiUpdatePump.getInstance().update("lane-status", () -> laneStatusLabel.setText(laneStatus));
+    }
+
+    private void refreshJobsMenu() {
+        List<Job> jobs = commandExecutor.getJobs();
+        jobsMenu.getItems().clear();
+        for (Job job : jobs) {
+            String description = job.getDescription();
+            if (description.length() > 80) description = description.substring(0, 77) + "...";
+            MenuItem stop = new MenuItem("⏹ Stop " + description
+                    + (job.getState() == Job.State.QUEUED ? " (queued)" : ""));
+            stop.setOnAction(e -> job.cancel());
+            jobsMenu.getItems().add(stop);
+        }
+        jobsMenu.setText("Jobs (" + jobs.size() + ")");
+        jobsMenu.setVisible(!jobs.isEmpty());
+        jobsMenu.setManaged(!jobs.isEmpty());
     }
 
     private VBox createBottomPanel() {
@@ -269,11 +339,24 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
         
         Button clearBtn = new Button("Clear"); // Icon could go here
         clearBtn.getStyleClass().addAll("button-icon");
-        clearBtn.setOnAction(e -> outputArea.clear());
+        clearBtn.setOnAction(e -> logConsole.clear());
+
+        // One Stop item per queued or running job, shown while there are any
+        jobsMenu = new MenuButton();
+        jobsMenu.getStyleClass().addAll("button-icon");
+        jobsMenu.setVisible(false);
+        jobsMenu.setManaged(false);
+
+        // Shown once a job printed more than the spill threshold; opens the latest such output
+        openOutputBtn = new Button("Open Output");
+        openOutputBtn.getStyleClass().addAll("button-icon");
+        openOutputBtn.setVisible(false);
+        openOutputBtn.setManaged(false);
+        openOutputBtn.setOnAction(e -> OutputViewer.show(primaryStage, lastSpilledOutput));
         
-        header.getChildren().addAll(terminalTitle, spacer, progressBar, statusLabel, clearBtn);
+        header.getChildren().addAll(terminalTitle, spilledLabel, spacer, laneStatusLabel, progressBar, statusLabel, jobsMenu, openOutputBtn, clearBtn);
 
-        bottomBox.getChildren().addAll(header, outputArea);
+        bottomBox.getChildren().addAll(header, logConsole.getView());
         return bottomBox;
     }
 
@@ -281,6 +364,7 @@ public class MainView implements LogOutput, UserNotifier, StatusHandler {
         try {
             settingsManager.loadSettings();
             SettingsConfig settings = settingsManager.getSettings();
+            logConsole.setCapacity(settings.getConsoleMaxLines());
             
             // Apply dark mode setting
             UiUtils.darkMode = settings.isDarkMode();
@@ -0,0 +1,82 @@
+package org.apkutility.app.views;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import org.apkutility.app.services.executor.OutputPager;
+import org.apkutility.app.utils.UiUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+
+/**
+ * Window that pages through a spilled output file. The list view asks {@link OutputPager} only for the rows
+ * on screen, so a file of any size opens with a flat heap.
+ */
+public final class OutputViewer {
+
+    private OutputViewer() {
+    }
+
+    public static void show(Window owner, Path file) {
+        ListView<String> view = new ListView<>();
+        view.getStyleClass().add("terminal-list");
+        view.setPlaceholder(new Label("Indexing " + file + "..."));
+
+        Label summary = new Label();
+        summary.getStyleClass().add("status-label");
+        BorderPane root = new BorderPane(view);
+        root.setBottom(summary);
+        root.getStyleClass().add("root-container");
+
+        Stage stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("Output - " + file.getFileName());
+        Scene scene = new Scene(root, 900, 600);
+        URL theme = UiUtils.class.getResource("/org/apkutility/app/" + (UiUtils.darkMode ? "dark-theme.css" : "light-theme.css"));
+        if (theme != null) scene.getStylesheets().add(theme.toExternalForm());
+        stage.setScene(scene);
+        stage.show();
+
+        // Indexing reads the whole mapping once, which takes a moment for files of hundreds of MB
+        Thread indexer = new Thread(() -> {
+            try {
+                OutputPager pager = OutputPager.open(file);
+                Platform.runLater(() -> {
+                    view.setItems(new PagedLines(pager));
+                    summary.setText(String.format("%,d lines, %.1f MB - %s", pager.getLineCount(),
+                            pager.getSize() / (1024.0 * 1024.0), file));
+                });
+            } catch (IOException e) {
+                Platform.runLater(() -> view.setPlaceholder(new Label("Cannot open " + file + ": " + e.getMessage())));
+            }
+        }, "output-pager");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /** Read-only list over the pager; only called on the FX thread, as the pager requires. */
+    private static final class PagedLines extends ObservableListBase<String> {
+        private final OutputPager pager;
+
+        PagedLines(OutputPager pager) {
+            this.pager = pager;
+        }
+
+        @Override
+        public String get(int index) {
+            return pager.getLine(index);
+        }
+
+        @Override
+        public int size() {
+            return pager.getLineCount();
+        }
+    }
+}
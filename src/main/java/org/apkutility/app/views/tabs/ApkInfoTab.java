@@ -1,7 +1,5 @@
 package org.apkutility.app.views.tabs;
 
-import javafx.animation.PauseTransition;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -11,14 +9,16 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
-import javafx.util.Duration;
 import org.apkutility.app.config.ApkEditorGetInfoConfig;
 import org.apkutility.app.services.ApkEditorService;
 import org.apkutility.app.utils.ApkInfoParser;
+import org.apkutility.app.utils.UiUpdatePump;
 import org.apkutility.app.utils.UiUtils;
 import org.apkutility.app.views.MainView;
 
 public class ApkInfoTab {
+    private static final String REDRAW_KEY = "apk-info-rich-view";
+
     private final MainView mainView;
     private final ApkEditorService apkEditorService;
 
@@ -26,19 +26,17 @@ public class ApkInfoTab {
     private TextArea rawOutputArea;
     private VBox richContentContainer;
     private TabPane outputModeTabPane;
-    private StringBuilder outputBuffer;
-    private PauseTransition updateDebouncer;
+    private ApkInfoParser.ApkInfo info;
+    private ApkInfoParser.StreamParser parser;
+    private boolean infoChanged;
+    private boolean loading;
 
     ApkEditorGetInfoConfig infoConfig = new ApkEditorGetInfoConfig();
 
     public ApkInfoTab(MainView mainView, ApkEditorService apkEditorService) {
         this.mainView = mainView;
         this.apkEditorService = apkEditorService;
-        this.outputBuffer = new StringBuilder();
-
-        // Debouncer: wait 500ms after the last output chunk to parse/update UI
-        this.updateDebouncer = new PauseTransition(Duration.millis(500));
-        this.updateDebouncer.setOnFinished(e -> updateRichUi());
+        resetParser();
     }
 
     public Node createContent() {
@@ -73,13 +71,16 @@ public class ApkInfoTab {
         getInfoButton.getStyleClass().add("button-primary");
         getInfoButton.setPrefWidth(120);
 
+        Button quickInfoButton = new Button("⚡ Quick Info");
+        quickInfoButton.setTooltip(new Tooltip("Decode AndroidManifest.xml in-process (no APKEditor, no aapt)"));
+
         Button optionsButton = new Button("⚙ Options");
         optionsButton.setOnAction(e -> showInfoOptionsDialog());
 
         Button clearButton = new Button("Clear Output");
         clearButton.setOnAction(e -> clearOutput());
         
-        actionRow.getChildren().addAll(getInfoButton, optionsButton, clearButton);
+        actionRow.getChildren().addAll(getInfoButton, quickInfoButton, optionsButton, clearButton);
 
         controlsCard.getChildren().addAll(title, topRow, actionRow);
 
@@ -131,30 +132,44 @@ public class ApkInfoTab {
 
             apkEditorService.executeGetInfo(
                     apkPath, "", infoConfig,
-                    output -> Platform.runLater(() -> handleStreamOutput(output))
+                    this::handleStreamOutput
             );
         });
 
+        quickInfoButton.setOnAction(e -> {
+            String apkPath = apkPathField.getText();
+            if (apkPath == null || apkPath.trim().isEmpty()) {
+                mainView.showError("Please select an APK file first.");
+                return;
+            }
+
+            clearOutput();
+            outputModeTabPane.getSelectionModel().select(richViewTab);
+            setLoadingState(true);
+
+            apkEditorService.executeQuickInfo(apkPath, this::handleStreamOutput);
+        });
+
         return root;
     }
 
+    // Output consumers already run on the FX thread
     private void handleStreamOutput(String output) {
         // Update Raw View
         rawOutputArea.appendText(output);
 
-        // Buffer for Parser
-        outputBuffer.append(output);
-
-        // Reset and restart the debounce timer
-        // This ensures we only parse once the stream pauses/finishes
-        updateDebouncer.playFromStart();
+        // Parse only the new chunk; the view is redrawn from the model when it recognised something,
+        // or on the first output so errors replace the loading indicator. The redraw is keyed, so however
+        // many batches arrive in a frame the view is rebuilt at most once per frame
+        parser.feed(output);
+        if (infoChanged || loading) {
+            infoChanged = false;
+            UiUpdatePump.getInstance().update(REDRAW_KEY, this::updateRichUi);
+        }
     }
 
     private void updateRichUi() {
         setLoadingState(false);
-        String fullOutput = outputBuffer.toString();
-        ApkInfoParser.ApkInfo info = ApkInfoParser.parse(fullOutput);
-
         richContentContainer.getChildren().clear();
 
         // 1. Header Card (Icon, Name, Package, Version)
@@ -192,10 +207,18 @@ public class ApkInfoTab {
         }
     }
 
+    private void resetParser() {
+        info = new ApkInfoParser.ApkInfo();
+        parser = new ApkInfoParser.StreamParser(event -> {
+            info.apply(event);
+            infoChanged = true;
+        });
+    }
+
     private void clearOutput() {
         rawOutputArea.clear();
         richContentContainer.getChildren().clear();
-        outputBuffer.setLength(0);
+        resetParser();
         // Reset to initial waiting state
         Label waiting = new Label("Waiting for output...");
         waiting.getStyleClass().add("label-dim");
@@ -203,6 +226,7 @@ public class ApkInfoTab {
     }
 
     private void setLoadingState(boolean loading) {
+        this.loading = loading;
         if (loading) {
             ProgressIndicator pi = new ProgressIndicator();
             pi.setMaxSize(30,30);
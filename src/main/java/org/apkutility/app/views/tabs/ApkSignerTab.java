@@ -1,18 +1,28 @@
 package org.apkutility.app.views.tabs;
 
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import org.apkutility.app.apk.ResourceTable;
 import org.apkutility.app.services.AaptService;
 import org.apkutility.app.services.ApkSignerService;
 import org.apkutility.app.services.LogOutput;
 import org.apkutility.app.services.UserNotifier;
+import org.apkutility.app.services.cache.Verification;
 import org.apkutility.app.utils.UiUtils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * APK Signer Tab - Signing, Verification, and AAPT operations
@@ -142,6 +152,14 @@ public class ApkSignerTab {
         CheckBox v4Check = new CheckBox("v4");
         schemesBox.getChildren().addAll(v1Check, v2Check, v3Check, v4Check);
         
+        // .so page alignment used by Align + Sign and Batch Sign
+        Label pageLabel = new Label(".so Page Alignment:");
+        ComboBox<String> pageCombo = new ComboBox<>();
+        pageCombo.getItems().addAll("None", "4 KB", "16 KB");
+        // None gives the same result as plain "zipalign -v 4"; page-aligning .so files changes the output, so it is opt-in
+        pageCombo.setValue("None");
+        pageCombo.setTooltip(new Tooltip("Also align uncompressed .so files to this page size (16 KB for devices with 16 KB pages)"));
+        
         // Layout
         int row = 0;
         grid.add(inputLabel, 0, row);
@@ -177,6 +195,10 @@ public class ApkSignerTab {
         grid.add(schemesLabel, 0, row);
         grid.add(schemesBox, 1, row, 2, 1);
         
+        row++;
+        grid.add(pageLabel, 0, row);
+        grid.add(pageCombo, 1, row);
+        
         // Buttons
         HBox buttons = new HBox(10);
         buttons.setAlignment(Pos.CENTER_LEFT);
@@ -206,7 +228,48 @@ public class ApkSignerTab {
             apkSignerService.quickSignWithTestKey(inputField.getText(), outputField.getText());
         });
         
-        buttons.getChildren().addAll(signBtn, quickSignBtn);
+        Button alignSignBtn = new Button("📐 Align + Sign");
+        alignSignBtn.getStyleClass().add("button-secondary");
+        alignSignBtn.setTooltip(new Tooltip("zipalign (with the selected .so page alignment) and v1/v2/v3 signing in a single pass; v4 is not produced"));
+        alignSignBtn.setOnAction(e -> {
+            apkSignerService.alignAndSignApk(
+                inputField.getText(),
+                outputField.getText(),
+                ksField.getText(),
+                ksPwdField.getText(),
+                aliasField.getText(),
+                keyPwdField.getText(),
+                v1Check.isSelected(),
+                v2Check.isSelected(),
+                v3Check.isSelected(),
+                UtilitiesTab.soPageSize(pageCombo),
+                useTestKeyCheck.isSelected()
+            );
+        });
+        
+        Button batchSignBtn = new Button("📦 Batch Sign...");
+        batchSignBtn.getStyleClass().add("button-secondary");
+        batchSignBtn.setTooltip(new Tooltip("Sign several APKs (or every APK in a folder) concurrently into a 'signed' folder"));
+        batchSignBtn.setOnAction(e -> {
+            List<String> apks = chooseBatchApks();
+            if (apks.isEmpty()) return;
+            String outputDir = new File(new File(apks.get(0)).getParentFile(), "signed").getAbsolutePath();
+            apkSignerService.batchSign(
+                apks,
+                outputDir,
+                ksField.getText(),
+                ksPwdField.getText(),
+                aliasField.getText(),
+                keyPwdField.getText(),
+                v1Check.isSelected(),
+                v2Check.isSelected(),
+                v3Check.isSelected(),
+                UtilitiesTab.soPageSize(pageCombo),
+                useTestKeyCheck.isSelected()
+            );
+        });
+        
+        buttons.getChildren().addAll(signBtn, quickSignBtn, alignSignBtn, batchSignBtn);
         
         section.getChildren().addAll(sectionTitle, grid, buttons);
         return section;
@@ -234,8 +297,24 @@ public class ApkSignerTab {
         Button verifyBtn = new Button("🔍 Verify");
         verifyBtn.getStyleClass().add("button-primary");
         verifyBtn.setOnAction(e -> showVerifyDialog(apkField.getText()));
+
+        Button verifyFolderBtn = new Button("📁 Verify Folder");
+        verifyFolderBtn.getStyleClass().add("button-secondary");
+        verifyFolderBtn.setOnAction(e -> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Select folder with APKs to verify");
+            File dir = chooser.showDialog(null);
+            if (dir != null) {
+                apkSignerService.verifyFolder(dir.getAbsolutePath(), this::showVerifySummary);
+            }
+        });
         
-        row.getChildren().addAll(apkLabel, apkField, apkBrowse, verifyBtn);
+        Button signersBtn = new Button("🔐 Signers");
+        signersBtn.getStyleClass().add("button-secondary");
+        signersBtn.setTooltip(new Tooltip("Read certificates from the APK Signing Block without running apksigner"));
+        signersBtn.setOnAction(e -> apkSignerService.showSignatures(apkField.getText()));
+
+        row.getChildren().addAll(apkLabel, apkField, apkBrowse, verifyBtn, verifyFolderBtn, signersBtn);
         
         section.getChildren().addAll(sectionTitle, row);
         return section;
@@ -283,6 +362,64 @@ public class ApkSignerTab {
         });
     }
     
+    /**
+     * Sortable table of a folder verification: click a column header to sort by it.
+     */
+    private void showVerifySummary(List<ApkSignerService.FolderVerification> rows) {
+        TableView<ApkSignerService.FolderVerification> table = new TableView<>();
+        table.setPrefSize(900, 400);
+
+        TableColumn<ApkSignerService.FolderVerification, String> apkColumn = new TableColumn<>("APK");
+        apkColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().apk().getFileName().toString()));
+        apkColumn.setPrefWidth(220);
+
+        TableColumn<ApkSignerService.FolderVerification, String> statusColumn = new TableColumn<>("Result");
+        statusColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(status(data.getValue())));
+
+        TableColumn<ApkSignerService.FolderVerification, String> schemesColumn = new TableColumn<>("Schemes");
+        schemesColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(
+                data.getValue().verification() == null ? "" : data.getValue().verification().schemes()));
+
+        TableColumn<ApkSignerService.FolderVerification, String> signerColumn = new TableColumn<>("Signer");
+        signerColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(signer(data.getValue()).dn()));
+        signerColumn.setPrefWidth(200);
+
+        TableColumn<ApkSignerService.FolderVerification, String> digestColumn = new TableColumn<>("Certificate SHA-256");
+        digestColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(signer(data.getValue()).sha256()));
+        digestColumn.setPrefWidth(160);
+
+        TableColumn<ApkSignerService.FolderVerification, Number> timeColumn = new TableColumn<>("Time (µs)");
+        timeColumn.setCellValueFactory(data -> new ReadOnlyLongWrapper(data.getValue().micros()));
+
+        TableColumn<ApkSignerService.FolderVerification, String> cachedColumn = new TableColumn<>("Cached");
+        cachedColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().cached() ? "yes" : ""));
+
+        table.getColumns().addAll(List.of(apkColumn, statusColumn, schemesColumn, signerColumn, digestColumn, timeColumn, cachedColumn));
+        table.getItems().setAll(rows);
+        table.getSortOrder().add(statusColumn);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Folder Verification");
+        dialog.setHeaderText(rows.size() + " APKs verified");
+        dialog.setResizable(true);
+        dialog.getDialogPane().setContent(table);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().getStylesheets().add(
+            getClass().getResource("/org/apkutility/app/dark-theme.css").toExternalForm()
+        );
+        dialog.show();
+    }
+
+    private static String status(ApkSignerService.FolderVerification row) {
+        if (row.verification() == null) return "Error: " + row.error();
+        return row.verification().verifies() ? "Verifies" : "DOES NOT VERIFY";
+    }
+
+    private static Verification.Signer signer(ApkSignerService.FolderVerification row) {
+        if (row.verification() == null || row.verification().signers().isEmpty()) return new Verification.Signer("", "");
+        return row.verification().signers().get(0);
+    }
+
     private Node createAaptSection() {
         VBox section = new VBox(15);
         section.getStyleClass().add("card");
@@ -309,11 +446,15 @@ public class ApkSignerTab {
         ComboBox<String> opCombo = new ComboBox<>();
         opCombo.getItems().addAll(
             "Dump Badging",
+            "Dump Manifest (built-in)",
             "Dump Permissions",
             "Dump Resources",
+            "Browse Resources (built-in)",
             "Dump Configurations",
             "Dump XML Tree",
             "Dump Strings (AAPT2)",
+            "DEX Summary (built-in)",
+            "DEX Classes (built-in)",
             "List Contents",
             "Get Version"
         );
@@ -378,6 +519,9 @@ public class ApkSignerTab {
                 if (useAapt2) aaptService.aapt2DumpBadging(apkPath);
                 else aaptService.dumpBadging(apkPath);
                 break;
+            case "Dump Manifest (built-in)":
+                aaptService.dumpManifest(apkPath);
+                break;
             case "Dump Permissions":
                 if (useAapt2) aaptService.aapt2DumpPermissions(apkPath);
                 else aaptService.dumpPermissions(apkPath);
@@ -386,6 +530,9 @@ public class ApkSignerTab {
                 if (useAapt2) aaptService.aapt2DumpResources(apkPath);
                 else aaptService.dumpResources(apkPath);
                 break;
+            case "Browse Resources (built-in)":
+                aaptService.readResourceTable(apkPath, table -> showResourceTable(apkPath, table));
+                break;
             case "Dump Configurations":
                 if (useAapt2) aaptService.aapt2DumpConfigurations(apkPath);
                 else aaptService.dumpConfigurations(apkPath);
@@ -397,6 +544,12 @@ public class ApkSignerTab {
             case "Dump Strings (AAPT2)":
                 aaptService.aapt2DumpStrings(apkPath);
                 break;
+            case "DEX Summary (built-in)":
+                aaptService.dumpDex(apkPath, false);
+                break;
+            case "DEX Classes (built-in)":
+                aaptService.dumpDex(apkPath, true);
+                break;
             case "List Contents":
                 aaptService.listContents(apkPath, true);
                 break;
@@ -407,6 +560,74 @@ public class ApkSignerTab {
         }
     }
     
+    /**
+     * Tree of package / type / configuration / entry. Children are created when a node is first expanded,
+     * so only the parts of the table being looked at are decoded.
+     */
+    private void showResourceTable(String apkPath, ResourceTable table) {
+        TreeItem<String> root = new TreeItem<>(new File(apkPath).getName() + " (" + table.getResourceCount() + " resources)");
+        for (ResourceTable.Package pkg : table.getPackages()) {
+            root.getChildren().add(new LazyTreeItem(String.format("0x%02x %s", pkg.getId(), pkg.getName()), () -> {
+                List<TreeItem<String>> types = new ArrayList<>();
+                for (ResourceTable.Type type : pkg.getTypes()) {
+                    types.add(new LazyTreeItem(type.getName() + " (" + type.getEntryCount() + ")", () -> {
+                        List<TreeItem<String>> chunks = new ArrayList<>();
+                        for (ResourceTable.TypeChunk chunk : type.getChunks()) {
+                            chunks.add(new LazyTreeItem(chunk.getConfig().toString(), () -> {
+                                List<TreeItem<String>> entries = new ArrayList<>();
+                                for (ResourceTable.Entry entry : chunk.getEntries()) {
+                                    entries.add(new TreeItem<>(String.format("0x%08x %s = %s", entry.resourceId(), entry.key(), table.format(entry))));
+                                }
+                                return entries;
+                            }));
+                        }
+                        return chunks;
+                    }));
+                }
+                return types;
+            }));
+        }
+        root.setExpanded(true);
+
+        TreeView<String> tree = new TreeView<>(root);
+        tree.setPrefSize(800, 500);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Resource Table");
+        dialog.setHeaderText(apkPath);
+        dialog.setResizable(true);
+        dialog.getDialogPane().setContent(tree);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().getStylesheets().add(
+            getClass().getResource("/org/apkutility/app/dark-theme.css").toExternalForm()
+        );
+        dialog.show();
+    }
+
+    private static final class LazyTreeItem extends TreeItem<String> {
+        private final Supplier<List<TreeItem<String>>> loader;
+        private boolean loaded;
+
+        LazyTreeItem(String value, Supplier<List<TreeItem<String>>> loader) {
+            super(value);
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+
+        @Override
+        public ObservableList<TreeItem<String>> getChildren() {
+            if (!loaded) {
+                loaded = true;
+                super.getChildren().setAll(loader.get());
+            }
+            return super.getChildren();
+        }
+    }
+
     private void browseFile(TextField field, String title, String... extensions) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(title);
@@ -421,6 +642,38 @@ public class ApkSignerTab {
         }
     }
     
+    /**
+     * Lets the user pick several APKs, or a folder whose APKs are all used.
+     */
+    private List<String> chooseBatchApks() {
+        ChoiceDialog<String> source = new ChoiceDialog<>("Select APK files", "Select APK files", "Select a folder");
+        source.setTitle("Batch Sign");
+        source.setHeaderText("Which APKs should be signed?");
+        String choice = source.showAndWait().orElse(null);
+        if (choice == null) return List.of();
+
+        List<String> apks = new ArrayList<>();
+        if (choice.equals("Select a folder")) {
+            DirectoryChooser directoryChooser = new DirectoryChooser();
+            directoryChooser.setTitle("Select Folder with APKs");
+            File dir = directoryChooser.showDialog(null);
+            File[] files = dir == null ? null : dir.listFiles((d, name) -> name.toLowerCase().endsWith(".apk"));
+            if (files != null) {
+                Arrays.sort(files);
+                for (File file : files) apks.add(file.getAbsolutePath());
+            }
+        } else {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Select APKs to Sign");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("APK Files", "*.apk"));
+            List<File> files = fileChooser.showOpenMultipleDialog(null);
+            if (files != null) {
+                for (File file : files) apks.add(file.getAbsolutePath());
+            }
+        }
+        return apks;
+    }
+    
     private void browseSaveFile(TextField field, String title) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(title);
@@ -7,11 +7,19 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import org.apkutility.app.config.SettingsConfig;
+import org.apkutility.app.services.AaptService;
+import org.apkutility.app.services.ApkEditorService;
+import org.apkutility.app.services.ApkSignerService;
+import org.apkutility.app.services.cache.ResultCache;
+import org.apkutility.app.services.cache.VerificationCache;
 import org.apkutility.app.services.ApkToolService;
 import org.apkutility.app.services.LogOutput;
 import org.apkutility.app.services.SettingsManager;
 import org.apkutility.app.services.UserNotifier;
+import org.apkutility.app.services.executor.CommandExecutor;
 import org.apkutility.app.utils.UiUtils;
+import org.apkutility.app.views.LogConsole;
 import org.controlsfx.control.HyperlinkLabel;
 
 import java.io.File;
@@ -25,6 +33,11 @@ public class SettingsTab {
     private final UserNotifier userNotifier;
     private final SettingsManager settingsManager;
     private ApkToolService apkToolService;
+    private ApkEditorService apkEditorService;
+    private AaptService aaptService;
+    private ApkSignerService apkSignerService;
+    private CommandExecutor commandExecutor;
+    private LogConsole logConsole;
     
     // Tool Path Fields
     private TextField apktoolPathField;
@@ -52,6 +65,26 @@ public class SettingsTab {
     // Preference Controls
     private CheckBox darkModeCheckBox;
     private CheckBox autoSaveCheckBox;
+
+    // Performance Controls
+    private Spinner<Integer> jvmLaneSpinner;
+    private Spinner<Integer> nativeLaneSpinner;
+    private Spinner<Integer> adbLaneSpinner;
+    private CheckBox apktoolWarmEngineCheckBox;
+    private CheckBox apkEditorWorkerCheckBox;
+    private Spinner<Integer> apkEditorMaxJobsSpinner;
+    private Spinner<Integer> apkEditorMaxHeapSpinner;
+    private Spinner<Integer> aapt2DaemonSpinner;
+    private CheckBox resultCacheCheckBox;
+    private CheckBox zipalignNativeCheckBox;
+    private Spinner<Integer> batchSignSpinner;
+    private Spinner<Integer> signingDigestSpinner;
+    private Spinner<Integer> resultCacheMaxSpinner;
+    private Spinner<Integer> consoleMaxLinesSpinner;
+    private Spinner<Integer> outputSpillSpinner;
+    private Spinner<Integer> jvmTimeoutSpinner;
+    private Spinner<Integer> nativeTimeoutSpinner;
+    private Spinner<Integer> adbTimeoutSpinner;
     
     // Framework Manager Controls
     private TextField frameworkApkField;
@@ -80,10 +113,11 @@ public class SettingsTab {
         Node frameworkSection = createFrameworkSection();
         Node frameworkManagerSection = createFrameworkManagerSection();
         Node preferencesSection = createPreferencesSection();
+        Node performanceSection = createPerformanceSection();
         Node actionsSection = createActionsSection();
         
         ScrollPane scrollPane = new ScrollPane();
-        VBox content = new VBox(20, titleLabel, descLabel, toolPathsSection, frameworkSection, frameworkManagerSection, preferencesSection, actionsSection);
+        VBox content = new VBox(20, titleLabel, descLabel, toolPathsSection, frameworkSection, frameworkManagerSection, preferencesSection, performanceSection, actionsSection);
         content.setPadding(new Insets(10));
         scrollPane.setContent(content);
         scrollPane.setFitToWidth(true);
@@ -275,6 +309,26 @@ public class SettingsTab {
     public void setApkToolService(ApkToolService apkToolService) {
         this.apkToolService = apkToolService;
     }
+
+    public void setApkEditorService(ApkEditorService apkEditorService) {
+        this.apkEditorService = apkEditorService;
+    }
+
+    public void setAaptService(AaptService aaptService) {
+        this.aaptService = aaptService;
+    }
+
+    public void setApkSignerService(ApkSignerService apkSignerService) {
+        this.apkSignerService = apkSignerService;
+    }
+
+    public void setCommandExecutor(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+    }
+
+    public void setLogConsole(LogConsole logConsole) {
+        this.logConsole = logConsole;
+    }
     
     private Node createPreferencesSection() {
         VBox section = new VBox(15);
@@ -294,6 +348,130 @@ public class SettingsTab {
         return section;
     }
     
+    private Node createPerformanceSection() {
+        VBox section = new VBox(15);
+        section.getStyleClass().add("card");
+        section.setPadding(new Insets(20));
+
+        Label sectionTitle = new Label("⚡ Performance");
+        sectionTitle.getStyleClass().add("subsection-title");
+
+        Label desc = new Label("Maximum concurrent jobs per lane. Lanes run independently, so quick queries never wait behind long builds.");
+        desc.getStyleClass().add("field-description");
+        desc.setWrapText(true);
+
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        jvmLaneSpinner = new Spinner<>(1, maxThreads, 1);
+        nativeLaneSpinner = new Spinner<>(1, maxThreads, 1);
+        adbLaneSpinner = new Spinner<>(1, maxThreads, 1);
+
+        apktoolWarmEngineCheckBox = new CheckBox("Keep apktool warm in a helper JVM (skips JVM start-up per command)");
+        apktoolWarmEngineCheckBox.getStyleClass().add("setting-checkbox");
+
+        apkEditorWorkerCheckBox = new CheckBox("Run APKEditor in a persistent worker JVM");
+        apkEditorWorkerCheckBox.getStyleClass().add("setting-checkbox");
+        apkEditorMaxJobsSpinner = new Spinner<>(0, 10000, SettingsConfig.DEFAULT_APKEDITOR_WORKER_MAX_JOBS);
+        apkEditorMaxHeapSpinner = new Spinner<>(0, 65536, SettingsConfig.DEFAULT_APKEDITOR_WORKER_MAX_HEAP_MB, 64);
+
+        aapt2DaemonSpinner = new Spinner<>(1, maxThreads, SettingsConfig.DEFAULT_AAPT2_DAEMON_COUNT);
+
+        resultCacheCheckBox = new CheckBox("Cache results of read-only queries (dumps, info, verify)");
+        resultCacheCheckBox.getStyleClass().add("setting-checkbox");
+        resultCacheMaxSpinner = new Spinner<>(1, 65536, SettingsConfig.DEFAULT_RESULT_CACHE_MAX_MB, 64);
+
+        zipalignNativeCheckBox = new CheckBox("Use the native zipalign binary instead of the built-in aligner");
+        zipalignNativeCheckBox.getStyleClass().add("setting-checkbox");
+
+        batchSignSpinner = new Spinner<>(1, maxThreads, SettingsConfig.DEFAULT_BATCH_SIGN_THREADS);
+        signingDigestSpinner = new Spinner<>(1, maxThreads, SettingsConfig.DEFAULT_SIGNING_DIGEST_THREADS);
+        consoleMaxLinesSpinner = new Spinner<>(100, 1_000_000, SettingsConfig.DEFAULT_CONSOLE_MAX_LINES, 1000);
+        outputSpillSpinner = new Spinner<>(1, 1024, SettingsConfig.DEFAULT_OUTPUT_SPILL_THRESHOLD_MB);
+        jvmTimeoutSpinner = new Spinner<>(0, 1440, SettingsConfig.DEFAULT_JVM_JOB_TIMEOUT_MINUTES, 5);
+        nativeTimeoutSpinner = new Spinner<>(0, 1440, SettingsConfig.DEFAULT_NATIVE_JOB_TIMEOUT_MINUTES, 5);
+        adbTimeoutSpinner = new Spinner<>(0, 1440, SettingsConfig.DEFAULT_ADB_JOB_TIMEOUT_MINUTES, 5);
+
+        Button clearCacheBtn = new Button("🗑 Clear result cache");
+        clearCacheBtn.getStyleClass().add("button-secondary");
+        clearCacheBtn.setOnAction(e -> {
+            long freed = ResultCache.getInstance().sizeBytes();
+            ResultCache.getInstance().clear();
+            VerificationCache.getInstance().clear();
+            logOutput.append(String.format("🗑 Result cache cleared (%.1f MB)", freed / (1024.0 * 1024.0)));
+        });
+
+        Button benchmarkBtn = new Button("⏱ Benchmark apktool engine");
+        benchmarkBtn.getStyleClass().add("button-secondary");
+        benchmarkBtn.setOnAction(e -> benchmarkApktoolEngine());
+
+        Button signingBenchmarkBtn = new Button("⏱ Benchmark signing");
+        signingBenchmarkBtn.getStyleClass().add("button-secondary");
+        signingBenchmarkBtn.setOnAction(e -> benchmarkSigning());
+
+        section.getChildren().addAll(sectionTitle, desc,
+                createSpinnerRow("apktool / APKEditor (JVM):", jvmLaneSpinner),
+                createSpinnerRow("aapt / zipalign (Native):", nativeLaneSpinner),
+                createSpinnerRow("ADB:", adbLaneSpinner),
+                apktoolWarmEngineCheckBox, apkEditorWorkerCheckBox,
+                createSpinnerRow("Restart worker after N jobs (0 = never):", apkEditorMaxJobsSpinner),
+                createSpinnerRow("Restart worker above heap MB (0 = never):", apkEditorMaxHeapSpinner),
+                createSpinnerRow("aapt2 daemons:", aapt2DaemonSpinner),
+                zipalignNativeCheckBox,
+                createSpinnerRow("Batch signing workers:", batchSignSpinner),
+                createSpinnerRow("Signing digest threads:", signingDigestSpinner),
+                resultCacheCheckBox,
+                createSpinnerRow("Result cache size (MB):", resultCacheMaxSpinner),
+                createSpinnerRow("Terminal lines kept (older ones go to the session log):", consoleMaxLinesSpinner),
+                createSpinnerRow("Job output shown in the terminal (MB, the rest goes to a file):", outputSpillSpinner),
+                createSpinnerRow("Timeout for JVM tool jobs (minutes, 0 = none):", jvmTimeoutSpinner),
+                createSpinnerRow("Timeout for native tool jobs (minutes, 0 = none):", nativeTimeoutSpinner),
+                createSpinnerRow("Timeout for ADB jobs (minutes, 0 = none):", adbTimeoutSpinner),
+                new HBox(10, clearCacheBtn, benchmarkBtn, signingBenchmarkBtn));
+        return section;
+    }
+
+    private void benchmarkApktoolEngine() {
+        if (apkToolService == null) {
+            userNotifier.showError("ApkToolService not initialized");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select APK to benchmark with");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("APK Files", "*.apk"));
+        File selectedFile = fileChooser.showOpenDialog(null);
+        if (selectedFile != null) {
+            apkToolService.benchmarkEngine(selectedFile.getAbsolutePath());
+        }
+    }
+
+    private void benchmarkSigning() {
+        if (apkSignerService == null) {
+            userNotifier.showError("ApkSignerService not initialized");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select APK whose manifest the benchmark APKs use");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("APK Files", "*.apk"));
+        File selectedFile = fileChooser.showOpenDialog(null);
+        if (selectedFile != null) {
+            apkSignerService.benchmarkSigning(selectedFile.getAbsolutePath());
+        }
+    }
+
+    private HBox createSpinnerRow(String labelText, Spinner<Integer> spinner) {
+        HBox row = new HBox(10);
+        row.setAlignment(Pos.CENTER_LEFT);
+
+        Label label = new Label(labelText);
+        label.setPrefWidth(200);
+        label.getStyleClass().add("field-label");
+
+        spinner.setEditable(true);
+        spinner.setPrefWidth(100);
+
+        row.getChildren().addAll(label, spinner);
+        return row;
+    }
+
     private Node createActionsSection() {
         HBox actions = new HBox(10);
         actions.setAlignment(Pos.CENTER_LEFT);
@@ -384,6 +562,25 @@ public class SettingsTab {
         
         darkModeCheckBox.setSelected(settings.isDarkMode());
         autoSaveCheckBox.setSelected(settings.isAutoSave());
+
+        jvmLaneSpinner.getValueFactory().setValue(settings.getJvmLaneThreads());
+        nativeLaneSpinner.getValueFactory().setValue(settings.getNativeLaneThreads());
+        adbLaneSpinner.getValueFactory().setValue(settings.getAdbLaneThreads());
+        apktoolWarmEngineCheckBox.setSelected(settings.isApktoolWarmEngine());
+        apkEditorWorkerCheckBox.setSelected(settings.isApkEditorWorker());
+        apkEditorMaxJobsSpinner.getValueFactory().setValue(settings.getApkEditorWorkerMaxJobs());
+        apkEditorMaxHeapSpinner.getValueFactory().setValue(settings.getApkEditorWorkerMaxHeapMb());
+        aapt2DaemonSpinner.getValueFactory().setValue(settings.getAapt2DaemonCount());
+        resultCacheCheckBox.setSelected(settings.isResultCacheEnabled());
+        zipalignNativeCheckBox.setSelected(settings.isZipalignNative());
+        batchSignSpinner.getValueFactory().setValue(settings.getBatchSignThreads());
+        signingDigestSpinner.getValueFactory().setValue(settings.getSigningDigestThreads());
+        resultCacheMaxSpinner.getValueFactory().setValue(settings.getResultCacheMaxMb());
+        consoleMaxLinesSpinner.getValueFactory().setValue(settings.getConsoleMaxLines());
+        outputSpillSpinner.getValueFactory().setValue(settings.getOutputSpillThresholdMb());
+        jvmTimeoutSpinner.getValueFactory().setValue(settings.getJvmJobTimeoutMinutes());
+        nativeTimeoutSpinner.getValueFactory().setValue(settings.getNativeJobTimeoutMinutes());
+        adbTimeoutSpinner.getValueFactory().setValue(settings.getAdbJobTimeoutMinutes());
         
         // Validate on load
         validateAllPaths();
@@ -405,6 +602,28 @@ public class SettingsTab {
         settings.setDefaultWorkingDir(workingDirField.getText());
         settings.setDarkMode(darkModeCheckBox.isSelected());
         settings.setAutoSave(autoSaveCheckBox.isSelected());
+        settings.setJvmLaneThreads(jvmLaneSpinner.getValue());
+        settings.setNativeLaneThreads(nativeLaneSpinner.getValue());
+        settings.setAdbLaneThreads(adbLaneSpinner.getValue());
+        settings.setApktoolWarmEngine(apktoolWarmEngineCheckBox.isSelected());
+        settings.setApkEditorWorker(apkEditorWorkerCheckBox.isSelected());
+        settings.setApkEditorWorkerMaxJobs(apkEditorMaxJobsSpinner.getValue());
+        settings.setApkEditorWorkerMaxHeapMb(apkEditorMaxHeapSpinner.getValue());
+        if (apkEditorService != null) apkEditorService.applyWorkerSettings(settings);
+        settings.setAapt2DaemonCount(aapt2DaemonSpinner.getValue());
+        if (aaptService != null) aaptService.setDaemonCount(settings.getAapt2DaemonCount());
+        settings.setResultCacheEnabled(resultCacheCheckBox.isSelected());
+        settings.setZipalignNative(zipalignNativeCheckBox.isSelected());
+        settings.setBatchSignThreads(batchSignSpinner.getValue());
+        settings.setSigningDigestThreads(signingDigestSpinner.getValue());
+        settings.setResultCacheMaxMb(resultCacheMaxSpinner.getValue());
+        settings.setConsoleMaxLines(consoleMaxLinesSpinner.getValue());
+        settings.setOutputSpillThresholdMb(outputSpillSpinner.getValue());
+        settings.setJvmJobTimeoutMinutes(jvmTimeoutSpinner.getValue());
+        settings.setNativeJobTimeoutMinutes(nativeTimeoutSpinner.getValue());
+        settings.setAdbJobTimeoutMinutes(adbTimeoutSpinner.getValue());
+        if (commandExecutor != null) commandExecutor.applyLaneSettings(settings);
+        if (logConsole != null) logConsole.setCapacity(settings.getConsoleMaxLines());
         
         // Save to file
         try {
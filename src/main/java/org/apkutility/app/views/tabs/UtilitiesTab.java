@@ -4,11 +4,14 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import org.apkutility.app.apk.ZipAligner;
 import org.apkutility.app.services.InjectDocService;
 import org.apkutility.app.services.ZipAlignService;
 import org.apkutility.app.utils.UiUtils;
@@ -64,16 +67,38 @@ public class UtilitiesTab {
         zipGrid.add(zipInputLabel, 0, 0); zipGrid.add(zipInputField, 1, 0); zipGrid.add(browseZipInput, 2, 0);
         zipGrid.add(zipOutputLabel, 0, 1); zipGrid.add(zipOutputField, 1, 1); zipGrid.add(browseZipOutput, 2, 1);
 
+        Label pageLabel = new Label(".so Page Alignment");
+        ComboBox<String> pageCombo = new ComboBox<>();
+        pageCombo.getItems().addAll("None", "4 KB", "16 KB");
+        // None gives the same result as plain "zipalign -v 4"; page-aligning .so files changes the output, so it is opt-in
+        pageCombo.setValue("None");
+        pageCombo.setTooltip(new Tooltip("Also align uncompressed .so files to this page size (16 KB for devices with 16 KB pages)"));
+        zipGrid.add(pageLabel, 0, 2); zipGrid.add(pageCombo, 1, 2);
+
         Button alignButton = new Button("Sign / Align"); // Text simplified
         alignButton.getStyleClass().add("button-primary");
         alignButton.setOnAction(e -> {
             String input = zipInputField.getText();
             if(input.isEmpty()) { mainView.showError("Select input APK"); return; }
             String output = zipOutputField.getText().isEmpty() ? UiUtils.generateOutputFilePath(input, "_aligned") : zipOutputField.getText();
-            zipAlignService.alignApk(input, output);
+            zipAlignService.alignApk(input, output, soPageSize(pageCombo));
         });
 
-        zipCard.getChildren().addAll(zipTitle, zipGrid, alignButton);
+        Button verifyButton = new Button("Verify Alignment");
+        verifyButton.setOnAction(e -> {
+            String input = zipInputField.getText();
+            if(input.isEmpty()) { mainView.showError("Select input APK"); return; }
+            zipAlignService.verifyAlignment(input, soPageSize(pageCombo));
+        });
+
+        Button verifyFolderButton = new Button("Verify Folder");
+        verifyFolderButton.setOnAction(e -> {
+            File dir = UiUtils.directoryChooser.showDialog(null);
+            if (dir != null) zipAlignService.verifyAlignment(dir.getAbsolutePath(), soPageSize(pageCombo));
+        });
+
+        HBox zipButtons = new HBox(10, alignButton, verifyButton, verifyFolderButton);
+        zipCard.getChildren().addAll(zipTitle, zipGrid, zipButtons);
 
         // --- Inject Doc Card ---
         VBox docCard = new VBox(15);
@@ -105,4 +130,13 @@ public class UtilitiesTab {
         return root;
     }
 
+    /** Page size for a "None" / "4 KB" / "16 KB" .so alignment combo; also used by the signer tab. */
+    static int soPageSize(ComboBox<String> pageCombo) {
+        return switch (pageCombo.getValue()) {
+            case "4 KB" -> ZipAligner.PAGE_4K;
+            case "16 KB" -> ZipAligner.PAGE_16K;
+            default -> 0;
+        };
+    }
+
 }
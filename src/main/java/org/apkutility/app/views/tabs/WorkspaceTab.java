@@ -0,0 +1,192 @@
+package org.apkutility.app.views.tabs;
+
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import org.apkutility.app.services.SettingsManager;
+import org.apkutility.app.services.cache.WorkspaceIndex;
+import org.apkutility.app.views.MainView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Searchable table of the APKs in the default working directory, backed by {@link WorkspaceIndex}.
+ * The index is opened the first time the view is shown, and again when the working directory setting changed.
+ */
+public class WorkspaceTab {
+    private final MainView mainView;
+    private final ObservableList<WorkspaceIndex.ApkRecord> apks = FXCollections.observableArrayList();
+    private final FilteredList<WorkspaceIndex.ApkRecord> filteredApks = new FilteredList<>(apks);
+    private WorkspaceIndex index;
+    private Label statusLabel;
+
+    public WorkspaceTab(MainView mainView) {
+        this.mainView = mainView;
+    }
+
+    public Node createContent() {
+        VBox root = new VBox(20);
+        root.setPadding(new Insets(20));
+        root.getStyleClass().add("root-container");
+
+        VBox card = new VBox(15);
+        card.getStyleClass().add("card");
+        VBox.setVgrow(card, Priority.ALWAYS);
+        Label title = new Label("Workspace APKs");
+        title.getStyleClass().add("card-title");
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search path, package, version, ABI or signer...");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        searchField.textProperty().addListener((obs, old, text) -> {
+            String query = text.trim().toLowerCase(Locale.ROOT);
+            filteredApks.setPredicate(apk -> apk.matches(query));
+        });
+
+        Button rescanButton = new Button("Rescan");
+        rescanButton.setOnAction(e -> open(true));
+
+        statusLabel = new Label();
+        statusLabel.getStyleClass().add("status-label");
+
+        HBox toolbar = new HBox(10, searchField, rescanButton, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        TableView<WorkspaceIndex.ApkRecord> table = createTable();
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        card.getChildren().addAll(title, toolbar, table);
+        root.getChildren().add(card);
+
+        root.sceneProperty().addListener((obs, old, scene) -> {
+            if (scene != null) open(false);
+        });
+        return root;
+    }
+
+    private TableView<WorkspaceIndex.ApkRecord> createTable() {
+        TableView<WorkspaceIndex.ApkRecord> table = new TableView<>();
+        SortedList<WorkspaceIndex.ApkRecord> sortedApks = new SortedList<>(filteredApks);
+        sortedApks.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedApks);
+        table.setPlaceholder(new Label("No APKs in the workspace"));
+
+        TableColumn<WorkspaceIndex.ApkRecord, String> pathColumn = new TableColumn<>("APK");
+        pathColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().path()));
+        pathColumn.setPrefWidth(220);
+
+        TableColumn<WorkspaceIndex.ApkRecord, String> packageColumn = new TableColumn<>("Package");
+        packageColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(
+                data.getValue().error() != null ? "Error: " + data.getValue().error() : data.getValue().packageName()));
+        packageColumn.setPrefWidth(200);
+
+        TableColumn<WorkspaceIndex.ApkRecord, String> versionColumn = new TableColumn<>("Version");
+        versionColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(version(data.getValue())));
+        versionColumn.setPrefWidth(110);
+
+        TableColumn<WorkspaceIndex.ApkRecord, Integer> minSdkColumn = new TableColumn<>("Min SDK");
+        minSdkColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().minSdk()));
+
+        TableColumn<WorkspaceIndex.ApkRecord, Integer> targetSdkColumn = new TableColumn<>("Target SDK");
+        targetSdkColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().targetSdk()));
+
+        TableColumn<WorkspaceIndex.ApkRecord, Long> sizeColumn = new TableColumn<>("Size (KB)");
+        sizeColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().size() / 1024));
+
+        TableColumn<WorkspaceIndex.ApkRecord, String> abiColumn = new TableColumn<>("ABIs");
+        abiColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(String.join(" ", data.getValue().abis())));
+
+        TableColumn<WorkspaceIndex.ApkRecord, String> signerColumn = new TableColumn<>("Signer SHA-256");
+        signerColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().signerSha256()));
+        signerColumn.setPrefWidth(160);
+
+        table.getColumns().addAll(List.of(pathColumn, packageColumn, versionColumn, minSdkColumn, targetSdkColumn,
+                sizeColumn, abiColumn, signerColumn));
+
+        table.setRowFactory(view -> {
+            TableRow<WorkspaceIndex.ApkRecord> row = new TableRow<>();
+            MenuItem copyPath = new MenuItem("Copy Path");
+            copyPath.setOnAction(e -> copy(index.getWorkspace().resolve(row.getItem().path()).toString()));
+            MenuItem copySigner = new MenuItem("Copy Signer SHA-256");
+            copySigner.setOnAction(e -> copy(row.getItem().signerSha256()));
+            ContextMenu menu = new ContextMenu(copyPath, copySigner);
+            row.contextMenuProperty().bind(Bindings.when(row.emptyProperty())
+                    .then((ContextMenu) null).otherwise(menu));
+            return row;
+        });
+        return table;
+    }
+
+    /**
+     * Opens the index of the current working directory, unless it is already open; {@code reopen} forces a
+     * new walk of the workspace.
+     */
+    private void open(boolean reopen) {
+        Path workspace = Path.of(SettingsManager.getInstance().getSettings().getDefaultWorkingDir()).toAbsolutePath().normalize();
+        if (index != null && index.getWorkspace().equals(workspace) && !reopen) return;
+        close();
+        try {
+            index = WorkspaceIndex.open(workspace, snapshot -> Platform.runLater(() -> show(snapshot)));
+            statusLabel.setText("Opening " + workspace + "...");
+        } catch (IOException e) {
+            mainView.showError("Cannot index workspace: " + e.getMessage());
+        }
+    }
+
+    private void show(WorkspaceIndex.Snapshot snapshot) {
+        // Snapshots of an index that was replaced in the meantime
+        if (index == null || !index.getWorkspace().equals(snapshot.workspace())) return;
+        apks.setAll(snapshot.apks());
+        if (snapshot.message() != null) {
+            statusLabel.setText(snapshot.message());
+        } else if (!snapshot.scanned()) {
+            statusLabel.setText(snapshot.apks().size() + " APKs, checking for changes...");
+        } else if (snapshot.pending() > 0) {
+            statusLabel.setText(snapshot.apks().size() + " APKs, reading " + snapshot.pending() + "...");
+        } else {
+            statusLabel.setText(snapshot.apks().size() + " APKs");
+        }
+    }
+
+    public void close() {
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+    }
+
+    private static String version(WorkspaceIndex.ApkRecord apk) {
+        if (apk.error() != null) return "";
+        return apk.versionName().isEmpty() ? String.valueOf(apk.versionCode()) : apk.versionName() + " (" + apk.versionCode() + ")";
+    }
+
+    private static void copy(String text) {
+        ClipboardContent content = new ClipboardContent();
+        content.putString(text);
+        Clipboard.getSystemClipboard().setContent(content);
+    }
+}